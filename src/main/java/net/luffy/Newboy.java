@@ -17,6 +17,7 @@ import net.luffy.model.WeidianOrder;
 import net.luffy.util.ConfigOperator;
 import net.luffy.util.Properties;
 import net.luffy.util.PropertiesCommon;
+import net.luffy.util.sender.GroupSendHealthTracker;
 import net.luffy.util.sender.Pocket48Sender;
 import net.luffy.util.sender.WeidianItemSender;
 import net.luffy.util.sender.WeidianOrderSender;
@@ -24,6 +25,10 @@ import net.luffy.util.sender.WeidianOrderSender;
 import net.luffy.util.UnifiedSchedulerManager;
 import net.luffy.util.PerformanceMonitor;
 import net.luffy.util.AdaptiveThreadPoolManager;
+import net.luffy.util.BlockingTaskExecutor;
+import net.luffy.util.MonitorConfig;
+import net.luffy.util.TickEngine;
+import net.luffy.util.TickScope;
 import net.luffy.util.CpuLoadBalancer;
 import net.luffy.util.EventBusManager;
 import net.luffy.util.UnifiedMetricsManager;
@@ -36,9 +41,11 @@ import net.mamoe.mirai.console.plugin.jvm.JavaPlugin;
 import net.mamoe.mirai.console.plugin.jvm.JvmPluginDescriptionBuilder;
 import net.mamoe.mirai.event.GlobalEventChannel;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public final class Newboy extends JavaPlugin {
@@ -230,9 +237,16 @@ public final class Newboy extends JavaPlugin {
             // 关闭Pocket48相关组件
             shutdownPocket48Components();
             
+            // 停止微博监控并写入尚未落盘的最新微博ID
+            if (handlerWeibo != null) {
+                handlerWeibo.destroy();
+            }
+            
             EventBusManager.getInstance().shutdown();
             CpuLoadBalancer.getInstance().shutdown();
+            BlockingTaskExecutor.getInstance().shutdown();
             AdaptiveThreadPoolManager.getInstance().shutdown();
+            net.luffy.util.DedupJournal.getInstance().close();
             
             net.luffy.util.UnifiedJsonParser.getInstance().clearCache();
             
@@ -330,30 +344,47 @@ public final class Newboy extends JavaPlugin {
                 @Override
                 public void run() {
                     if (getHandlerPocket48().isLogin()) {
-                        HashMap<Long, Pocket48SenderCache> cache = new HashMap<>();
-
-                        for (Bot b : Bot.getInstances()) {
-                            for (long group : properties.pocket48_subscribe.keySet()) {
-                                if (b.getGroup(group) == null)
-                                    continue;
-
-                                if (!pocket48RoomEndTime.containsKey(group)) {
-                                    HashMap<Long, Long> groupEndTime = new HashMap<>();
-                                    Pocket48Subscribe subscribe = properties.pocket48_subscribe.get(group);
-                                    if (subscribe != null && subscribe.getRoomIDs() != null) {
-                                        long currentTime = System.currentTimeMillis();
-                                        for (Long roomId : subscribe.getRoomIDs()) {
-                                            groupEndTime.put(roomId, currentTime);
+                        // 同一轮的发送任务并发执行，共享缓存需要同步
+                        Map<Long, Pocket48SenderCache> cache = Collections.synchronizedMap(new HashMap<>());
+
+                        // 上一轮未结束时跳过本轮，超过时限整轮取消
+                        TickScope tick = TickEngine.getInstance().begin("pocket48",
+                                MonitorConfig.getInstance().getPocket48TickTimeout());
+                        if (tick == null)
+                            return;
+
+                        try {
+                            for (Bot b : Bot.getInstances()) {
+                                for (long group : properties.pocket48_subscribe.keySet()) {
+                                    if (b.getGroup(group) == null)
+                                        continue;
+
+                                    // 熔断中的群跳过本轮拉取与媒体准备，并限制恢复后补发的积压
+                                    if (!GroupSendHealthTracker.getInstance().allowSend(b, group)) {
+                                        GroupSendHealthTracker.getInstance().capBacklog(pocket48RoomEndTime.get(group));
+                                        continue;
+                                    }
+
+                                    if (!pocket48RoomEndTime.containsKey(group)) {
+                                        HashMap<Long, Long> groupEndTime = new HashMap<>();
+                                        Pocket48Subscribe subscribe = properties.pocket48_subscribe.get(group);
+                                        if (subscribe != null && subscribe.getRoomIDs() != null) {
+                                            // 从去重日志续接，重启期间的消息不会被跳过
+                                            for (Long roomId : subscribe.getRoomIDs()) {
+                                                groupEndTime.put(roomId, Pocket48SenderCache.resumeTime(roomId));
+                                            }
                                         }
+                                        pocket48RoomEndTime.put(group, groupEndTime);
+                                        pocket48VoiceStatus.put(group, new HashMap<>());
                                     }
-                                    pocket48RoomEndTime.put(group, groupEndTime);
-                                    pocket48VoiceStatus.put(group, new HashMap<>());
-                                }
 
-                                AdaptiveThreadPoolManager.getInstance().execute(new Pocket48Sender(b, group, pocket48RoomEndTime.get(group),
-                                        pocket48VoiceStatus.get(group), cache));
+                                    tick.fork("pocket48", new Pocket48Sender(b, group, pocket48RoomEndTime.get(group),
+                                            pocket48VoiceStatus.get(group), cache));
 
+                                }
                             }
+                        } finally {
+                            tick.seal();
                         }
                     } else {
                         getLogger()
@@ -368,7 +399,7 @@ public final class Newboy extends JavaPlugin {
         handlerWeidian.setCronScheduleID(scheduler.schedule(properties.weidian_pattern_order, new Runnable() {
             @Override
             public void run() {
-                HashMap<WeidianCookie, WeidianOrder[]> cache = new HashMap<>();
+                Map<WeidianCookie, WeidianOrder[]> cache = Collections.synchronizedMap(new HashMap<>());
                 Set<Long> processedGroups = new HashSet<>();
                 
                 // 检查配置状态
@@ -388,34 +419,50 @@ public final class Newboy extends JavaPlugin {
                 int deliverOnlyTaskCount = 0;
                 int skippedGroupCount = 0;
 
-                for (Bot b : Bot.getInstances()) {
-                    for (long group : properties.weidian_cookie.keySet()) {
-                        WeidianCookie cookie = properties.weidian_cookie.get(group);
-                        if (cookie == null) {
-                            skippedGroupCount++;
-                            continue;
-                        }
+                // 上一轮未结束时跳过本轮，超过时限整轮取消
+                TickScope tick = TickEngine.getInstance().begin("weidian.order",
+                        MonitorConfig.getInstance().getWeidianTickTimeout());
+                if (tick == null) {
+                    return;
+                }
 
-                        if (!weidianEndTime.containsKey(group)) {
-                            weidianEndTime.put(group, new EndTime());
-                        }
+                try {
+                    for (Bot b : Bot.getInstances()) {
+                        for (long group : properties.weidian_cookie.keySet()) {
+                            WeidianCookie cookie = properties.weidian_cookie.get(group);
+                            if (cookie == null) {
+                                skippedGroupCount++;
+                                continue;
+                            }
 
-                        // 如果需要播报且机器人在群中
-                        if (cookie.doBroadcast && b.getGroup(group) != null) {
-                            AdaptiveThreadPoolManager.getInstance().execute(new WeidianOrderSender(b, group, weidianEndTime.get(group), handlerWeidianSender, cache));
-                            processedGroups.add(group);
-                            broadcastTaskCount++;
-                        }
-                        // 如果只需要自动发货且还未处理过
-                        else if (cookie.autoDeliver && !processedGroups.contains(group)) {
-                            AdaptiveThreadPoolManager.getInstance().execute(new WeidianOrderSender(null, group, weidianEndTime.get(group), handlerWeidianSender, cache));
-                            processedGroups.add(group);
-                            deliverOnlyTaskCount++;
-                        }
-                        else {
-                            skippedGroupCount++;
+                            if (!weidianEndTime.containsKey(group)) {
+                                weidianEndTime.put(group, new EndTime());
+                            }
+
+                            // 如果需要播报且机器人在群中（熔断中的群降级为仅自动发货）
+                            boolean broadcastTarget = cookie.doBroadcast && b.getGroup(group) != null;
+                            if (broadcastTarget && GroupSendHealthTracker.getInstance().allowSend(b, group)) {
+                                tick.fork("weidian", new WeidianOrderSender(b, group, weidianEndTime.get(group), handlerWeidianSender, cache));
+                                processedGroups.add(group);
+                                broadcastTaskCount++;
+                            }
+                            // 如果只需要自动发货且还未处理过
+                            else if (cookie.autoDeliver && !processedGroups.contains(group)) {
+                                tick.fork("weidian", new WeidianOrderSender(null, group, weidianEndTime.get(group), handlerWeidianSender, cache));
+                                processedGroups.add(group);
+                                deliverOnlyTaskCount++;
+                            }
+                            else {
+                                // 熔断中的仅播报群不拉取订单，推进起点以免恢复后集中补播整个熔断期间的订单
+                                if (broadcastTarget) {
+                                    GroupSendHealthTracker.getInstance().capBacklog(weidianEndTime.get(group));
+                                }
+                                skippedGroupCount++;
+                            }
                         }
                     }
+                } finally {
+                    tick.seal();
                 }
             }
         }));
@@ -439,22 +486,38 @@ public final class Newboy extends JavaPlugin {
                 int itemBroadcastTaskCount = 0;
                 int skippedGroupCount = 0;
 
-                for (Bot b : Bot.getInstances()) {
-                    for (long group : properties.weidian_cookie.keySet()) {
-                        WeidianCookie cookie = properties.weidian_cookie.get(group);
-                        if (cookie == null) {
-                            skippedGroupCount++;
-                            continue;
-                        }
+                // 上一轮未结束时跳过本轮，超过时限整轮取消
+                TickScope tick = TickEngine.getInstance().begin("weidian.item",
+                        MonitorConfig.getInstance().getWeidianTickTimeout());
+                if (tick == null) {
+                    return;
+                }
+
+                try {
+                    for (Bot b : Bot.getInstances()) {
+                        for (long group : properties.weidian_cookie.keySet()) {
+                            WeidianCookie cookie = properties.weidian_cookie.get(group);
+                            if (cookie == null) {
+                                skippedGroupCount++;
+                                continue;
+                            }
                         
-                        if (b.getGroup(group) == null) {
-                            skippedGroupCount++;
-                            continue;
-                        }
+                            if (b.getGroup(group) == null) {
+                                skippedGroupCount++;
+                                continue;
+                            }
 
-                        AdaptiveThreadPoolManager.getInstance().execute(new WeidianItemSender(b, group, handlerWeidianSender));
-                        itemBroadcastTaskCount++;
+                            if (!GroupSendHealthTracker.getInstance().allowSend(b, group)) {
+                                skippedGroupCount++;
+                                continue;
+                            }
+
+                            tick.fork("weidian", new WeidianItemSender(b, group, handlerWeidianSender));
+                            itemBroadcastTaskCount++;
+                        }
                     }
+                } finally {
+                    tick.seal();
                 }
             }
         }));
@@ -28,6 +28,7 @@ import net.luffy.util.Properties;
 import net.luffy.model.WeidianCookie;
 import net.luffy.model.Pocket48Subscribe;
 import net.luffy.util.DouyinMonitorService;
+import net.luffy.util.sender.GroupSendHealthTracker;
 import net.luffy.service.WeiboApiService;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -150,6 +151,9 @@ public class CustomPrefixCommand {
             case "stats":
             case "统计":
                 return getComprehensiveReport();
+            case "health":
+            case "健康":
+                return getSendHealthInfo(parts, group, senderId);
             case "help":
             case "帮助":
                 return getHelpMessage();
@@ -158,6 +162,31 @@ public class CustomPrefixCommand {
         }
     }
     
+    /**
+     * 获取群发送熔断状态；群内附带本群状态，管理员可用reset|重置手动解除本群熔断
+     * @param parts 命令参数数组
+     * @param group 群组（私聊时为null）
+     * @param senderId 发送者ID
+     * @return 熔断状态消息
+     */
+    private static Message getSendHealthInfo(String[] parts, Group group, long senderId) {
+        GroupSendHealthTracker tracker = GroupSendHealthTracker.getInstance();
+        if (group == null) {
+            return new PlainText(tracker.getHealthReport());
+        }
+        
+        GroupSendHealthTracker.State state = tracker.getState(group.getBot(), group.getId());
+        if (parts.length > 2 && ("reset".equalsIgnoreCase(parts[2]) || "重置".equals(parts[2]))) {
+            if (!Newboy.INSTANCE.getConfig().isAdmin(group, senderId)) {
+                return new PlainText("❌ 只有管理员可以重置群发送状态");
+            }
+            tracker.reset(group.getBot(), group.getId());
+            return new PlainText("✅ 已重置本群发送状态（原状态: " + state + "）");
+        }
+        
+        return new PlainText("本群发送状态: " + state + "\n" + tracker.getHealthReport());
+    }
+    
     /**
      * 获取系统信息
      * @return 系统信息消息
@@ -199,6 +228,8 @@ public class CustomPrefixCommand {
             ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
             int totalThreads = threadBean.getThreadCount();
             systemInfo.append(String.format("  活跃线程数: %d\n", totalThreads));
+            systemInfo.append("  ").append(net.luffy.util.BlockingTaskExecutor.getInstance().getStats()).append("\n");
+            systemInfo.append("  ").append(net.luffy.util.TickEngine.getInstance().getStats()).append("\n");
         } catch (Exception e) {
             systemInfo.append("  ❌ 无法获取线程信息\n");
         }
@@ -221,6 +252,9 @@ public class CustomPrefixCommand {
                 pocket48Groups, weiboUserGroups + weiboTopicGroups, weidianGroups, douyinGroups));
         }
         
+        // 群发送熔断状态
+        systemInfo.append("\n🚦 ").append(GroupSendHealthTracker.getInstance().getHealthReport());
+        
         systemInfo.append("\n💡 提示: 使用以下命令获取详细信息:\n");
         systemInfo.append("  !nb 报告 - 综合状态报告\n");
         systemInfo.append("  !nb 监控 - 监控状态报告\n");
@@ -470,6 +504,14 @@ public class CustomPrefixCommand {
             try {
                 net.luffy.util.UnifiedHttpClient httpClient = net.luffy.util.UnifiedHttpClient.getInstance();
                 report.append(httpClient.getPerformanceStats());
+                report.append("\n").append(httpClient.getConnectionStats());
+                report.append("\n").append(httpClient.getSingleFlightStats());
+                report.append("\n").append(httpClient.getConcurrencyLimitStats());
+                report.append("\n").append(net.luffy.util.RequestHedger.getInstance().getHedgeStats());
+                report.append("\n").append(httpClient.getDnsStats());
+                report.append("\n").append(httpClient.getResponseCacheStats());
+                report.append("\n").append(net.luffy.util.UnifiedJsonParser.getInstance().getCacheStats());
+                report.append("\n").append(net.luffy.util.RetryEngine.getInstance().getStats());
             } catch (Exception e) {
                 report.append("❌ HTTP性能统计获取失败: " + e.getMessage());
             }
@@ -783,6 +825,7 @@ public class CustomPrefixCommand {
                 "  !newboy performance|性能 - 查看详细性能报告 (增强版)\n" +
                 "  !newboy monitor|监控 - 查看系统监控报告 (实时监控)\n" +
                 "  !newboy report|报告|stats|统计 - 查看综合性能报告 (全面统计)\n" +
+                "  !newboy health|健康 [reset|重置] - 查看群发送熔断状态，管理员可重置本群\n" +
                 "  !newboy help|帮助 - 显示此帮助信息\n" +
                 "  #nb info - 简短别名形式\n" +
                 "  #nb performance - 详细性能数据\n" +
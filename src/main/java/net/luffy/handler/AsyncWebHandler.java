@@ -89,7 +89,8 @@ public class AsyncWebHandler {
         // 统计由UnifiedHttpClient处理，避免重复计数
         lastRequestTime = System.currentTimeMillis();
         
-        return unifiedClient.postAsync(url, formBody, getXox48Headers())
+        // 同一成员的并发查询共享一次请求
+        return unifiedClient.postSharedAsync(url, formBody, getXox48Headers())
                 .whenComplete((result, throwable) -> {
                     // 记录到全局性能监控器
                     try {
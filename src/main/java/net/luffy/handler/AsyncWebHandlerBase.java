@@ -1,6 +1,7 @@
 package net.luffy.handler;
 
 import net.luffy.Newboy;
+import net.luffy.util.ConditionalResponseCache;
 import net.luffy.util.Properties;
 import net.luffy.util.MonitorConfig;
 import net.luffy.util.UnifiedHttpClient;
@@ -15,6 +16,7 @@ import java.io.InputStream;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * 异步Web处理器基类
@@ -113,6 +115,63 @@ public class AsyncWebHandlerBase {
         return executeHttpRequest(() -> UnifiedHttpClient.getInstance().get(url, headers).getBody(), "GET");
     }
     
+    /**
+     * 使用指定超时配置档的同步GET请求
+     */
+    protected String get(UnifiedHttpClient.TimeoutProfile profile, String url, Map<String, String> headers) {
+        return executeHttpRequest(() -> UnifiedHttpClient.getInstance().get(profile, url, headers).getBody(), "GET");
+    }
+    
+    /**
+     * 合并并发相同请求的同步GET（同URL进行中时共享响应）
+     */
+    protected String getShared(UnifiedHttpClient.TimeoutProfile profile, String url, Map<String, String> headers) {
+        return executeHttpRequest(() -> UnifiedHttpClient.getInstance().getShared(profile, url, headers).getBody(), "GET");
+    }
+    
+    /**
+     * 合并并发相同请求的同步POST（同URL和请求体进行中时共享响应）
+     */
+    protected String postShared(String url, String body, Map<String, String> headers) {
+        return executeHttpRequest(() -> UnifiedHttpClient.getInstance().postShared(url, body, headers), "POST");
+    }
+    
+    /**
+     * 条件GET请求：内容未变化（304或响应体哈希一致）时直接返回上次的解析结果，不再调用parser
+     * @param endpoint 接口名，用于区分缓存及统计
+     */
+    protected <T> ConditionalResponseCache.Result<T> getConditional(UnifiedHttpClient.TimeoutProfile profile, String endpoint,
+                                                                    String url, Map<String, String> headers,
+                                                                    Function<String, T> parser) {
+        try {
+            return UnifiedHttpClient.getInstance().getConditional(profile, endpoint, url, headers, parser);
+        } catch (Exception e) {
+            throw new RuntimeException("GET请求失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 同步GET请求，JSON响应直接从字节流解码为指定类型
+     */
+    protected <T> T getJson(UnifiedHttpClient.TimeoutProfile profile, String url, Map<String, String> headers, Class<T> type) {
+        try {
+            return UnifiedHttpClient.getInstance().getJson(profile, url, headers, type);
+        } catch (Exception e) {
+            throw new RuntimeException("GET请求失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 同步POST请求，JSON响应直接从字节流解码为指定类型
+     */
+    protected <T> T postJson(UnifiedHttpClient.TimeoutProfile profile, String url, String body, Map<String, String> headers, Class<T> type) {
+        try {
+            return UnifiedHttpClient.getInstance().postJson(profile, url, body, headers, type);
+        } catch (Exception e) {
+            throw new RuntimeException("POST请求失败: " + e.getMessage(), e);
+        }
+    }
+    
     /**
      * 异步POST请求 - 使用统一HTTP客户端
      */
@@ -7,9 +7,12 @@ import net.luffy.Newboy;
 import net.luffy.util.UnifiedJsonParser;
 import net.luffy.util.UnifiedHttpClient;
 import net.luffy.model.Pocket48Message;
+import net.luffy.model.Pocket48MessageList;
 import net.luffy.model.Pocket48RoomInfo;
 import net.luffy.util.DynamicTimeoutManager;
 import net.luffy.util.MonitorConfig;
+import net.luffy.util.RequestHedger;
+import net.luffy.util.RetryEngine;
 import net.luffy.util.UnifiedLogger;
 import net.luffy.util.sender.Pocket48Sender;
 import net.luffy.util.ConcurrencySafetyUtils;
@@ -18,12 +21,17 @@ import net.luffy.model.Pocket48RoomInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class Pocket48Handler extends AsyncWebHandlerBase {
 
@@ -105,7 +113,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
             
             JSONObject object = jsonParser.parseObj(s);
             if (object.getInt("status") == 200) {
-                JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
+                JSONObject content = jsonParser.asJSONObject(object.getObj("content"));
                 login(content.getStr("token"), true);
                 return true;
             } else {
@@ -219,12 +227,13 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
     }
 
     public JSONObject getUserInfo(long starID) {
-        String s = post(APIUserInfo, String.format("{\"userId\":%d}", starID), getPocket48Headers());
+        // 多个发送器常同时查询同一成员，合并并发的相同请求
+        String s = postShared(APIUserInfo, String.format("{\"userId\":%d}", starID), getPocket48Headers());
         JSONObject object = jsonParser.parseObj(s);
 
         if (object.getInt("status") == 200) {
-            JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
-            return jsonParser.parseObj(content.getObj("baseUserInfo").toString());
+            JSONObject content = jsonParser.asJSONObject(object.getObj("content"));
+            return jsonParser.asJSONObject(content.getObj("baseUserInfo"));
 
         } else {
             String message = object.getStr("message");
@@ -243,7 +252,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         JSONObject object = jsonParser.parseObj(s);
 
         if (object.getInt("status") == 200) {
-            return jsonParser.parseObj(object.getObj("content").toString());
+            return jsonParser.asJSONObject(object.getObj("content"));
 
         } else {
             logError(starID + object.getStr("message"));
@@ -265,7 +274,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         JSONObject object = jsonParser.parseObj(s);
 
         if (object.getInt("status") == 200) {
-            return jsonParser.parseObj(object.getObj("content").toString());
+            return jsonParser.asJSONObject(object.getObj("content"));
 
         } else {
             logError(starID + object.getStr("message"));
@@ -287,7 +296,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
     public Long getServerIDByStarID(long starID) {
         JSONObject content = getJumpContent(starID);
         if (content != null) {
-            JSONObject serverInfo = jsonParser.parseObj(content.getObj("jumpServerInfo").toString());
+            JSONObject serverInfo = jsonParser.asJSONObject(content.getObj("jumpServerInfo"));
             if (serverInfo != null) {
                 return serverInfo.getLong("serverId");
             }
@@ -300,10 +309,10 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         JSONObject object = jsonParser.parseObj(s);
 
         if (object.getInt("status") == 200) {
-            JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
+            JSONObject content = jsonParser.asJSONObject(object.getObj("content"));
             List<Long> rs = new ArrayList<>();
             for (Object room : content.getBeanList("lastMsgList", Object.class)) {
-                rs.add(jsonParser.parseObj(room.toString()).getLong("channelId"));
+                rs.add(jsonParser.asJSONObject(room).getLong("channelId"));
             }
             return rs.toArray(new Long[0]);
 
@@ -319,14 +328,14 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
             String response = post(APIChannel2Server, requestBody, getPocket48Headers());
             JSONObject object = jsonParser.parseObj(response);
             if (object.getInt("status") == 200) {
-                JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
-                JSONObject roomInfo = jsonParser.parseObj(content.getObj("channelInfo").toString());
+                JSONObject content = jsonParser.asJSONObject(object.getObj("content"));
+                JSONObject roomInfo = jsonParser.asJSONObject(content.getObj("channelInfo"));
                 return new Pocket48RoomInfo(roomInfo);
 
             } else if (object.getInt("status") == 2001
                     && object.getStr("message").indexOf("question") != -1) {
                 // 对于加密房间，解析question信息并返回LockedRoomInfo
-                JSONObject message = jsonParser.parseObj(object.getObj("message").toString());
+                JSONObject message = jsonParser.asJSONObject(object.getObj("message"));
                 String question = message.getStr("question");
                 return new Pocket48RoomInfo.LockedRoomInfo(question + "？",
                         null, roomID);
@@ -344,7 +353,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         JSONObject object = jsonParser.parseObj(s);
 
         if (object.getInt("status") == 200) {
-            JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
+            JSONObject content = jsonParser.asJSONObject(object.getObj("content"));
             if (content.containsKey("serverApiList")) {
                 JSONArray a = content.getJSONArray("serverApiList");
                 return a.stream().toArray();
@@ -371,7 +380,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
             List<Pocket48RoomInfo> roomInfoList = new ArrayList<>();
             for (Object result : searchResults) {
                 try {
-                    JSONObject resultObj = jsonParser.parseObj(result.toString());
+                    JSONObject resultObj = jsonParser.asJSONObject(result);
                     // 从搜索结果中提取房间信息
                     if (resultObj.containsKey("channelId")) {
                         long channelId = resultObj.getLong("channelId");
@@ -398,7 +407,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         JSONObject object = jsonParser.parseObj(s);
 
         if (object.getInt("status") == 200) {
-            JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
+            JSONObject content = jsonParser.asJSONObject(object.getObj("content"));
             return content.getStr("userName");
 
         } else {
@@ -417,7 +426,8 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         if (!endTime.containsKey(roomID))
             return CompletableFuture.completedFuture(null);
 
-        return getOriMessagesAsync(roomID, roomInfo.getSeverId()).thenApply(msgs -> {
+        CompletableFuture<List<Pocket48MessageList.Item>> source = getOriMessagesAsync(roomID, roomInfo.getSeverId());
+        CompletableFuture<Pocket48Message[]> result = source.thenApply(msgs -> {
             if (msgs != null) {
                 List<Pocket48Message> rs = new ArrayList<>();
                 long latest = 0;
@@ -426,9 +436,8 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
                 // 修复：记录处理的消息时间戳，确保endTime正确更新
                 List<Long> processedTimestamps = new ArrayList<>();
                 
-                for (Object message : msgs) {
-                    JSONObject m = jsonParser.parseObj(message.toString());
-                    long time = m.getLong("msgTime");
+                for (Pocket48MessageList.Item m : msgs) {
+                    long time = m.getMsgTime();
 
                     // 修复：使用严格的大于比较，避免重复处理相同时间戳的消息
                     if (currentEndTime >= time)
@@ -462,6 +471,20 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
             }
             return new Pocket48Message[0];
         });
+        // 取消结果时一并取消底层请求（最终取消OkHttp Call），此时endTime不会推进
+        return propagateCancel(source, result);
+    }
+    
+    /**
+     * 派生future被取消时一并取消源future（CompletableFuture的取消不会自动向上游传递）
+     */
+    private static <S, T> CompletableFuture<T> propagateCancel(CompletableFuture<S> source, CompletableFuture<T> derived) {
+        derived.whenComplete((r, e) -> {
+            if (derived.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return derived;
     }
 
 
@@ -482,11 +505,8 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         return getOriMessagesAsync(roomID, roomInfo.getSeverId()).thenApply(msgs -> {
             if (msgs != null) {
                 List<Pocket48Message> rs = new ArrayList<>();
-                for (Object message : msgs) {
-                    rs.add(Pocket48Message.construct(
-                            roomInfo,
-                            jsonParser.parseObj(message.toString())
-                    ));
+                for (Pocket48MessageList.Item message : msgs) {
+                    rs.add(Pocket48Message.construct(roomInfo, message));
                 }
                 return rs.toArray(new Pocket48Message[0]);
             }
@@ -516,8 +536,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         return getOriMessagesAsync(roomID, serverID).thenApply(msgs -> {
             if (msgs != null && !msgs.isEmpty()) {
                 // 获取第一条消息（已按时间倒序排列）
-                JSONObject firstMsg = jsonParser.parseObj(msgs.get(0).toString());
-                return firstMsg.getLong("msgTime");
+                return msgs.get(0).getMsgTime();
             }
             // 如果没有消息，返回当前时间戳
             return System.currentTimeMillis();
@@ -529,7 +548,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
 
     
     //异步获取未整理的消息（集成快速失败和动态超时优化版）
-    private CompletableFuture<List<Object>> getOriMessagesAsync(long roomID, long serverID) {
+    private CompletableFuture<List<Pocket48MessageList.Item>> getOriMessagesAsync(long roomID, long serverID) {
         // 对于加密房间（serverId为0或负数），尝试从配置中获取serverId
         if (serverID <= 0) {
             if (properties.pocket48_serverID.containsKey(roomID)) {
@@ -549,102 +568,76 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         
         // 获取动态超时配置
         DynamicTimeoutManager.Pocket48TimeoutConfig timeoutConfig = timeoutManager.getPocket48DynamicConfig();
-        int maxRetries = timeoutConfig.getMaxRetries();
-        long baseDelay = timeoutConfig.getRetryDelay();
         
         // 记录开始时间用于性能监控
         long startTime = System.currentTimeMillis();
         
-        // 异步重试逻辑
-        return attemptRequestAsync(roomID, serverID, timeoutConfig, 0, maxRetries, baseDelay, startTime);
+        // 异步请求，重试由统一重试引擎负责
+        return requestMessagesAsync(roomID, serverID, timeoutConfig, startTime);
     }
     
     /**
-     * 异步重试请求方法
+     * 异步获取房间消息列表，失败时由统一重试引擎按主机预算退避重试
+     * 消息列表查询为只读请求，按幂等处理
      */
-    private CompletableFuture<List<Object>> attemptRequestAsync(long roomID, long serverID, 
-                                                               DynamicTimeoutManager.Pocket48TimeoutConfig timeoutConfig,
-                                                               int attempt, int maxRetries, long baseDelay, long startTime) {
+    private CompletableFuture<List<Pocket48MessageList.Item>> requestMessagesAsync(long roomID, long serverID,
+                                                                 DynamicTimeoutManager.Pocket48TimeoutConfig timeoutConfig,
+                                                                 long startTime) {
         // 优化：添加更多请求参数以提高API响应速度
         String requestBody = String.format(
             "{\"nextTime\":0,\"serverId\":%d,\"channelId\":%d,\"limit\":30,\"order\":1,\"needTop\":false}", 
             serverID, roomID
         );
         
-        // 使用异步HTTP请求
-        return httpClient.postWithTimeoutAsync(APIMsgOwner, requestBody, getPocket48Headers(), 
-                timeoutConfig.getConnectTimeout(), timeoutConfig.getReadTimeout())
-            .thenCompose(response -> {
-                try {
-                    JSONObject object = jsonParser.parseObj(response);
-                    
-                    if (object.getInt("status") == 200) {
-                        JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
-                        List<Object> out = content.getBeanList("message", Object.class);
-                        // 优化：使用更高效的排序方式
-                        out.sort((a, b) -> {
-                            long timeA = jsonParser.parseObj(a.toString()).getLong("msgTime");
-                            long timeB = jsonParser.parseObj(b.toString()).getLong("msgTime");
-                            return Long.compare(timeB, timeA);
-                        });
-                        
-                        // 记录成功请求的性能数据（仅在异常情况下显示）
-                        long duration = System.currentTimeMillis() - startTime;
-                        if (duration > 500 || attempt > 0) {
-                            logger.warn("[性能监控] 口袋48消息获取异常 - 房间ID: {}, 耗时: {}ms, 尝试次数: {}", 
-                                roomID, duration, attempt + 1);
-                        }
-                        
-                        return CompletableFuture.completedFuture(out);
-                    } else {
-                        String errorMsg = String.format("[Pocket48Handler] API错误 - 房间ID: %d, 服务器ID: %d, 状态码: %d, 尝试: %d/%d", 
-                            roomID, serverID, object.getInt("status"), attempt + 1, maxRetries);
-                        
-                        if (attempt >= maxRetries - 1) {
-                            logError(errorMsg + " - 最终失败");
-                            return CompletableFuture.completedFuture(null);
-                        } else {
-                            logger.warn("{} - 准备重试", errorMsg);
-                            // 移除延迟，直接重试
-                            return attemptRequestAsync(roomID, serverID, timeoutConfig, attempt + 1, maxRetries, baseDelay, startTime);
-                        }
-                    }
-                } catch (Exception e) {
-                    String errorMsg = String.format("[Pocket48Handler] 解析异常 - 房间ID: %d, 服务器ID: %d, 尝试: %d/%d, 错误: %s", 
-                        roomID, serverID, attempt + 1, maxRetries, e.getMessage());
-                    
-                    if (attempt >= maxRetries - 1) {
-                        logError(errorMsg + " - 最终失败");
-                        return CompletableFuture.completedFuture(null);
-                    } else {
-                        logger.warn("{} - 准备重试", errorMsg);
-                        // 移除延迟，直接重试
-                        return attemptRequestAsync(roomID, serverID, timeoutConfig, attempt + 1, maxRetries, baseDelay, startTime);
-                    }
-                }
-            })
-            .exceptionally(throwable -> {
-                String errorMsg = String.format("[Pocket48Handler] 网络异常 - 房间ID: %d, 服务器ID: %d, 尝试: %d/%d, 错误: %s", 
-                    roomID, serverID, attempt + 1, maxRetries, throwable.getMessage());
-                
-                if (attempt >= maxRetries - 1) {
-                    logError(errorMsg + " - 最终失败");
-                    long duration = System.currentTimeMillis() - startTime;
+        AtomicInteger attempts = new AtomicInteger(0);
+        CompletableFuture<List<Pocket48MessageList.Item>> retried = RetryEngine.getInstance().executeAsync(APIMsgOwner, true,
+                timeoutConfig.getMaxRetries(), timeoutConfig.getRetryDelay(), () -> {
+                    attempts.incrementAndGet();
+                    return fetchMessagesOnce(roomID, serverID, requestBody, timeoutConfig);
+                });
+        return propagateCancel(retried, retried.handle((out, throwable) -> {
+                long duration = System.currentTimeMillis() - startTime;
+                if (throwable != null) {
+                    logError(String.format("[Pocket48Handler] 消息获取最终失败 - 房间ID: %d, 服务器ID: %d, 尝试: %d次, 错误: %s", 
+                        roomID, serverID, attempts.get(), throwable.getMessage()));
                     logger.error("[性能监控] 口袋48消息获取失败 - 房间ID: {}, 总耗时: {}ms, 总尝试次数: {}", 
-                        roomID, duration, maxRetries);
+                        roomID, duration, attempts.get());
                     return null;
-                } else {
-                    logger.warn("{} - 准备重试", errorMsg);
-                    // 移除延迟，直接重试，同时移除超时等待
-                    try {
-                        return attemptRequestAsync(roomID, serverID, timeoutConfig, attempt + 1, maxRetries, baseDelay, startTime)
-                            .join(); // 移除超时限制，直接获取结果
-                    } catch (Exception ex) {
-                        logger.warn("[Pocket48Handler] 异常重试请求失败 - 房间ID: {}, 尝试: {}/{}", roomID, attempt + 1, maxRetries);
-                        return null;
-                    }
                 }
-            });
+                // 记录成功请求的性能数据（仅在异常情况下显示）
+                if (duration > 500 || attempts.get() > 1) {
+                    logger.warn("[性能监控] 口袋48消息获取异常 - 房间ID: {}, 耗时: {}ms, 尝试次数: {}", 
+                        roomID, duration, attempts.get());
+                }
+                return out;
+            }));
+    }
+    
+    /**
+     * 单次消息列表请求；API返回非200状态时以IOException结束，交由重试引擎判断
+     */
+    private CompletableFuture<List<Pocket48MessageList.Item>> fetchMessagesOnce(long roomID, long serverID, String requestBody,
+                                                              DynamicTimeoutManager.Pocket48TimeoutConfig timeoutConfig) {
+        // 启用对冲时主请求超过P95延迟未返回则发出备份请求
+        Supplier<CompletableFuture<String>> request = () -> httpClient.postWithTimeoutAsync(
+                UnifiedHttpClient.TimeoutProfile.POCKET48, APIMsgOwner, requestBody, getPocket48Headers(),
+                timeoutConfig.getConnectTimeout(), timeoutConfig.getReadTimeout());
+        CompletableFuture<String> responseFuture = MonitorConfig.getInstance().isPocket48HedgeEnabled()
+                ? RequestHedger.getInstance().execute("pocket48.message.list", request)
+                : request.get();
+        
+        return propagateCancel(responseFuture, responseFuture.thenApply(response -> {
+            // 直接绑定为类型化响应，每条消息只解析一次
+            Pocket48MessageList list = jsonParser.readValue(response, Pocket48MessageList.class);
+            int status = list.getStatus();
+            if (status != 200) {
+                throw new CompletionException(new IOException(String.format(
+                    "口袋48 API错误 - 房间ID: %d, 服务器ID: %d, 状态码: %d", roomID, serverID, status)));
+            }
+            List<Pocket48MessageList.Item> out = new ArrayList<>(list.getMessages());
+            out.sort(Comparator.comparingLong(Pocket48MessageList.Item::getMsgTime).reversed());
+            return out;
+        }));
     }
 
     public List<Long> getRoomVoiceList(long roomID, long serverID) {
@@ -664,12 +657,12 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
             JSONObject object = jsonParser.parseObj(s);
             
             if (object.getInt("status") == 200) {
-                JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
+                JSONObject content = jsonParser.asJSONObject(object.getObj("content"));
                 JSONArray a = content.getJSONArray("voiceUserList");
                 List<Long> l = new ArrayList<>();
                 if (a.size() > 0) {
                     for (Object star_ : a.stream().toArray()) {
-                        JSONObject star = jsonParser.parseObj(star_.toString());
+                        JSONObject star = jsonParser.asJSONObject(star_);
                         long starID = star.getLong("userId");
                         l.add(starID);
 
@@ -697,7 +690,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         JSONObject object = jsonParser.parseObj(s);
 
         if (object.getInt("status") == 200) {
-            JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
+            JSONObject content = jsonParser.asJSONObject(object.getObj("content"));
             return content.getBeanList("liveList", Object.class);
 
         } else {
@@ -712,7 +705,7 @@ public class Pocket48Handler extends AsyncWebHandlerBase {
         JSONObject object = jsonParser.parseObj(s);
 
         if (object.getInt("status") == 200) {
-            JSONObject content = jsonParser.parseObj(object.getObj("content").toString());
+            JSONObject content = jsonParser.asJSONObject(object.getObj("content"));
             return content.getBeanList("liveList", Object.class);
 
         } else {
@@ -7,6 +7,7 @@ import net.luffy.util.UnifiedHttpClient;
 
 import java.io.InputStream;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * 同步Web处理器基类
@@ -83,6 +84,23 @@ public class SyncWebHandler {
         }
     }
 
+    /**
+     * 条件GET请求：内容未变化（304或响应体哈希一致）时直接返回上次的解析结果，不再调用parser
+     * @param endpoint 接口名，用于区分缓存及统计
+     * @param url 请求URL
+     * @param headers 请求头
+     * @param parser 响应体解析函数
+     * @return 解析结果
+     */
+    protected <T> T getConditional(String endpoint, String url, Map<String, String> headers, Function<String, T> parser) {
+        try {
+            return UnifiedHttpClient.getInstance()
+                    .getConditional(UnifiedHttpClient.TimeoutProfile.DEFAULT, endpoint, url, headers, parser).getValue();
+        } catch (Exception e) {
+            throw new RuntimeException("GET请求失败: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * 获取资源输入流
      * @param url 资源URL
@@ -11,7 +11,9 @@ import net.luffy.util.StringMatchUtils;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class WeidianHandler extends SyncWebHandler {
 
@@ -39,6 +41,21 @@ public class WeidianHandler extends SyncWebHandler {
         return setHeader(HttpRequest.get(url), cookie).execute().body();
     }
 
+    //与setHeader一致的请求头，供统一HTTP客户端使用（Host与Accept-Encoding由客户端处理）
+    private Map<String, String> getHeaders(WeidianCookie cookie) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("sec-ch-ua", "\"Google Chrome\";v=\"107\", \"Chromium\";v=\"107\", \"Not=A?Brand\";v=\"24\"");
+        headers.put("Accept", "application/json, */*");
+        headers.put("sec-ch-ua-mobile", "?0");
+        headers.put("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/107.0.0.0 Safari/537.36");
+        headers.put("Sec-Fetch-Site", "same-site");
+        headers.put("Sec-Fetch-Mode", "cors");
+        headers.put("Sec-Fetch-Dest", "empty");
+        headers.put("Accept-Language", "zh-CN,zh;q=0.9,en-US;q=0.8,en;q=0.7,zh-TW;q=0.6");
+        headers.put("Cookie", cookie.cookie);
+        return headers;
+    }
+
     private JSONArray getOriOrderList(WeidianCookie cookie) {
         //获取【待发货】列表中的订单
         String s = post(APIOrderList, "param={\"listType\":0,\"pageNum\":0,\"pageSize\":40,\"statusList\":[\"paid\"],\"refundStatusList\":[],\"channel\":\"pc\",\"shipRole\":0,\"orderIdList\":\"\",\"itemTitle\":\"\",\"buyerName\":\"\",\"timeSearch\":{},\"orderBizType\":\"\",\"promotionType\":\"\",\"shipType\":\"\",\"newGhSearchSellerRole\":7,\"memberLevel\":\"all\",\"repayStatus\":2,\"bSellerId\":\"\",\"itemSource\":\"\",\"shipper\":\"\",\"nSellerName\":\"\",\"partnerName\":\"\",\"noteSearchCondition\":{\"buyerNote\":\"\"},\"specialOrderSearchCondition\":{\"notShowGroupUnsuccess\":0,\"notShowFxOrder\":0,\"notShowUnRepayOrder\":0,\"notShowBuyerRepayOrder\":0,\"showAllPeriodOrder\":0,\"notShowTencentShopOrder\":0,\"notShowWithoutTimelinessOrder\":0},\"orderType\":4}&wdtoken=" + cookie.wdtoken, cookie);
@@ -232,7 +249,12 @@ public class WeidianHandler extends SyncWebHandler {
     }
 
     public WeidianItem getItemWithSkus(long itemId) {
-        String s = get(String.format(APISkuInfo, itemId));
+        //SKU信息很少变化，响应未变时直接复用上次解析的商品
+        return getConditional("weidian.skuInfo", String.format(APISkuInfo, itemId), null,
+                s -> parseItemWithSkus(itemId, s));
+    }
+
+    private WeidianItem parseItemWithSkus(long itemId, String s) {
         JSONObject object = JSONUtil.parseObj(s);
         if (object.getJSONObject("status").getInt("code") == 0) {
             JSONObject result = object.getJSONObject("result");
@@ -264,34 +286,11 @@ public class WeidianHandler extends SyncWebHandler {
         
         for (int retry = 0; retry <= maxRetries; retry++) {
             try {
-                String s = get(APIItemList + cookie.wdtoken, cookie);
-                
-                // 检查响应是否为空或无效
-                if (s == null || s.trim().isEmpty()) {
-                    if (retry < maxRetries) {
-                        Thread.sleep(1000); // 等待1秒后重试
-                        continue;
-                    }
-                    return null;
-                }
-
-                JSONObject object = JSONUtil.parseObj(s);
-                if (object.getJSONObject("status").getInt("code") == 0) {
-                    JSONObject result = object.getJSONObject("result");
-                    JSONArray data = result.getJSONArray("dataList");
-                    List<WeidianItem> items = new ArrayList<>();
-                    for (Object item_ : data.toArray(new Object[0])) {
-                        JSONObject item = JSONUtil.parseObj(item_);
-                        long id = item.getLong("itemId");
-                        String name = item.getStr("itemName");
-                        String pic = item.getStr("imgHead");
-                        items.add(new WeidianItem(id, name, pic));
-                    }
-                    return items.toArray(new WeidianItem[0]);
-                } else {
-                    // API返回错误状态码，可能是真正的Cookie失效
-                    return null;
-                }
+                //商品列表未变时复用上次解析结果，返回副本避免调用方修改共享数组
+                WeidianItem[] items = getConditional("weidian.itemList", APIItemList + cookie.wdtoken,
+                        getHeaders(cookie), this::parseItems);
+                // API返回错误状态码时为null，可能是真正的Cookie失效
+                return items != null ? items.clone() : null;
             } catch (Exception e) {
                 lastException = e;
                 if (retry < maxRetries) {
@@ -311,6 +310,29 @@ public class WeidianHandler extends SyncWebHandler {
         return null;
     }
 
+    private WeidianItem[] parseItems(String s) {
+        // 检查响应是否为空或无效，抛出异常以触发重试
+        if (s == null || s.trim().isEmpty()) {
+            throw new IllegalStateException("微店商品列表响应为空");
+        }
+
+        JSONObject object = JSONUtil.parseObj(s);
+        if (object.getJSONObject("status").getInt("code") == 0) {
+            JSONObject result = object.getJSONObject("result");
+            JSONArray data = result.getJSONArray("dataList");
+            List<WeidianItem> items = new ArrayList<>();
+            for (Object item_ : data.toArray(new Object[0])) {
+                JSONObject item = JSONUtil.parseObj(item_);
+                long id = item.getLong("itemId");
+                String name = item.getStr("itemName");
+                String pic = item.getStr("imgHead");
+                items.add(new WeidianItem(id, name, pic));
+            }
+            return items.toArray(new WeidianItem[0]);
+        }
+        return null;
+    }
+
     public WeidianItem searchItem(WeidianCookie cookie, long id) {
         for (WeidianItem item : getItems(cookie)) {
             if (item.id == id)
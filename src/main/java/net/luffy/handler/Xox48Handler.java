@@ -123,8 +123,7 @@ public class Xox48Handler extends AsyncWebHandlerBase {
                     if (batchResult.isSuccess()) {
                         try {
                             // 解析批量查询结果为OnlineStatusResult
-                            JSONObject jsonResponse = jsonParser.parseObj(batchResult.getRawResponse());
-                            return parseOnlineStatusResponse(jsonResponse, normalizedName);
+                            return parseOnlineStatusResponse(batchResult.getRawResponse(), normalizedName);
                         } catch (Exception e) {
                             return new OnlineStatusResult(false, "解析响应失败: " + e.getMessage(), 
                                 normalizedName, -1, null, null, null);
@@ -192,8 +191,7 @@ public class Xox48Handler extends AsyncWebHandlerBase {
                             .map(batchResult -> {
                                 if (batchResult.isSuccess()) {
                                     try {
-                                        JSONObject jsonResponse = jsonParser.parseObj(batchResult.getRawResponse());
-                                        return parseOnlineStatusResponse(jsonResponse, batchResult.getMemberName());
+                                        return parseOnlineStatusResponse(batchResult.getRawResponse(), batchResult.getMemberName());
                                     } catch (Exception e) {
                                         return new OnlineStatusResult(false, "解析响应失败: " + e.getMessage(), 
                                             batchResult.getMemberName(), -1, null, null, null);
@@ -251,27 +249,24 @@ public class Xox48Handler extends AsyncWebHandlerBase {
 
     /**
      * 解析API响应 - 高性能优化版本
-     * 使用流式解析和快速字段提取
+     * 先在原始响应上流式检查状态字段，失败响应不构建完整对象；成功时只解析一次
      */
-    private OnlineStatusResult parseOnlineStatusResponse(JSONObject response, String queryName) {
-        // 使用高性能JSON解析器进行快速字段提取
+    private OnlineStatusResult parseOnlineStatusResponse(String responseStr, String queryName) {
+        // 快速检查API响应状态
+        if (!net.luffy.util.JsonOptimizer.isApiResponseSuccess(responseStr)) {
+            String msg = net.luffy.util.JsonOptimizer.fastExtractMsg(responseStr);
+            String error = net.luffy.util.JsonOptimizer.fastExtractError(responseStr);
+            String errorMsg = msg != null ? msg : (error != null ? "错误码异常: " + error : "API响应失败");
+            return new OnlineStatusResult(false, errorMsg, queryName, -1, null, null, null);
+        }
+        
+        JSONObject response = jsonParser.parseObj(responseStr);
         try {
-            String responseStr = response.toString();
-            
-            // 快速检查API响应状态
-            if (!net.luffy.util.JsonOptimizer.isApiResponseSuccess(responseStr)) {
-                String msg = net.luffy.util.JsonOptimizer.fastExtractMsg(responseStr);
-                String error = net.luffy.util.JsonOptimizer.fastExtractError(responseStr);
-                String errorMsg = msg != null ? msg : (error != null ? "错误码异常: " + error : "API响应失败");
-                return new OnlineStatusResult(false, errorMsg, queryName, -1, null, null, null);
-            }
-            
-            // 使用统一解析器提取关键字段
-            JSONObject tempResponse = net.luffy.util.UnifiedJsonParser.getInstance().parseObj(responseStr);
+            // 提取关键字段
             java.util.Map<String, Object> fields = new java.util.HashMap<>();
-            fields.put("data", tempResponse.get("data"));
-            fields.put("msg", tempResponse.get("msg"));
-            fields.put("error", tempResponse.get("error"));
+            fields.put("data", response.get("data"));
+            fields.put("msg", response.get("msg"));
+            fields.put("error", response.get("error"));
             
             // 处理嵌套的data字段
             Object dataObj = fields.get("data");
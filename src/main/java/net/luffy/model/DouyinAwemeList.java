@@ -0,0 +1,139 @@
+package net.luffy.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 抖音用户作品列表响应（/aweme/v1/web/aweme/post/）
+ * 由Jackson从响应字节流直接绑定，只保留监控需要的字段，单个作品中体积很大的视频、音乐等字段在解码时跳过
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class DouyinAwemeList {
+
+    private final int statusCode;
+    private final String statusMsg;
+    private final List<Aweme> awemeList;
+
+    @JsonCreator
+    public DouyinAwemeList(@JsonProperty("status_code") Integer statusCode,
+                           @JsonProperty("status_msg") String statusMsg,
+                           @JsonProperty("aweme_list") List<Aweme> awemeList) {
+        this.statusCode = statusCode != null ? statusCode : -1;
+        this.statusMsg = statusMsg;
+        this.awemeList = awemeList != null
+                ? Collections.unmodifiableList(new ArrayList<>(awemeList))
+                : Collections.emptyList();
+    }
+
+    /**
+     * 接口状态码，0表示成功，缺失时为-1
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getStatusMsg() {
+        return statusMsg;
+    }
+
+    /**
+     * 作品列表，按发布时间倒序
+     */
+    public List<Aweme> getAwemeList() {
+        return awemeList;
+    }
+
+    /**
+     * 单个作品
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static final class Aweme {
+        private final String awemeId;
+        private final String desc;
+        private final long createTime;
+        private final String authorNickname;
+        private final long diggCount;
+        private final long commentCount;
+        private final long shareCount;
+
+        @JsonCreator
+        public Aweme(@JsonProperty("aweme_id") String awemeId,
+                     @JsonProperty("desc") String desc,
+                     @JsonProperty("create_time") long createTime,
+                     @JsonProperty("author") Author author,
+                     @JsonProperty("statistics") Statistics statistics) {
+            this.awemeId = awemeId;
+            this.desc = desc != null ? desc : "";
+            this.createTime = createTime;
+            this.authorNickname = author != null ? author.nickname : null;
+            this.diggCount = statistics != null ? statistics.diggCount : 0;
+            this.commentCount = statistics != null ? statistics.commentCount : 0;
+            this.shareCount = statistics != null ? statistics.shareCount : 0;
+        }
+
+        public String getAwemeId() {
+            return awemeId;
+        }
+
+        public String getDesc() {
+            return desc;
+        }
+
+        /**
+         * 发布时间（秒）
+         */
+        public long getCreateTime() {
+            return createTime;
+        }
+
+        /**
+         * 作者昵称，响应中没有作者信息时为null
+         */
+        public String getAuthorNickname() {
+            return authorNickname;
+        }
+
+        public long getDiggCount() {
+            return diggCount;
+        }
+
+        public long getCommentCount() {
+            return commentCount;
+        }
+
+        public long getShareCount() {
+            return shareCount;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static final class Author {
+        private final String nickname;
+
+        @JsonCreator
+        private Author(@JsonProperty("nickname") String nickname) {
+            this.nickname = nickname;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static final class Statistics {
+        private final long diggCount;
+        private final long commentCount;
+        private final long shareCount;
+
+        @JsonCreator
+        private Statistics(@JsonProperty("digg_count") long diggCount,
+                           @JsonProperty("comment_count") long commentCount,
+                           @JsonProperty("share_count") long shareCount) {
+            this.diggCount = diggCount;
+            this.commentCount = commentCount;
+            this.shareCount = shareCount;
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package net.luffy.model;
 
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
 import net.luffy.Newboy;
 import net.luffy.handler.Pocket48Handler;
+import net.luffy.util.JsonView;
 import net.luffy.util.UnifiedJsonParser;
 import java.util.List;
 import java.util.ArrayList;
@@ -45,13 +44,14 @@ public class Pocket48Message {
         this.body = body;
         this.time = time;
         
-        // 初始化新增字段
-        this.resourceUrl = extractResourceUrl(body, type);
-        this.thumbnailUrl = extractThumbnailUrl(body, type);
-        this.metadata = extractMetadata(body, type);
-        this.resourceUrls = extractAllResourceUrls(body, type);
+        // 初始化新增字段，消息体只解析一次
+        JsonView bodyView = parseBody(body);
+        this.resourceUrl = extractResourceUrl(bodyView, type);
+        this.thumbnailUrl = extractThumbnailUrl(bodyView, type);
+        this.metadata = extractMetadata(bodyView, type);
+        this.resourceUrls = extractAllResourceUrls(bodyView, type);
         this.contentType = extractContentType(body, type);
-        this.fileSize = extractFileSize(body, type);
+        this.fileSize = extractFileSize(bodyView, type);
         this.messageId = generateMessageId(room, time, nickName);
         this.sequenceNumber = 0; // 将由MessageIntegrityChecker设置
     }
@@ -76,14 +76,14 @@ public class Pocket48Message {
         this.sequenceNumber = sequenceNumber;
     }
 
-    public static Pocket48Message construct(Pocket48RoomInfo roomInfo, JSONObject m) {
-        JSONObject extInfo = getJsonParser().parseObj(m.getObj("extInfo").toString());
-        JSONObject user = getJsonParser().parseObj(extInfo.getObj("user").toString());
+    public static Pocket48Message construct(Pocket48RoomInfo roomInfo, Pocket48MessageList.Item m) {
+        JsonView extInfo = m.getExtInfo();
+        JsonView user = extInfo.getObj("user");
         
         String nickName = user.getStr("nickName");
-        String msgType = m.getStr("msgType");
-        String bodys = m.getStr("bodys");
-        long msgTime = m.getLong("msgTime");
+        String msgType = m.getMsgType();
+        String bodys = m.getBodys();
+        long msgTime = m.getMsgTime();
         int userId = user.getInt("userId");
         String starName = Newboy.INSTANCE.getHandlerPocket48().getStarNameByStarID(userId);
         
@@ -100,7 +100,7 @@ public class Pocket48Message {
         Map<String, Object> additionalMetadata = new HashMap<>(message.getMetadata());
         
         // 提取消息ID（如果JSON中有的话）
-        String msgId = m.getStr("msgIdClient");
+        String msgId = m.getMsgIdClient();
         if (msgId != null && !msgId.isEmpty()) {
             additionalMetadata.put("originalMsgId", msgId);
         }
@@ -109,7 +109,7 @@ public class Pocket48Message {
         additionalMetadata.put("userId", userId);
         
         // 提取扩展信息
-        if (extInfo != null) {
+        if (!extInfo.isEmpty()) {
             additionalMetadata.put("extInfo", extInfo.toString());
         }
         
@@ -143,7 +143,7 @@ public class Pocket48Message {
 
     public String getText() {
         if (getType() == Pocket48MessageType.GIFT_TEXT) {
-            JSONObject info = getJsonParser().parseObj(getJsonParser().parseObj(getBody()).getObj("giftInfo").toString());
+            JsonView info = getJsonParser().parseView(getBody()).getObj("giftInfo");
             return "送给 " + info.getStr("userName") + " " + info.getInt("giftNum") + "个" + info.getStr("giftName");
         }
         return getBody();
@@ -238,11 +238,11 @@ public class Pocket48Message {
     //IMAGE,EXPRESSIMAGE,AUDIO,VIDEO
     public String getResLoc() {
         if (getType() == Pocket48MessageType.EXPRESSIMAGE) {
-            return jsonParser.parseObj(jsonParser.parseObj(getBody()).getObj("expressImgInfo").toString()).getStr("emotionRemote");
+            return getJsonParser().parseView(getBody()).getObj("expressImgInfo").getStr("emotionRemote");
         }
         if (getType() == Pocket48MessageType.IMAGE || getType() == Pocket48MessageType.AUDIO
                 || getType() == Pocket48MessageType.VIDEO) {
-            return jsonParser.parseObj(getBody()).getStr("url");
+            return getJsonParser().parseView(getBody()).getStr("url");
         }
 
         return null;
@@ -252,7 +252,7 @@ public class Pocket48Message {
     public String getExt() {
         if (getType() == Pocket48MessageType.IMAGE || getType() == Pocket48MessageType.AUDIO
                 || getType() == Pocket48MessageType.VIDEO) {
-            return jsonParser.parseObj(getBody()).getStr("ext");
+            return getJsonParser().parseView(getBody()).getStr("ext");
         }
         return null;
     }
@@ -260,7 +260,7 @@ public class Pocket48Message {
     public long getDuration() {
         if (getType() == Pocket48MessageType.AUDIO
                 || getType() == Pocket48MessageType.VIDEO) {
-            return jsonParser.parseObj(getBody()).getLong("dur");
+            return getJsonParser().parseView(getBody()).getLong("dur");
         }
         return 0;
     }
@@ -271,9 +271,8 @@ public class Pocket48Message {
         if (!isGift && getType() != Pocket48MessageType.REPLY)//非回复消息
             return null;
 
-        JSONObject object = jsonParser.parseObj(getBody());
-        JSONObject content = jsonParser.parseObj(object.getObj(
-                isGift ? "giftReplyInfo" : "replyInfo").toString());
+        JsonView content = getJsonParser().parseView(getBody()).getObj(
+                isGift ? "giftReplyInfo" : "replyInfo");
         return new Pocket48Reply(
                 content.getStr("replyName"),
                 content.getStr("replyText"),
@@ -286,9 +285,7 @@ public class Pocket48Message {
         if (getType() != Pocket48MessageType.LIVEPUSH)
             return null;
 
-        JSONObject object = jsonParser.parseObj(getBody());
-        JSONObject content = jsonParser.parseObj(object.getObj(
-                "livePushInfo").toString());
+        JsonView content = getJsonParser().parseView(getBody()).getObj("livePushInfo");
         return new Pocket48LivePush(
                 Pocket48Handler.SOURCEROOT + content.getStr("liveCover").substring(1),
                 content.getStr("liveTitle"),
@@ -302,9 +299,7 @@ public class Pocket48Message {
                 && getType() != Pocket48MessageType.FLIPCARD_VIDEO)
             return null;
 
-        JSONObject object = jsonParser.parseObj(getBody());
-        JSONObject content = jsonParser.parseObj(object.getObj(
-                "filpCardInfo").toString());
+        JsonView content = getJsonParser().parseView(getBody()).getObj("filpCardInfo");
         return new Pocket48Answer(
                 content.getStr("question"),
                 content.getStr("answer"),
@@ -315,16 +310,23 @@ public class Pocket48Message {
     }
     
     // 资源提取辅助方法
-    private String extractResourceUrl(String body, String type) {
+    private static JsonView parseBody(String body) {
+        try {
+            return getJsonParser().parseView(body);
+        } catch (Exception e) {
+            // 文本消息等消息体不是JSON，按空对象处理
+            return JsonView.EMPTY;
+        }
+    }
+    
+    private String extractResourceUrl(JsonView bodyObj, String type) {
         try {
             Pocket48MessageType msgType = Pocket48MessageType.valueOf(type);
             if (msgType == Pocket48MessageType.IMAGE || msgType == Pocket48MessageType.AUDIO || msgType == Pocket48MessageType.VIDEO) {
-                JSONObject bodyObj = getJsonParser().parseObj(body);
                 return bodyObj.getStr("url");
             } else if (msgType == Pocket48MessageType.EXPRESSIMAGE) {
-                JSONObject bodyObj = getJsonParser().parseObj(body);
-                JSONObject expressInfo = getJsonParser().parseObj(bodyObj.getObj("expressImgInfo").toString());
-                return expressInfo.getStr("emotionRemote");
+                JsonView expressInfo = bodyObj.getObj("expressImgInfo");
+                return expressInfo != null ? expressInfo.getStr("emotionRemote") : null;
             }
         } catch (Exception e) {
             // 忽略解析错误
@@ -332,11 +334,10 @@ public class Pocket48Message {
         return null;
     }
     
-    private String extractThumbnailUrl(String body, String type) {
+    private String extractThumbnailUrl(JsonView bodyObj, String type) {
         try {
             Pocket48MessageType msgType = Pocket48MessageType.valueOf(type);
             if (msgType == Pocket48MessageType.VIDEO) {
-                JSONObject bodyObj = getJsonParser().parseObj(body);
                 return bodyObj.getStr("thumbnailUrl");
             }
         } catch (Exception e) {
@@ -345,10 +346,9 @@ public class Pocket48Message {
         return null;
     }
     
-    private Map<String, Object> extractMetadata(String body, String type) {
+    private Map<String, Object> extractMetadata(JsonView bodyObj, String type) {
         Map<String, Object> metadata = new HashMap<>();
         try {
-            JSONObject bodyObj = getJsonParser().parseObj(body);
             Pocket48MessageType msgType = Pocket48MessageType.valueOf(type);
             
             if (msgType == Pocket48MessageType.AUDIO || msgType == Pocket48MessageType.VIDEO) {
@@ -370,13 +370,13 @@ public class Pocket48Message {
         return metadata;
     }
     
-    private List<String> extractAllResourceUrls(String body, String type) {
+    private List<String> extractAllResourceUrls(JsonView bodyObj, String type) {
         List<String> urls = new ArrayList<>();
-        String primaryUrl = extractResourceUrl(body, type);
+        String primaryUrl = extractResourceUrl(bodyObj, type);
         if (primaryUrl != null) {
             urls.add(primaryUrl);
         }
-        String thumbnailUrl = extractThumbnailUrl(body, type);
+        String thumbnailUrl = extractThumbnailUrl(bodyObj, type);
         if (thumbnailUrl != null && !thumbnailUrl.equals(primaryUrl)) {
             urls.add(thumbnailUrl);
         }
@@ -407,9 +407,8 @@ public class Pocket48Message {
         }
     }
     
-    private long extractFileSize(String body, String type) {
+    private long extractFileSize(JsonView bodyObj, String type) {
         try {
-            JSONObject bodyObj = getJsonParser().parseObj(body);
             Long size = bodyObj.getLong("size");
             return size != null ? size : 0L;
         } catch (Exception e) {
@@ -0,0 +1,114 @@
+package net.luffy.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import net.luffy.util.JsonView;
+import net.luffy.util.UnifiedJsonParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 口袋48房间消息列表响应（/im/api/v1/team/message/list/homeowner）
+ * 由Jackson直接绑定，只保留轮询需要的字段，创建后不可修改
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public final class Pocket48MessageList {
+
+    private final int status;
+    private final String message;
+    private final List<Item> messages;
+
+    @JsonCreator
+    public Pocket48MessageList(@JsonProperty("status") int status,
+                               @JsonProperty("message") String message,
+                               @JsonProperty("content") Content content) {
+        this.status = status;
+        this.message = message;
+        this.messages = content != null && content.message != null
+                ? Collections.unmodifiableList(new ArrayList<>(content.message))
+                : Collections.emptyList();
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public List<Item> getMessages() {
+        return messages;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static final class Content {
+        private final List<Item> message;
+
+        @JsonCreator
+        private Content(@JsonProperty("message") List<Item> message) {
+            this.message = message;
+        }
+    }
+
+    /**
+     * 单条房间消息
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static final class Item {
+        private final String msgIdClient;
+        private final long msgTime;
+        private final String msgType;
+        private final String bodys;
+        private final JsonNode extInfo;
+        // extInfo解析后的视图，首次访问时生成；并发首次访问至多重复解析一次，结果相同
+        private volatile JsonView extInfoView;
+
+        @JsonCreator
+        public Item(@JsonProperty("msgIdClient") String msgIdClient,
+                    @JsonProperty("msgTime") long msgTime,
+                    @JsonProperty("msgType") String msgType,
+                    @JsonProperty("bodys") String bodys,
+                    @JsonProperty("extInfo") JsonNode extInfo) {
+            this.msgIdClient = msgIdClient;
+            this.msgTime = msgTime;
+            this.msgType = msgType;
+            this.bodys = bodys;
+            this.extInfo = extInfo;
+        }
+
+        public String getMsgIdClient() {
+            return msgIdClient;
+        }
+
+        public long getMsgTime() {
+            return msgTime;
+        }
+
+        public String getMsgType() {
+            return msgType;
+        }
+
+        public String getBodys() {
+            return bodys;
+        }
+
+        /**
+         * 扩展信息（发送者等），接口以字符串形式返回JSON，此处只解析一次
+         */
+        public JsonView getExtInfo() {
+            JsonView view = extInfoView;
+            if (view == null) {
+                view = extInfo != null && extInfo.isTextual()
+                        ? UnifiedJsonParser.getInstance().parseView(extInfo.textValue())
+                        : JsonView.of(extInfo);
+                extInfoView = view;
+            }
+            return view;
+        }
+    }
+}
@@ -9,6 +9,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import net.luffy.util.DedupJournal;
+import net.luffy.util.MonitorConfig;
+import net.luffy.util.TickScope;
 import net.luffy.util.UnifiedSchedulerManager;
 
 import static net.luffy.model.EndTime.newTime;
@@ -51,18 +54,17 @@ public class Pocket48SenderCache {
             // 移除对serverId的检查，允许加密房间（serverId为0或null）正常创建缓存
             // 加密房间现在可以正常处理，只是消息和语音列表会为空
 
-            // 第二步：初始化时间戳 - 回退：使用当前时间避免反复推送最后一条消息
+            // 第二步：初始化时间戳 - 从去重日志中最后推送的消息时间续接，避免漏掉重启期间的消息；
+            // 没有记录时使用当前时间，避免处理历史消息。已推送的消息由去重日志过滤，不会重复推送
             if (!endTime.containsKey(roomID)) {
-                // 使用当前时间戳，避免处理历史消息和反复推送最新消息
-                endTime.put(roomID, System.currentTimeMillis());
+                endTime.put(roomID, resumeTime(roomID));
             }
 
             // 第三步：获取消息列表（非关键步骤，失败可使用空数组）
             Pocket48Message[] messages = new Pocket48Message[0]; // 默认为空数组
             try {
-                // 使用异步获取消息，但需要同步等待结果来构建缓存
-                // 这里的get()调用是必要的，因为需要立即构建完整的缓存对象
-                Pocket48Message[] fetchedMessages = pocket.getMessagesAsync(roomInfo, endTime).get();
+                // 需要同步等待结果来构建缓存；在监控轮次中等待时，轮次取消会一并取消该请求
+                Pocket48Message[] fetchedMessages = TickScope.await(pocket.getMessagesAsync(roomInfo, endTime));
                 if (fetchedMessages != null) {
                     messages = fetchedMessages;
                     // 移除正常情况下的信息日志，减少日志噪音
@@ -100,6 +102,15 @@ public class Pocket48SenderCache {
         }
     }
 
+    /**
+     * 房间的续接时间：去重日志中已推送消息的最大时间，最多回溯catchup.minutes分钟；没有记录时为当前时间
+     */
+    public static long resumeTime(long roomID) {
+        return DedupJournal.getInstance().resumeTime(DedupJournal.Source.POCKET48, String.valueOf(roomID),
+                System.currentTimeMillis(),
+                TimeUnit.MINUTES.toMillis(MonitorConfig.getInstance().getDedupJournalCatchupMinutes()));
+    }
+
     public void addMessage(Pocket48Message message) {
         List<Pocket48Message> messages1 = new ArrayList<>(Arrays.asList(this.messages));
         messages1.add(message);
@@ -11,6 +11,9 @@ public class Pocket48SenderMessage {
     private final Message title;
     private final Message[] message;
     private boolean specific = false;//第一条消息可以合并
+    // 来源消息，全部发送成功后据此写入去重日志
+    private long sourceRoomId;
+    private Pocket48Message source;
 
 
     public Pocket48SenderMessage(boolean canJoin, Message title, Message[] message) {
@@ -59,4 +62,17 @@ public class Pocket48SenderMessage {
         this.specific = true;
         return this;
     }
+
+    public void setSource(long roomId, Pocket48Message source) {
+        this.sourceRoomId = roomId;
+        this.source = source;
+    }
+
+    public long getSourceRoomId() {
+        return sourceRoomId;
+    }
+
+    public Pocket48Message getSource() {
+        return source;
+    }
 }
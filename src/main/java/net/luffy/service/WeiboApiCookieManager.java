@@ -3,33 +3,69 @@ package net.luffy.service;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import net.luffy.util.SingleFlight;
 import net.luffy.util.UnifiedLogger;
+import net.luffy.util.UnifiedMetricsManager;
+import net.luffy.util.UnifiedSchedulerManager;
 
 /**
  * 微博API Cookie管理器
  * 负责动态获取和管理微博API所需的Cookie
+ * Cookie在到期前由后台定时刷新，同一时刻只有一次刷新在进行；刷新期间及刷新失败时调用方继续使用当前Cookie，
+ * 新Cookie获取成功后整体替换。请求返回4xx或要求登录时立即触发刷新。
+ * 后台刷新在专用的单个线程上执行，不与其他任务共用线程池；首次获取由调用线程直接执行
  */
 public class WeiboApiCookieManager {
     
-    // 使用System.out替代日志记录
-    
     // 微博相关URL
     private static final String WEIBO_HOMEPAGE = "https://weibo.cn/pub/";
     private static final String WEIBO_API_BASE = "https://m.weibo.cn/api/";
     
-    // Cookie存储
-    private final Map<String, String> cookieStore = new ConcurrentHashMap<>();
-    private LocalDateTime lastUpdateTime;
-    
     // Cookie有效期（分钟）
     private static final int COOKIE_VALIDITY_MINUTES = 30;
+    // 到期前提前刷新的时间（分钟）
+    private static final int REFRESH_AHEAD_MINUTES = 3;
+    // 刷新失败后的重试间隔（秒）
+    private static final int REFRESH_RETRY_SECONDS = 60;
+    // 获取Cookie请求的连接和读取超时（秒），首次获取时调用方最多等待该时间的数倍（含重定向）
+    private static final int REFRESH_TIMEOUT_SECONDS = 10;
+    // 失效触发刷新的冷却时间，同一批失败的请求只触发一次刷新
+    private static final long INVALIDATION_COOLDOWN_MS = 30_000;
+    private static final String REFRESH_KEY = "weibo.cookie.refresh";
+    
+    // 当前使用的Cookie，刷新成功后整体替换，读取不加锁
+    private volatile CookieSnapshot current;
+    private final SingleFlight refreshFlight = new SingleFlight();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "WeiboCookie-Refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ScheduledFuture<?> scheduledRefresh;
+    private final AtomicLong lastInvalidationTime = new AtomicLong(0);
+    
+    // 刷新统计
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder invalidationRefreshes = new LongAdder();
+    private final LongAdder totalRefreshMs = new LongAdder();
+    private final AtomicLong maxRefreshMs = new AtomicLong(0);
+    private volatile long lastRefreshMs;
     
     // 标记是否为首次初始化
-    private boolean isFirstInitialization = true;
+    private volatile boolean isFirstInitialization = true;
     
     // 单例实例
     private static volatile WeiboApiCookieManager instance;
@@ -54,18 +90,30 @@ public class WeiboApiCookieManager {
     
     /**
      * 获取有效的Cookie字符串
-     * 如果Cookie过期或不存在，会自动刷新
+     * 只有尚未获取过Cookie时才等待刷新，其余情况直接返回当前Cookie
      */
     public String getValidCookies() {
         try {
-            if (needsRefresh()) {
-                refreshCookies();
+            CookieSnapshot snapshot = current;
+            if (snapshot == null) {
+                // 首次使用：由当前线程直接获取，并发的调用方共享同一次刷新
+                refreshFlight.execute(REFRESH_KEY, () -> {
+                    if (current == null) {
+                        doRefresh("首次获取");
+                    }
+                    return null;
+                });
+                snapshot = current;
+            } else if (snapshot.isExpired()) {
+                // 定时刷新未能按时完成（如上次刷新失败），继续使用当前Cookie并在后台刷新
+                refreshAsync("已过期");
             }
-            return formatCookiesForRequest();
+            return snapshot != null ? snapshot.header : getDefaultCookies();
         } catch (Exception e) {
             UnifiedLogger.getInstance().error("WeiboApiCookieManager", 
                 "获取Cookie失败: " + e.getMessage(), e);
-            return getDefaultCookies();
+            CookieSnapshot snapshot = current;
+            return snapshot != null ? snapshot.header : getDefaultCookies();
         }
     }
     
@@ -73,46 +121,113 @@ public class WeiboApiCookieManager {
      * 检查是否需要刷新Cookie
      */
     private boolean needsRefresh() {
-        if (cookieStore.isEmpty() || lastUpdateTime == null) {
-            return true;
+        CookieSnapshot snapshot = current;
+        return snapshot == null || snapshot.isExpired();
+    }
+    
+    /**
+     * 报告Cookie失效（请求返回4xx或要求登录），立即在后台刷新
+     * 冷却时间内或Cookie刚刚更新过时不重复刷新
+     * @param reason 失效原因，用于日志
+     */
+    public void invalidate(String reason) {
+        long now = System.currentTimeMillis();
+        long last = lastInvalidationTime.get();
+        CookieSnapshot snapshot = current;
+        if (now - last < INVALIDATION_COOLDOWN_MS
+                || (snapshot != null && now - snapshot.installedAt < INVALIDATION_COOLDOWN_MS)
+                || !lastInvalidationTime.compareAndSet(last, now)) {
+            return;
+        }
+        invalidationRefreshes.increment();
+        UnifiedLogger.getInstance().warn("WeiboApiCookieManager", "Cookie可能已失效（" + reason + "），立即刷新");
+        refreshAsync("失效: " + reason);
+    }
+    
+    /**
+     * 刷新Cookie（阻塞直到本次刷新结束）
+     */
+    public void refreshCookies() {
+        try {
+            refreshAsync("手动刷新").join();
+        } catch (Exception e) {
+            UnifiedLogger.getInstance().error("WeiboApiCookieManager", 
+                "刷新Cookie失败: " + e.getMessage(), e);
         }
-        
-        LocalDateTime expireTime = lastUpdateTime.plusMinutes(COOKIE_VALIDITY_MINUTES);
-        return LocalDateTime.now().isAfter(expireTime);
     }
     
     /**
-     * 刷新Cookie
+     * 在后台刷新Cookie，已有刷新在进行时共享其结果
      */
-    public synchronized void refreshCookies() {
+    private CompletableFuture<Void> refreshAsync(String reason) {
+        return refreshFlight.executeAsync(REFRESH_KEY, () -> CompletableFuture.runAsync(() -> doRefresh(reason), refreshExecutor));
+    }
+    
+    private void doRefresh(String reason) {
+        long start = System.currentTimeMillis();
         try {
             // 只在首次初始化时显示开始信息
             if (isFirstInitialization) {
-                System.out.println("[INFO] 开始获取微博Cookie...");
+                UnifiedLogger.getInstance().info("WeiboApiCookieManager", "开始获取微博Cookie...");
             }
             
-            // 清空现有Cookie
-            cookieStore.clear();
-            
-            // 访问微博首页获取Cookie
+            // 访问微博首页获取Cookie，获取成功前不替换当前Cookie
             Map<String, String> homepageCookies = getCookiesFromUrl(WEIBO_HOMEPAGE);
-            cookieStore.putAll(homepageCookies);
-            
-            // 更新时间戳
-            lastUpdateTime = LocalDateTime.now();
+            if (homepageCookies.isEmpty()) {
+                throw new IOException("响应中没有可用的Cookie");
+            }
+            install(homepageCookies);
+            recordRefresh(System.currentTimeMillis() - start);
             
             // 只在首次初始化时显示成功信息
             if (isFirstInitialization) {
-                System.out.println("[INFO] 微博Cookie获取成功，获取到" + cookieStore.size() + "个Cookie");
+                UnifiedLogger.getInstance().info("WeiboApiCookieManager", "微博Cookie获取成功，获取到" + homepageCookies.size() + "个Cookie");
                 isFirstInitialization = false;
             }
             
         } catch (Exception e) {
+            refreshFailures.increment();
+            recordRefresh(System.currentTimeMillis() - start);
             UnifiedLogger.getInstance().error("WeiboApiCookieManager", 
-                "刷新Cookie失败: " + e.getMessage(), e);
-            // 如果刷新失败，使用默认Cookie
-            setDefaultCookies();
+                "刷新Cookie失败（" + reason + "）: " + e.getMessage(), e);
+            if (current == null) {
+                // 从未获取成功时使用默认Cookie
+                setDefaultCookies();
+            } else {
+                // 继续使用当前Cookie，稍后重试
+                scheduleRefresh(TimeUnit.SECONDS.toMillis(REFRESH_RETRY_SECONDS));
+            }
+        }
+    }
+    
+    /**
+     * 替换当前Cookie，并安排到期前的下一次刷新
+     */
+    private void install(Map<String, String> cookies) {
+        current = new CookieSnapshot(cookies, System.currentTimeMillis());
+        scheduleRefresh(TimeUnit.MINUTES.toMillis(COOKIE_VALIDITY_MINUTES - REFRESH_AHEAD_MINUTES));
+    }
+    
+    private void scheduleRefresh(long delayMs) {
+        ScheduledFuture<?> previous = scheduledRefresh;
+        if (previous != null) {
+            previous.cancel(false);
         }
+        try {
+            scheduledRefresh = UnifiedSchedulerManager.getInstance().getScheduledExecutor()
+                    .schedule(() -> refreshAsync("定时刷新"), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // 调度器已关闭（插件停止中），过期后由getValidCookies触发刷新
+            scheduledRefresh = null;
+        }
+    }
+    
+    private void recordRefresh(long elapsedMs) {
+        refreshCount.increment();
+        totalRefreshMs.add(elapsedMs);
+        maxRefreshMs.accumulateAndGet(elapsedMs, Math::max);
+        lastRefreshMs = elapsedMs;
+        UnifiedMetricsManager.getInstance().recordMetric("weibo", "cookie_refresh_ms", elapsedMs);
     }
     
     /**
@@ -130,6 +245,8 @@ public class WeiboApiCookieManager {
             
             // 设置不自动重定向
             connection.setInstanceFollowRedirects(false);
+            connection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(REFRESH_TIMEOUT_SECONDS));
+            connection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(REFRESH_TIMEOUT_SECONDS));
             
             int responseCode = connection.getResponseCode();
             
@@ -220,13 +337,9 @@ public class WeiboApiCookieManager {
     /**
      * 将Cookie格式化为请求头格式
      */
-    private String formatCookiesForRequest() {
-        if (cookieStore.isEmpty()) {
-            return getDefaultCookies();
-        }
-        
+    private static String formatCookiesForRequest(Map<String, String> cookies) {
         StringBuilder sb = new StringBuilder();
-        cookieStore.forEach((name, value) -> {
+        cookies.forEach((name, value) -> {
             if (sb.length() > 0) {
                 sb.append("; ");
             }
@@ -244,43 +357,49 @@ public class WeiboApiCookieManager {
     }
     
     /**
-     * 设置默认Cookie
+     * 设置默认Cookie，并在稍后重新尝试获取
      */
     private void setDefaultCookies() {
-        cookieStore.clear();
-        cookieStore.put("_T_WM", "placeholder");
-        cookieStore.put("SUB", "placeholder");
-        cookieStore.put("SUBP", "placeholder");
-        lastUpdateTime = LocalDateTime.now();
+        Map<String, String> cookies = new LinkedHashMap<>();
+        cookies.put("_T_WM", "placeholder");
+        cookies.put("SUB", "placeholder");
+        cookies.put("SUBP", "placeholder");
+        current = new CookieSnapshot(cookies, System.currentTimeMillis());
+        scheduleRefresh(TimeUnit.SECONDS.toMillis(REFRESH_RETRY_SECONDS));
         
-        System.out.println("[WARN] 使用默认Cookie作为备用方案");
+        UnifiedLogger.getInstance().warn("WeiboApiCookieManager", "使用默认Cookie作为备用方案");
     }
     
     /**
      * 手动设置Cookie
      */
     public void setCookies(Map<String, String> cookies) {
-        cookieStore.clear();
-        cookieStore.putAll(cookies);
-        lastUpdateTime = LocalDateTime.now();
+        install(cookies);
         
-        System.out.println("[INFO] 手动设置Cookie完成，共" + cookies.size() + "个");
+        UnifiedLogger.getInstance().info("WeiboApiCookieManager", "手动设置Cookie完成，共" + cookies.size() + "个");
     }
     
     /**
      * 获取Cookie状态信息
      */
     public String getCookieStatus() {
+        CookieSnapshot snapshot = current;
+        long refreshes = refreshCount.sum();
         StringBuilder status = new StringBuilder();
         status.append("Cookie状态:\n");
-        status.append("- Cookie数量: ").append(cookieStore.size()).append("\n");
+        status.append("- Cookie数量: ").append(snapshot != null ? snapshot.cookies.size() : 0).append("\n");
         status.append("- 最后更新: ").append(
-            lastUpdateTime != null ? 
-            lastUpdateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : 
+            snapshot != null ? 
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(snapshot.installedAt), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) : 
             "未更新"
         ).append("\n");
         status.append("- 是否需要刷新: ").append(needsRefresh() ? "是" : "否").append("\n");
-        status.append("- Cookie列表: ").append(String.join(", ", cookieStore.keySet()));
+        status.append("- 刷新次数: ").append(refreshes).append(" (失败 ").append(refreshFailures.sum())
+            .append(", 失效触发 ").append(invalidationRefreshes.sum()).append(")\n");
+        status.append("- 刷新耗时: 平均 ").append(refreshes > 0 ? totalRefreshMs.sum() / refreshes : 0)
+            .append("ms, 最大 ").append(maxRefreshMs.get()).append("ms, 最近 ").append(lastRefreshMs).append("ms\n");
+        status.append("- Cookie列表: ").append(snapshot != null ? String.join(", ", snapshot.cookies.keySet()) : "");
         
         return status.toString();
     }
@@ -289,8 +408,30 @@ public class WeiboApiCookieManager {
      * 清空Cookie
      */
     public void clearCookies() {
-        cookieStore.clear();
-        lastUpdateTime = null;
-        System.out.println("[INFO] Cookie已清空");
+        ScheduledFuture<?> previous = scheduledRefresh;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        current = null;
+        UnifiedLogger.getInstance().info("WeiboApiCookieManager", "Cookie已清空");
+    }
+    
+    /**
+     * 一次获取到的Cookie及其请求头字符串，创建后不再修改
+     */
+    private static final class CookieSnapshot {
+        private final Map<String, String> cookies;
+        private final String header;
+        private final long installedAt;
+        
+        private CookieSnapshot(Map<String, String> cookies, long installedAt) {
+            this.cookies = Collections.unmodifiableMap(new LinkedHashMap<>(cookies));
+            this.header = formatCookiesForRequest(this.cookies);
+            this.installedAt = installedAt;
+        }
+        
+        private boolean isExpired() {
+            return System.currentTimeMillis() - installedAt > TimeUnit.MINUTES.toMillis(COOKIE_VALIDITY_MINUTES);
+        }
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,9 @@ package net.luffy.service;
 import cn.hutool.json.JSONArray;
 import cn.hutool.json.JSONObject;
 import net.luffy.handler.AsyncWebHandlerBase;
+import net.luffy.util.ConditionalResponseCache;
+import net.luffy.util.HttpStatusException;
+import net.luffy.util.UnifiedHttpClient;
 import net.luffy.util.UnifiedJsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,6 +19,9 @@ import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * 微博API服务
@@ -26,6 +32,9 @@ public class WeiboApiService extends AsyncWebHandlerBase {
     
     private static final Logger logger = LoggerFactory.getLogger(WeiboApiService.class);
     private static final String API_BASE = "https://m.weibo.cn/api/container/getIndex";
+    private static final Pattern HTTP_STATUS_PATTERN = Pattern.compile("HTTP请求失败: (\\d{3})");
+    // 要求登录的响应很短，只在短响应中查找，正常的容器响应不做额外扫描
+    private static final int LOGIN_REQUIRED_MAX_LENGTH = 512;
     private final UnifiedJsonParser jsonParser = UnifiedJsonParser.getInstance();
     private final WeiboApiCookieManager cookieManager = WeiboApiCookieManager.getInstance();
     
@@ -46,7 +55,7 @@ public class WeiboApiService extends AsyncWebHandlerBase {
         String url = buildUrl(API_BASE, params);
         
         try {
-            String response = get(url, getDefaultHeaders());
+            String response = checkLoginRequired(get(UnifiedHttpClient.TimeoutProfile.WEIBO, url, getDefaultHeaders()));
             
             if (response != null && !response.isEmpty()) {
                 try {
@@ -57,6 +66,7 @@ public class WeiboApiService extends AsyncWebHandlerBase {
                 }
             }
         } catch (RuntimeException e) {
+            reportCookieRejection(e);
             // 检查是否为HTTP 432错误
             if (e.getMessage() != null && e.getMessage().contains("432")) {
                 logger.warn("[WeiboAPI] 遇到HTTP 432错误，可能是请求频率过高或认证问题: {}", e.getMessage());
@@ -72,27 +82,49 @@ public class WeiboApiService extends AsyncWebHandlerBase {
     
     /**
      * 获取微博容器内容
+     * 返回的JSONObject可能是多个调用方共享的缓存结果，调用方不得修改
      * @param lfid 容器ID
      * @return 容器内容JSON对象
      */
     public JSONObject requestWeiboContainer(String lfid) {
+        ConditionalResponseCache.Result<JSONObject> result = requestWeiboContainerResult(lfid);
+        return result != null ? result.getValue() : null;
+    }
+    
+    /**
+     * 获取微博容器内容及其版本
+     * 响应内容未变化时直接返回上次的解析结果，调用方可比较版本跳过过滤和比对
+     * @param lfid 容器ID
+     * @return 容器内容及版本，请求失败（HTTP 432）时返回null
+     */
+    public ConditionalResponseCache.Result<JSONObject> requestWeiboContainerResult(String lfid) {
+        return requestContainer(lfid, "weibo.container", this::parseContainer);
+    }
+    
+    /**
+     * 获取微博容器的原始响应体及其版本，不做JSON解析
+     * 供WeiboCardDecoder流式解码，没有新微博时无需构建任何JSON对象
+     * @param lfid 容器ID
+     * @return 响应体及版本，请求失败（HTTP 432）时返回null
+     */
+    public ConditionalResponseCache.Result<String> requestWeiboContainerBody(String lfid) {
+        return requestContainer(lfid, "weibo.container.body",
+                response -> response == null || response.isEmpty() ? null : response);
+    }
+    
+    private <T> ConditionalResponseCache.Result<T> requestContainer(String lfid, String endpoint,
+                                                                     Function<String, T> parser) {
         Map<String, String> params = new HashMap<>();
         params.put("containerid", lfid);
         
         String url = buildUrl(API_BASE, params);
         
         try {
-            String response = get(url, getDefaultHeaders());
-            
-            if (response != null && !response.isEmpty()) {
-                try {
-                    return jsonParser.parseObj(response);
-                } catch (Exception e) {
-                    // 解析失败
-                    return null;
-                }
-            }
+            // 同一用户被多个群关注时合并并发的相同容器请求
+            return getConditional(UnifiedHttpClient.TimeoutProfile.WEIBO, endpoint, url,
+                    getDefaultHeaders(), response -> parser.apply(checkLoginRequired(response)));
         } catch (RuntimeException e) {
+            reportCookieRejection(e);
             // 检查是否为HTTP 432错误
             if (e.getMessage() != null && e.getMessage().contains("432")) {
                 logger.warn("[WeiboAPI] 遇到HTTP 432错误，可能是请求频率过高或认证问题: {}", e.getMessage());
@@ -102,8 +134,49 @@ public class WeiboApiService extends AsyncWebHandlerBase {
             // 其他错误继续抛出
             throw e;
         }
-        
-        return null;
+    }
+    
+    /**
+     * 请求被以4xx拒绝时通知Cookie管理器立即刷新（432等通常意味着Cookie已失效）
+     */
+    private void reportCookieRejection(RuntimeException e) {
+        int statusCode = -1;
+        for (Throwable cause = e; cause != null && statusCode < 0; cause = cause.getCause()) {
+            if (cause instanceof HttpStatusException) {
+                statusCode = ((HttpStatusException) cause).getStatusCode();
+            } else if (cause.getMessage() != null) {
+                Matcher matcher = HTTP_STATUS_PATTERN.matcher(cause.getMessage());
+                if (matcher.find()) {
+                    statusCode = Integer.parseInt(matcher.group(1));
+                }
+            }
+        }
+        if (statusCode >= 400 && statusCode < 500) {
+            cookieManager.invalidate("HTTP " + statusCode);
+        }
+    }
+    
+    /**
+     * 响应为要求登录（ok=-100，跳转到登录页）时通知Cookie管理器立即刷新
+     */
+    private String checkLoginRequired(String response) {
+        if (response != null && response.length() < LOGIN_REQUIRED_MAX_LENGTH
+                && (response.contains("\"ok\":-100") || response.contains("passport.weibo.cn"))) {
+            cookieManager.invalidate("需要登录");
+        }
+        return response;
+    }
+    
+    private JSONObject parseContainer(String response) {
+        if (response == null || response.isEmpty()) {
+            return null;
+        }
+        try {
+            return jsonParser.parseObj(response);
+        } catch (Exception e) {
+            // 解析失败
+            return null;
+        }
     }
     
     /**
@@ -152,7 +225,7 @@ public class WeiboApiService extends AsyncWebHandlerBase {
                 if (tabsInfo.containsKey("tabs")) {
                     JSONArray tabs = tabsInfo.getJSONArray("tabs");
                     for (Object tabObj : tabs) {
-                        JSONObject tab = jsonParser.parseObj(tabObj.toString());
+                        JSONObject tab = jsonParser.asJSONObject(tabObj);
                         if ("weibo".equals(tab.getStr("tabKey"))) {
                             return tab.getStr("containerid");
                         }
@@ -214,7 +287,7 @@ public class WeiboApiService extends AsyncWebHandlerBase {
             // 收集所有微博卡片并按时间排序，找到真正的最新微博
             List<JSONObject> weiboCards = new ArrayList<>();
             for (Object cardObj : cards) {
-                JSONObject card = jsonParser.parseObj(cardObj.toString());
+                JSONObject card = jsonParser.asJSONObject(cardObj);
                 if (card.getInt("card_type", 0) == 9 && card.containsKey("mblog")) {
                     JSONObject mblog = card.getJSONObject("mblog");
                     String createdAt = mblog.getStr("created_at");
@@ -274,7 +347,7 @@ public class WeiboApiService extends AsyncWebHandlerBase {
             
             // 查找最新的微博卡片，排除置顶微博
             for (Object cardObj : cards) {
-                JSONObject card = jsonParser.parseObj(cardObj.toString());
+                JSONObject card = jsonParser.asJSONObject(cardObj);
                 if (card.getInt("card_type", 0) == 9 && card.containsKey("mblog")) {
                     JSONObject mblog = card.getJSONObject("mblog");
                     
@@ -1,8 +1,16 @@
 package net.luffy.service;
 
-import cn.hutool.json.JSONObject;
 import net.luffy.model.WeiboData;
+import net.luffy.util.AdaptivePollScheduler;
+import net.luffy.util.BlockingTaskExecutor;
+import net.luffy.util.ConditionalResponseCache;
+import net.luffy.util.DedupJournal;
+import net.luffy.util.MonitorConfig;
+import net.luffy.util.TickEngine;
+import net.luffy.util.TickScope;
+import net.luffy.util.WeiboCardDecoder;
 import net.luffy.util.WeiboUtils;
+import net.luffy.util.WriteBehindPropertiesFile;
 import net.luffy.util.sender.MessageSender;
 
 import net.luffy.Newboy;
@@ -16,6 +24,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /**
  * 微博监控服务
@@ -26,20 +38,57 @@ public class WeiboMonitorService {
     private static final Logger logger = LoggerFactory.getLogger(WeiboMonitorService.class);
     private static final int MONITOR_INTERVAL = 45; // 监控间隔45秒
     private static final String WEIBO_IDS_FILE = "weibo_latest_ids.properties"; // 微博ID持久化文件
+    private static final String USER_INFO_FILE = "weibo_user_info.properties"; // 用户lfid/昵称缓存文件
+    private static final String USER_TICK = "weibo.user";
+    private static final String SUPER_TOPIC_TICK = "weibo.supertopic";
+    // 用户与超话都访问m.weibo.cn，共用一个上游并发上限
+    private static final String UPSTREAM = "weibo";
+    private static final String USER_ID_PREFIX = "user.";
+    private static final String SUPER_TOPIC_ID_PREFIX = "supertopic.";
+    private static final String LFID_PREFIX = "lfid.";
+    private static final String NICKNAME_PREFIX = "nickname.";
+    // 发帖时间记录与最新微博ID存放在同一文件中，如activity.user.<uid>=t1,t2,...
+    private static final String ACTIVITY_PREFIX = "activity.";
+    // 单条微博对单个群的最多发送次数，超过后放弃该群
+    private static final int MAX_DELIVERY_ATTEMPTS = 3;
     
     private final WeiboApiService weiboApiService;
     private final MessageSender messageSender;
     private final ScheduledExecutorService scheduler;
+    // 最新微博ID持久化文件，更新时只标记为脏，定时批量写入
+    private final WriteBehindPropertiesFile weiboIdsFile;
+    // 用户lfid/昵称缓存文件，值为"解析时间|内容"
+    private final WriteBehindPropertiesFile userInfoFile;
     // 延迟服务已移除
     
     // 存储每个用户的最新微博ID，用于判断是否有新微博
     private final Map<String, Long> userLatestWeiboId = new ConcurrentHashMap<>();
     // 存储每个超话的最新微博ID
     private final Map<String, Long> superTopicLatestWeiboId = new ConcurrentHashMap<>();
+    // 容器ID -> 上次已处理的容器响应版本，内容未变化时跳过过滤和比对
+    private final Map<String, String> processedContainerVersion = new ConcurrentHashMap<>();
     // 存储用户UID到lfid的映射
     private final Map<String, String> userLfidCache = new ConcurrentHashMap<>();
     // 存储用户昵称缓存
     private final Map<String, String> userNicknameCache = new ConcurrentHashMap<>();
+    // 用户lfid的解析时间，超过有效期后在后台重新解析，期间继续使用旧值
+    private final Map<String, Long> userInfoResolvedAt = new ConcurrentHashMap<>();
+    private final Set<String> refreshingUsers = ConcurrentHashMap.newKeySet();
+    // 已推送微博的持久化去重日志
+    private final DedupJournal dedupJournal = DedupJournal.getInstance();
+    // 尚未对全部群发送完成的微博（去重日志键:微博ID -> 各群发送进度），补发时只发给未完成的群
+    private final Map<String, PendingDelivery> pendingDeliveries = new ConcurrentHashMap<>();
+    
+    // 正在运行的轮次，停止服务时取消
+    private final Map<String, TickScope> activeCycles = new ConcurrentHashMap<>();
+    // 各轮次最近一次的耗时
+    private final Map<String, Long> lastCycleDuration = new ConcurrentHashMap<>();
+    // 各用户/超话单次轮询耗时
+    private final Map<String, PollLatency> userPollLatency = new ConcurrentHashMap<>();
+    private final Map<String, PollLatency> superTopicPollLatency = new ConcurrentHashMap<>();
+    // 按发帖活跃度决定的各用户/超话轮询间隔
+    private final AdaptivePollScheduler userPollSchedule;
+    private final AdaptivePollScheduler superTopicPollSchedule;
     
     // 监控配置
     private final Set<String> monitoredUsers = ConcurrentHashMap.newKeySet();
@@ -51,10 +100,25 @@ public class WeiboMonitorService {
         this.weiboApiService = weiboApiService;
         this.messageSender = messageSender;
         this.scheduler = Executors.newScheduledThreadPool(2);
+        MonitorConfig config = MonitorConfig.getInstance();
+        BlockingTaskExecutor.getInstance().setUpstreamPermits(UPSTREAM, config.getWeiboPollParallelism());
+        this.userPollSchedule = new AdaptivePollScheduler(config.getWeiboPollIntervalMin(),
+                config.getWeiboPollIntervalMax(), config.getWeiboPollIntervalDefault());
+        this.superTopicPollSchedule = new AdaptivePollScheduler(config.getWeiboPollIntervalMin(),
+                config.getWeiboPollIntervalMax(), config.getWeiboPollIntervalDefault());
+        for (String hot : config.getWeiboPollHotTargets()) {
+            setHotTarget(hot, true);
+        }
+        File configDir = Newboy.INSTANCE.getProperties().configData.getParentFile();
+        this.weiboIdsFile = new WriteBehindPropertiesFile(new File(configDir, WEIBO_IDS_FILE),
+                "微博最新ID持久化文件 - 自动生成，请勿手动修改");
+        this.userInfoFile = new WriteBehindPropertiesFile(new File(configDir, USER_INFO_FILE),
+                "微博用户lfid/昵称缓存 - 自动生成，请勿手动修改");
         // 延迟服务已移除
         
         // 加载持久化的微博ID
         loadPersistedWeiboIds();
+        loadPersistedUserInfo();
     }
     
     /**
@@ -66,6 +130,11 @@ public class WeiboMonitorService {
         
         // 启动超话监控
         scheduler.scheduleWithFixedDelay(this::monitorSuperTopic, 10, MONITOR_INTERVAL, TimeUnit.SECONDS);
+        
+        // 批量写入最新微博ID
+        long flushInterval = MonitorConfig.getInstance().getWeiboCheckpointFlushInterval();
+        scheduler.scheduleWithFixedDelay(weiboIdsFile::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(userInfoFile::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
     }
     
     /**
@@ -73,6 +142,9 @@ public class WeiboMonitorService {
      */
     public void stopMonitoring() {
         logger.info("停止微博监控服务");
+        for (TickScope cycle : activeCycles.values()) {
+            cycle.cancel("微博监控服务停止");
+        }
         scheduler.shutdown();
         try {
             if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
@@ -82,6 +154,10 @@ public class WeiboMonitorService {
             scheduler.shutdownNow();
             Thread.currentThread().interrupt();
         }
+        
+        // 写入尚未落盘的最新微博ID和用户信息
+        weiboIdsFile.flush();
+        userInfoFile.flush();
     }
     
     /**
@@ -92,12 +168,16 @@ public class WeiboMonitorService {
     public void addUserMonitor(String uid, Set<String> groupIds) {
         monitoredUsers.add(uid);
         userGroupMapping.put(uid, new HashSet<>(groupIds));
+        restoreLatestWeiboId(userLatestWeiboId, uid, userJournalKey(uid));
         
-        // 预加载用户信息
-        loadUserInfo(uid);
-        
-        // 初始化最新微博ID，避免发送旧微博
-        initializeUserLatestWeiboId(uid);
+        // 用户信息解析和最新微博ID初始化在后台进行，不阻塞启动；
+        // 缓存的lfid在有效期内时不重新解析，首轮轮询前未完成初始化的用户在轮询中以当前最新微博为基准
+        BlockingTaskExecutor.getInstance().execute(UPSTREAM, () -> {
+            if (!isUserInfoFresh(uid)) {
+                loadUserInfo(uid);
+            }
+            initializeUserLatestWeiboId(uid);
+        });
         
         logger.info("添加用户监控成功: {}", uid);
     }
@@ -110,8 +190,16 @@ public class WeiboMonitorService {
         monitoredUsers.remove(uid);
         userGroupMapping.remove(uid);
         userLatestWeiboId.remove(uid);
+        weiboIdsFile.remove(USER_ID_PREFIX + uid);
+        weiboIdsFile.remove(ACTIVITY_PREFIX + USER_ID_PREFIX + uid);
+        userPollSchedule.remove(uid);
         userLfidCache.remove(uid);
         userNicknameCache.remove(uid);
+        userInfoResolvedAt.remove(uid);
+        userInfoFile.remove(LFID_PREFIX + uid);
+        userInfoFile.remove(NICKNAME_PREFIX + uid);
+        userPollLatency.remove(uid);
+        pendingDeliveries.keySet().removeIf(key -> key.startsWith(userJournalKey(uid) + ":"));
         
         logger.info("移除用户监控: {}", uid);
     }
@@ -124,9 +212,10 @@ public class WeiboMonitorService {
     public void addSuperTopicMonitor(String lfid, Set<String> groupIds) {
         monitoredSuperTopics.add(lfid);
         superTopicGroupMapping.put(lfid, new HashSet<>(groupIds));
+        restoreLatestWeiboId(superTopicLatestWeiboId, lfid, superTopicJournalKey(lfid));
         
-        // 初始化最新微博ID，避免发送旧微博
-        initializeSuperTopicLatestWeiboId(lfid);
+        // 在后台初始化最新微博ID，避免发送旧微博
+        BlockingTaskExecutor.getInstance().execute(UPSTREAM, () -> initializeSuperTopicLatestWeiboId(lfid));
         
         logger.info("添加超话监控成功: {}", lfid);
     }
@@ -139,6 +228,11 @@ public class WeiboMonitorService {
         monitoredSuperTopics.remove(lfid);
         superTopicGroupMapping.remove(lfid);
         superTopicLatestWeiboId.remove(lfid);
+        weiboIdsFile.remove(SUPER_TOPIC_ID_PREFIX + lfid);
+        weiboIdsFile.remove(ACTIVITY_PREFIX + SUPER_TOPIC_ID_PREFIX + lfid);
+        superTopicPollSchedule.remove(lfid);
+        superTopicPollLatency.remove(lfid);
+        pendingDeliveries.keySet().removeIf(key -> key.startsWith(superTopicJournalKey(lfid) + ":"));
         
         logger.info("移除超话监控: {}", lfid);
     }
@@ -147,26 +241,130 @@ public class WeiboMonitorService {
      * 监控普通微博
      */
     private void monitorWeibo() {
-        for (String uid : monitoredUsers) {
-            try {
-                monitorUserWeibo(uid);
-            } catch (Exception e) {
-                logger.error("监控用户微博失败: {}", uid, e);
-            }
-        }
+        runPollCycle(USER_TICK, monitoredUsers, userPollSchedule, userPollLatency, this::monitorUserWeibo, "监控用户微博失败: {}");
     }
     
     /**
      * 监控超话微博
      */
     private void monitorSuperTopic() {
-        for (String lfid : monitoredSuperTopics) {
+        runPollCycle(SUPER_TOPIC_TICK, monitoredSuperTopics, superTopicPollSchedule, superTopicPollLatency,
+                this::monitorSuperTopicWeibo, "监控超话微博失败: {}");
+    }
+    
+    /**
+     * 运行一轮轮询：只轮询按活跃度已到期的目标，每个目标作为本轮的子任务在weibo上游的并发上限内执行，
+     * 并按固定偏移错开发起时间；上一轮未结束时跳过本轮，超过时限时取消尚未开始的目标。
+     * fork只把目标放入weibo上游的等待队列，拿到许可后才占用线程，排队的目标不占用共享线程池也不阻塞调度线程
+     */
+    private void runPollCycle(String tickName, Set<String> targets, AdaptivePollScheduler schedule,
+                              Map<String, PollLatency> latencies, Consumer<String> poller, String failureLog) {
+        long now = System.currentTimeMillis();
+        List<String> snapshot = new ArrayList<>();
+        for (String target : targets) {
+            if (schedule.isDue(target, now)) {
+                snapshot.add(target);
+            }
+        }
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        TickScope tick = TickEngine.getInstance().begin(tickName, MonitorConfig.getInstance().getWeiboTickTimeout());
+        if (tick == null) {
+            return;
+        }
+        activeCycles.put(tickName, tick);
+        tick.getCompletion().whenComplete((v, e) -> {
+            activeCycles.remove(tickName, tick);
+            long elapsed = tick.getElapsed();
+            lastCycleDuration.put(tickName, elapsed);
+            if (tick.isCancelled()) {
+                logger.warn("微博轮询[{}]被取消({}): 目标{}个, 耗时{}ms", tickName, tick.getCancelReason(), snapshot.size(), elapsed);
+            } else {
+                logger.debug("微博轮询[{}]完成: 目标{}个, 耗时{}ms", tickName, snapshot.size(), elapsed);
+            }
+        });
+        
+        // 所有目标都已fork（或因取消放弃）后才seal，延迟发起的目标也计入本轮
+        AtomicInteger unforked = new AtomicInteger(snapshot.size());
+        long jitterMs = MonitorConfig.getInstance().getWeiboPollJitterMs();
+        for (String target : snapshot) {
+            Runnable forkTarget = () -> {
+                try {
+                    tick.fork(UPSTREAM, () -> pollTarget(target, schedule, latencies, poller, failureLog));
+                } finally {
+                    if (unforked.decrementAndGet() == 0) {
+                        tick.seal();
+                    }
+                }
+            };
+            long offset = jitterOffset(target, jitterMs);
+            if (offset == 0) {
+                forkTarget.run();
+                continue;
+            }
             try {
-                monitorSuperTopicWeibo(lfid);
-            } catch (Exception e) {
-                logger.error("监控超话微博失败: {}", lfid, e);
+                scheduler.schedule(forkTarget, offset, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 服务已停止，本轮已取消，fork直接返回已取消的结果
+                forkTarget.run();
+            }
+        }
+    }
+    
+    private void pollTarget(String target, AdaptivePollScheduler schedule, Map<String, PollLatency> latencies,
+                            Consumer<String> poller, String failureLog) {
+        if (TickScope.isCurrentCancelled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            poller.accept(target);
+        } catch (Exception e) {
+            logger.error(failureLog, target, e);
+        } finally {
+            long end = System.currentTimeMillis();
+            latencies.computeIfAbsent(target, k -> new PollLatency()).record(end - start);
+            // 中途被取消的目标保持到期，下一轮继续
+            if (!TickScope.isCurrentCancelled()) {
+                schedule.recordPoll(target, end);
+            }
+        }
+    }
+    
+    /**
+     * 手动标记热点用户/超话：始终按最短间隔轮询，直到取消标记
+     * @param id 用户UID或超话容器ID
+     */
+    public void setHotTarget(String id, boolean hot) {
+        userPollSchedule.setHot(id, hot);
+        superTopicPollSchedule.setHot(id, hot);
+        logger.info("{}微博轮询热点: {}", hot ? "标记" : "取消", id);
+    }
+    
+    /**
+     * 记录一次发现新微博，用于学习轮询间隔，并随最新微博ID一起持久化
+     */
+    private void recordActivity(AdaptivePollScheduler schedule, String prefix, String id) {
+        schedule.recordPost(id, System.currentTimeMillis());
+        StringBuilder times = new StringBuilder();
+        for (long time : schedule.getHistory(id)) {
+            if (times.length() > 0) {
+                times.append(',');
             }
+            times.append(time);
+        }
+        weiboIdsFile.put(ACTIVITY_PREFIX + prefix + id, times.toString());
+    }
+    
+    /**
+     * 目标在本轮内的发起偏移：由ID散列得到，同一目标每轮偏移相同，轮询间隔保持稳定
+     */
+    private static long jitterOffset(String target, long jitterMs) {
+        if (jitterMs <= 0) {
+            return 0;
         }
+        return Math.floorMod(target.hashCode() * 0x9E3779B97F4A7C15L, jitterMs);
     }
     
     /**
@@ -180,49 +378,46 @@ public class WeiboMonitorService {
             return;
         }
         
-        JSONObject containerData = weiboApiService.requestWeiboContainer(lfid);
-        if (containerData == null || containerData.getInt("ok", 0) != 1) {
+        ConditionalResponseCache.Result<String> result = weiboApiService.requestWeiboContainerBody(lfid);
+        String body = result != null ? result.getValue() : null;
+        if (body == null) {
             logger.warn("获取用户{}微博容器数据失败", uid);
             return;
         }
-        
-        JSONObject data = containerData.getJSONObject("data");
-        if (data == null || !data.containsKey("cards")) {
+        // 本轮已超时取消时不再推进最新ID，留给下一轮处理
+        if (TickScope.isCurrentCancelled()) {
             return;
         }
-        
-        // 过滤微博卡片
-        List<WeiboData.WeiboCard> cards = WeiboUtils.filterCards(data.getJSONArray("cards"));
-        if (cards.isEmpty()) {
+        // 后台初始化尚未完成：以本次最新微博为基准，不推送旧微博
+        if (!userLatestWeiboId.containsKey(uid)) {
+            establishBaseline(userLatestWeiboId, USER_ID_PREFIX, uid, body, false);
+            return;
+        }
+        if (isContainerProcessed(lfid, result.getVersion())) {
             return;
         }
         
-        // 检查是否有新微博
-        Long latestId = userLatestWeiboId.get(uid);
-        List<WeiboData.WeiboSendData> newWeibos = new ArrayList<>();
-        
-        for (WeiboData.WeiboCard card : cards) {
-            if (card._id != null && (latestId == null || card._id > latestId)) {
-                List<WeiboData.WeiboSendData> cardData = WeiboUtils.filterNewCards(Arrays.asList(card));
-                newWeibos.addAll(cardData);
-            }
+        // 流式解码：只为比已记录ID更新的微博构建卡片，没有新微博时不构建任何对象
+        WeiboCardDecoder.Batch batch = WeiboCardDecoder.decodeUserCards(body, userLatestWeiboId.get(uid));
+        if (!batch.isOk()) {
+            logger.warn("获取用户{}微博容器数据失败", uid);
+            return;
         }
         
+        String journalKey = userJournalKey(uid);
+        List<WeiboData.WeiboSendData> newWeibos = filterUnsent(WeiboUtils.filterNewCards(batch.getNewCards()), journalKey);
         if (!newWeibos.isEmpty()) {
-            // 更新最新微博ID
-            userLatestWeiboId.put(uid, cards.get(0)._id);
-            
-            // 持久化最新微博ID
-            savePersistedWeiboIds();
-            
-            // 发送新微博
-            Set<String> groupIds = userGroupMapping.get(uid);
-            if (groupIds != null) {
-                for (WeiboData.WeiboSendData weiboData : newWeibos) {
-                    sendWeiboMessage(weiboData, null, groupIds);
-                }
+            if (hasFirstSeen(newWeibos, journalKey)) {
+                recordActivity(userPollSchedule, USER_ID_PREFIX, uid);
+            }
+            if (!sendNewWeibos(newWeibos, null, userGroupMapping.get(uid), journalKey)) {
+                // 有未完成发送的群：不推进最新ID和容器版本，下一轮只向这些群补发
+                return;
             }
+            // 更新最新微博ID（批量持久化）
+            updateLatestWeiboId(userLatestWeiboId, USER_ID_PREFIX, uid, batch.getNewestId());
         }
+        markContainerProcessed(lfid, result.getVersion());
     }
     
     /**
@@ -230,68 +425,172 @@ public class WeiboMonitorService {
      * @param lfid 超话容器ID
      */
     private void monitorSuperTopicWeibo(String lfid) {
-        JSONObject containerData = weiboApiService.requestWeiboContainer(lfid);
-        if (containerData == null || containerData.getInt("ok", 0) != 1) {
+        ConditionalResponseCache.Result<String> result = weiboApiService.requestWeiboContainerBody(lfid);
+        String body = result != null ? result.getValue() : null;
+        if (body == null) {
             logger.warn("获取超话{}容器数据失败", lfid);
             return;
         }
-        
-        JSONObject data = containerData.getJSONObject("data");
-        if (data == null || !data.containsKey("cards")) {
+        if (TickScope.isCurrentCancelled()) {
             return;
         }
-        
-        // 获取超话名称
-        String superTopicName = "";
-        if (data.containsKey("pageInfo")) {
-            JSONObject pageInfo = data.getJSONObject("pageInfo");
-            superTopicName = pageInfo.getStr("nick", "");
+        if (!superTopicLatestWeiboId.containsKey(lfid)) {
+            establishBaseline(superTopicLatestWeiboId, SUPER_TOPIC_ID_PREFIX, lfid, body, true);
+            return;
         }
-        
-        // 过滤超话微博卡片
-        List<WeiboData.WeiboCard> cards = WeiboUtils.filterSuperTopicCards(data.getJSONArray("cards"));
-        if (cards.isEmpty()) {
+        if (isContainerProcessed(lfid, result.getVersion())) {
             return;
         }
         
-        // 检查是否有新微博
-        Long latestId = superTopicLatestWeiboId.get(lfid);
-        List<WeiboData.WeiboSendData> newWeibos = new ArrayList<>();
-        
-        for (WeiboData.WeiboCard card : cards) {
-            if (card._id != null && (latestId == null || card._id > latestId)) {
-                List<WeiboData.WeiboSendData> cardData = WeiboUtils.filterNewCards(Arrays.asList(card));
-                newWeibos.addAll(cardData);
-            }
+        // 流式解码：超话名称只在有新微博时读取
+        WeiboCardDecoder.Batch batch = WeiboCardDecoder.decodeSuperTopicCards(body, superTopicLatestWeiboId.get(lfid));
+        if (!batch.isOk()) {
+            logger.warn("获取超话{}容器数据失败", lfid);
+            return;
         }
         
+        String journalKey = superTopicJournalKey(lfid);
+        List<WeiboData.WeiboSendData> newWeibos = filterUnsent(WeiboUtils.filterNewCards(batch.getNewCards()), journalKey);
         if (!newWeibos.isEmpty()) {
-            // 更新最新微博ID
-            superTopicLatestWeiboId.put(lfid, cards.get(0)._id);
-            
-            // 持久化最新微博ID
-            savePersistedWeiboIds();
-            
-            // 发送新微博
-            Set<String> groupIds = superTopicGroupMapping.get(lfid);
-            if (groupIds != null) {
-                for (WeiboData.WeiboSendData weiboData : newWeibos) {
-                    sendWeiboMessage(weiboData, superTopicName, groupIds);
-                }
+            if (hasFirstSeen(newWeibos, journalKey)) {
+                recordActivity(superTopicPollSchedule, SUPER_TOPIC_ID_PREFIX, lfid);
+            }
+            if (!sendNewWeibos(newWeibos, batch.getPageNick(), superTopicGroupMapping.get(lfid), journalKey)) {
+                return;
             }
+            // 更新最新微博ID（批量持久化）
+            updateLatestWeiboId(superTopicLatestWeiboId, SUPER_TOPIC_ID_PREFIX, lfid, batch.getNewestId());
+        }
+        markContainerProcessed(lfid, result.getVersion());
+    }
+    
+    /**
+     * 发送一批新微博，每条对全部群组发送完成（已发送或放弃）后写入去重日志
+     * @return 全部微博都已对所有群组发送完成返回true
+     */
+    private boolean sendNewWeibos(List<WeiboData.WeiboSendData> newWeibos, String superTopicName,
+                                  Set<String> groupIds, String journalKey) {
+        if (groupIds == null) {
+            return true;
+        }
+        boolean allSettled = true;
+        for (WeiboData.WeiboSendData weiboData : newWeibos) {
+            String pendingKey = pendingKey(journalKey, weiboData);
+            PendingDelivery pending = pendingDeliveries.computeIfAbsent(pendingKey, k -> new PendingDelivery());
+            if (sendWeiboMessage(weiboData, superTopicName, groupIds, pending)) {
+                recordSent(journalKey, weiboData);
+                pendingDeliveries.remove(pendingKey);
+            } else {
+                allSettled = false;
+            }
+        }
+        return allSettled;
+    }
+    
+    /**
+     * 批次中是否有首次发现的微博（补发中的微博不再计入发帖活跃度）
+     */
+    private boolean hasFirstSeen(List<WeiboData.WeiboSendData> weibos, String journalKey) {
+        for (WeiboData.WeiboSendData weibo : weibos) {
+            if (!pendingDeliveries.containsKey(pendingKey(journalKey, weibo))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static String pendingKey(String journalKey, WeiboData.WeiboSendData weibo) {
+        return journalKey + ":" + weibo.id;
+    }
+    
+    private static String userJournalKey(String uid) {
+        return "user:" + uid;
+    }
+    
+    private static String superTopicJournalKey(String lfid) {
+        return "supertopic:" + lfid;
+    }
+    
+    /**
+     * 过滤去重日志中已推送过的微博（最新ID持久化文件未及时写入时，重启后不会重复推送）
+     */
+    private List<WeiboData.WeiboSendData> filterUnsent(List<WeiboData.WeiboSendData> weibos, String journalKey) {
+        weibos.removeIf(weibo -> weibo.id != null
+                && dedupJournal.contains(DedupJournal.Source.WEIBO, journalKey, weibo.id));
+        return weibos;
+    }
+    
+    private void recordSent(String journalKey, WeiboData.WeiboSendData weibo) {
+        if (weibo.id != null) {
+            dedupJournal.record(DedupJournal.Source.WEIBO, journalKey, weibo.id, System.currentTimeMillis());
+        }
+    }
+    
+    /**
+     * 更新内存中的最新微博ID并标记为待写入
+     */
+    private void updateLatestWeiboId(Map<String, Long> latestIds, String prefix, String id, long weiboId) {
+        // 后台初始化与轮询可能同时设置基准，只向前推进
+        long merged = latestIds.merge(id, weiboId, Math::max);
+        weiboIdsFile.put(prefix + id, String.valueOf(merged));
+    }
+    
+    /**
+     * 以容器中当前最新的微博ID作为基准
+     */
+    private void establishBaseline(Map<String, Long> latestIds, String prefix, String id, String body, boolean superTopic) {
+        WeiboCardDecoder.Batch batch = WeiboCardDecoder.scanNewestId(body, superTopic);
+        if (batch.isOk() && batch.getNewestId() != null) {
+            updateLatestWeiboId(latestIds, prefix, id, batch.getNewestId());
+            logger.info("{}最新微博ID以首轮轮询结果为基准: {}", id, batch.getNewestId());
+        }
+    }
+    
+    /**
+     * 用去重日志中最后推送的微博ID补齐最新ID记录（取两者较大值）
+     */
+    private void restoreLatestWeiboId(Map<String, Long> latestIds, String id, String journalKey) {
+        DedupJournal.Checkpoint checkpoint = dedupJournal.latest(DedupJournal.Source.WEIBO, journalKey);
+        if (checkpoint != null) {
+            latestIds.merge(id, checkpoint.getFingerprint(), Math::max);
         }
     }
     
     /**
-     * 发送微博消息
+     * 容器响应版本是否已完整处理过（解码并全部发送成功），版本未知时返回false
+     */
+    private boolean isContainerProcessed(String lfid, String version) {
+        return version != null && version.equals(processedContainerVersion.get(lfid));
+    }
+    
+    /**
+     * 记录容器响应版本已完整处理，之后同一版本的响应跳过过滤和比对
+     */
+    private void markContainerProcessed(String lfid, String version) {
+        if (version != null) {
+            processedContainerVersion.put(lfid, version);
+        }
+    }
+    
+    /**
+     * 发送微博消息，跳过已完成的群
+     * 熔断中的群和无法发送的群视为完成；发送失败的群在达到最多次数前留到下一轮补发
      * @param weiboData 微博数据
      * @param superTopicName 超话名称（可选）
      * @param groupIds 群组ID列表
+     * @param pending 该微博的各群发送进度
+     * @return 所有群组都已完成返回true
      */
-    private void sendWeiboMessage(WeiboData.WeiboSendData weiboData, String superTopicName, Set<String> groupIds) {
+    private boolean sendWeiboMessage(WeiboData.WeiboSendData weiboData, String superTopicName, Set<String> groupIds,
+                                     PendingDelivery pending) {
         String messageText = WeiboUtils.buildWeiboMessage(weiboData, superTopicName);
+        boolean allSettled = true;
         
         for (String groupId : groupIds) {
+            if (pending.settled.contains(groupId)) {
+                continue;
+            }
+            MessageSender.SendResult sendResult = MessageSender.SendResult.FAILED;
             try {
                 // 检查是否有图片，如果有则只发送第一张图片
                 String firstImageUrl = null;
@@ -302,13 +601,29 @@ public class WeiboMonitorService {
                 
                 // 发送文本消息和图片（如果有图片，图片会嵌入到文本消息的最后）
                 // 启用@全体成员功能
-                messageSender.sendGroupMessageWithImage(groupId, messageText, firstImageUrl, true);
-                
-                // 微博消息发送成功
+                sendResult = messageSender.sendGroupMessageWithImage(groupId, messageText, firstImageUrl, true);
             } catch (Exception e) {
                 logger.error("发送微博消息到群组{}失败", groupId, e);
             }
+            
+            if (sendResult != MessageSender.SendResult.FAILED) {
+                pending.settled.add(groupId);
+            } else if (pending.attempts.merge(groupId, 1, Integer::sum) >= MAX_DELIVERY_ATTEMPTS) {
+                logger.warn("微博{}发送到群组{}连续失败{}次，放弃该群", weiboData.id, groupId, MAX_DELIVERY_ATTEMPTS);
+                pending.settled.add(groupId);
+            } else {
+                allSettled = false;
+            }
         }
+        return allSettled;
+    }
+    
+    /**
+     * 单条微博的各群发送进度
+     */
+    private static final class PendingDelivery {
+        private final Set<String> settled = ConcurrentHashMap.newKeySet();
+        private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
     }
     
     /**
@@ -318,11 +633,22 @@ public class WeiboMonitorService {
      */
     private String getUserLfid(String uid) {
         String lfid = userLfidCache.get(uid);
-        if (lfid == null) {
+        if (lfid != null) {
+            // 缓存过期时继续使用旧值，在后台重新解析
+            if (!isUserInfoFresh(uid) && refreshingUsers.add(uid)) {
+                BlockingTaskExecutor.getInstance().execute(UPSTREAM, () -> {
+                    try {
+                        loadUserInfo(uid);
+                    } finally {
+                        refreshingUsers.remove(uid);
+                    }
+                });
+            }
+        } else {
             try {
                 lfid = weiboApiService.getUserWeiboLfid(uid);
                 if (lfid != null) {
-                    userLfidCache.put(uid, lfid);
+                    cacheUserInfo(userLfidCache, LFID_PREFIX, uid, lfid);
                 }
             } catch (Exception e) {
                 logger.warn("获取用户{}的lfid失败: {}", uid, e.getMessage());
@@ -337,7 +663,26 @@ public class WeiboMonitorService {
     }
     
     /**
-     * 预加载用户信息
+     * 缓存的用户lfid是否仍在有效期内
+     */
+    private boolean isUserInfoFresh(String uid) {
+        Long resolvedAt = userInfoResolvedAt.get(uid);
+        long ttl = TimeUnit.HOURS.toMillis(MonitorConfig.getInstance().getWeiboUserInfoTtlHours());
+        return resolvedAt != null && userLfidCache.containsKey(uid)
+                && System.currentTimeMillis() - resolvedAt < ttl;
+    }
+    
+    private void cacheUserInfo(Map<String, String> cache, String prefix, String uid, String value) {
+        long now = System.currentTimeMillis();
+        cache.put(uid, value);
+        if (LFID_PREFIX.equals(prefix)) {
+            userInfoResolvedAt.put(uid, now);
+        }
+        userInfoFile.put(prefix + uid, now + "|" + value);
+    }
+    
+    /**
+     * 解析用户信息（lfid和昵称）
      * @param uid 用户UID
      */
     private void loadUserInfo(String uid) {
@@ -346,16 +691,17 @@ public class WeiboMonitorService {
         
         while (retryCount < maxRetries) {
             try {
-                // 预加载lfid
-                String lfid = getUserLfid(uid);
+                // 解析lfid（缓存中的旧值在解析成功后才替换）
+                String lfid = weiboApiService.getUserWeiboLfid(uid);
                 if (lfid == null) {
                     throw new RuntimeException("无法获取用户lfid");
                 }
+                cacheUserInfo(userLfidCache, LFID_PREFIX, uid, lfid);
                 
-                // 预加载昵称
+                // 解析昵称
                 String nickname = weiboApiService.getUserNickname(uid);
                 if (nickname != null) {
-                    userNicknameCache.put(uid, nickname);
+                    cacheUserInfo(userNicknameCache, NICKNAME_PREFIX, uid, nickname);
                 }
                 
                 // 成功加载，退出重试循环
@@ -395,30 +741,19 @@ public class WeiboMonitorService {
                 return;
             }
             
-            JSONObject containerData = weiboApiService.requestWeiboContainer(lfid);
-            if (containerData == null || containerData.getInt("ok", 0) != 1) {
+            ConditionalResponseCache.Result<String> result = weiboApiService.requestWeiboContainerBody(lfid);
+            WeiboCardDecoder.Batch batch = WeiboCardDecoder.scanNewestId(
+                    result != null ? result.getValue() : null, false);
+            if (!batch.isOk()) {
                 logger.warn("获取用户{}微博容器数据失败，跳过初始化", uid);
                 return;
             }
             
-            JSONObject data = containerData.getJSONObject("data");
-            if (data == null || !data.containsKey("cards")) {
-                logger.info("用户{}暂无微博数据", uid);
-                return;
-            }
-            
-            // 过滤微博卡片
-            List<WeiboData.WeiboCard> cards = WeiboUtils.filterCards(data.getJSONArray("cards"));
-            if (!cards.isEmpty()) {
-                // 设置最新微博ID为当前最新的微博ID
-                Long latestId = cards.get(0)._id;
-                if (latestId != null) {
-                    userLatestWeiboId.put(uid, latestId);
-                    savePersistedWeiboIds();
-                    logger.info("初始化用户{}最新微博ID: {}", uid, latestId);
-                } else {
-                    logger.warn("用户{}的最新微博ID为空", uid);
-                }
+            // 设置最新微博ID为当前最新的微博ID
+            Long latestId = batch.getNewestId();
+            if (latestId != null) {
+                updateLatestWeiboId(userLatestWeiboId, USER_ID_PREFIX, uid, latestId);
+                logger.info("初始化用户{}最新微博ID: {}", uid, latestId);
             } else {
                 logger.info("用户{}暂无有效微博数据", uid);
             }
@@ -440,30 +775,19 @@ public class WeiboMonitorService {
                 return;
             }
             
-            JSONObject containerData = weiboApiService.requestWeiboContainer(lfid);
-            if (containerData == null || containerData.getInt("ok", 0) != 1) {
+            ConditionalResponseCache.Result<String> result = weiboApiService.requestWeiboContainerBody(lfid);
+            WeiboCardDecoder.Batch batch = WeiboCardDecoder.scanNewestId(
+                    result != null ? result.getValue() : null, true);
+            if (!batch.isOk()) {
                 logger.warn("获取超话{}容器数据失败，跳过初始化", lfid);
                 return;
             }
             
-            JSONObject data = containerData.getJSONObject("data");
-            if (data == null || !data.containsKey("cards")) {
-                logger.info("超话{}暂无微博数据", lfid);
-                return;
-            }
-            
-            // 过滤超话微博卡片
-            List<WeiboData.WeiboCard> cards = WeiboUtils.filterSuperTopicCards(data.getJSONArray("cards"));
-            if (!cards.isEmpty()) {
-                // 设置最新微博ID为当前最新的微博ID
-                Long latestId = cards.get(0)._id;
-                if (latestId != null) {
-                    superTopicLatestWeiboId.put(lfid, latestId);
-                    savePersistedWeiboIds();
-                    logger.info("初始化超话{}最新微博ID: {}", lfid, latestId);
-                } else {
-                    logger.warn("超话{}的最新微博ID为空", lfid);
-                }
+            // 设置最新微博ID为当前最新的微博ID
+            Long latestId = batch.getNewestId();
+            if (latestId != null) {
+                updateLatestWeiboId(superTopicLatestWeiboId, SUPER_TOPIC_ID_PREFIX, lfid, latestId);
+                logger.info("初始化超话{}最新微博ID: {}", lfid, latestId);
             } else {
                 logger.info("超话{}暂无有效微博数据", lfid);
             }
@@ -482,37 +806,144 @@ public class WeiboMonitorService {
         status.put("monitoredSuperTopics", monitoredSuperTopics.size());
         status.put("userGroupMappings", userGroupMapping.size());
         status.put("superTopicGroupMappings", superTopicGroupMapping.size());
+        status.put("userCycleMs", lastCycleDuration.getOrDefault(USER_TICK, 0L));
+        status.put("superTopicCycleMs", lastCycleDuration.getOrDefault(SUPER_TOPIC_TICK, 0L));
+        status.put("userPollLatency", summarizeLatency(userPollLatency));
+        status.put("superTopicPollLatency", summarizeLatency(superTopicPollLatency));
+        long now = System.currentTimeMillis();
+        status.put("userPollSchedule", userPollSchedule.getStats(now));
+        status.put("superTopicPollSchedule", superTopicPollSchedule.getStats(now));
         return status;
     }
     
+    /**
+     * 汇总单目标轮询耗时：平均、最大及最慢的几个目标
+     */
+    private static String summarizeLatency(Map<String, PollLatency> latencies) {
+        if (latencies.isEmpty()) {
+            return "暂无数据";
+        }
+        long count = 0;
+        long total = 0;
+        long max = 0;
+        for (PollLatency latency : latencies.values()) {
+            count += latency.count.sum();
+            total += latency.totalMs.sum();
+            max = Math.max(max, latency.maxMs.get());
+        }
+        List<Map.Entry<String, PollLatency>> slowest = new ArrayList<>(latencies.entrySet());
+        slowest.sort((a, b) -> Long.compare(b.getValue().lastMs, a.getValue().lastMs));
+        StringBuilder sb = new StringBuilder(String.format("平均: %dms, 最大: %dms, 最近最慢:",
+                count > 0 ? total / count : 0, max));
+        for (int i = 0; i < Math.min(3, slowest.size()); i++) {
+            sb.append(String.format(" %s(%dms)", slowest.get(i).getKey(), slowest.get(i).getValue().lastMs));
+        }
+        return sb.toString();
+    }
+    
+    private static class PollLatency {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final AtomicLong maxMs = new AtomicLong(0);
+        private volatile long lastMs;
+        
+        private void record(long elapsedMs) {
+            count.increment();
+            totalMs.add(elapsedMs);
+            maxMs.accumulateAndGet(elapsedMs, Math::max);
+            lastMs = elapsedMs;
+        }
+    }
+    
+    /**
+     * 加载缓存的用户lfid/昵称，过期的条目照常使用，首次轮询时在后台刷新
+     */
+    private void loadPersistedUserInfo() {
+        try {
+            if (!userInfoFile.exists()) {
+                return;
+            }
+            for (Map.Entry<String, String> entry : userInfoFile.load().entrySet()) {
+                String key = entry.getKey();
+                String value = entry.getValue();
+                int separator = value.indexOf('|');
+                if (separator <= 0) {
+                    continue;
+                }
+                try {
+                    long resolvedAt = Long.parseLong(value.substring(0, separator));
+                    String content = value.substring(separator + 1);
+                    if (key.startsWith(LFID_PREFIX)) {
+                        String uid = key.substring(LFID_PREFIX.length());
+                        userLfidCache.put(uid, content);
+                        userInfoResolvedAt.put(uid, resolvedAt);
+                    } else if (key.startsWith(NICKNAME_PREFIX)) {
+                        userNicknameCache.put(key.substring(NICKNAME_PREFIX.length()), content);
+                    }
+                } catch (NumberFormatException e) {
+                    logger.warn("解析用户信息缓存失败: {} = {}", key, value);
+                }
+            }
+            logger.info("加载用户信息缓存完成 - lfid: {}, 昵称: {}", userLfidCache.size(), userNicknameCache.size());
+        } catch (Exception e) {
+            logger.error("加载用户信息缓存失败", e);
+        }
+    }
+    
+    /**
+     * 恢复持久化的发帖时间记录
+     */
+    private void restoreActivity(String key, String value) {
+        AdaptivePollScheduler schedule;
+        String id;
+        if (key.startsWith(USER_ID_PREFIX)) {
+            schedule = userPollSchedule;
+            id = key.substring(USER_ID_PREFIX.length());
+        } else if (key.startsWith(SUPER_TOPIC_ID_PREFIX)) {
+            schedule = superTopicPollSchedule;
+            id = key.substring(SUPER_TOPIC_ID_PREFIX.length());
+        } else {
+            return;
+        }
+        try {
+            String[] parts = value.split(",");
+            long[] times = new long[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                times[i] = Long.parseLong(parts[i].trim());
+            }
+            schedule.restoreHistory(id, times);
+        } catch (NumberFormatException e) {
+            logger.warn("解析发帖时间记录失败: {} = {}", key, value);
+        }
+    }
+    
     /**
      * 加载持久化的微博ID
      */
     private void loadPersistedWeiboIds() {
         try {
-            File configDir = Newboy.INSTANCE.getProperties().configData.getParentFile();
-            File weiboIdsFile = new File(configDir, WEIBO_IDS_FILE);
-            
             if (!weiboIdsFile.exists()) {
                 logger.info("微博ID持久化文件不存在，将从头开始监控");
                 return;
             }
             
-            Properties props = new Properties();
-            try (FileInputStream fis = new FileInputStream(weiboIdsFile)) {
-                props.load(fis);
-            }
+            Map<String, String> props = weiboIdsFile.load();
             
             // 加载用户微博ID
-            for (String key : props.stringPropertyNames()) {
-                String value = props.getProperty(key);
+            for (Map.Entry<String, String> entry : props.entrySet()) {
+                String key = entry.getKey();
+                String value = entry.getValue();
+                if (key.startsWith(ACTIVITY_PREFIX)) {
+                    restoreActivity(key.substring(ACTIVITY_PREFIX.length()), value);
+                    continue;
+                }
                 try {
                     Long weiboId = Long.parseLong(value);
-                    if (key.startsWith("user.")) {
-                        String uid = key.substring(5); // 移除"user."前缀
+                    if (key.startsWith(USER_ID_PREFIX)) {
+                        String uid = key.substring(USER_ID_PREFIX.length());
                         userLatestWeiboId.put(uid, weiboId);
-                    } else if (key.startsWith("supertopic.")) {
-                        String lfid = key.substring(11); // 移除"supertopic."前缀
+                    } else if (key.startsWith(SUPER_TOPIC_ID_PREFIX)) {
+                        String lfid = key.substring(SUPER_TOPIC_ID_PREFIX.length());
                         superTopicLatestWeiboId.put(lfid, weiboId);
                     }
                 } catch (NumberFormatException e) {
@@ -527,33 +958,4 @@ public class WeiboMonitorService {
             logger.error("加载持久化微博ID失败", e);
         }
     }
-    
-    /**
-     * 保存微博ID到持久化文件
-     */
-    private void savePersistedWeiboIds() {
-        try {
-            File configDir = Newboy.INSTANCE.getProperties().configData.getParentFile();
-            File weiboIdsFile = new File(configDir, WEIBO_IDS_FILE);
-            
-            Properties props = new Properties();
-            
-            // 保存用户微博ID
-            for (Map.Entry<String, Long> entry : userLatestWeiboId.entrySet()) {
-                props.setProperty("user." + entry.getKey(), entry.getValue().toString());
-            }
-            
-            // 保存超话微博ID
-            for (Map.Entry<String, Long> entry : superTopicLatestWeiboId.entrySet()) {
-                props.setProperty("supertopic." + entry.getKey(), entry.getValue().toString());
-            }
-            
-            try (FileOutputStream fos = new FileOutputStream(weiboIdsFile)) {
-                props.store(fos, "微博最新ID持久化文件 - 自动生成，请勿手动修改");
-            }
-            
-        } catch (Exception e) {
-            logger.error("保存持久化微博ID失败", e);
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package net.luffy.test;
+
+import net.luffy.util.BlockingTaskExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 阻塞任务执行后端基准测试工具
+ * 模拟一轮轮询中N个订阅群各自发起若干次阻塞网络请求，比较平台线程池与虚拟线程后端的单轮耗时和平台线程数，
+ * 并在两个上游排满时向第三个上游提交一个空任务，测量其等待时间（检查上游之间是否互相挤占线程）
+ * 用法: BlockingExecutorBenchmark [群数量=1000] [每群请求数=3] [单次请求耗时ms=150] [每上游许可=32] [轮数=3]
+ */
+public class BlockingExecutorBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int groups = intArg(args, 0, 1000);
+        int callsPerGroup = intArg(args, 1, 3);
+        long latencyMs = intArg(args, 2, 150);
+        int permits = intArg(args, 3, 32);
+        int ticks = intArg(args, 4, 3);
+
+        System.out.println("=== 阻塞任务执行后端基准测试 ===");
+        System.out.printf("JVM: %s, 群数量: %d, 每群请求: %d, 请求耗时: %dms, 每上游许可: %d%n",
+                System.getProperty("java.version"), groups, callsPerGroup, latencyMs, permits);
+
+        for (String backend : new String[]{BlockingTaskExecutor.BACKEND_PLATFORM, BlockingTaskExecutor.BACKEND_AUTO}) {
+            BlockingTaskExecutor executor = new BlockingTaskExecutor(backend, permits);
+            if (BlockingTaskExecutor.BACKEND_AUTO.equals(backend) && !executor.isVirtual()) {
+                System.out.println("\n[虚拟线程] 当前JVM不支持虚拟线程（需要JDK 21+），跳过");
+                continue;
+            }
+            String label = executor.isVirtual() ? "虚拟线程" : "平台线程池";
+            for (int tick = 1; tick <= ticks; tick++) {
+                runTick(label, tick, executor, groups, callsPerGroup, latencyMs);
+            }
+            executor.shutdown();
+        }
+        System.exit(0);
+    }
+
+    private static void runTick(String label, int tick, BlockingTaskExecutor executor, int groups,
+                                int callsPerGroup, long latencyMs) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        AtomicInteger peakThreads = new AtomicInteger(threads.getThreadCount());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max),
+                0, 10, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> futures = new ArrayList<>(groups);
+        for (int group = 0; group < groups; group++) {
+            // 按群交替使用两个上游，与口袋48/微店任务混合提交的情况一致
+            String upstream = group % 2 == 0 ? "pocket48" : "weidian";
+            futures.add(executor.submit(upstream, () -> {
+                long taskStart = System.nanoTime();
+                for (int call = 0; call < callsPerGroup; call++) {
+                    // 模拟阻塞网络I/O
+                    Thread.sleep(latencyMs);
+                }
+                return System.nanoTime() - taskStart;
+            }));
+        }
+        long probeStart = System.nanoTime();
+        executor.submit("probe", () -> null).get(10, TimeUnit.MINUTES);
+        long probeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - probeStart);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.MINUTES);
+        long tickMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        sampler.shutdownNow();
+
+        long[] latencies = futures.stream().mapToLong(f -> TimeUnit.NANOSECONDS.toMillis(f.join())).sorted().toArray();
+        System.out.printf("%n[%s] 第%d轮 - 单轮耗时: %dms, 任务耗时 P50: %dms / P99: %dms, 其他上游等待: %dms, 平台线程峰值: %d%n",
+                label, tick, tickMs, latencies[latencies.length / 2], latencies[(int) (latencies.length * 0.99)],
+                probeMs, peakThreads.get());
+        System.out.println(executor.getStats());
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
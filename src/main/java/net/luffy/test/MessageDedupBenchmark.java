@@ -0,0 +1,142 @@
+package net.luffy.test;
+
+import net.luffy.model.Pocket48MessageType;
+import net.luffy.util.MessageDedupIndex;
+import net.luffy.util.MessageIntegrityChecker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消息去重索引基准测试工具
+ * 模拟多个房间并发轮询：每轮拉取一页消息，其中大部分是上一轮已处理过的重复消息，
+ * 比较原实现（字符串ID + 全局时间窗口Map + 每房间同步LinkedHashSet）与按房间指纹索引的吞吐量
+ * 用法: MessageDedupBenchmark [房间数=200] [每房间轮数=500] [每页消息数=20] [每轮新消息数=2] [线程数=8]
+ */
+public class MessageDedupBenchmark {
+
+    private static final int MAX_CACHE_SIZE = 1000;
+    private static final long TIME_WINDOW_THRESHOLD = 5 * 60 * 1000;
+
+    public static void main(String[] args) throws Exception {
+        int rooms = intArg(args, 0, 200);
+        int rounds = intArg(args, 1, 500);
+        int pageSize = intArg(args, 2, 20);
+        int newPerRound = intArg(args, 3, 2);
+        int threads = intArg(args, 4, 8);
+
+        System.out.println("=== 消息去重索引基准测试 ===");
+        System.out.printf("JVM: %s, 房间数: %d, 每房间轮数: %d, 每页: %d, 每轮新消息: %d, 线程数: %d%n",
+                System.getProperty("java.version"), rooms, rounds, pageSize, newPerRound, threads);
+
+        for (int run = 1; run <= 3; run++) {
+            // 前两轮用于JIT预热，只看最后一轮
+            report("原实现", run, runWorkload(new LegacyDedup(), rooms, rounds, pageSize, newPerRound, threads));
+            report("指纹索引", run, runWorkload(new IndexDedup(), rooms, rounds, pageSize, newPerRound, threads));
+        }
+        System.exit(0);
+    }
+
+    private static long[] runWorkload(Dedup dedup, int rooms, int rounds, int pageSize, int newPerRound,
+                                      int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Long>> futures = new ArrayList<>(rooms);
+        long start = System.nanoTime();
+        for (int room = 0; room < rooms; room++) {
+            long roomId = 10000L + room;
+            futures.add(executor.submit(() -> {
+                long duplicates = 0;
+                long baseTime = System.currentTimeMillis();
+                for (int round = 0; round < rounds; round++) {
+                    // 一页消息：最新的newPerRound条是新的，其余与上一轮重叠
+                    int newest = round * newPerRound + pageSize;
+                    for (int i = newest - pageSize; i < newest; i++) {
+                        if (dedup.isDuplicate(roomId, baseTime + i * 1000L, "成员" + roomId, "消息内容 " + i)) {
+                            duplicates++;
+                        }
+                    }
+                }
+                return duplicates;
+            }));
+        }
+        long duplicates = 0;
+        for (Future<Long> future : futures) {
+            duplicates += future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return new long[]{elapsed, (long) rooms * rounds * pageSize, duplicates};
+    }
+
+    private static void report(String label, int run, long[] result) {
+        double ms = result[0] / 1_000_000.0;
+        System.out.printf("[%s] 第%d轮 - 耗时: %.1fms, 检查: %d条, 重复: %d条, 吞吐: %.0f万条/秒%n",
+                label, run, ms, result[1], result[2], result[1] / ms / 10.0);
+    }
+
+    private interface Dedup {
+        boolean isDuplicate(long roomId, long time, String nickName, String body);
+    }
+
+    /**
+     * 原MessageIntegrityChecker的去重逻辑（去掉日志输出）
+     */
+    private static final class LegacyDedup implements Dedup {
+        private final Map<Long, Set<String>> roomMessageCache = new ConcurrentHashMap<>();
+        private final Map<String, Long> messageTimeWindow = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean isDuplicate(long roomId, long time, String nickName, String body) {
+            String messageId = time + "_" + nickName.trim() + "_" + "TXT_" + body.trim().hashCode();
+            long currentTime = System.currentTimeMillis();
+            Long lastSeenTime = messageTimeWindow.get(messageId);
+            if (lastSeenTime != null && (currentTime - lastSeenTime) < TIME_WINDOW_THRESHOLD) {
+                return true;
+            }
+            Set<String> messageCache = roomMessageCache.computeIfAbsent(roomId, k ->
+                    Collections.synchronizedSet(new LinkedHashSet<>()));
+            if (messageCache.contains(messageId)) {
+                return true;
+            }
+            synchronized (messageCache) {
+                messageCache.add(messageId);
+                if (messageCache.size() > MAX_CACHE_SIZE) {
+                    Iterator<String> iterator = messageCache.iterator();
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+            messageTimeWindow.put(messageId, currentTime);
+            if (Math.random() < 0.01) {
+                messageTimeWindow.entrySet().removeIf(entry ->
+                        (currentTime - entry.getValue()) > TIME_WINDOW_THRESHOLD * 2);
+            }
+            return false;
+        }
+    }
+
+    private static final class IndexDedup implements Dedup {
+        private final Map<Long, MessageDedupIndex> indexes = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean isDuplicate(long roomId, long time, String nickName, String body) {
+            long fingerprint = MessageIntegrityChecker.fingerprint(time, nickName, Pocket48MessageType.TEXT, body);
+            return !indexes.computeIfAbsent(roomId, k -> new MessageDedupIndex(MAX_CACHE_SIZE)).add(fingerprint);
+        }
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
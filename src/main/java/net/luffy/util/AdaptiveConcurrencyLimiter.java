@@ -0,0 +1,334 @@
+package net.luffy.util;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 按主机的自适应并发限制器（AIMD + RTT梯度）
+ * 每个主机维护允许的在途请求数上限：RTT接近长期基线且限额被用满时加性增加，
+ * RTT明显劣化、超时、429/5xx时乘性减少（每个RTT周期最多减少一次）；
+ * RTT劣化按窗口判断：每累计RTT_WINDOW_SIZE个样本取一次中位数，与之前窗口形成的长期基线比较后再并入基线，
+ * 单个慢请求不会触发降额。
+ * 超出限额的同步请求在调用线程上排队等待，队列已满或等待超时时直接拒绝，避免在上游变慢时继续堆积请求；
+ * 异步请求通过acquireAsync登记回调排队，不占用任何线程，许可归还时按先后顺序直接转交给排队的回调
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    // 长期RTT基线的平滑系数（每个窗口更新一次）
+    private static final double LONG_RTT_ALPHA = 0.2;
+    // 每个RTT判断窗口的样本数，窗口内取中位数；第一个窗口只建立基线
+    private static final int RTT_WINDOW_SIZE = 20;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double backoffRatio;
+    private final int maxQueueSize;
+    private final long maxQueueWaitMs;
+
+    private final Map<String, HostLimit> hostLimits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+                                      double backoffRatio, int maxQueueSize, long maxQueueWaitMs) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.initialLimit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.rttTolerance = Math.max(1.1, rttTolerance);
+        this.backoffRatio = Math.max(0.1, Math.min(0.95, backoffRatio));
+        this.maxQueueSize = Math.max(0, maxQueueSize);
+        this.maxQueueWaitMs = Math.max(0L, maxQueueWaitMs);
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * 获取主机的一个并发许可，超出限额时排队等待
+     * @throws LimitExceededException 队列已满或等待超时时拒绝请求
+     * @throws IOException 等待时线程被中断
+     */
+    public void acquire(String host) throws IOException {
+        acquire(host, true);
+    }
+
+    /**
+     * 获取主机的一个并发许可，超出限额时立即拒绝，不排队等待
+     * @throws LimitExceededException 没有空闲许可
+     */
+    public void tryAcquire(String host) throws IOException {
+        acquire(host, false);
+    }
+
+    /**
+     * 异步获取主机的一个并发许可，不阻塞调用线程
+     * 有空闲许可时在当前线程上立即执行onGranted；否则登记排队，由归还许可的线程执行onGranted。
+     * 队列已满时立即以LimitExceededException执行onRejected；排队超过最长等待时间的回调在下次许可归还或
+     * 新请求登记时以LimitExceededException拒绝。两个回调都可能在持有其他锁的线程上执行，不应阻塞
+     */
+    public void acquireAsync(String host, Runnable onGranted, Consumer<IOException> onRejected) {
+        HostLimit limit = hostLimits.computeIfAbsent(host, k -> new HostLimit(initialLimit));
+        List<AsyncWaiter> expired;
+        boolean granted = false;
+        LimitExceededException rejection = null;
+        synchronized (limit) {
+            expired = expireWaiters(limit, System.nanoTime());
+            if (limit.asyncWaiters.isEmpty() && limit.inFlight < (int) limit.limit) {
+                limit.inFlight++;
+                granted = true;
+            } else if (limit.queued + limit.asyncWaiters.size() >= maxQueueSize) {
+                limit.shed.increment();
+                rejection = new LimitExceededException(String.format("HTTP并发限制: 主机 %s 在途 %d / 限额 %d，排队已满，拒绝请求",
+                        host, limit.inFlight, (int) limit.limit));
+            } else {
+                limit.asyncWaiters.addLast(new AsyncWaiter(
+                        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs), onGranted, onRejected));
+            }
+        }
+        rejectExpired(host, expired);
+        if (granted) {
+            onGranted.run();
+        } else if (rejection != null) {
+            onRejected.accept(rejection);
+        }
+    }
+
+    private void acquire(String host, boolean wait) throws IOException {
+        HostLimit limit = hostLimits.computeIfAbsent(host, k -> new HostLimit(initialLimit));
+        synchronized (limit) {
+            if (limit.inFlight < (int) limit.limit) {
+                limit.inFlight++;
+                return;
+            }
+            if (!wait) {
+                limit.shed.increment();
+                throw new LimitExceededException(String.format("HTTP并发限制: 主机 %s 在途 %d / 限额 %d，拒绝请求",
+                        host, limit.inFlight, (int) limit.limit));
+            }
+            if (limit.queued + limit.asyncWaiters.size() >= maxQueueSize) {
+                limit.shed.increment();
+                throw new LimitExceededException(String.format("HTTP并发限制: 主机 %s 在途 %d / 限额 %d，排队已满，拒绝请求",
+                        host, limit.inFlight, (int) limit.limit));
+            }
+            limit.queued++;
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+                while (limit.inFlight >= (int) limit.limit) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        limit.shed.increment();
+                        throw new LimitExceededException(String.format("HTTP并发限制: 主机 %s 排队超过 %dms，拒绝请求",
+                                host, maxQueueWaitMs));
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(limit, remaining);
+                }
+                limit.inFlight++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("HTTP并发限制: 等待许可被中断", e);
+            } finally {
+                limit.queued--;
+            }
+        }
+    }
+
+    /**
+     * 归还许可并根据本次结果调整限额
+     * @param rttMs 请求耗时（到收到响应头为止）
+     * @param dropped 是否为过载信号（超时、429、5xx等）
+     */
+    public void release(String host, long rttMs, boolean dropped) {
+        HostLimit limit = hostLimits.get(host);
+        if (limit == null) {
+            return;
+        }
+        List<AsyncWaiter> expired;
+        List<AsyncWaiter> granted;
+        synchronized (limit) {
+            int inFlightBefore = limit.inFlight;
+            limit.inFlight = Math.max(0, limit.inFlight - 1);
+            limit.lastRtt = rttMs;
+
+            boolean rttDegraded = false;
+            if (!dropped) {
+                limit.window[limit.windowCount++] = rttMs;
+                if (limit.windowCount == RTT_WINDOW_SIZE) {
+                    long[] sorted = limit.window.clone();
+                    Arrays.sort(sorted);
+                    limit.windowRtt = sorted[RTT_WINDOW_SIZE / 2];
+                    limit.windowCount = 0;
+                    rttDegraded = limit.longRtt > 0 && limit.windowRtt > limit.longRtt * rttTolerance;
+                    limit.longRtt = limit.longRtt > 0
+                            ? limit.longRtt * (1 - LONG_RTT_ALPHA) + limit.windowRtt * LONG_RTT_ALPHA
+                            : limit.windowRtt;
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            if (dropped || rttDegraded) {
+                // 同一RTT周期内的多个过载信号只减少一次，避免限额骤降到底
+                long window = Math.max(100L, (long) limit.longRtt);
+                if (now - limit.lastDecreaseTime >= window) {
+                    limit.limit = Math.max(minLimit, limit.limit * backoffRatio);
+                    limit.lastDecreaseTime = now;
+                    limit.decreases.increment();
+                }
+            } else if (inFlightBefore * 2 >= (int) limit.limit) {
+                // 仅在限额被实际使用过半时增加，避免低流量时限额无意义地膨胀
+                limit.limit = Math.min(maxLimit, limit.limit + 1.0 / limit.limit);
+            }
+            expired = expireWaiters(limit, System.nanoTime());
+            granted = grantWaiters(limit);
+            limit.notifyAll();
+        }
+        rejectExpired(host, expired);
+        runGranted(granted);
+    }
+
+    /**
+     * 归还未实际使用的许可（如调用在发出前被取消），不记录RTT样本也不调整限额
+     */
+    public void releaseUnused(String host) {
+        HostLimit limit = hostLimits.get(host);
+        if (limit == null) {
+            return;
+        }
+        List<AsyncWaiter> expired;
+        List<AsyncWaiter> granted;
+        synchronized (limit) {
+            limit.inFlight = Math.max(0, limit.inFlight - 1);
+            expired = expireWaiters(limit, System.nanoTime());
+            granted = grantWaiters(limit);
+            limit.notifyAll();
+        }
+        rejectExpired(host, expired);
+        runGranted(granted);
+    }
+
+    /**
+     * 按先后顺序把空闲许可转交给排队的异步回调，需持有limit锁
+     */
+    private static List<AsyncWaiter> grantWaiters(HostLimit limit) {
+        List<AsyncWaiter> granted = null;
+        while (!limit.asyncWaiters.isEmpty() && limit.inFlight < (int) limit.limit) {
+            limit.inFlight++;
+            if (granted == null) {
+                granted = new ArrayList<>();
+            }
+            granted.add(limit.asyncWaiters.pollFirst());
+        }
+        return granted != null ? granted : Collections.emptyList();
+    }
+
+    /**
+     * 移出排队超过最长等待时间的异步回调，需持有limit锁
+     */
+    private static List<AsyncWaiter> expireWaiters(HostLimit limit, long now) {
+        List<AsyncWaiter> expired = null;
+        while (!limit.asyncWaiters.isEmpty() && limit.asyncWaiters.peekFirst().deadline - now <= 0) {
+            limit.shed.increment();
+            if (expired == null) {
+                expired = new ArrayList<>();
+            }
+            expired.add(limit.asyncWaiters.pollFirst());
+        }
+        return expired != null ? expired : Collections.emptyList();
+    }
+
+    private void rejectExpired(String host, List<AsyncWaiter> expired) {
+        for (AsyncWaiter waiter : expired) {
+            waiter.onRejected.accept(new LimitExceededException(String.format("HTTP并发限制: 主机 %s 排队超过 %dms，拒绝请求",
+                    host, maxQueueWaitMs)));
+        }
+    }
+
+    private static void runGranted(List<AsyncWaiter> granted) {
+        for (AsyncWaiter waiter : granted) {
+            waiter.onGranted.run();
+        }
+    }
+
+    /**
+     * 获取主机当前的并发限额，未记录时返回初始限额
+     */
+    public int getLimit(String host) {
+        HostLimit limit = hostLimits.get(host);
+        if (limit == null) {
+            return initialLimit;
+        }
+        synchronized (limit) {
+            return (int) limit.limit;
+        }
+    }
+
+    /**
+     * 获取各主机的限额、在途、排队及拒绝统计
+     */
+    public String getStats() {
+        StringBuilder sb = new StringBuilder("HTTP自适应并发限制:");
+        List<String> hosts = new ArrayList<>(hostLimits.keySet());
+        hosts.sort(null);
+        for (String host : hosts) {
+            HostLimit limit = hostLimits.get(host);
+            synchronized (limit) {
+                sb.append(String.format("\n  %s - 限额: %d, 在途: %d, 排队: %d, RTT基线: %.0fms, 窗口RTT中位数: %dms, 最近RTT: %dms, 降额: %d, 拒绝: %d",
+                        host, (int) limit.limit, limit.inFlight, limit.queued + limit.asyncWaiters.size(), limit.longRtt, limit.windowRtt, limit.lastRtt,
+                        limit.decreases.sum(), limit.shed.sum()));
+            }
+        }
+        if (hosts.isEmpty()) {
+            sb.append(" 暂无请求");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 并发限制拒绝异常（主机过载，调用方不应立即重试）
+     */
+    public static class LimitExceededException extends IOException {
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private static class HostLimit {
+        private double limit;
+        private int inFlight;
+        private int queued;
+        private double longRtt;
+        private long lastRtt;
+        private final long[] window = new long[RTT_WINDOW_SIZE];
+        private int windowCount;
+        private long windowRtt;
+        private long lastDecreaseTime;
+        private final LongAdder decreases = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+        private final ArrayDeque<AsyncWaiter> asyncWaiters = new ArrayDeque<>();
+
+        private HostLimit(int initialLimit) {
+            this.limit = initialLimit;
+        }
+    }
+
+    private static final class AsyncWaiter {
+        private final long deadline;
+        private final Runnable onGranted;
+        private final Consumer<IOException> onRejected;
+
+        private AsyncWaiter(long deadline, Runnable onGranted, Consumer<IOException> onRejected) {
+            this.deadline = deadline;
+            this.onGranted = onGranted;
+            this.onRejected = onRejected;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package net.luffy.util;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按发帖活跃度决定轮询间隔的调度表
+ * 每个目标保留最近若干次发现新内容的时间：刚发过内容的目标在短时间内按最短间隔轮询（连续发帖多集中出现），
+ * 其余目标按默认间隔轮询；只有明显沉寂的目标（超过DORMANT_AFTER_MS且超过平均发帖间隔的DORMANT_GAP_MULTIPLE倍未更新）
+ * 才随沉寂时长线性放慢，最长不超过max。标记为热点的目标始终按最短间隔轮询
+ */
+public class AdaptivePollScheduler {
+
+    // 每个目标保留的发帖时间数量
+    private static final int HISTORY_SIZE = 16;
+    // 视为沉寂的最短未更新时长
+    private static final long DORMANT_AFTER_MS = 3 * 24 * 60 * 60 * 1000L;
+    // 未更新时长超过平均发帖间隔的该倍数才视为沉寂，低频但规律发帖的目标不会被放慢
+    private static final int DORMANT_GAP_MULTIPLE = 4;
+    // 发现新内容后按最短间隔轮询的时长
+    private static final long BURST_WINDOW_MS = 10 * 60 * 1000L;
+
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final long defaultIntervalMs;
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+    private final Set<String> hotTargets = ConcurrentHashMap.newKeySet();
+
+    public AdaptivePollScheduler(long minIntervalMs, long maxIntervalMs, long defaultIntervalMs) {
+        this.minIntervalMs = Math.max(1, minIntervalMs);
+        this.maxIntervalMs = Math.max(this.minIntervalMs, maxIntervalMs);
+        this.defaultIntervalMs = Math.min(this.maxIntervalMs, Math.max(this.minIntervalMs, defaultIntervalMs));
+    }
+
+    /**
+     * 目标本轮是否需要轮询（从未轮询过的目标立即轮询）
+     */
+    public boolean isDue(String target, long now) {
+        Target state = targets.get(target);
+        return state == null || now >= state.nextPollAt;
+    }
+
+    /**
+     * 记录一次轮询完成，按当前活跃度安排下一次轮询
+     */
+    public void recordPoll(String target, long now) {
+        Target state = targetFor(target);
+        state.nextPollAt = now + intervalFor(target, now);
+    }
+
+    /**
+     * 记录发现新内容的时间（一次轮询发现多条时只记一次）
+     */
+    public void recordPost(String target, long time) {
+        targetFor(target).history.append(time);
+    }
+
+    /**
+     * 恢复持久化的发帖时间（从旧到新）
+     */
+    public void restoreHistory(String target, long[] times) {
+        TimestampRingBuffer history = targetFor(target).history;
+        for (long time : times) {
+            history.append(time);
+        }
+    }
+
+    public long[] getHistory(String target) {
+        Target state = targets.get(target);
+        return state != null ? state.history.toArray() : new long[0];
+    }
+
+    public void setHot(String target, boolean hot) {
+        if (hot) {
+            hotTargets.add(target);
+            // 立即生效，不等待已安排的下一次轮询
+            Target state = targets.get(target);
+            if (state != null) {
+                state.nextPollAt = 0;
+            }
+        } else {
+            hotTargets.remove(target);
+        }
+    }
+
+    public boolean isHot(String target) {
+        return hotTargets.contains(target);
+    }
+
+    public void remove(String target) {
+        targets.remove(target);
+    }
+
+    /**
+     * 目标当前的轮询间隔
+     */
+    public long intervalFor(String target, long now) {
+        if (hotTargets.contains(target)) {
+            return minIntervalMs;
+        }
+        Target state = targets.get(target);
+        if (state == null || state.history.isEmpty()) {
+            return defaultIntervalMs;
+        }
+        long sinceLast = Math.max(0, now - state.history.latest(now));
+        if (sinceLast < BURST_WINDOW_MS) {
+            return minIntervalMs;
+        }
+        TimestampRingBuffer.GapStats gaps = state.history.gapStats();
+        long dormantAfter = DORMANT_AFTER_MS;
+        if (gaps.getGapCount() > 0) {
+            dormantAfter = Math.max(dormantAfter, gaps.getAverageGap() * DORMANT_GAP_MULTIPLE);
+        }
+        if (sinceLast < dormantAfter) {
+            return defaultIntervalMs;
+        }
+        // 沉寂后按沉寂时长与阈值的比例放慢：沉寂时长为阈值2倍时间隔为默认的2倍
+        return clamp((long) (defaultIntervalMs * ((double) sinceLast / dormantAfter)));
+    }
+
+    /**
+     * 各目标轮询间隔的汇总
+     */
+    public String getStats(long now) {
+        if (targets.isEmpty()) {
+            return "暂无数据";
+        }
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        int atMin = 0;
+        int atMax = 0;
+        for (String target : targets.keySet()) {
+            long interval = intervalFor(target, now);
+            total += interval;
+            min = Math.min(min, interval);
+            max = Math.max(max, interval);
+            if (interval == minIntervalMs) {
+                atMin++;
+            } else if (interval == maxIntervalMs) {
+                atMax++;
+            }
+        }
+        return String.format("目标: %d, 热点: %d, 平均间隔: %ds, 最短: %ds, 最长: %ds, 最短间隔目标: %d, 最长间隔目标: %d",
+                targets.size(), hotTargets.size(), total / targets.size() / 1000, min / 1000, max / 1000, atMin, atMax);
+    }
+
+    private long clamp(long interval) {
+        return Math.min(maxIntervalMs, Math.max(minIntervalMs, interval));
+    }
+
+    private Target targetFor(String target) {
+        return targets.computeIfAbsent(target, k -> new Target());
+    }
+
+    private static final class Target {
+        private final TimestampRingBuffer history = new TimestampRingBuffer(HISTORY_SIZE);
+        private volatile long nextPollAt;
+    }
+}
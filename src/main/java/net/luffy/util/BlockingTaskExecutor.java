@@ -0,0 +1,304 @@
+package net.luffy.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 阻塞任务执行器
+ * 口袋48、微店等发送器以阻塞方式等待网络I/O：运行时支持虚拟线程（JDK 21+）时每个任务使用一个虚拟线程，
+ * 等待期间不占用平台线程；不支持或配置为platform时使用专用的平台线程池，核心线程数随上游创建增长为各上游许可数之和，
+ * 拿到许可的任务总能立即得到线程，空闲线程超时回收。
+ * 每个上游使用独立信号量限制同时执行的任务数，避免虚拟线程无限并发压垮上游。
+ * 许可在交给执行器之前获取：拿不到许可的任务留在该上游自己的等待队列中，不占用任何线程，
+ * 任务结束释放许可时再从队列取下一个，一个上游排满不会挤占其他上游的线程
+ */
+public class BlockingTaskExecutor {
+
+    public static final String BACKEND_AUTO = "auto";
+    public static final String BACKEND_VIRTUAL = "virtual";
+    public static final String BACKEND_PLATFORM = "platform";
+
+    private static volatile BlockingTaskExecutor instance;
+
+    // 平台线程空闲回收时间
+    private static final long PLATFORM_KEEP_ALIVE_SECONDS = 60L;
+
+    // 虚拟线程执行器，使用平台线程池时为null
+    private final ExecutorService virtualExecutor;
+    // 专用平台线程池，使用虚拟线程时为null
+    private final ThreadPoolExecutor platformExecutor;
+    private final Executor executor;
+    private final int permitsPerUpstream;
+    // 单独指定了并发上限的上游，未指定的使用permitsPerUpstream
+    private final Map<String, Integer> upstreamPermits = new ConcurrentHashMap<>();
+    private final Map<String, UpstreamGate> gates = new ConcurrentHashMap<>();
+
+    /**
+     * @param backend auto（支持时使用虚拟线程）、virtual（同auto，不支持时记录警告）或platform
+     * @param permitsPerUpstream 每个上游同时执行的任务数上限
+     */
+    public BlockingTaskExecutor(String backend, int permitsPerUpstream) {
+        this.permitsPerUpstream = Math.max(1, permitsPerUpstream);
+        String mode = backend != null ? backend.trim().toLowerCase() : BACKEND_AUTO;
+        ExecutorService virtual = BACKEND_PLATFORM.equals(mode) ? null : createVirtualExecutor();
+        if (virtual == null && BACKEND_VIRTUAL.equals(mode)) {
+            UnifiedLogger.getInstance().warn("BlockingTaskExecutor", "当前JVM不支持虚拟线程（需要JDK 21+），回退到平台线程池");
+        }
+        this.virtualExecutor = virtual;
+        this.platformExecutor = virtual == null ? createPlatformExecutor() : null;
+        this.executor = virtual != null ? virtual : platformExecutor;
+    }
+
+    /**
+     * 创建专用平台线程池，核心线程数从0开始，由gateFor按上游许可数增加
+     */
+    private static ThreadPoolExecutor createPlatformExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(0, 1, PLATFORM_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "BlockingTask-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public static BlockingTaskExecutor getInstance() {
+        if (instance == null) {
+            synchronized (BlockingTaskExecutor.class) {
+                if (instance == null) {
+                    MonitorConfig config = MonitorConfig.getInstance();
+                    instance = new BlockingTaskExecutor(config.getExecutorBackend(), config.getExecutorUpstreamPermits());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，编译目标低于JDK 21时仍可在新版运行时上启用
+     */
+    private static ExecutorService createVirtualExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK 19/20未开启预览特性时调用会抛出UnsupportedOperationException
+            return null;
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtualExecutor != null;
+    }
+
+    /**
+     * 为指定上游单独设置同时执行的任务数上限（如同一主机的接口需要比默认值更严格的限制）
+     * 需在该上游首次提交任务前调用，已创建的信号量不会调整
+     */
+    public void setUpstreamPermits(String upstream, int permits) {
+        upstreamPermits.put(upstream, Math.max(1, permits));
+        UpstreamGate gate = gates.get(upstream);
+        if (gate != null && gate.permits != Math.max(1, permits)) {
+            UnifiedLogger.getInstance().warn("BlockingTaskExecutor",
+                    "上游 " + upstream + " 已在使用中，并发上限调整将在重启后生效");
+        }
+    }
+
+    /**
+     * 在指定上游的并发限制下执行阻塞任务
+     * @param upstream 上游名称，如pocket48、weidian、weibo
+     */
+    public void execute(String upstream, Runnable task) {
+        UpstreamGate gate = gateFor(upstream);
+        enqueue(gate, new PendingTask(() -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                gate.failed.increment();
+                UnifiedLogger.getInstance().error("BlockingTaskExecutor", "阻塞任务执行失败 [" + gate.name + "]: " + t.getMessage(), t);
+            }
+        }, null));
+    }
+
+    /**
+     * 在指定上游的并发限制下执行阻塞任务并返回结果
+     */
+    public <T> CompletableFuture<T> submit(String upstream, Callable<T> task) {
+        UpstreamGate gate = gateFor(upstream);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        // 排队期间future被取消（如轮次超时）时任务直接丢弃，不再占用许可
+        enqueue(gate, new PendingTask(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                gate.failed.increment();
+                future.completeExceptionally(t);
+            }
+        }, future));
+        return future;
+    }
+
+    private void enqueue(UpstreamGate gate, PendingTask task) {
+        gate.submitted.increment();
+        gate.pending.add(task);
+        drain(gate);
+    }
+
+    /**
+     * 有空闲许可时从等待队列取任务交给执行器。
+     * 入队和释放许可之后都会调用，两边都在各自修改之后检查，不会出现有许可却无人取任务的情况
+     */
+    private void drain(UpstreamGate gate) {
+        while (!gate.pending.isEmpty() && gate.semaphore.tryAcquire()) {
+            PendingTask next = gate.pending.poll();
+            if (next == null || next.isAbandoned()) {
+                gate.semaphore.release();
+                continue;
+            }
+            dispatch(gate, next);
+        }
+    }
+
+    private void dispatch(UpstreamGate gate, PendingTask task) {
+        gate.totalWaitNanos.add(System.nanoTime() - task.enqueuedAt);
+        try {
+            executor.execute(() -> {
+                try {
+                    task.body.run();
+                } finally {
+                    exit(gate);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 执行器已关闭
+            gate.failed.increment();
+            if (task.future != null) {
+                task.future.cancel(false);
+            }
+            exit(gate);
+        }
+    }
+
+    private void exit(UpstreamGate gate) {
+        gate.semaphore.release();
+        gate.completed.increment();
+        drain(gate);
+    }
+
+    private UpstreamGate gateFor(String upstream) {
+        String name = upstream != null ? upstream : "default";
+        UpstreamGate gate = gates.get(name);
+        if (gate != null) {
+            return gate;
+        }
+        synchronized (gates) {
+            return gates.computeIfAbsent(name, k -> {
+                UpstreamGate created = new UpstreamGate(k, upstreamPermits.getOrDefault(k, permitsPerUpstream));
+                if (platformExecutor != null) {
+                    // 线程数与所有上游的许可总数一致，已拿到许可的任务不会在线程池队列中等待
+                    int total = gates.values().stream().mapToInt(g -> g.permits).sum() + created.permits;
+                    platformExecutor.setMaximumPoolSize(Math.max(total, platformExecutor.getMaximumPoolSize()));
+                    platformExecutor.setCorePoolSize(total);
+                }
+                return created;
+            });
+        }
+    }
+
+    /**
+     * 获取执行后端、JVM线程数及各上游的并发/排队统计
+     */
+    public String getStats() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        StringBuilder sb = new StringBuilder(String.format("阻塞任务执行器 - 后端: %s, JVM平台线程: %d (峰值 %d)",
+                isVirtual() ? "虚拟线程" : "平台线程池", threads.getThreadCount(), threads.getPeakThreadCount()));
+        if (platformExecutor != null) {
+            sb.append(String.format(", 专用线程: %d/%d", platformExecutor.getPoolSize(), platformExecutor.getCorePoolSize()));
+        }
+        List<String> names = new ArrayList<>(gates.keySet());
+        names.sort(null);
+        for (String name : names) {
+            UpstreamGate gate = gates.get(name);
+            long completed = gate.completed.sum();
+            sb.append(String.format("\n  %s - 许可: %d, 执行中: %d, 等待许可: %d, 提交: %d, 完成: %d, 失败: %d, 平均等待: %dms",
+                    name, gate.permits, gate.permits - gate.semaphore.availablePermits(),
+                    gate.pending.size(), gate.submitted.sum(), completed, gate.failed.sum(),
+                    completed > 0 ? TimeUnit.NANOSECONDS.toMillis(gate.totalWaitNanos.sum() / completed) : 0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 关闭执行器（虚拟线程执行器或专用平台线程池）
+     */
+    public void shutdown() {
+        ExecutorService service = virtualExecutor != null ? virtualExecutor : platformExecutor;
+        service.shutdown();
+        try {
+            if (!service.awaitTermination(10, TimeUnit.SECONDS)) {
+                service.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            service.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class UpstreamGate {
+        private final String name;
+        private final int permits;
+        private final Semaphore semaphore;
+        // 等待许可的任务，不占用线程
+        private final Queue<PendingTask> pending = new ConcurrentLinkedQueue<>();
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+
+        private UpstreamGate(String name, int permits) {
+            this.name = name;
+            this.permits = permits;
+            this.semaphore = new Semaphore(permits);
+        }
+    }
+
+    private static class PendingTask {
+        private final Runnable body;
+        // submit提交的任务对应的future，execute提交的为null
+        private final CompletableFuture<?> future;
+        private final long enqueuedAt = System.nanoTime();
+
+        private PendingTask(Runnable body, CompletableFuture<?> future) {
+            this.body = body;
+            this.future = future;
+        }
+
+        private boolean isAbandoned() {
+            return future != null && future.isDone();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package net.luffy.util;
+
+import okhttp3.Dns;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带缓存的异步DNS解析器
+ * 解析结果按TTL缓存在内存中：临近过期时后台刷新，过期后在最大陈旧时间内先返回旧结果再后台刷新，
+ * 刷新失败时继续使用旧结果；只有首次解析的主机会在请求线程上同步查询，避免本地解析器抖动拖慢每轮轮询
+ */
+public class CachingDns implements Dns {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingDns.class);
+
+    private final Dns delegate;
+    private final Executor refreshExecutor;
+    private final long ttlMs;
+    private final long refreshAheadMs;
+    private final long maxStaleMs;
+
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder resolveCount = new LongAdder();
+    private final LongAdder totalResolveTimeMs = new LongAdder();
+    private final AtomicLong maxResolveTimeMs = new AtomicLong(0);
+
+    /**
+     * @param delegate 实际执行解析的DNS（通常为Dns.SYSTEM）
+     * @param refreshExecutor 后台刷新使用的线程池
+     * @param ttlMs 缓存有效期
+     * @param maxStaleMs 过期后仍可返回旧结果的最长时间
+     */
+    public CachingDns(Dns delegate, Executor refreshExecutor, long ttlMs, long maxStaleMs) {
+        this.delegate = delegate;
+        this.refreshExecutor = refreshExecutor;
+        this.ttlMs = Math.max(1000L, ttlMs);
+        // 剩余有效期不足1/5时提前刷新
+        this.refreshAheadMs = this.ttlMs / 5;
+        this.maxStaleMs = Math.max(0L, maxStaleMs);
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        lookups.increment();
+        long now = System.currentTimeMillis();
+        CacheEntry entry = cache.get(hostname);
+
+        if (entry != null) {
+            if (now < entry.expiresAt) {
+                hits.increment();
+                if (entry.expiresAt - now <= refreshAheadMs) {
+                    refreshAsync(hostname, entry);
+                }
+                return entry.addresses;
+            }
+            if (now < entry.expiresAt + maxStaleMs) {
+                // 已过期但仍在陈旧容忍期内：先返回旧结果，后台刷新
+                staleHits.increment();
+                refreshAsync(hostname, entry);
+                return entry.addresses;
+            }
+        }
+
+        misses.increment();
+        try {
+            List<InetAddress> addresses = resolve(hostname);
+            cache.put(hostname, new CacheEntry(addresses, System.currentTimeMillis() + ttlMs));
+            return addresses;
+        } catch (UnknownHostException e) {
+            failures.increment();
+            throw e;
+        }
+    }
+
+    private void refreshAsync(String hostname, CacheEntry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    List<InetAddress> addresses = resolve(hostname);
+                    cache.put(hostname, new CacheEntry(addresses, System.currentTimeMillis() + ttlMs));
+                    refreshes.increment();
+                } catch (UnknownHostException e) {
+                    // 刷新失败保留旧结果，等待下一次访问重试
+                    failures.increment();
+                    logger.warn("DNS后台刷新失败，继续使用缓存结果: {} - {}", hostname, e.getMessage());
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (Exception e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private List<InetAddress> resolve(String hostname) throws UnknownHostException {
+        long start = System.currentTimeMillis();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(delegate.lookup(hostname)));
+        } finally {
+            long elapsed = System.currentTimeMillis() - start;
+            resolveCount.increment();
+            totalResolveTimeMs.add(elapsed);
+            maxResolveTimeMs.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    /**
+     * 移除主机的缓存结果（如确认地址变更后）
+     */
+    public void invalidate(String hostname) {
+        cache.remove(hostname);
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public String getStats() {
+        long total = lookups.sum();
+        long resolved = resolveCount.sum();
+        return String.format("DNS缓存统计 - 查询: %d, 命中: %d (%.1f%%), 陈旧命中: %d, 未命中: %d, 后台刷新: %d, 失败: %d, " +
+                        "实际解析: %d次, 平均耗时: %dms, 最大耗时: %dms, 缓存主机: %d",
+                total, hits.sum(), total > 0 ? hits.sum() * 100.0 / total : 0.0, staleHits.sum(), misses.sum(),
+                refreshes.sum(), failures.sum(), resolved, resolved > 0 ? totalResolveTimeMs.sum() / resolved : 0,
+                maxResolveTimeMs.get(), cache.size());
+    }
+
+    private static class CacheEntry {
+        private final List<InetAddress> addresses;
+        private final long expiresAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        private CacheEntry(List<InetAddress> addresses, long expiresAt) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
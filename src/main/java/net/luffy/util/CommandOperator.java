@@ -132,7 +132,7 @@ public class CommandOperator extends AsyncWebHandlerBase {
                                 String out = "";
                                 int count = 1;
                                 for (Object liveRoom : liveList) {
-                                    JSONObject liveRoom1 = UnifiedJsonParser.getInstance().parseObj(liveRoom.toString());
+                                    JSONObject liveRoom1 = UnifiedJsonParser.getInstance().asJSONObject(liveRoom);
                                     JSONObject userInfo = liveRoom1.getJSONObject("userInfo");
 
                                     String title = liveRoom1.getStr("title");
@@ -154,7 +154,7 @@ public class CommandOperator extends AsyncWebHandlerBase {
                                 String out = "";
                                 int count = 1;
                                 for (Object liveRoom : recordList) {
-                                    JSONObject liveRoom1 = UnifiedJsonParser.getInstance().parseObj(liveRoom.toString());
+                                    JSONObject liveRoom1 = UnifiedJsonParser.getInstance().asJSONObject(liveRoom);
                                     JSONObject userInfo = liveRoom1.getJSONObject("userInfo");
 
                                     String title = liveRoom1.getStr("title");
@@ -182,7 +182,7 @@ public class CommandOperator extends AsyncWebHandlerBase {
 
                                 int count = 1;
                                 for (Object server_ : servers) {
-                                    JSONObject server = UnifiedJsonParser.getInstance().parseObj(server_.toString());
+                                    JSONObject server = UnifiedJsonParser.getInstance().asJSONObject(server_);
                                     String name = server.getStr("serverDefaultName");
                                     String serverName = server.getStr("serverName");
                                     long starId = server.getLong("serverOwner");
@@ -285,7 +285,7 @@ public class CommandOperator extends AsyncWebHandlerBase {
                                     if (archives != null) {
                                         Object[] fans = archives.getJSONArray("fansRank").stream().toArray();
                                         for (int i = 0; i < Math.min(fans.length, 5); i++) { // 只显示前5名
-                                            fan.append("\n").append(i + 1).append(". ").append(UnifiedJsonParser.getInstance().parseObj(fans[i].toString()).getStr("nickName"));
+                                            fan.append("\n").append(i + 1).append(". ").append(UnifiedJsonParser.getInstance().asJSONObject(fans[i]).getStr("nickName"));
                                         }
                                         if (fans.length > 5) {
                                             fan.append("\n...");
@@ -1484,7 +1484,7 @@ public class CommandOperator extends AsyncWebHandlerBase {
 
         int count = 1;
         for (Object server_ : servers) {
-            JSONObject server = UnifiedJsonParser.getInstance().parseObj(server_.toString());
+            JSONObject server = UnifiedJsonParser.getInstance().asJSONObject(server_);
             String name = server.getStr("serverDefaultName");
             String serverName = server.getStr("serverName");
             long starId = server.getLong("serverOwner");
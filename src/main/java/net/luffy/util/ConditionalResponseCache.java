@@ -0,0 +1,205 @@
+package net.luffy.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 条件请求响应缓存
+ * 按 接口名 + URL 保存上次响应的ETag/Last-Modified、响应体哈希及解析结果（LRU，容量有上限）：
+ * 上游支持条件请求时以304确认未变化；不支持时比较响应体哈希，内容未变化时直接复用上次的解析结果，
+ * 调用方无需重新解析和比对
+ */
+public class ConditionalResponseCache {
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private final Map<String, EndpointStats> endpointStats = new ConcurrentHashMap<>();
+
+    public ConditionalResponseCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ConditionalResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    public static String key(String endpoint, String url) {
+        return endpoint + " " + url;
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(String key, Entry entry) {
+        entries.put(key, entry);
+    }
+
+    public synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 上游返回304，复用缓存结果
+     */
+    public void recordNotModified(String endpoint) {
+        statsFor(endpoint).notModified.increment();
+    }
+
+    /**
+     * 上游返回完整响应但哈希与缓存一致，复用缓存结果
+     */
+    public void recordUnchanged(String endpoint) {
+        statsFor(endpoint).unchanged.increment();
+    }
+
+    /**
+     * 响应内容变化，需要重新解析
+     */
+    public void recordChanged(String endpoint) {
+        statsFor(endpoint).changed.increment();
+    }
+
+    /**
+     * 无缓存记录，首次解析
+     */
+    public void recordMiss(String endpoint) {
+        statsFor(endpoint).misses.increment();
+    }
+
+    private EndpointStats statsFor(String endpoint) {
+        return endpointStats.computeIfAbsent(endpoint, k -> new EndpointStats());
+    }
+
+    /**
+     * 获取各接口的命中（304 + 哈希未变）、重新验证（304）及变化比例
+     */
+    public String getStats() {
+        StringBuilder sb = new StringBuilder(String.format("响应缓存统计 - 缓存条目: %d / %d", size(), maxEntries));
+        List<String> endpoints = new ArrayList<>(endpointStats.keySet());
+        endpoints.sort(null);
+        for (String endpoint : endpoints) {
+            EndpointStats stats = endpointStats.get(endpoint);
+            long notModified = stats.notModified.sum();
+            long unchanged = stats.unchanged.sum();
+            long changed = stats.changed.sum();
+            long total = notModified + unchanged + changed + stats.misses.sum();
+            sb.append(String.format("\n  %s - 请求: %d, 命中: %.1f%%, 304重新验证: %.1f%%, 哈希未变: %.1f%%, 内容变化: %.1f%%",
+                    endpoint, total, percent(notModified + unchanged, total), percent(notModified, total),
+                    percent(unchanged, total), percent(changed, total)));
+        }
+        if (endpoints.isEmpty()) {
+            sb.append("，暂无请求");
+        }
+        return sb.toString();
+    }
+
+    private static double percent(long count, long total) {
+        return total > 0 ? count * 100.0 / total : 0.0;
+    }
+
+    /**
+     * 计算响应体SHA-256
+     */
+    public static String hash(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // JVM规范保证提供SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存条目：解析结果在多个调用方之间共享，调用方不得修改
+     */
+    public static class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final String bodyHash;
+        private final Object value;
+
+        public Entry(String etag, String lastModified, String bodyHash, Object value) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.bodyHash = bodyHash;
+            this.value = value;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public String getBodyHash() {
+            return bodyHash;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * 条件请求结果
+     * changed表示相对缓存中上一次响应是否变化；缓存被多个调用方共享，
+     * 需要判断"自己是否处理过"的调用方应自行记录并比较version
+     */
+    public static class Result<T> {
+        private final T value;
+        private final boolean changed;
+        private final String version;
+
+        public Result(T value, boolean changed, String version) {
+            this.value = value;
+            this.changed = changed;
+            this.version = version;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public boolean isChanged() {
+            return changed;
+        }
+
+        /**
+         * 响应内容版本（响应体哈希），缓存未启用时为null
+         */
+        public String getVersion() {
+            return version;
+        }
+    }
+
+    private static class EndpointStats {
+        private final LongAdder notModified = new LongAdder();
+        private final LongAdder unchanged = new LongAdder();
+        private final LongAdder changed = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
@@ -178,7 +178,7 @@ public class ConfigOperator {
         
         try {
             for (Object a : jsonParser.parseArray(pocket48SubscribeJson).toArray()) {
-                JSONObject sub = jsonParser.parseObj(a.toString());
+                JSONObject sub = jsonParser.asJSONObject(a);
                 @SuppressWarnings("unchecked")
                 List<Long> rooms = (List<Long>) sub.getBeanList("roomSubs", Long.class);
                 @SuppressWarnings("unchecked")
@@ -211,7 +211,7 @@ public class ConfigOperator {
         try {
             Object[] pocket48Array = jsonParser.parseArray(pocket48RoomJson).toArray();
             for (Object a : pocket48Array) {
-                JSONObject sid = (a instanceof JSONObject) ? (JSONObject) a : jsonParser.parseObj(a.toString());
+                JSONObject sid = jsonParser.asJSONObject(a);
                 properties.pocket48_serverID.put(sid.getLong("roomID"), sid.getLong("serverID"));
             }
         } catch (Exception e) {
@@ -234,7 +234,7 @@ public class ConfigOperator {
         try {
             Object[] weiboArray = jsonParser.parseArray(weiboJson).toArray();
             for (Object a : weiboArray) {
-                JSONObject subs = (a instanceof JSONObject) ? (JSONObject) a : jsonParser.parseObj(a.toString());
+                JSONObject subs = jsonParser.asJSONObject(a);
 
                 long g = subs.getLong("qqGroup");
                 @SuppressWarnings("unchecked")
@@ -265,7 +265,7 @@ public class ConfigOperator {
             Object[] weidianArray = jsonParser.parseArray(weidianJson).toArray();
             
             for (Object a : weidianArray) {
-                JSONObject shop = (a instanceof JSONObject) ? (JSONObject) a : jsonParser.parseObj(a.toString());
+                JSONObject shop = jsonParser.asJSONObject(a);
 
                 long g = shop.getLong("qqGroup");
                 String cookie = shop.getStr("cookie", "");
@@ -303,7 +303,7 @@ public class ConfigOperator {
         try {
             Object[] douyinArray = jsonParser.parseArray(douyinJson).toArray();
             for (Object a : douyinArray) {
-                JSONObject subs = (a instanceof JSONObject) ? (JSONObject) a : jsonParser.parseObj(a.toString());
+                JSONObject subs = jsonParser.asJSONObject(a);
 
                 long g = subs.getLong("qqGroup");
                 @SuppressWarnings("unchecked")
@@ -842,7 +842,7 @@ public class ConfigOperator {
                 Object[] configArray = jsonParser.parseArray(subscribeJson).toArray();
                 
                 for (Object configObj : configArray) {
-                    JSONObject config = (configObj instanceof JSONObject) ? (JSONObject) configObj : jsonParser.parseObj(configObj.toString());
+                    JSONObject config = jsonParser.asJSONObject(configObj);
                     
                     long qqGroup = config.getLong("qqGroup");
                     @SuppressWarnings("unchecked")
@@ -0,0 +1,523 @@
+package net.luffy.util;
+
+import net.luffy.Newboy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 持久化去重日志
+ * 各监控（口袋48消息、微博、抖音作品）通过同一接口记录已推送的条目，重启后据此去重和续接，
+ * 避免重复推送重启前最后几条，或像口袋48那样直接跳到当前时间而漏掉重启期间的消息。
+ *
+ * 每条记录为32字节定长二进制：(key哈希, 指纹, 时间, 来源, 校验和)，按段顺序追加；
+ * 当前段内存映射写入，写满后封存并新建一段，段数超过上限时由后台线程把封存段压缩为一段：
+ * 丢弃超过保留时间的记录，但每个key时间最大的一条始终保留（用作续接检查点）。
+ * 启动时按段顺序重放，查询只访问内存索引；校验和不匹配的记录（写入中途崩溃）视为段结束
+ */
+public class DedupJournal {
+
+    /**
+     * 记录来源，code写入文件，不可修改
+     */
+    public enum Source {
+        POCKET48(1),
+        WEIBO(2),
+        DOUYIN(3);
+
+        private final int code;
+
+        Source(int code) {
+            this.code = code;
+        }
+
+        private static Source of(int code) {
+            for (Source source : values()) {
+                if (source.code == code) {
+                    return source;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 某个key时间最大的一条记录
+     */
+    public static final class Checkpoint {
+        private final long fingerprint;
+        private final long time;
+
+        private Checkpoint(long fingerprint, long time) {
+            this.fingerprint = fingerprint;
+            this.time = time;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getTime() {
+            return time;
+        }
+    }
+
+    static final int RECORD_SIZE = 32;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dj";
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final Logger logger = LoggerFactory.getLogger(DedupJournal.class);
+    private static volatile DedupJournal instance;
+
+    private final File directory;
+    private final int segmentRecords;
+    private final int maxSegments;
+    private final long retentionMillis;
+
+    // (来源, key, 指纹) -> 记录时间
+    private final Map<Long, Long> entries = new ConcurrentHashMap<>();
+    // (来源, key) -> 时间最大的一条记录
+    private final Map<Long, Checkpoint> checkpoints = new ConcurrentHashMap<>();
+
+    // 以下字段只在持有实例锁时访问
+    private final List<Long> sealedSegments = new ArrayList<>();
+    private long activeSequence;
+    private FileChannel activeChannel;
+    private MappedByteBuffer activeBuffer;
+
+    // 压缩在后台单线程执行，不占用写入方（发送线程）的时间和实例锁
+    private final ExecutorService compactor;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private volatile boolean available;
+
+    /**
+     * @param directory 日志目录，为null时只在内存中记录
+     * @param segmentRecords 每段记录数
+     * @param maxSegments 段数上限（含当前段），超过时压缩封存段
+     * @param retentionMillis 记录保留时间
+     */
+    public DedupJournal(File directory, int segmentRecords, int maxSegments, long retentionMillis) {
+        this.directory = directory;
+        this.segmentRecords = Math.max(1024, segmentRecords);
+        this.maxSegments = Math.max(2, maxSegments);
+        this.retentionMillis = retentionMillis;
+        this.compactor = directory != null ? Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "DedupJournal-Compactor");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        if (directory != null) {
+            try {
+                open();
+                available = true;
+            } catch (IOException e) {
+                logger.error("去重日志打开失败，本次运行只在内存中去重: {}", e.getMessage(), e);
+                closeQuietly();
+            }
+        }
+    }
+
+    public static DedupJournal getInstance() {
+        if (instance == null) {
+            synchronized (DedupJournal.class) {
+                if (instance == null) {
+                    MonitorConfig config = MonitorConfig.getInstance();
+                    File directory = null;
+                    if (config.isDedupJournalEnabled()) {
+                        directory = new File(Newboy.INSTANCE.getProperties().configData.getParentFile(), "dedup-journal");
+                    }
+                    instance = new DedupJournal(directory, config.getDedupJournalSegmentRecords(),
+                            config.getDedupJournalMaxSegments(),
+                            TimeUnit.HOURS.toMillis(config.getDedupJournalRetentionHours()));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 条目是否已记录（只查内存索引）
+     */
+    public boolean contains(Source source, String key, long fingerprint) {
+        lookups.increment();
+        return entries.containsKey(entryId(source.code, keyHash(key), fingerprint));
+    }
+
+    /**
+     * 记录条目并追加到日志
+     * @param time 条目时间（毫秒），用于保留期判断和续接
+     * @return 新记录返回true，已存在返回false
+     */
+    public boolean record(Source source, String key, long fingerprint, long time) {
+        long keyHash = keyHash(key);
+        if (entries.putIfAbsent(entryId(source.code, keyHash, fingerprint), time) != null) {
+            return false;
+        }
+        checkpoints.merge(checkpointId(source.code, keyHash), new Checkpoint(fingerprint, time), DedupJournal::newer);
+        appended.increment();
+        if (available) {
+            synchronized (this) {
+                try {
+                    append(source.code, keyHash, fingerprint, time);
+                } catch (IOException e) {
+                    available = false;
+                    logger.error("去重日志写入失败，后续只在内存中去重: {}", e.getMessage(), e);
+                    closeQuietly();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 某个key已记录条目中时间最大的一条，没有记录时返回null
+     */
+    public Checkpoint latest(Source source, String key) {
+        return checkpoints.get(checkpointId(source.code, keyHash(key)));
+    }
+
+    /**
+     * 续接时间：key已记录条目的最大时间，最多回溯maxCatchupMillis；没有记录时为now，不会晚于now
+     */
+    public long resumeTime(Source source, String key, long now, long maxCatchupMillis) {
+        Checkpoint checkpoint = latest(source, key);
+        if (checkpoint == null) {
+            return now;
+        }
+        return Math.min(now, Math.max(checkpoint.getTime(), now - maxCatchupMillis));
+    }
+
+    /**
+     * 字符串ID（如抖音作品ID）的64位指纹
+     */
+    public static long hash(String value) {
+        if (value == null) {
+            value = "";
+        }
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * 把当前段刷到磁盘（进程崩溃不会丢失已写入映射区的记录，只有掉电需要刷盘）
+     */
+    public synchronized void flush() {
+        if (activeBuffer != null) {
+            activeBuffer.force();
+        }
+    }
+
+    public void close() {
+        if (compactor != null) {
+            // 等待进行中的压缩完成，它结束前需要获取实例锁
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            flush();
+            available = false;
+            closeQuietly();
+        }
+    }
+
+    public String getStats() {
+        int segments;
+        synchronized (this) {
+            segments = sealedSegments.size() + (activeChannel != null ? 1 : 0);
+        }
+        return String.format("去重日志: %s, 条目: %d, key: %d, 段: %d, 追加: %d, 查询: %d, 压缩: %d",
+                available ? "已启用" : "仅内存", entries.size(), checkpoints.size(), segments,
+                appended.sum(), lookups.sum(), compactions.sum());
+    }
+
+    /**
+     * 已完成的压缩次数
+     */
+    long getCompactionCount() {
+        return compactions.sum();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory.toPath());
+        long[] sequences = listSegments();
+        long lastSequence = 0;
+        int lastCount = 0;
+        for (long sequence : sequences) {
+            lastCount = replay(segmentPath(sequence));
+            sealedSegments.add(sequence);
+            lastSequence = sequence;
+        }
+        // 最后一段未写满（且为标准大小）时继续追加，否则新建一段
+        if (lastSequence > 0 && lastCount < segmentRecords
+                && Files.size(segmentPath(lastSequence)) == (long) segmentRecords * RECORD_SIZE) {
+            sealedSegments.remove(sealedSegments.size() - 1);
+            openActive(lastSequence, lastCount);
+        } else {
+            openActive(lastSequence + 1, 0);
+        }
+        logger.info("去重日志已加载: {} 条记录, {} 个key, {} 段",
+                entries.size(), checkpoints.size(), sealedSegments.size() + 1);
+    }
+
+    private long[] listSegments() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return new long[0];
+        }
+        long[] sequences = new long[files.length];
+        int count = 0;
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                sequences[count] = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                count++;
+            } catch (NumberFormatException e) {
+                // 忽略不相关的文件
+            }
+        }
+        long[] result = Arrays.copyOf(sequences, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * 重放一段，返回有效记录数
+     */
+    private int replay(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        int count = 0;
+        while (buffer.remaining() >= RECORD_SIZE && applyRecord(buffer)) {
+            count++;
+        }
+        return count;
+    }
+
+    private boolean applyRecord(ByteBuffer buffer) {
+        long keyHash = buffer.getLong();
+        long fingerprint = buffer.getLong();
+        long time = buffer.getLong();
+        int source = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (checksum != checksum(keyHash, fingerprint, time, source) || Source.of(source) == null) {
+            return false;
+        }
+        entries.put(entryId(source, keyHash, fingerprint), time);
+        checkpoints.merge(checkpointId(source, keyHash), new Checkpoint(fingerprint, time), DedupJournal::newer);
+        return true;
+    }
+
+    private void openActive(long sequence, int position) throws IOException {
+        activeSequence = sequence;
+        activeChannel = FileChannel.open(segmentPath(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeBuffer = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+        activeBuffer.position(position * RECORD_SIZE);
+    }
+
+    private void append(int source, long keyHash, long fingerprint, long time) throws IOException {
+        if (activeBuffer == null) {
+            return;
+        }
+        if (activeBuffer.remaining() < RECORD_SIZE) {
+            roll();
+        }
+        writeRecord(activeBuffer, source, keyHash, fingerprint, time);
+    }
+
+    private static void writeRecord(ByteBuffer buffer, int source, long keyHash, long fingerprint, long time) {
+        buffer.putLong(keyHash);
+        buffer.putLong(fingerprint);
+        buffer.putLong(time);
+        buffer.putInt(source);
+        // 校验和最后写入：写到一半崩溃时该记录校验失败，重放在此停止
+        buffer.putInt(checksum(keyHash, fingerprint, time, source));
+    }
+
+    /**
+     * 封存当前段并新建一段，段数超过上限时提交后台压缩
+     */
+    private void roll() throws IOException {
+        activeBuffer.force();
+        activeChannel.close();
+        sealedSegments.add(activeSequence);
+        long next = activeSequence + 1;
+        activeBuffer = null;
+        activeChannel = null;
+        openActive(next, 0);
+        if (sealedSegments.size() + 1 > maxSegments && compacting.compareAndSet(false, true)) {
+            try {
+                compactor.execute(this::compact);
+            } catch (RejectedExecutionException e) {
+                // 已关闭
+                compacting.set(false);
+            }
+        }
+    }
+
+    /**
+     * 把提交时的封存段合并为一段：保留未过期的记录和每个key时间最大的一条。
+     * 封存段不再写入，读写文件都在实例锁之外进行，只在取快照和更新段列表时持锁；
+     * 先写临时文件再原子替换第一段，之后删除其余封存段；中途崩溃只会留下重复记录，重放时幂等
+     */
+    private void compact() {
+        List<Long> segments;
+        synchronized (this) {
+            segments = new ArrayList<>(sealedSegments);
+        }
+        if (segments.size() < 2) {
+            compacting.set(false);
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        long target = segments.get(0);
+        Path temp = segmentPath(target).resolveSibling(segmentPath(target).getFileName() + ".tmp");
+        int kept = 0;
+        try {
+            ByteBuffer out = ByteBuffer.allocate(RECORD_SIZE * 1024);
+            try (FileChannel output = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (long sequence : segments) {
+                    kept += copyLive(segmentPath(sequence), output, out, cutoff);
+                }
+                out.flip();
+                while (out.hasRemaining()) {
+                    output.write(out);
+                }
+                output.force(true);
+            }
+            Files.move(temp, segmentPath(target), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            List<Long> merged = segments.subList(1, segments.size());
+            synchronized (this) {
+                sealedSegments.removeAll(merged);
+            }
+            for (long sequence : merged) {
+                Files.deleteIfExists(segmentPath(sequence));
+            }
+            // 内存索引同步清理过期条目
+            entries.values().removeIf(time -> time < cutoff);
+            compactions.increment();
+            logger.info("去重日志压缩完成: 保留 {} 条记录", kept);
+        } catch (IOException e) {
+            // 压缩失败（如Windows上旧段仍被映射）不影响写入，下次封存时重试
+            logger.warn("去重日志压缩失败，稍后重试: {}", e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // 忽略
+            }
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    private int copyLive(Path segment, FileChannel output, ByteBuffer out, long cutoff) throws IOException {
+        byte[] bytes = Files.readAllBytes(segment);
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        int kept = 0;
+        while (in.remaining() >= RECORD_SIZE) {
+            long keyHash = in.getLong();
+            long fingerprint = in.getLong();
+            long time = in.getLong();
+            int source = in.getInt();
+            int checksum = in.getInt();
+            if (checksum != checksum(keyHash, fingerprint, time, source)) {
+                break;
+            }
+            Checkpoint checkpoint = checkpoints.get(checkpointId(source, keyHash));
+            boolean isLatest = checkpoint != null && checkpoint.fingerprint == fingerprint && checkpoint.time == time;
+            if (time >= cutoff || isLatest) {
+                if (out.remaining() < RECORD_SIZE) {
+                    out.flip();
+                    while (out.hasRemaining()) {
+                        output.write(out);
+                    }
+                    out.clear();
+                }
+                writeRecord(out, source, keyHash, fingerprint, time);
+                kept++;
+            }
+        }
+        return kept;
+    }
+
+    private static Checkpoint newer(Checkpoint current, Checkpoint candidate) {
+        return candidate.time >= current.time ? candidate : current;
+    }
+
+    private Path segmentPath(long sequence) {
+        return new File(directory, String.format("%s%08d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX)).toPath();
+    }
+
+    private void closeQuietly() {
+        try {
+            if (activeChannel != null) {
+                activeChannel.close();
+            }
+        } catch (IOException ignored) {
+            // 忽略
+        }
+        activeChannel = null;
+        activeBuffer = null;
+    }
+
+    private static long keyHash(String key) {
+        return hash(key);
+    }
+
+    private static Long entryId(int source, long keyHash, long fingerprint) {
+        return mix(checkpointId(source, keyHash) ^ mix(fingerprint));
+    }
+
+    private static long checkpointId(int source, long keyHash) {
+        return mix(keyHash + source * 0x9e3779b97f4a7c15L);
+    }
+
+    private static int checksum(long keyHash, long fingerprint, long time, int source) {
+        long hash = mix(keyHash ^ mix(fingerprint ^ mix(time ^ source)));
+        int checksum = (int) (hash ^ (hash >>> 32));
+        // 全零的未写入区域校验必然失败
+        return checksum != 0 ? checksum : 1;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -1,10 +1,8 @@
 package net.luffy.util;
 
-import cn.hutool.json.JSONArray;
-import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import net.luffy.Newboy;
-import net.luffy.util.UnifiedJsonParser;
+import net.luffy.model.DouyinAwemeList;
 import net.luffy.util.UnifiedHttpClient;
 // 移除了对旧DouyinHandler的依赖
 import net.mamoe.mirai.Bot;
@@ -162,24 +160,23 @@ public class DouyinMonitorService {
         
         // 初始化用户信息
         try {
-            JSONObject userDetail = getUserInfo(secUserId);
+            DouyinAwemeList userDetail = getUserInfo(secUserId);
             if (userDetail != null) {
                 // 获取最新作品ID作为基准
-                JSONArray awemeList = userDetail.getJSONArray("aweme_list");
-                if (awemeList != null && !awemeList.isEmpty()) {
-                    JSONObject latestAweme = awemeList.getJSONObject(0);
-                    userInfo.lastAwemeId = latestAweme.getStr("aweme_id");
+                List<DouyinAwemeList.Aweme> awemeList = userDetail.getAwemeList();
+                if (!awemeList.isEmpty()) {
+                    DouyinAwemeList.Aweme latestAweme = awemeList.get(0);
+                    userInfo.lastAwemeId = latestAweme.getAwemeId();
                     
                     // 设置最后更新时间为最新作品的创建时间
-                    long createTime = latestAweme.getLong("create_time", 0L) * 1000;
+                    long createTime = latestAweme.getCreateTime() * 1000;
                     if (createTime > 0) {
                         userInfo.lastUpdateTime = createTime;
                     }
                     
                     // 从作品信息中获取用户昵称
-                    JSONObject author = latestAweme.getJSONObject("author");
-                    if (author != null) {
-                        userInfo.nickname = author.getStr("nickname", "未知用户");
+                    if (latestAweme.getAuthorNickname() != null) {
+                        userInfo.nickname = latestAweme.getAuthorNickname();
                     }
                 } else {
                     // 用户没有作品，设置lastUpdateTime为0表示无作品
@@ -190,6 +187,15 @@ public class DouyinMonitorService {
             // 初始化用户信息失败
         }
         
+        // 去重日志中有重启前最后推送的作品、且当前最新作品比它新时，从该作品的时间续接，重启期间发布的作品仍会推送
+        DedupJournal.Checkpoint checkpoint = DedupJournal.getInstance().latest(DedupJournal.Source.DOUYIN, secUserId);
+        if (checkpoint != null && userInfo.lastAwemeId != null
+                && checkpoint.getFingerprint() != DedupJournal.hash(userInfo.lastAwemeId)
+                && checkpoint.getTime() < userInfo.lastUpdateTime) {
+            userInfo.lastAwemeId = ""; // 与任何作品ID都不同，下次检查时按时间判断
+            userInfo.lastUpdateTime = checkpoint.getTime();
+        }
+        
         monitoredUsers.put(secUserId, userInfo);
         // 添加抖音监控用户
         return true;
@@ -287,27 +293,31 @@ public class DouyinMonitorService {
      * @param userInfo 用户信息
      */
     private void checkUserUpdate(UserMonitorInfo userInfo) {
-        JSONObject userDetail = getUserInfo(userInfo.secUserId);
+        DouyinAwemeList userDetail = getUserInfo(userInfo.secUserId);
         if (userDetail == null) {
             return;
         }
         
-        JSONArray awemeList = userDetail.getJSONArray("aweme_list");
-        if (awemeList == null || awemeList.isEmpty()) {
+        List<DouyinAwemeList.Aweme> awemeList = userDetail.getAwemeList();
+        if (awemeList.isEmpty()) {
             return;
         }
         
-        JSONObject latestAweme = awemeList.getJSONObject(0);
-        String latestAwemeId = latestAweme.getStr("aweme_id");
+        DouyinAwemeList.Aweme latestAweme = awemeList.get(0);
+        String latestAwemeId = latestAweme.getAwemeId();
         
         // 检查是否有新作品
         if (userInfo.lastAwemeId != null && !userInfo.lastAwemeId.equals(latestAwemeId)) {
             // 发现新作品
-            long createTime = latestAweme.getLong("create_time", 0L) * 1000;
+            long createTime = latestAweme.getCreateTime() * 1000;
             
-            // 确保新作品的时间晚于上次检查时间
-            if (createTime > userInfo.lastUpdateTime) {
+            // 确保新作品的时间晚于上次检查时间，且重启前未推送过
+            DedupJournal journal = DedupJournal.getInstance();
+            long fingerprint = DedupJournal.hash(latestAwemeId);
+            if (createTime > userInfo.lastUpdateTime
+                    && !journal.contains(DedupJournal.Source.DOUYIN, userInfo.secUserId, fingerprint)) {
                 handleNewAweme(userInfo, latestAweme);
+                journal.record(DedupJournal.Source.DOUYIN, userInfo.secUserId, fingerprint, createTime);
                 userInfo.lastUpdateTime = createTime;
             }
         }
@@ -318,15 +328,10 @@ public class DouyinMonitorService {
         userInfo.failureCount = 0; // 重置失败计数
         
         // 更新昵称（可能会变化）
-        if (awemeList != null && !awemeList.isEmpty()) {
-            JSONObject author = latestAweme.getJSONObject("author");
-            if (author != null) {
-                String currentNickname = author.getStr("nickname");
-                if (currentNickname != null && !currentNickname.equals(userInfo.nickname)) {
-                    // 用户昵称变更
-                    userInfo.nickname = currentNickname;
-                }
-            }
+        String currentNickname = latestAweme.getAuthorNickname();
+        if (currentNickname != null && !currentNickname.equals(userInfo.nickname)) {
+            // 用户昵称变更
+            userInfo.nickname = currentNickname;
         }
     }
     
@@ -335,7 +340,7 @@ public class DouyinMonitorService {
      * @param userInfo 用户信息
      * @param aweme 作品信息
      */
-    private void handleNewAweme(UserMonitorInfo userInfo, JSONObject aweme) {
+    private void handleNewAweme(UserMonitorInfo userInfo, DouyinAwemeList.Aweme aweme) {
         try {
             String message = formatAwemeMessage(userInfo, aweme);
             
@@ -355,18 +360,18 @@ public class DouyinMonitorService {
      * @param aweme 作品信息
      * @return 格式化的消息
      */
-    private String formatAwemeMessage(UserMonitorInfo userInfo, JSONObject aweme) {
+    private String formatAwemeMessage(UserMonitorInfo userInfo, DouyinAwemeList.Aweme aweme) {
         StringBuilder message = new StringBuilder();
         message.append("抖音新作品推送\n\n");
         message.append("用户: ").append(userInfo.nickname).append("\n");
         
-        String desc = aweme.getStr("desc", "");
+        String desc = aweme.getDesc();
         if (!desc.isEmpty()) {
             message.append("内容: ").append(desc).append("\n");
         }
         
         // 获取并格式化作品更新时间
-        long createTime = aweme.getLong("create_time", 0L) * 1000;
+        long createTime = aweme.getCreateTime() * 1000;
         if (createTime > 0) {
             java.time.LocalDateTime dateTime = java.time.LocalDateTime.ofInstant(
                 java.time.Instant.ofEpochMilli(createTime), 
@@ -377,19 +382,12 @@ public class DouyinMonitorService {
         }
         
         // 获取作品统计信息
-        JSONObject statistics = aweme.getJSONObject("statistics");
-        if (statistics != null) {
-            int diggCount = statistics.getInt("digg_count", 0);
-            int commentCount = statistics.getInt("comment_count", 0);
-            int shareCount = statistics.getInt("share_count", 0);
-            
-            message.append("点赞 ").append(formatCount(diggCount));
-            message.append(" | 评论 ").append(formatCount(commentCount));
-            message.append(" | 分享 ").append(formatCount(shareCount)).append("\n");
-        }
+        message.append("点赞 ").append(formatCount(aweme.getDiggCount()));
+        message.append(" | 评论 ").append(formatCount(aweme.getCommentCount()));
+        message.append(" | 分享 ").append(formatCount(aweme.getShareCount())).append("\n");
         
         // 作品链接
-        String awemeId = aweme.getStr("aweme_id");
+        String awemeId = aweme.getAwemeId();
         if (awemeId != null) {
             message.append("\n观看链接: https://www.douyin.com/video/").append(awemeId);
         }
@@ -400,7 +398,7 @@ public class DouyinMonitorService {
     /**
      * 格式化数字显示
      */
-    private String formatCount(int count) {
+    private String formatCount(long count) {
         if (count >= 10000) {
             return String.format("%.1fw", count / 10000.0);
         }
@@ -449,9 +447,9 @@ public class DouyinMonitorService {
     /**
      * 获取用户信息
      * @param secUserId 用户ID
-     * @return 用户信息JSON
+     * @return 用户作品列表，失败时为null
      */
-    private JSONObject getUserInfo(String secUserId) {
+    private DouyinAwemeList getUserInfo(String secUserId) {
         return getUserInfoWithRetry(secUserId, 3);
     }
     
@@ -459,9 +457,9 @@ public class DouyinMonitorService {
      * 获取用户信息（带重试机制）
      * @param secUserId 用户ID
      * @param maxRetries 最大重试次数
-     * @return 用户信息JSON
+     * @return 用户作品列表，失败时为null
      */
-    private JSONObject getUserInfoWithRetry(String secUserId, int maxRetries) {
+    private DouyinAwemeList getUserInfoWithRetry(String secUserId, int maxRetries) {
         Exception lastException = null;
         
         for (int attempt = 0; attempt < maxRetries; attempt++) {
@@ -473,7 +471,7 @@ public class DouyinMonitorService {
                     );
                 }
                 
-                JSONObject result = performGetUserInfo(secUserId);
+                DouyinAwemeList result = performGetUserInfo(secUserId);
                 if (result != null) {
                     if (attempt > 0) {
                         Newboy.INSTANCE.getLogger().info(
@@ -528,9 +526,9 @@ public class DouyinMonitorService {
     /**
      * 执行获取用户信息的实际请求
      * @param secUserId 用户ID
-     * @return 用户信息JSON
+     * @return 用户作品列表，失败时为null
      */
-    private JSONObject performGetUserInfo(String secUserId) {
+    private DouyinAwemeList performGetUserInfo(String secUserId) {
         try {
             // 首先检查Cookie是否有效
             if (!isCookieValid()) {
@@ -577,73 +575,48 @@ public class DouyinMonitorService {
                 Newboy.INSTANCE.getLogger().info("抖音API请求头: " + headers.toString());
             }
             
-            UnifiedHttpClient.HttpResponse response = UnifiedHttpClient.getInstance().get(url, headers);
-            int statusCode = response.getStatusCode();
-            String responseBody = response.getBody();
-            
-            // 检查HTTP状态码，特别是认证相关错误
-            if (statusCode == 401) {
-                Newboy.INSTANCE.getLogger().error("抖音API认证失败(401): Cookie可能已失效，请更新抖音Cookie配置");
-                return null;
-            } else if (statusCode == 403) {
-                Newboy.INSTANCE.getLogger().error("抖音API访问被拒绝(403): Cookie可能已失效或账号被限制，请检查Cookie配置");
-                return null;
-            } else if (statusCode == 302 || statusCode == 301) {
-                Newboy.INSTANCE.getLogger().error("抖音API重定向(" + statusCode + "): 可能需要重新登录，请更新Cookie配置");
+            // 作品列表响应较大，直接从响应字节流解码为只含所需字段的模型
+            DouyinAwemeList result;
+            try {
+                result = UnifiedHttpClient.getInstance().getJson(url, headers, DouyinAwemeList.class);
+            } catch (HttpStatusException e) {
+                // 检查HTTP状态码，特别是认证相关错误
+                int statusCode = e.getStatusCode();
+                if (statusCode == 401) {
+                    Newboy.INSTANCE.getLogger().error("抖音API认证失败(401): Cookie可能已失效，请更新抖音Cookie配置");
+                } else if (statusCode == 403) {
+                    Newboy.INSTANCE.getLogger().error("抖音API访问被拒绝(403): Cookie可能已失效或账号被限制，请检查Cookie配置");
+                } else if (statusCode == 302 || statusCode == 301) {
+                    Newboy.INSTANCE.getLogger().error("抖音API重定向(" + statusCode + "): 可能需要重新登录，请更新Cookie配置");
+                } else {
+                    Newboy.INSTANCE.getLogger().error("抖音API返回异常状态码: " + statusCode + ", 可能是服务器错误或认证问题");
+                }
                 return null;
-            } else if (statusCode != 200) {
-                Newboy.INSTANCE.getLogger().error("抖音API返回异常状态码: " + statusCode + ", 可能是服务器错误或认证问题");
+            } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+                // 空响应、乱码或非JSON内容（如验证页面）
+                Newboy.INSTANCE.getLogger().error("抖音API返回空响应或非JSON格式响应，可能原因: 1)Cookie已失效需要重新获取 2)IP被限制 3)请求参数错误; "
+                        + e.getOriginalMessage());
                 return null;
             }
             
-            // 调试模式下输出响应信息
-            if (DEBUG_MODE) {
-                Newboy.INSTANCE.getLogger().info("抖音API响应状态码: " + statusCode);
-                Newboy.INSTANCE.getLogger().info("抖音API响应长度: " + 
-                    (responseBody != null ? responseBody.length() : "null"));
-                if (responseBody != null && responseBody.length() < 1000) {
-                    Newboy.INSTANCE.getLogger().info("抖音API完整响应: " + responseBody);
-                }
-            }
-            
-            // 详细的响应分析
-            if (responseBody == null) {
-                Newboy.INSTANCE.getLogger().error("抖音API返回空响应，状态码: " + statusCode + ", 可能是Cookie失效导致");
+            if (result == null) {
+                Newboy.INSTANCE.getLogger().error("抖音API返回空响应，可能是Cookie失效导致");
                 return null;
             }
             
-            // 检查响应是否包含乱码或二进制数据
-            if (containsBinaryData(responseBody)) {
-                Newboy.INSTANCE.getLogger().error("抖音API返回二进制数据或编码错误，可能是压缩问题: " + 
-                    getResponsePreview(responseBody));
-                return null;
+            // 调试模式下输出响应信息
+            if (DEBUG_MODE) {
+                Newboy.INSTANCE.getLogger().info("抖音API响应状态: " + result.getStatusCode()
+                        + ", 作品数: " + result.getAwemeList().size());
             }
             
-            // 检查响应是否为有效JSON
-            String trimmedResponse = responseBody.trim();
-            if (trimmedResponse.isEmpty()) {
-                Newboy.INSTANCE.getLogger().error("抖音API返回空响应内容，可能原因: 1)Cookie已失效需要重新获取 2)IP被限制 3)请求参数错误");
-                return null;
-            }
-            if (trimmedResponse.startsWith("{")) {
-                try {
-                    JSONObject result = UnifiedJsonParser.getInstance().parseObj(responseBody);
-                    
-                    if (result.getInt("status_code", -1) == 0) {
-                        return result;
-                    } else {
-                        Newboy.INSTANCE.getLogger().error(
-                            "抖音API返回错误状态: " + result.getInt("status_code", -1) + 
-                            ", 消息: " + result.getStr("status_msg", "未知错误")
-                        );
-                    }
-                } catch (Exception parseException) {
-                    Newboy.INSTANCE.getLogger().error("解析抖音API响应JSON失败: " + parseException.getMessage() + 
-                        ", 响应内容: " + getResponsePreview(responseBody));
-                }
-            } else {
-                Newboy.INSTANCE.getLogger().error("抖音API返回非JSON格式响应: " + getResponsePreview(responseBody));
+            if (result.getStatusCode() == 0) {
+                return result;
             }
+            Newboy.INSTANCE.getLogger().error(
+                "抖音API返回错误状态: " + result.getStatusCode() + 
+                ", 消息: " + (result.getStatusMsg() != null ? result.getStatusMsg() : "未知错误")
+            );
         } catch (Exception e) {
             // 抛出异常让重试机制处理
             throw new RuntimeException("获取抖音用户信息失败: " + e.getMessage(), e);
@@ -803,75 +776,6 @@ public class DouyinMonitorService {
         return getUserList();
     }
     
-    /**
-     * 检查响应是否包含二进制数据或乱码
-     * @param response 响应字符串
-     * @return 是否包含二进制数据
-     */
-    private boolean containsBinaryData(String response) {
-        if (response == null || response.isEmpty()) {
-            return false;
-        }
-        
-        // 检查是否包含大量不可打印字符
-        int nonPrintableCount = 0;
-        int totalChars = Math.min(response.length(), 200); // 只检查前200个字符
-        
-        for (int i = 0; i < totalChars; i++) {
-            char c = response.charAt(i);
-            // 检查是否为不可打印字符（排除常见的空白字符）
-            if (c < 32 && c != '\t' && c != '\n' && c != '\r') {
-                nonPrintableCount++;
-            }
-        }
-        
-        // 如果不可打印字符超过10%，认为是二进制数据
-        return (double) nonPrintableCount / totalChars > 0.1;
-    }
-    
-    /**
-     * 获取响应内容的安全预览
-     * @param response 响应字符串
-     * @return 预览字符串
-     */
-    private String getResponsePreview(String response) {
-        if (response == null) {
-            return "null";
-        }
-        
-        if (response.isEmpty()) {
-            return "empty";
-        }
-        
-        // 限制预览长度
-        int previewLength = Math.min(100, response.length());
-        String preview = response.substring(0, previewLength);
-        
-        // 替换不可打印字符为可读形式
-        StringBuilder safePreview = new StringBuilder();
-        for (char c : preview.toCharArray()) {
-            if (c >= 32 && c <= 126) {
-                // 可打印ASCII字符
-                safePreview.append(c);
-            } else if (c == '\t') {
-                safePreview.append("\\t");
-            } else if (c == '\n') {
-                safePreview.append("\\n");
-            } else if (c == '\r') {
-                safePreview.append("\\r");
-            } else {
-                // 其他不可打印字符显示为十六进制
-                safePreview.append(String.format("\\x%02X", (int) c));
-            }
-        }
-        
-        if (response.length() > previewLength) {
-            safePreview.append("...(truncated)");
-        }
-        
-        return safePreview.toString();
-    }
-    
     /**
      * 重新加载配置中的监控用户
      */
@@ -0,0 +1,143 @@
+package net.luffy.util;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP连接复用指标
+ * 通过OkHttp EventListener统计新建连接、TLS握手、连接复用及协议分布，
+ * 并记录每个主机最近一次请求时间，供连接预热判断主机是否空闲
+ */
+public class HttpConnectionMetrics implements EventListener.Factory {
+
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder newConnections = new LongAdder();
+    private final LongAdder reusedConnections = new LongAdder();
+    private final LongAdder tlsHandshakes = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private final LongAdder totalConnectTimeMs = new LongAdder();
+    private final LongAdder totalHandshakeTimeMs = new LongAdder();
+    private final Map<Protocol, LongAdder> protocolCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> hostLastUsed = new ConcurrentHashMap<>();
+
+    @Override
+    public EventListener create(Call call) {
+        return new CallListener();
+    }
+
+    /**
+     * 获取主机最近一次发起请求的时间戳，无记录时返回0
+     */
+    public long getLastUsedTime(String host) {
+        AtomicLong lastUsed = hostLastUsed.get(host);
+        return lastUsed != null ? lastUsed.get() : 0L;
+    }
+
+    public long getNewConnectionCount() { return newConnections.sum(); }
+    public long getReusedConnectionCount() { return reusedConnections.sum(); }
+    public long getTlsHandshakeCount() { return tlsHandshakes.sum(); }
+    public long getConnectFailureCount() { return connectFailures.sum(); }
+
+    /**
+     * 连接复用率（复用连接数 / 获取连接总数）
+     */
+    public double getConnectionReuseRate() {
+        long reused = reusedConnections.sum();
+        long total = reused + newConnections.sum();
+        return total > 0 ? (double) reused / total : 0.0;
+    }
+
+    public String getStats() {
+        long created = newConnections.sum();
+        long handshakes = tlsHandshakes.sum();
+        StringBuilder protocols = new StringBuilder();
+        for (Map.Entry<Protocol, LongAdder> entry : protocolCounts.entrySet()) {
+            if (protocols.length() > 0) {
+                protocols.append(", ");
+            }
+            protocols.append(entry.getKey()).append('=').append(entry.getValue().sum());
+        }
+        return String.format("HTTP连接统计 - 调用: %d, 新建连接: %d, 复用连接: %d, 复用率: %.1f%%, TLS握手: %d, " +
+                        "平均建连: %dms, 平均握手: %dms, 建连失败: %d, 协议: [%s]",
+                callCount.sum(), created, reusedConnections.sum(), getConnectionReuseRate() * 100, handshakes,
+                created > 0 ? totalConnectTimeMs.sum() / created : 0,
+                handshakes > 0 ? totalHandshakeTimeMs.sum() / handshakes : 0,
+                connectFailures.sum(), protocols);
+    }
+
+    public void reset() {
+        callCount.reset();
+        newConnections.reset();
+        reusedConnections.reset();
+        tlsHandshakes.reset();
+        connectFailures.reset();
+        totalConnectTimeMs.reset();
+        totalHandshakeTimeMs.reset();
+        protocolCounts.clear();
+    }
+
+    /**
+     * 单次调用的事件监听器，由OkHttp为每个Call创建
+     */
+    private class CallListener extends EventListener {
+        private boolean connected;
+        private long connectStart;
+        private long handshakeStart;
+
+        @Override
+        public void callStart(Call call) {
+            callCount.increment();
+            hostLastUsed.computeIfAbsent(call.request().url().host(), k -> new AtomicLong())
+                    .set(System.currentTimeMillis());
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.currentTimeMillis();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            handshakeStart = System.currentTimeMillis();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tlsHandshakes.increment();
+            totalHandshakeTimeMs.add(System.currentTimeMillis() - handshakeStart);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            connected = true;
+            newConnections.increment();
+            totalConnectTimeMs.add(System.currentTimeMillis() - connectStart);
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                                  Protocol protocol, java.io.IOException ioe) {
+            connectFailures.increment();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            if (!connected) {
+                reusedConnections.increment();
+            }
+            // 同一调用在重定向/重试时可能再次获取连接，之后的获取按连接池结果重新判断
+            connected = false;
+            protocolCounts.computeIfAbsent(connection.protocol(), k -> new LongAdder()).increment();
+        }
+    }
+}
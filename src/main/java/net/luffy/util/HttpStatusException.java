@@ -0,0 +1,21 @@
+package net.luffy.util;
+
+import java.io.IOException;
+
+/**
+ * 非2xx响应异常，携带HTTP状态码供重试判断
+ * 消息保持"HTTP请求失败: 状态码"格式，与按消息匹配状态码的既有调用方兼容
+ */
+public class HttpStatusException extends IOException {
+
+    private final int statusCode;
+
+    public HttpStatusException(int statusCode, String message) {
+        super("HTTP请求失败: " + statusCode + (message != null && !message.isEmpty() ? " " + message : ""));
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -4,9 +4,6 @@ import cn.hutool.json.JSONArray;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import net.luffy.util.UnifiedJsonParser;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -16,23 +13,21 @@ import java.util.ArrayList;
  */
 public class JsonOptimizer {
     
-    // JSON解析结果缓存
-    private static final ConcurrentHashMap<String, JSONObject> JSON_CACHE = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<String, JSONArray> ARRAY_CACHE = new ConcurrentHashMap<>();
-    
-    // 缓存大小限制 - 极致优化版
-    private static final int MAX_CACHE_SIZE = 5000; // 增加到5000个条目
-    
-    // 预编译的正则表达式，用于快速字段提取
-    private static final Pattern NAME_PATTERN = Pattern.compile("\"name\"\\s*:\\s*\"([^\"]*)\"");
-    private static final Pattern TITLE_PATTERN = Pattern.compile("\"title\"\\s*:\\s*\"([^\"]*)\"");
-    private static final Pattern TEXT_PATTERN = Pattern.compile("\"text\"\\s*:\\s*\"([^\"]*)\"");
-    private static final Pattern STATUS_PATTERN = Pattern.compile("\"status\"\\s*:\\s*(\\d+)");
-    private static final Pattern MSG_PATTERN = Pattern.compile("\"msg\"\\s*:\\s*\"([^\"]*)\"");
-    private static final Pattern ERROR_PATTERN = Pattern.compile("\"error\"\\s*:\\s*\"([^\"]*)\"");
+    // 预编译的流式提取器，用于快速字段提取（找到所需字段即停止读取，不构建解析树）
+    // 表情消息体的名称字段可能嵌套在表情信息对象中，按字段名在任意深度查找
+    private static final StreamingJsonExtractor NAME_FIELD = StreamingJsonExtractor.anyDepth("name");
+    private static final StreamingJsonExtractor TITLE_FIELD = StreamingJsonExtractor.anyDepth("title");
+    private static final StreamingJsonExtractor TEXT_FIELD = StreamingJsonExtractor.anyDepth("text");
+    private static final StreamingJsonExtractor EMOTION_FIELDS = StreamingJsonExtractor.anyDepth("name", "title", "text");
+    // API响应的状态字段只取顶层，避免误读data中的同名字段
+    private static final StreamingJsonExtractor STATUS_FIELD = StreamingJsonExtractor.compile("/status");
+    private static final StreamingJsonExtractor MSG_FIELD = StreamingJsonExtractor.compile("/msg");
+    private static final StreamingJsonExtractor ERROR_FIELD = StreamingJsonExtractor.compile("/error");
+    private static final StreamingJsonExtractor RESPONSE_STATUS_FIELDS = StreamingJsonExtractor.compile("/msg", "/status", "/error");
     
     /**
      * 带缓存的JSON对象解析
+     * 缓存由UnifiedJsonParser统一管理（按完整内容缓存解析树），每次返回新的JSONObject
      * @param jsonStr JSON字符串
      * @return JSONObject
      */
@@ -40,20 +35,7 @@ public class JsonOptimizer {
         if (jsonStr == null || jsonStr.isEmpty()) {
             return null;
         }
-        
-        // 检查缓存
-        JSONObject cached = JSON_CACHE.get(jsonStr);
-        if (cached != null) {
-            return cached;
-        }
-        
-        // 解析并缓存
-        JSONObject result = UnifiedJsonParser.getInstance().parseObj(jsonStr);
-        if (JSON_CACHE.size() < MAX_CACHE_SIZE) {
-            JSON_CACHE.put(jsonStr, result);
-        }
-        
-        return result;
+        return UnifiedJsonParser.getInstance().parseObj(jsonStr);
     }
     
     /**
@@ -65,24 +47,11 @@ public class JsonOptimizer {
         if (jsonStr == null || jsonStr.isEmpty()) {
             return null;
         }
-        
-        // 检查缓存
-        JSONArray cached = ARRAY_CACHE.get(jsonStr);
-        if (cached != null) {
-            return cached;
-        }
-        
-        // 解析并缓存
-        JSONArray result = UnifiedJsonParser.getInstance().parseArray(jsonStr);
-        if (ARRAY_CACHE.size() < MAX_CACHE_SIZE) {
-            ARRAY_CACHE.put(jsonStr, result);
-        }
-        
-        return result;
+        return UnifiedJsonParser.getInstance().parseArray(jsonStr);
     }
     
     /**
-     * 快速提取JSON字符串中的name字段
+     * 快速提取JSON字符串中的name字段（任意深度第一次出现的值）
      * 避免完整JSON解析，适用于简单字段提取
      * @param jsonStr JSON字符串
      * @return name字段值
@@ -90,80 +59,67 @@ public class JsonOptimizer {
     public static String fastExtractName(String jsonStr) {
         if (jsonStr == null) return null;
         
-        Matcher matcher = NAME_PATTERN.matcher(jsonStr);
-        return matcher.find() ? matcher.group(1) : null;
+        return NAME_FIELD.extract(jsonStr).getStr(0);
     }
     
     /**
-     * 快速提取JSON字符串中的title字段
+     * 快速提取JSON字符串中的title字段（任意深度第一次出现的值）
      * @param jsonStr JSON字符串
      * @return title字段值
      */
     public static String fastExtractTitle(String jsonStr) {
         if (jsonStr == null) return null;
         
-        Matcher matcher = TITLE_PATTERN.matcher(jsonStr);
-        return matcher.find() ? matcher.group(1) : null;
+        return TITLE_FIELD.extract(jsonStr).getStr(0);
     }
     
     /**
-     * 快速提取JSON字符串中的text字段
+     * 快速提取JSON字符串中的text字段（任意深度第一次出现的值）
      * @param jsonStr JSON字符串
      * @return text字段值
      */
     public static String fastExtractText(String jsonStr) {
         if (jsonStr == null) return null;
         
-        Matcher matcher = TEXT_PATTERN.matcher(jsonStr);
-        return matcher.find() ? matcher.group(1) : null;
+        return TEXT_FIELD.extract(jsonStr).getStr(0);
     }
     
     /**
-     * 快速提取JSON字符串中的status字段
+     * 快速提取JSON字符串顶层的status字段
      * @param jsonStr JSON字符串
      * @return status字段值
      */
     public static Integer fastExtractStatus(String jsonStr) {
         if (jsonStr == null) return null;
         
-        Matcher matcher = STATUS_PATTERN.matcher(jsonStr);
-        if (matcher.find()) {
-            try {
-                return Integer.parseInt(matcher.group(1));
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        return null;
+        return STATUS_FIELD.extract(jsonStr).getInt(0);
     }
     
     /**
-     * 快速提取JSON字符串中的msg字段
+     * 快速提取JSON字符串顶层的msg字段
      * @param jsonStr JSON字符串
      * @return msg字段值
      */
     public static String fastExtractMsg(String jsonStr) {
         if (jsonStr == null) return null;
         
-        Matcher matcher = MSG_PATTERN.matcher(jsonStr);
-        return matcher.find() ? matcher.group(1) : null;
+        return MSG_FIELD.extract(jsonStr).getStr(0);
     }
     
     /**
-     * 快速提取JSON字符串中的error字段
+     * 快速提取JSON字符串顶层的error字段
      * @param jsonStr JSON字符串
      * @return error字段值
      */
     public static String fastExtractError(String jsonStr) {
         if (jsonStr == null) return null;
         
-        Matcher matcher = ERROR_PATTERN.matcher(jsonStr);
-        return matcher.find() ? matcher.group(1) : null;
+        return ERROR_FIELD.extract(jsonStr).getStr(0);
     }
     
     /**
      * 优化的表情名称解析方法
-     * 使用预编译正则表达式，性能比字符串分割更好
+     * 一次流式读取同时查找name、title、text字段
      * @param jsonBody JSON格式的消息体
      * @return 表情名称
      */
@@ -173,24 +129,14 @@ public class JsonOptimizer {
         }
         
         try {
-            // 优先尝试name字段
-            String name = fastExtractName(jsonBody);
-            if (name != null && !name.isEmpty()) {
-                return "[" + name + "]";
-            }
-            
-            // 尝试title字段
-            String title = fastExtractTitle(jsonBody);
-            if (title != null && !title.isEmpty()) {
-                return "[" + title + "]";
-            }
-            
-            // 最后尝试text字段
-            String text = fastExtractText(jsonBody);
-            if (text != null && !text.isEmpty()) {
-                return "[" + text + "]";
+            StreamingJsonExtractor.Result fields = EMOTION_FIELDS.extract(jsonBody);
+            // 按name、title、text的优先级取第一个非空值
+            for (int i = 0; i < 3; i++) {
+                String value = fields.getStr(i);
+                if (value != null && !value.isEmpty()) {
+                    return "[" + value + "]";
+                }
             }
-            
         } catch (Exception e) {
             // 解析失败，返回默认值
         }
@@ -209,37 +155,29 @@ public class JsonOptimizer {
             return false;
         }
         
-        // 快速检查msg字段
-        String msg = fastExtractMsg(responseStr);
-        if (msg != null && "success".equals(msg)) {
+        // 一次读取顶层的msg、status、error字段，三者都找到后不再读取后续内容
+        StreamingJsonExtractor.Result fields = RESPONSE_STATUS_FIELDS.extract(responseStr);
+        if ("success".equals(fields.getStr(0))) {
             return true;
         }
         
-        // 检查status字段
-        Integer status = fastExtractStatus(responseStr);
+        Integer status = fields.getInt(1);
         if (status != null && status == 200) {
             return true;
         }
         
-        // 检查error字段
-        String error = fastExtractError(responseStr);
-        return error != null && "0".equals(error);
+        return "0".equals(fields.getStr(2));
     }
     
     /**
-     * 快速检查JSON字符串是否包含指定字段和值
+     * 快速检查JSON字符串任意深度是否包含指定字段和值，找到即停止读取
      */
     public static boolean containsFieldValue(String json, String fieldName, String expectedValue) {
         if (json == null || fieldName == null || expectedValue == null) {
             return false;
         }
         
-        try {
-            String pattern = "\"" + fieldName + "\"\\s*:\\s*\"" + expectedValue + "\"";
-            return Pattern.compile(pattern).matcher(json).find();
-        } catch (Exception e) {
-            return false;
-        }
+        return StreamingJsonExtractor.containsFieldValue(json, fieldName, expectedValue);
     }
     
     /**
@@ -271,8 +209,7 @@ public class JsonOptimizer {
      * 清理缓存
      */
     public static void clearCache() {
-        JSON_CACHE.clear();
-        ARRAY_CACHE.clear();
+        UnifiedJsonParser.getInstance().clearCache();
     }
     
     /**
@@ -280,7 +217,6 @@ public class JsonOptimizer {
      * @return 缓存统计字符串
      */
     public static String getCacheStats() {
-        return String.format("JSON缓存: %d个对象, %d个数组", 
-                           JSON_CACHE.size(), ARRAY_CACHE.size());
+        return UnifiedJsonParser.getInstance().getCacheStats();
     }
 }
\ No newline at end of file
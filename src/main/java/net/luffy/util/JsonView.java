@@ -0,0 +1,184 @@
+package net.luffy.util;
+
+import cn.hutool.json.JSONObject;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JsonNode的只读视图
+ * 提供与hutool JSONObject相近的getStr/getInt/getLong/getBool/getObj访问方式，但直接读取Jackson树，
+ * 不做JSONObject转换；嵌套对象和数组返回同一棵树上的视图，不会再次序列化和解析。
+ * 底层树可能来自解析缓存并被多个视图共享，因此不对外暴露JsonNode
+ */
+public final class JsonView {
+
+    public static final JsonView EMPTY = new JsonView(MissingNode.getInstance());
+
+    private final JsonNode node;
+
+    private JsonView(JsonNode node) {
+        this.node = node;
+    }
+
+    public static JsonView of(JsonNode node) {
+        return node == null || node.isMissingNode() || node.isNull() ? EMPTY : new JsonView(node);
+    }
+
+    public boolean isEmpty() {
+        return node.size() == 0;
+    }
+
+    public boolean containsKey(String key) {
+        JsonNode value = node.get(key);
+        return value != null && !value.isNull();
+    }
+
+    public Set<String> keySet() {
+        if (!node.isObject()) {
+            return Collections.emptySet();
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        node.fieldNames().forEachRemaining(keys::add);
+        return keys;
+    }
+
+    public String getStr(String key) {
+        return getStr(key, null);
+    }
+
+    /**
+     * 字符串字段原样返回，数字/布尔返回文本形式，对象/数组返回其JSON文本（与JSONObject.getStr一致）
+     */
+    public String getStr(String key, String defaultValue) {
+        JsonNode value = value(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.isValueNode() ? value.asText() : value.toString();
+    }
+
+    public Integer getInt(String key) {
+        JsonNode value = value(key);
+        if (value == null) {
+            return null;
+        }
+        if (value.isNumber()) {
+            return value.intValue();
+        }
+        try {
+            return Integer.valueOf(value.asText().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Integer value = getInt(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public Long getLong(String key) {
+        JsonNode value = value(key);
+        if (value == null) {
+            return null;
+        }
+        if (value.isNumber()) {
+            return value.longValue();
+        }
+        try {
+            return Long.valueOf(value.asText().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Long value = getLong(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public Boolean getBool(String key) {
+        JsonNode value = value(key);
+        if (value == null) {
+            return null;
+        }
+        if (value.isBoolean()) {
+            return value.booleanValue();
+        }
+        if (value.isNumber()) {
+            return value.intValue() != 0;
+        }
+        String text = value.asText().trim();
+        if ("true".equalsIgnoreCase(text) || "1".equals(text)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(text) || "0".equals(text)) {
+            return false;
+        }
+        return null;
+    }
+
+    public boolean getBool(String key, boolean defaultValue) {
+        Boolean value = getBool(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * 获取嵌套对象；口袋48的extInfo等字段是以字符串形式嵌入的JSON，此时只解析这一个字段
+     * @return 字段不存在或不是对象时返回null
+     */
+    public JsonView getObj(String key) {
+        JsonNode value = value(key);
+        if (value == null) {
+            return null;
+        }
+        if (value.isTextual()) {
+            String text = value.textValue().trim();
+            if (!text.startsWith("{")) {
+                return null;
+            }
+            JsonView parsed = UnifiedJsonParser.getInstance().parseView(text);
+            return parsed.node.isObject() ? parsed : null;
+        }
+        return value.isObject() ? new JsonView(value) : null;
+    }
+
+    /**
+     * 获取数组中的各元素视图，字段不存在时返回空列表
+     */
+    public List<JsonView> getArray(String key) {
+        JsonNode value = value(key);
+        if (value == null || !value.isArray()) {
+            return Collections.emptyList();
+        }
+        List<JsonView> elements = new ArrayList<>(value.size());
+        for (Iterator<JsonNode> it = value.elements(); it.hasNext(); ) {
+            elements.add(of(it.next()));
+        }
+        return elements;
+    }
+
+    /**
+     * 转换为hutool JSONObject，仅用于仍需要可变JSONObject的旧接口
+     */
+    public JSONObject toJSONObject() {
+        return UnifiedJsonParser.getInstance().toJSONObject(node);
+    }
+
+    private JsonNode value(String key) {
+        JsonNode value = node.get(key);
+        return value == null || value.isNull() ? null : value;
+    }
+
+    @Override
+    public String toString() {
+        return node.isMissingNode() ? "{}" : node.toString();
+    }
+}
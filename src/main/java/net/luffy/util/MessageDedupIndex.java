@@ -0,0 +1,109 @@
+package net.luffy.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 单个房间的消息去重索引
+ * 以64位消息指纹为键的开放寻址哈希表，分为当前代和上一代两张表：当前代写满capacity条后整体降为上一代，
+ * 原上一代整张丢弃，过期是O(1)的整表替换，不需要逐条扫描或逐条淘汰。
+ * 始终保留最近至少capacity条、至多2*capacity条指纹；查询不加锁，写入按房间串行
+ */
+public final class MessageDedupIndex {
+
+    // 0表示空槽，指纹为0时映射为1
+    private static final long EMPTY = 0L;
+
+    private final int capacity;
+    private final int mask;
+    private volatile Generations generations;
+
+    /**
+     * @param capacity 每代保留的指纹数量，哈希表大小为其2倍以上的2的幂，负载因子不超过50%
+     */
+    public MessageDedupIndex(int capacity) {
+        this.capacity = Math.max(16, capacity);
+        int tableSize = Integer.highestOneBit(this.capacity * 2 - 1) << 1;
+        this.mask = tableSize - 1;
+        this.generations = new Generations(new AtomicLongArray(tableSize), null);
+    }
+
+    /**
+     * 指纹是否已记录（不加锁）
+     */
+    public boolean contains(long fingerprint) {
+        long key = normalize(fingerprint);
+        Generations current = generations;
+        return probe(current.current, key) || (current.previous != null && probe(current.previous, key));
+    }
+
+    /**
+     * 记录指纹
+     * @return 新记录返回true，已存在返回false
+     */
+    public boolean add(long fingerprint) {
+        long key = normalize(fingerprint);
+        synchronized (this) {
+            Generations current = generations;
+            if (current.previous != null && probe(current.previous, key)) {
+                return false;
+            }
+            AtomicLongArray table = current.current;
+            for (int i = index(key); ; i = (i + 1) & mask) {
+                long slot = table.get(i);
+                if (slot == key) {
+                    return false;
+                }
+                if (slot == EMPTY) {
+                    table.set(i, key);
+                    break;
+                }
+            }
+            if (++current.size >= capacity) {
+                // 当前代写满：整体降为上一代，原上一代直接丢弃
+                generations = new Generations(new AtomicLongArray(mask + 1), table);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 当前保留的指纹数量
+     */
+    public int size() {
+        Generations current = generations;
+        return current.size + (current.previous != null ? capacity : 0);
+    }
+
+    private boolean probe(AtomicLongArray table, long key) {
+        for (int i = index(key); ; i = (i + 1) & mask) {
+            long slot = table.get(i);
+            if (slot == key) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    private int index(long key) {
+        // 指纹本身已充分混合，取高低位异或即可
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private static long normalize(long fingerprint) {
+        return fingerprint == EMPTY ? 1L : fingerprint;
+    }
+
+    private static final class Generations {
+        private final AtomicLongArray current;
+        private final AtomicLongArray previous;
+        // 只在持有索引锁时修改
+        private int size;
+
+        private Generations(AtomicLongArray current, AtomicLongArray previous) {
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package net.luffy.util;
 
 import net.luffy.model.Pocket48Message;
+import net.luffy.model.Pocket48MessageType;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 消息完整性检查器
@@ -15,24 +15,20 @@ public class MessageIntegrityChecker {
     // 每个房间的消息序列号
     private static final Map<Long, AtomicLong> roomSequenceNumbers = new ConcurrentHashMap<>();
     
-    // 每个房间的消息去重缓存（保留最近1000条消息的ID）
-    private static final Map<Long, Set<String>> roomMessageCache = new ConcurrentHashMap<>();
+    // 每个房间的消息去重索引（按64位消息指纹，保留最近至少1000条）
+    private static final Map<Long, MessageDedupIndex> roomDedupIndexes = new ConcurrentHashMap<>();
     
-    // 缓存大小限制
+    // 每代保留的指纹数量
     private static final int MAX_CACHE_SIZE = 1000;
     
-    // 消息时间窗口缓存（用于检测短时间内的重复消息）
-    private static final Map<String, Long> messageTimeWindow = new ConcurrentHashMap<>();
-    private static final long TIME_WINDOW_THRESHOLD = 5 * 60 * 1000; // 5分钟内的重复消息
-    
-    // 每个房间的最后消息时间戳
-    private static final Map<Long, Long> lastMessageTimestamp = new ConcurrentHashMap<>();
+    // 消息指纹使用的FNV-1a乘数
+    private static final long FNV_PRIME = 0x100000001b3L;
     
     // 消息时间间隔异常阈值（毫秒）- 调整为更合理的值
     private static final long TIME_GAP_THRESHOLD = 6 * 60 * 60 * 1000; // 6小时
     
-    // 每个房间的消息时间戳历史（用于更智能的时间连续性检查）
-    private static final Map<Long, List<Long>> roomTimestampHistory = new ConcurrentHashMap<>();
+    // 每个房间的消息时间戳历史（用于更智能的时间连续性检查），最近一个即最后消息时间戳
+    private static final Map<Long, TimestampRingBuffer> roomTimestampHistory = new ConcurrentHashMap<>();
     
     // 时间戳历史记录的最大数量
     private static final int MAX_TIMESTAMP_HISTORY = 50;
@@ -54,96 +50,45 @@ public class MessageIntegrityChecker {
     
     /**
      * 检查消息是否重复（改进版）
+     * 只登记到内存索引防止同一进程内重复解析；持久化去重日志在发送成功后由recordSent写入
      * @param roomId 房间ID
      * @param message 消息对象
      * @return 如果是重复消息返回true
      */
     public static boolean isDuplicateMessage(long roomId, Pocket48Message message) {
-        String messageId = generateMessageId(message);
-        long currentTime = System.currentTimeMillis();
+        long fingerprint = fingerprint(message);
+        MessageDedupIndex index = roomDedupIndexes.computeIfAbsent(roomId, k -> new MessageDedupIndex(MAX_CACHE_SIZE));
         
-        // 检查时间窗口内的重复消息
-        Long lastSeenTime = messageTimeWindow.get(messageId);
-        if (lastSeenTime != null && (currentTime - lastSeenTime) < TIME_WINDOW_THRESHOLD) {
-            System.out.println(String.format("[去重] 检测到时间窗口内重复消息: %s (间隔: %d毫秒)", 
-                messageId, currentTime - lastSeenTime));
+        // 记录失败说明指纹已存在；内存索引中没有时再查持久化去重日志（重启前已推送的消息）
+        if (!index.add(fingerprint)
+                || DedupJournal.getInstance().contains(DedupJournal.Source.POCKET48, String.valueOf(roomId), fingerprint)) {
+            System.out.println(String.format("[去重] 房间 %d 发现重复消息: %016x", roomId, fingerprint));
             return true;
         }
-        
-        Set<String> messageCache = roomMessageCache.computeIfAbsent(roomId, k -> 
-            Collections.synchronizedSet(new LinkedHashSet<>()));
-        
-        // 检查是否重复
-        boolean isDuplicate = messageCache.contains(messageId);
-        
-        if (isDuplicate) {
-            System.out.println(String.format("[去重] 房间 %d 发现重复消息: %s", roomId, messageId));
-            return true;
-        }
-        
-        // 添加到缓存
-        synchronized (messageCache) {
-            messageCache.add(messageId);
-            
-            // 限制缓存大小
-            if (messageCache.size() > MAX_CACHE_SIZE) {
-                Iterator<String> iterator = messageCache.iterator();
-                if (iterator.hasNext()) {
-                    iterator.next();
-                    iterator.remove();
-                }
-            }
-        }
-        
-        // 更新时间窗口缓存
-        messageTimeWindow.put(messageId, currentTime);
-        
-        // 清理过期的时间窗口记录
-        cleanupTimeWindow(currentTime);
-        
         return false;
     }
     
     /**
-     * 仅检查消息是否在缓存中重复，不添加到缓存
+     * 消息已成功发送，写入持久化去重日志（重启后据此去重和续接）
      * @param roomId 房间ID
      * @param message 消息对象
-     * @return 如果是重复消息返回true
      */
-    private static boolean isMessageDuplicateInCache(long roomId, Pocket48Message message) {
-        String messageId = generateMessageId(message);
-        long currentTime = System.currentTimeMillis();
-        
-        // 检查时间窗口内的重复
-        Long lastSeenTime = messageTimeWindow.get(messageId);
-        if (lastSeenTime != null) {
-            long timeDiff = currentTime - lastSeenTime;
-            if (timeDiff <= TIME_WINDOW_THRESHOLD) {
-                return true;
-            }
-        }
-        
-        // 检查房间消息缓存
-        Set<String> roomCache = roomMessageCache.get(roomId);
-        if (roomCache != null) {
-            synchronized (roomCache) {
-                return roomCache.contains(messageId);
-            }
-        }
-        
-        return false;
+    public static void recordSent(long roomId, Pocket48Message message) {
+        DedupJournal.getInstance().record(DedupJournal.Source.POCKET48, String.valueOf(roomId),
+                fingerprint(message), message.getTime());
     }
     
     /**
-     * 清理过期的时间窗口记录
-     * @param currentTime 当前时间
+     * 仅检查消息是否在缓存中重复，不添加到缓存
+     * @param roomId 房间ID
+     * @param message 消息对象
+     * @return 如果是重复消息返回true
      */
-    private static void cleanupTimeWindow(long currentTime) {
-        // 定期清理过期记录（每100次调用清理一次）
-        if (Math.random() < 0.01) {
-            messageTimeWindow.entrySet().removeIf(entry -> 
-                (currentTime - entry.getValue()) > TIME_WINDOW_THRESHOLD * 2);
-        }
+    public static boolean isMessageDuplicateInCache(long roomId, Pocket48Message message) {
+        long fingerprint = fingerprint(message);
+        MessageDedupIndex index = roomDedupIndexes.get(roomId);
+        return (index != null && index.contains(fingerprint))
+                || DedupJournal.getInstance().contains(DedupJournal.Source.POCKET48, String.valueOf(roomId), fingerprint);
     }
     
     /**
@@ -153,67 +98,51 @@ public class MessageIntegrityChecker {
      * @return 如果时间间隔异常返回true
      */
     public static boolean checkTimeContinuity(long roomId, Pocket48Message message) {
-        long currentTimestamp = message.getTime();
-        
-        // 获取或创建时间戳历史 - 使用ConcurrentLinkedDeque提高并发性能
-        List<Long> timestampHistory = roomTimestampHistory.computeIfAbsent(roomId, k -> 
-            new CopyOnWriteArrayList<>());
-        
+        return checkTimeContinuity(roomId, getTimestampHistory(roomId), message.getTime());
+    }
+    
+    private static TimestampRingBuffer getTimestampHistory(long roomId) {
+        return roomTimestampHistory.computeIfAbsent(roomId, k -> new TimestampRingBuffer(MAX_TIMESTAMP_HISTORY));
+    }
+    
+    private static boolean checkTimeContinuity(long roomId, TimestampRingBuffer timestampHistory, long currentTimestamp) {
         boolean isAnomalous = false;
         
-        // 使用CopyOnWriteArrayList的线程安全特性，无需额外同步
         if (!timestampHistory.isEmpty()) {
             // 检查与最近几条消息的时间间隔
-            long lastTimestamp = timestampHistory.get(timestampHistory.size() - 1);
+            long lastTimestamp = timestampHistory.latest(currentTimestamp);
             long timeGap = Math.abs(currentTimestamp - lastTimestamp);
             
             // 只有当时间间隔超过阈值且不是正常的时间跳跃时才报告异常
             if (timeGap > TIME_GAP_THRESHOLD) {
-                    // 检查是否是系统重启或长时间离线后的正常恢复
-                    boolean isNormalRecovery = isNormalTimeRecovery(timestampHistory, currentTimestamp);
-                    
-                    if (!isNormalRecovery) {
-                        System.err.println(String.format("[警告] 房间 %d 消息时间间隔异常: %d 毫秒 (上次: %d, 当前: %d)", 
-                            roomId, timeGap, lastTimestamp, currentTimestamp));
-                        isAnomalous = true;
-                    } else {
-                        // 移除正常时间恢复的信息日志，减少日志噪音
-                    }
+                // 检查是否是系统重启或长时间离线后的正常恢复
+                boolean isNormalRecovery = isNormalTimeRecovery(timestampHistory);
+                
+                if (!isNormalRecovery) {
+                    System.err.println(String.format("[警告] 房间 %d 消息时间间隔异常: %d 毫秒 (上次: %d, 当前: %d)", 
+                        roomId, timeGap, lastTimestamp, currentTimestamp));
+                    isAnomalous = true;
                 }
             }
-            
-            // 添加当前时间戳到历史记录
-            timestampHistory.add(currentTimestamp);
-            
-            // 限制历史记录大小
-            if (timestampHistory.size() > MAX_TIMESTAMP_HISTORY) {
-                timestampHistory.remove(0);
-            }
+        }
         
-        // 更新最后消息时间戳
-        lastMessageTimestamp.put(roomId, currentTimestamp);
+        // 添加当前时间戳到历史记录，超出容量时自动覆盖最早的记录
+        timestampHistory.append(currentTimestamp);
         return isAnomalous;
     }
     
     /**
      * 判断是否是正常的时间恢复（如系统重启后）
      * @param timestampHistory 时间戳历史
-     * @param currentTimestamp 当前时间戳
      * @return 如果是正常恢复返回true
      */
-    private static boolean isNormalTimeRecovery(List<Long> timestampHistory, long currentTimestamp) {
+    private static boolean isNormalTimeRecovery(TimestampRingBuffer timestampHistory) {
         if (timestampHistory.size() < 3) {
             return true; // 历史记录不足，认为是正常的
         }
         
-        // 检查最近几条消息的时间间隔是否都很大
-        int largeGapCount = 0;
-        for (int i = timestampHistory.size() - 3; i < timestampHistory.size() - 1; i++) {
-            long gap = Math.abs(timestampHistory.get(i + 1) - timestampHistory.get(i));
-            if (gap > TIME_GAP_THRESHOLD / 2) { // 使用较小的阈值检查
-                largeGapCount++;
-            }
-        }
+        // 检查最近几条消息的时间间隔是否都很大（使用较小的阈值检查）
+        int largeGapCount = timestampHistory.countGapsAbove(3, TIME_GAP_THRESHOLD / 2);
         
         // 如果最近的消息间隔都很大，可能是系统问题，认为是正常恢复
         return largeGapCount >= 2;
@@ -264,7 +193,8 @@ public class MessageIntegrityChecker {
             }
         }
         
-        // 逐个检查消息
+        // 逐个检查消息，整批共用同一个时间戳历史
+        TimestampRingBuffer timestampHistory = getTimestampHistory(roomId);
         for (Pocket48Message message : messages) {
             // 分配序列号
             assignSequenceNumber(roomId, message);
@@ -275,7 +205,7 @@ public class MessageIntegrityChecker {
             }
             
             // 检查时间连续性
-            if (checkTimeContinuity(roomId, message)) {
+            if (checkTimeContinuity(roomId, timestampHistory, message.getTime())) {
                 timeAnomalyCount++;
             }
         }
@@ -296,44 +226,67 @@ public class MessageIntegrityChecker {
     }
     
     /**
-     * 生成消息唯一标识（改进版）
+     * 生成消息的64位指纹
+     * 由时间戳、发送者昵称、消息类别和内容（去除首尾空白）组成，直接按字符计算，不拼接字符串
      * @param message 消息对象
-     * @return 消息唯一标识
+     * @return 消息指纹
      */
-    private static String generateMessageId(Pocket48Message message) {
-        // 使用更稳定的字段组合生成唯一标识
-        String content = message.getBody() != null ? message.getBody().trim() : "";
-        String nickname = message.getNickName() != null ? message.getNickName().trim() : "";
-        
-        // 添加消息类型和更多字段以提高唯一性
-        StringBuilder idBuilder = new StringBuilder();
-        idBuilder.append(message.getTime()).append("_");
-        idBuilder.append(nickname).append("_");
-        
-        // 根据消息类型生成不同的标识前缀
-        if (message.getType() != null) {
-            switch (message.getType()) {
+    public static long fingerprint(Pocket48Message message) {
+        return fingerprint(message.getTime(), message.getNickName(), message.getType(), message.getBody());
+    }
+    
+    public static long fingerprint(long time, String nickName, Pocket48MessageType type, String body) {
+        long hash = mix(time);
+        hash = hashTrimmed(hash, nickName);
+        // 根据消息类型区分类别：图片/表情、语音、视频、其他
+        int category = 0;
+        if (type != null) {
+            switch (type) {
                 case IMAGE:
                 case EXPRESSIMAGE:
-                    idBuilder.append("IMG_").append(content.hashCode());
+                    category = 1;
                     break;
                 case AUDIO:
-                    idBuilder.append("AUD_").append(content.hashCode());
+                    category = 2;
                     break;
                 case VIDEO:
-                    idBuilder.append("VID_").append(content.hashCode());
+                    category = 3;
                     break;
                 default:
-                    // 对于文本消息和其他类型，使用内容哈希
-                    idBuilder.append("TXT_").append(content.hashCode());
                     break;
             }
-        } else {
-            // 如果类型为空，默认使用文本类型
-            idBuilder.append("TXT_").append(content.hashCode());
         }
-        
-        return idBuilder.toString();
+        hash = (hash ^ category) * FNV_PRIME;
+        hash = hashTrimmed(hash, body);
+        return mix(hash);
+    }
+    
+    private static long hashTrimmed(long hash, String value) {
+        if (value == null) {
+            return hash * FNV_PRIME;
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // 字段分隔，避免"ab"+"c"与"a"+"bc"相同
+        return (hash ^ (end - start)) * FNV_PRIME;
+    }
+    
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
     }
     
     /**
@@ -342,8 +295,8 @@ public class MessageIntegrityChecker {
      */
     public static void clearRoomCache(long roomId) {
         roomSequenceNumbers.remove(roomId);
-        roomMessageCache.remove(roomId);
-        lastMessageTimestamp.remove(roomId);
+        roomDedupIndexes.remove(roomId);
+        roomTimestampHistory.remove(roomId);
         System.out.println(String.format("[清理] 房间 %d 完整性检查缓存已清理", roomId));
     }
     
@@ -352,8 +305,8 @@ public class MessageIntegrityChecker {
      */
     public static void clearAllCache() {
         roomSequenceNumbers.clear();
-        roomMessageCache.clear();
-        lastMessageTimestamp.clear();
+        roomDedupIndexes.clear();
+        roomTimestampHistory.clear();
         System.out.println("[清理] 所有完整性检查缓存已清理");
     }
     
@@ -364,15 +317,20 @@ public class MessageIntegrityChecker {
      */
     public static String getRoomStats(long roomId) {
         AtomicLong sequenceCounter = roomSequenceNumbers.get(roomId);
-        Set<String> messageCache = roomMessageCache.get(roomId);
-        Long lastTimestamp = lastMessageTimestamp.get(roomId);
+        MessageDedupIndex dedupIndex = roomDedupIndexes.get(roomId);
+        TimestampRingBuffer timestampHistory = roomTimestampHistory.get(roomId);
         
         long totalMessages = sequenceCounter != null ? sequenceCounter.get() : 0;
-        int cacheSize = messageCache != null ? messageCache.size() : 0;
+        int cacheSize = dedupIndex != null ? dedupIndex.size() : 0;
         
-        return String.format("房间 %d: 总消息数 %d, 缓存大小 %d, 最后消息时间 %s", 
-            roomId, totalMessages, cacheSize, 
-            lastTimestamp != null ? new Date(lastTimestamp).toString() : "无");
+        if (timestampHistory == null || timestampHistory.isEmpty()) {
+            return String.format("房间 %d: 总消息数 %d, 缓存大小 %d, 最后消息时间 无", 
+                roomId, totalMessages, cacheSize);
+        }
+        TimestampRingBuffer.GapStats gapStats = timestampHistory.gapStats();
+        return String.format("房间 %d: 总消息数 %d, 缓存大小 %d, 最后消息时间 %s, 最近%d条平均间隔 %ds, 最大间隔 %ds", 
+            roomId, totalMessages, cacheSize, new Date(timestampHistory.latest(0)).toString(),
+            timestampHistory.size(), gapStats.getAverageGap() / 1000, gapStats.getMaxGap() / 1000);
     }
     
     /**
@@ -4,6 +4,9 @@ import net.luffy.util.UnifiedLogger;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -20,6 +23,8 @@ public class MonitorConfig {
     private final int maxRetries;
     private final long retryBaseDelay;
     private final long retryMaxDelay;
+    private final double retryBudgetRatio;
+    private final int retryBudgetBurst;
     
     // 口袋48 API专用快速失败配置
     private final int pocket48ConnectTimeout;
@@ -28,6 +33,45 @@ public class MonitorConfig {
     private final long pocket48RetryBaseDelay;
     private final boolean pocket48FastFailEnabled;
     
+    // 微博API与媒体下载超时配置
+    private final int weiboConnectTimeout;
+    private final int weiboReadTimeout;
+    private final int mediaConnectTimeout;
+    private final int mediaReadTimeout;
+    
+    // HTTP连接预热配置
+    private final boolean httpPrewarmEnabled;
+    private final long httpPrewarmInterval;
+    private final List<String> httpPrewarmHosts;
+    
+    // DNS缓存配置
+    private final boolean httpDnsCacheEnabled;
+    private final long httpDnsCacheTtl;
+    private final long httpDnsMaxStale;
+    
+    // 条件请求响应缓存配置
+    private final boolean httpResponseCacheEnabled;
+    private final int httpResponseCacheMaxEntries;
+    
+    // HTTP自适应并发限制配置
+    private final boolean httpLimiterEnabled;
+    private final int httpLimiterInitialLimit;
+    private final int httpLimiterMinLimit;
+    private final int httpLimiterMaxLimit;
+    private final double httpLimiterRttTolerance;
+    private final double httpLimiterBackoffRatio;
+    private final int httpLimiterQueueSize;
+    private final long httpLimiterQueueTimeout;
+    
+    // 请求合并配置
+    private final boolean httpSingleFlightEnabled;
+    
+    // 请求对冲配置
+    private final boolean pocket48HedgeEnabled;
+    private final double hedgeBudgetRatio;
+    private final int hedgeBudgetBurst;
+    private final long hedgeMinDelay;
+    
     // 健康检查配置
     private final int maxConsecutiveFailures;
     private final long healthCheckInterval;
@@ -36,6 +80,12 @@ public class MonitorConfig {
     private final int failureCooldownMax;
     private final long failureCooldown;
     
+    // 群发送熔断配置
+    private final int sendCircuitFailureThreshold;
+    private final long sendCircuitProbeBaseInterval;
+    private final long sendCircuitProbeMaxInterval;
+    private final long sendCircuitBacklogWindow;
+    
     // 缓存配置
     private final long cacheExpireTime;
     private final long cacheCleanupInterval;
@@ -61,6 +111,36 @@ public class MonitorConfig {
     private final boolean asyncProcessingEnabled;
     private final int asyncThreadPoolSize;
     
+    // 阻塞任务执行后端配置
+    private final String executorBackend;
+    private final int executorUpstreamPermits;
+    
+    // 监控轮次时限配置
+    private final long pocket48TickTimeout;
+    private final long weidianTickTimeout;
+    private final long weiboTickTimeout;
+    
+    // 微博轮询配置
+    private final int weiboPollParallelism;
+    private final long weiboPollJitterMs;
+    private final long weiboCheckpointFlushInterval;
+    private final long weiboUserInfoTtlHours;
+    private final long weiboPollIntervalMin;
+    private final long weiboPollIntervalMax;
+    private final long weiboPollIntervalDefault;
+    private final List<String> weiboPollHotTargets;
+    
+    // JSON解析缓存配置
+    private final int jsonParseCacheMaxEntries;
+    private final int jsonParseCacheMaxChars;
+    
+    // 去重日志配置
+    private final boolean dedupJournalEnabled;
+    private final int dedupJournalSegmentRecords;
+    private final int dedupJournalMaxSegments;
+    private final long dedupJournalRetentionHours;
+    private final long dedupJournalCatchupMinutes;
+    
     // 批量查询配置
     private long batchQueryInterval;
     private final long batchQueryTimeout;
@@ -87,6 +167,8 @@ public class MonitorConfig {
         maxRetries = getIntProperty("monitor.network.max.retries", 2); // 优化重试次数为2次
         retryBaseDelay = getLongProperty("monitor.network.retry.base.delay", 1000L);
         retryMaxDelay = getLongProperty("monitor.network.retry.max.delay", 15000L);
+        retryBudgetRatio = getDoubleProperty("monitor.network.retry.budget.ratio", 0.2);
+        retryBudgetBurst = getIntProperty("monitor.network.retry.budget.burst", 10);
         
         // 初始化口袋48 API专用快速失败配置 - 进一步优化超时时间
         pocket48FastFailEnabled = getBooleanProperty("monitor.pocket48.fast.fail.enabled", true);
@@ -95,6 +177,46 @@ public class MonitorConfig {
         pocket48MaxRetries = getIntProperty("monitor.pocket48.max.retries", 3); // 使用默认重试次数
         pocket48RetryBaseDelay = getLongProperty("monitor.pocket48.retry.base.delay", 1000L); // 使用默认基础延迟
         
+        // 初始化微博API与媒体下载超时配置
+        weiboConnectTimeout = getIntProperty("monitor.weibo.connect.timeout", 3000);
+        weiboReadTimeout = getIntProperty("monitor.weibo.read.timeout", 10000);
+        mediaConnectTimeout = getIntProperty("monitor.media.connect.timeout", 30000);
+        mediaReadTimeout = getIntProperty("monitor.media.read.timeout", 60000);
+        
+        // 初始化HTTP连接预热配置
+        httpPrewarmEnabled = getBooleanProperty("monitor.http.prewarm.enabled", true);
+        httpPrewarmInterval = getLongProperty("monitor.http.prewarm.interval", 60000L);
+        httpPrewarmHosts = getListProperty("monitor.http.prewarm.hosts",
+                "https://pocketapi.48.cn,https://m.weibo.cn,https://thor.weidian.com");
+        
+        // 初始化DNS缓存配置
+        httpDnsCacheEnabled = getBooleanProperty("monitor.http.dns.cache.enabled", true);
+        httpDnsCacheTtl = getLongProperty("monitor.http.dns.cache.ttl", 60000L);
+        httpDnsMaxStale = getLongProperty("monitor.http.dns.max.stale", 600000L);
+        
+        // 初始化条件请求响应缓存配置
+        httpResponseCacheEnabled = getBooleanProperty("monitor.http.response.cache.enabled", true);
+        httpResponseCacheMaxEntries = getIntProperty("monitor.http.response.cache.max.entries", 512);
+        
+        // 初始化HTTP自适应并发限制配置
+        httpLimiterEnabled = getBooleanProperty("monitor.http.limiter.enabled", true);
+        httpLimiterInitialLimit = getIntProperty("monitor.http.limiter.initial.limit", 20);
+        httpLimiterMinLimit = getIntProperty("monitor.http.limiter.min.limit", 2);
+        httpLimiterMaxLimit = getIntProperty("monitor.http.limiter.max.limit", 128);
+        httpLimiterRttTolerance = getDoubleProperty("monitor.http.limiter.rtt.tolerance", 2.0);
+        httpLimiterBackoffRatio = getDoubleProperty("monitor.http.limiter.backoff.ratio", 0.75);
+        httpLimiterQueueSize = getIntProperty("monitor.http.limiter.queue.size", 200);
+        httpLimiterQueueTimeout = getLongProperty("monitor.http.limiter.queue.timeout", 5000L);
+        
+        // 初始化请求合并配置
+        httpSingleFlightEnabled = getBooleanProperty("monitor.http.singleflight.enabled", true);
+        
+        // 初始化请求对冲配置（默认关闭）
+        pocket48HedgeEnabled = getBooleanProperty("monitor.pocket48.hedge.enabled", false);
+        hedgeBudgetRatio = getDoubleProperty("monitor.http.hedge.budget.ratio", 0.1);
+        hedgeBudgetBurst = getIntProperty("monitor.http.hedge.budget.burst", 10);
+        hedgeMinDelay = getLongProperty("monitor.http.hedge.min.delay", 50L);
+        
         // 初始化健康检查配置 - 优化为实时监控
         maxConsecutiveFailures = getIntProperty("monitor.health.max.consecutive.failures", 3);
         healthCheckInterval = getLongProperty("monitor.health.check.interval", 120000L);
@@ -103,6 +225,12 @@ public class MonitorConfig {
         failureCooldownMax = getIntProperty("monitor.health.failure.cooldown.max", 60);
         failureCooldown = getLongProperty("monitor.health.failure.cooldown", 120000L);
         
+        // 初始化群发送熔断配置
+        sendCircuitFailureThreshold = getIntProperty("monitor.send.circuit.failure.threshold", 3);
+        sendCircuitProbeBaseInterval = getLongProperty("monitor.send.circuit.probe.base.interval", 60000L);
+        sendCircuitProbeMaxInterval = getLongProperty("monitor.send.circuit.probe.max.interval", 1800000L);
+        sendCircuitBacklogWindow = getLongProperty("monitor.send.circuit.backlog.window", 600000L);
+        
         // 初始化缓存配置 - 优化为实时性
         cacheExpireTime = getLongProperty("monitor.cache.expire.time", 15000L);
         cacheCleanupInterval = getLongProperty("monitor.cache.cleanup.interval", 600000L);
@@ -128,6 +256,36 @@ public class MonitorConfig {
         asyncProcessingEnabled = getBooleanProperty("monitor.async.processing.enabled", true);
         asyncThreadPoolSize = getIntProperty("monitor.async.thread.pool.size", 12); // 增加线程池大小以提高并发处理能力
         
+        // 初始化阻塞任务执行后端配置
+        executorBackend = properties.getProperty("monitor.executor.backend", "auto").trim();
+        executorUpstreamPermits = getIntProperty("monitor.executor.upstream.permits", 32);
+        
+        // 初始化监控轮次时限配置
+        pocket48TickTimeout = getLongProperty("monitor.tick.pocket48.timeout", 30000L);
+        weidianTickTimeout = getLongProperty("monitor.tick.weidian.timeout", 110000L);
+        weiboTickTimeout = getLongProperty("monitor.tick.weibo.timeout", 40000L);
+        
+        // 初始化微博轮询配置
+        weiboPollParallelism = getIntProperty("monitor.weibo.poll.parallelism", 4);
+        weiboPollJitterMs = getLongProperty("monitor.weibo.poll.jitter.ms", 5000L);
+        weiboCheckpointFlushInterval = getLongProperty("monitor.weibo.checkpoint.flush.interval", 5000L);
+        weiboUserInfoTtlHours = getLongProperty("monitor.weibo.user.info.ttl.hours", 24L);
+        weiboPollIntervalMin = getLongProperty("monitor.weibo.poll.interval.min", 45000L);
+        weiboPollIntervalMax = getLongProperty("monitor.weibo.poll.interval.max", 180000L);
+        weiboPollIntervalDefault = getLongProperty("monitor.weibo.poll.interval.default", 45000L);
+        weiboPollHotTargets = getListProperty("monitor.weibo.poll.hot.targets", "");
+        
+        // 初始化JSON解析缓存配置
+        jsonParseCacheMaxEntries = getIntProperty("monitor.json.parse.cache.max.entries", 512);
+        jsonParseCacheMaxChars = getIntProperty("monitor.json.parse.cache.max.chars", 16384);
+        
+        // 初始化去重日志配置
+        dedupJournalEnabled = getBooleanProperty("monitor.dedup.journal.enabled", true);
+        dedupJournalSegmentRecords = getIntProperty("monitor.dedup.journal.segment.records", 65536);
+        dedupJournalMaxSegments = getIntProperty("monitor.dedup.journal.max.segments", 4);
+        dedupJournalRetentionHours = getLongProperty("monitor.dedup.journal.retention.hours", 168L);
+        dedupJournalCatchupMinutes = getLongProperty("monitor.dedup.journal.catchup.minutes", 30L);
+        
         // 初始化批量查询配置 - 优化响应速度
         batchQueryInterval = getLongProperty("monitor.batch.query.interval", 1000L);
         batchQueryTimeout = getLongProperty("monitor.batch.query.timeout", 13000L); // 增加批量查询超时时间
@@ -220,6 +378,17 @@ public class MonitorConfig {
         return defaultValue;
     }
     
+    private List<String> getListProperty(String key, String defaultValue) {
+        String value = properties.getProperty(key, defaultValue);
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                items.add(item.trim());
+            }
+        }
+        return Collections.unmodifiableList(items);
+    }
+    
     private boolean getBooleanProperty(String key, boolean defaultValue) {
         String value = properties.getProperty(key);
         if (value != null) {
@@ -234,6 +403,8 @@ public class MonitorConfig {
     public int getMaxRetries() { return maxRetries; }
     public long getRetryBaseDelay() { return retryBaseDelay; }
     public long getRetryMaxDelay() { return retryMaxDelay; }
+    public double getRetryBudgetRatio() { return retryBudgetRatio; }
+    public int getRetryBudgetBurst() { return retryBudgetBurst; }
     
     // 口袋48 API专用配置的getter方法
     public boolean isPocket48FastFailEnabled() { return pocket48FastFailEnabled; }
@@ -242,6 +413,38 @@ public class MonitorConfig {
     public int getPocket48MaxRetries() { return pocket48MaxRetries; }
     public long getPocket48RetryBaseDelay() { return pocket48RetryBaseDelay; }
     
+    public int getWeiboConnectTimeout() { return weiboConnectTimeout; }
+    public int getWeiboReadTimeout() { return weiboReadTimeout; }
+    public int getMediaConnectTimeout() { return mediaConnectTimeout; }
+    public int getMediaReadTimeout() { return mediaReadTimeout; }
+    
+    public boolean isHttpPrewarmEnabled() { return httpPrewarmEnabled; }
+    public long getHttpPrewarmInterval() { return httpPrewarmInterval; }
+    public List<String> getHttpPrewarmHosts() { return httpPrewarmHosts; }
+    
+    public boolean isHttpDnsCacheEnabled() { return httpDnsCacheEnabled; }
+    public long getHttpDnsCacheTtl() { return httpDnsCacheTtl; }
+    public long getHttpDnsMaxStale() { return httpDnsMaxStale; }
+    
+    public boolean isHttpResponseCacheEnabled() { return httpResponseCacheEnabled; }
+    public int getHttpResponseCacheMaxEntries() { return httpResponseCacheMaxEntries; }
+    
+    public boolean isHttpLimiterEnabled() { return httpLimiterEnabled; }
+    public int getHttpLimiterInitialLimit() { return httpLimiterInitialLimit; }
+    public int getHttpLimiterMinLimit() { return httpLimiterMinLimit; }
+    public int getHttpLimiterMaxLimit() { return httpLimiterMaxLimit; }
+    public double getHttpLimiterRttTolerance() { return httpLimiterRttTolerance; }
+    public double getHttpLimiterBackoffRatio() { return httpLimiterBackoffRatio; }
+    public int getHttpLimiterQueueSize() { return httpLimiterQueueSize; }
+    public long getHttpLimiterQueueTimeout() { return httpLimiterQueueTimeout; }
+    
+    public boolean isHttpSingleFlightEnabled() { return httpSingleFlightEnabled; }
+    
+    public boolean isPocket48HedgeEnabled() { return pocket48HedgeEnabled; }
+    public double getHedgeBudgetRatio() { return hedgeBudgetRatio; }
+    public int getHedgeBudgetBurst() { return hedgeBudgetBurst; }
+    public long getHedgeMinDelay() { return hedgeMinDelay; }
+    
     public int getMaxConsecutiveFailures() { return maxConsecutiveFailures; }
     public long getHealthCheckInterval() { return healthCheckInterval; }
     public double getFailureRateThreshold() { return failureRateThreshold; }
@@ -249,6 +452,11 @@ public class MonitorConfig {
     public int getFailureCooldownMax() { return failureCooldownMax; }
     public long getFailureCooldown() { return failureCooldown; }
     
+    public int getSendCircuitFailureThreshold() { return sendCircuitFailureThreshold; }
+    public long getSendCircuitProbeBaseInterval() { return sendCircuitProbeBaseInterval; }
+    public long getSendCircuitProbeMaxInterval() { return sendCircuitProbeMaxInterval; }
+    public long getSendCircuitBacklogWindow() { return sendCircuitBacklogWindow; }
+    
     public long getCacheCleanupInterval() { return cacheCleanupInterval; }
     public long getHealthStatsRetention() { return healthStatsRetention; }
     
@@ -268,6 +476,31 @@ public class MonitorConfig {
     public boolean isAsyncProcessingEnabled() { return asyncProcessingEnabled; }
     public int getAsyncThreadPoolSize() { return asyncThreadPoolSize; }
     
+    public String getExecutorBackend() { return executorBackend; }
+    public int getExecutorUpstreamPermits() { return executorUpstreamPermits; }
+    
+    public long getPocket48TickTimeout() { return pocket48TickTimeout; }
+    public long getWeidianTickTimeout() { return weidianTickTimeout; }
+    public long getWeiboTickTimeout() { return weiboTickTimeout; }
+    
+    public int getWeiboPollParallelism() { return weiboPollParallelism; }
+    public long getWeiboPollJitterMs() { return weiboPollJitterMs; }
+    public long getWeiboCheckpointFlushInterval() { return weiboCheckpointFlushInterval; }
+    public long getWeiboUserInfoTtlHours() { return weiboUserInfoTtlHours; }
+    public long getWeiboPollIntervalMin() { return weiboPollIntervalMin; }
+    public long getWeiboPollIntervalMax() { return weiboPollIntervalMax; }
+    public long getWeiboPollIntervalDefault() { return weiboPollIntervalDefault; }
+    public List<String> getWeiboPollHotTargets() { return weiboPollHotTargets; }
+    
+    public int getJsonParseCacheMaxEntries() { return jsonParseCacheMaxEntries; }
+    public int getJsonParseCacheMaxChars() { return jsonParseCacheMaxChars; }
+    
+    public boolean isDedupJournalEnabled() { return dedupJournalEnabled; }
+    public int getDedupJournalSegmentRecords() { return dedupJournalSegmentRecords; }
+    public int getDedupJournalMaxSegments() { return dedupJournalMaxSegments; }
+    public long getDedupJournalRetentionHours() { return dedupJournalRetentionHours; }
+    public long getDedupJournalCatchupMinutes() { return dedupJournalCatchupMinutes; }
+    
     public long getBatchQueryInterval() { return batchQueryInterval; }
     public long getBatchQueryTimeout() { return batchQueryTimeout; }
     public int getBatchQueryMaxConcurrent() { return batchQueryMaxConcurrent; }
@@ -0,0 +1,248 @@
+package net.luffy.util;
+
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 请求对冲器（降低长尾延迟）
+ * 主请求在该端点观测到的P95延迟内未返回时，再发出一个备份请求，取先成功的结果并取消另一个；
+ * 全局对冲预算限制备份请求占比，避免在上游变慢时放大负载
+ */
+public class RequestHedger {
+
+    private static volatile RequestHedger instance;
+
+    // 每个端点保留的延迟样本数，样本不足时不对冲
+    private static final int SAMPLE_WINDOW = 128;
+    private static final int MIN_SAMPLES = 20;
+    // 预算以千分之一令牌计数，避免浮点运算
+    private static final long TOKEN_SCALE = 1000L;
+
+    private final Map<String, LatencyWindow> latencyWindows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = UnifiedSchedulerManager.getInstance().getScheduledExecutor();
+
+    private final long budgetDepositPerRequest;
+    private final long budgetCapacity;
+    private final long minHedgeDelayMs;
+    private final AtomicLong budgetTokens;
+
+    private final AtomicLong primaryRequests = new AtomicLong(0);
+    private final AtomicLong hedgedRequests = new AtomicLong(0);
+    private final AtomicLong hedgeWins = new AtomicLong(0);
+    private final AtomicLong budgetRejections = new AtomicLong(0);
+
+    private RequestHedger() {
+        MonitorConfig config = MonitorConfig.getInstance();
+        double ratio = Math.max(0.0, Math.min(1.0, config.getHedgeBudgetRatio()));
+        this.budgetDepositPerRequest = (long) (ratio * TOKEN_SCALE);
+        this.budgetCapacity = Math.max(1, config.getHedgeBudgetBurst()) * TOKEN_SCALE;
+        this.minHedgeDelayMs = Math.max(10L, config.getHedgeMinDelay());
+        this.budgetTokens = new AtomicLong(budgetCapacity);
+    }
+
+    public static RequestHedger getInstance() {
+        if (instance == null) {
+            synchronized (RequestHedger.class) {
+                if (instance == null) {
+                    instance = new RequestHedger();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 执行可对冲的异步请求
+     * @param endpoint 端点标识，用于区分延迟统计
+     * @param attempt 发起一次请求；返回的future被取消时应取消底层调用
+     * @return 先成功的一次请求结果；两次都失败时以最后一个异常结束
+     */
+    public <T> CompletableFuture<T> execute(String endpoint, Supplier<CompletableFuture<T>> attempt) {
+        LatencyWindow window = latencyWindows.computeIfAbsent(endpoint, k -> new LatencyWindow());
+        primaryRequests.incrementAndGet();
+        depositBudget();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        CompletableFuture<T> primary = launch(attempt, window, result, pending, false);
+        // 结果被调用方取消（如所属监控轮次超时）时取消主请求
+        result.whenComplete((r, t) -> {
+            if (result.isCancelled()) {
+                primary.cancel(true);
+            }
+        });
+
+        long hedgeDelay = window.getHedgeDelay();
+        if (hedgeDelay <= 0) {
+            return result;
+        }
+        hedgeDelay = Math.max(minHedgeDelayMs, hedgeDelay);
+
+        ScheduledFuture<?> hedgeTask = scheduler.schedule(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (!tryConsumeBudget()) {
+                budgetRejections.incrementAndGet();
+                return;
+            }
+            hedgedRequests.incrementAndGet();
+            pending.incrementAndGet();
+            CompletableFuture<T> backup = launch(attempt, window, result, pending, true);
+            // 任一请求胜出后取消另一个（已完成的future取消无效果）
+            result.whenComplete((r, t) -> {
+                primary.cancel(true);
+                backup.cancel(true);
+            });
+        }, hedgeDelay, TimeUnit.MILLISECONDS);
+
+        result.whenComplete((r, t) -> hedgeTask.cancel(false));
+        return result;
+    }
+
+    private <T> CompletableFuture<T> launch(Supplier<CompletableFuture<T>> attempt, LatencyWindow window,
+                                            CompletableFuture<T> result, AtomicInteger pending, boolean hedge) {
+        long start = System.currentTimeMillis();
+        CompletableFuture<T> future;
+        try {
+            future = attempt.get();
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((value, error) -> {
+            long elapsed = System.currentTimeMillis() - start;
+            if (error == null) {
+                window.record(elapsed);
+                if (result.complete(value) && hedge) {
+                    hedgeWins.incrementAndGet();
+                }
+                return;
+            }
+            // 被取消的落败请求和超时请求只知道延迟不小于已耗时，按删失样本记录，避免P95只反映快请求
+            if (isCensored(error)) {
+                window.recordCensored(elapsed);
+            }
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+        return future;
+    }
+
+    private static boolean isCensored(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof CancellationException
+                || cause instanceof TimeoutException
+                || cause instanceof InterruptedIOException;
+    }
+
+    private void depositBudget() {
+        budgetTokens.getAndUpdate(tokens -> Math.min(budgetCapacity, tokens + budgetDepositPerRequest));
+    }
+
+    private boolean tryConsumeBudget() {
+        while (true) {
+            long tokens = budgetTokens.get();
+            if (tokens < TOKEN_SCALE) {
+                return false;
+            }
+            if (budgetTokens.compareAndSet(tokens, tokens - TOKEN_SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 获取端点当前的对冲触发延迟（P95），样本不足时返回-1
+     */
+    public long getHedgeDelay(String endpoint) {
+        LatencyWindow window = latencyWindows.get(endpoint);
+        return window != null ? window.getHedgeDelay() : -1;
+    }
+
+    public String getHedgeStats() {
+        long primaries = primaryRequests.get();
+        long hedges = hedgedRequests.get();
+        return String.format("请求对冲统计 - 主请求: %d, 对冲请求: %d (%.1f%%), 对冲胜出: %d, 预算拒绝: %d, 剩余预算: %.1f",
+                primaries, hedges, primaries > 0 ? hedges * 100.0 / primaries : 0.0,
+                hedgeWins.get(), budgetRejections.get(), budgetTokens.get() / (double) TOKEN_SCALE);
+    }
+
+    /**
+     * 端点延迟滑动窗口，按需计算P95
+     * 样本分为完成样本和删失样本（只知道延迟不小于该值），P95用Kaplan-Meier乘积限估计：
+     * 删失样本不计为一次完成，但在其耗时之前一直计入风险集
+     */
+    private static class LatencyWindow {
+        // 样本编码为 延迟<<1 | 删失标记，排序后同一延迟的完成样本排在删失样本之前
+        private final long[] samples = new long[SAMPLE_WINDOW];
+        private int count;
+        private int next;
+        private long cachedP95 = -1;
+        private boolean dirty;
+
+        void record(long latencyMs) {
+            add(Math.max(0, latencyMs) << 1);
+        }
+
+        void recordCensored(long elapsedMs) {
+            add(Math.max(0, elapsedMs) << 1 | 1L);
+        }
+
+        private synchronized void add(long encoded) {
+            samples[next] = encoded;
+            next = (next + 1) % SAMPLE_WINDOW;
+            if (count < SAMPLE_WINDOW) {
+                count++;
+            }
+            dirty = true;
+        }
+
+        synchronized long getHedgeDelay() {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            if (dirty) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                cachedP95 = kaplanMeierQuantile(sorted, 0.95);
+                dirty = false;
+            }
+            return cachedP95;
+        }
+
+        /**
+         * 估计分布函数首次达到quantile时的延迟；删失过多、估计达不到时返回观测到的最大耗时
+         */
+        private static long kaplanMeierQuantile(long[] sorted, double quantile) {
+            double survival = 1.0;
+            int atRisk = sorted.length;
+            for (long sample : sorted) {
+                if ((sample & 1L) == 0) {
+                    survival *= 1.0 - 1.0 / atRisk;
+                    if (1.0 - survival >= quantile - 1e-9) {
+                        return sample >>> 1;
+                    }
+                }
+                atRisk--;
+            }
+            return sorted[sorted.length - 1] >>> 1;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package net.luffy.util;
+
+import okhttp3.HttpUrl;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 统一重试引擎
+ * 所有HTTP重试路径共用：按主机的令牌桶重试预算、去相关抖动（decorrelated jitter）退避、幂等性判断。
+ * 每个主机的重试次数不超过 预算上限 + 请求数 × 预算比例，单个请求不超过maxAttempts次尝试；
+ * 同步路径嵌套调用时只有最外层重试，避免层层叠加放大请求
+ */
+public class RetryEngine {
+
+    private static volatile RetryEngine instance;
+
+    // 预算以千分之一令牌计数，避免浮点运算
+    private static final long TOKEN_SCALE = 1000L;
+
+    // 当前线程是否已处于某次重试执行中（嵌套时内层只执行一次）
+    private static final ThreadLocal<Boolean> IN_RETRY_SCOPE = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ScheduledExecutorService scheduler = UnifiedSchedulerManager.getInstance().getScheduledExecutor();
+    private final UnifiedLogger logger = UnifiedLogger.getInstance();
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    private final int defaultMaxAttempts;
+    private final long defaultBaseDelayMs;
+    private final long maxDelayMs;
+    private final long budgetDepositPerRequest;
+    private final long budgetCapacity;
+
+    private final AtomicLong totalRequests = new AtomicLong(0);
+    private final AtomicLong totalRetries = new AtomicLong(0);
+    private final AtomicLong retrySuccesses = new AtomicLong(0);
+    private final AtomicLong budgetRejections = new AtomicLong(0);
+
+    private RetryEngine() {
+        MonitorConfig config = MonitorConfig.getInstance();
+        this.defaultMaxAttempts = Math.max(1, config.getMaxRetries() + 1);
+        this.defaultBaseDelayMs = Math.max(10L, config.getRetryBaseDelay());
+        this.maxDelayMs = Math.max(defaultBaseDelayMs, config.getRetryMaxDelay());
+        double ratio = Math.max(0.0, Math.min(1.0, config.getRetryBudgetRatio()));
+        this.budgetDepositPerRequest = (long) (ratio * TOKEN_SCALE);
+        this.budgetCapacity = Math.max(1, config.getRetryBudgetBurst()) * TOKEN_SCALE;
+    }
+
+    public static RetryEngine getInstance() {
+        if (instance == null) {
+            synchronized (RetryEngine.class) {
+                if (instance == null) {
+                    instance = new RetryEngine();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 同步执行，使用默认尝试次数和基础延迟
+     */
+    public <T> T execute(String url, boolean idempotent, Callable<T> attempt) throws IOException {
+        return execute(url, idempotent, defaultMaxAttempts, defaultBaseDelayMs, attempt);
+    }
+
+    /**
+     * 同步执行，失败时在当前线程退避后重试
+     * @param url 请求URL，用于按主机区分重试预算
+     * @param idempotent 请求是否幂等；非幂等请求仅在确定未被服务端处理时重试（连接失败、429、503）
+     * @param maxAttempts 最大尝试次数（含首次）
+     */
+    public <T> T execute(String url, boolean idempotent, int maxAttempts, long baseDelayMs,
+                         Callable<T> attempt) throws IOException {
+        if (IN_RETRY_SCOPE.get()) {
+            // 外层已负责重试，内层只执行一次
+            return callOnce(attempt);
+        }
+        String host = hostOf(url);
+        RetryBudget budget = budgetFor(host);
+        budget.deposit();
+        totalRequests.incrementAndGet();
+
+        IN_RETRY_SCOPE.set(Boolean.TRUE);
+        try {
+            long delay = Math.max(10L, baseDelayMs);
+            for (int attemptNo = 1; ; attemptNo++) {
+                try {
+                    T result = callOnce(attempt);
+                    if (attemptNo > 1) {
+                        retrySuccesses.incrementAndGet();
+                    }
+                    return result;
+                } catch (IOException e) {
+                    if (!shouldRetry(e, idempotent, attemptNo, maxAttempts, budget, url)) {
+                        throw e;
+                    }
+                    delay = nextDelay(baseDelayMs, delay);
+                    logger.debug("RetryEngine", String.format("第%d次重试 %s，延迟 %dms，原因: %s",
+                            attemptNo, url, delay, e.getMessage()));
+                    try {
+                        Thread.sleep(delay);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            IN_RETRY_SCOPE.remove();
+        }
+    }
+
+    /**
+     * 异步执行，使用默认尝试次数和基础延迟
+     */
+    public <T> CompletableFuture<T> executeAsync(String url, boolean idempotent, Supplier<CompletableFuture<T>> attempt) {
+        return executeAsync(url, idempotent, defaultMaxAttempts, defaultBaseDelayMs, attempt);
+    }
+
+    /**
+     * 异步执行，失败时在调度线程上退避后重试；返回的future被取消时停止后续重试
+     */
+    public <T> CompletableFuture<T> executeAsync(String url, boolean idempotent, int maxAttempts, long baseDelayMs,
+                                                 Supplier<CompletableFuture<T>> attempt) {
+        RetryBudget budget = budgetFor(hostOf(url));
+        budget.deposit();
+        totalRequests.incrementAndGet();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        runAsyncAttempt(url, idempotent, maxAttempts, baseDelayMs, Math.max(10L, baseDelayMs), 1, budget, attempt, result);
+        return result;
+    }
+
+    private <T> void runAsyncAttempt(String url, boolean idempotent, int maxAttempts, long baseDelayMs, long prevDelay,
+                                     int attemptNo, RetryBudget budget, Supplier<CompletableFuture<T>> attempt,
+                                     CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        CompletableFuture<T> current;
+        try {
+            current = attempt.get();
+        } catch (Exception e) {
+            current = new CompletableFuture<>();
+            current.completeExceptionally(e);
+        }
+        CompletableFuture<T> inFlight = current;
+        result.whenComplete((r, t) -> {
+            if (result.isCancelled()) {
+                inFlight.cancel(true);
+            }
+        });
+        inFlight.whenComplete((value, error) -> {
+            if (error == null) {
+                if (attemptNo > 1) {
+                    retrySuccesses.incrementAndGet();
+                }
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (result.isDone() || !shouldRetry(cause, idempotent, attemptNo, maxAttempts, budget, url)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            long delay = nextDelay(baseDelayMs, prevDelay);
+            logger.debug("RetryEngine", String.format("第%d次异步重试 %s，延迟 %dms，原因: %s",
+                    attemptNo, url, delay, cause.getMessage()));
+            scheduler.schedule(() -> runAsyncAttempt(url, idempotent, maxAttempts, baseDelayMs, delay,
+                    attemptNo + 1, budget, attempt, result), delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private boolean shouldRetry(Throwable error, boolean idempotent, int attemptNo, int maxAttempts,
+                                RetryBudget budget, String url) {
+        if (attemptNo >= maxAttempts || !isRetryable(error, idempotent)) {
+            return false;
+        }
+        if (!budget.tryConsume()) {
+            budgetRejections.incrementAndGet();
+            logger.debug("RetryEngine", "重试预算耗尽，放弃重试: " + url);
+            return false;
+        }
+        totalRetries.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 判断失败是否可重试
+     * 非幂等请求只在请求确定未被服务端处理时重试：连接建立失败、429、503
+     */
+    public boolean isRetryable(Throwable error, boolean idempotent) {
+        if (error instanceof AdaptiveConcurrencyLimiter.LimitExceededException) {
+            // 本地并发限制拒绝说明主机已过载，重试只会加重排队
+            return false;
+        }
+        if (error instanceof HttpStatusException) {
+            int code = ((HttpStatusException) error).getStatusCode();
+            if (!isRetryableStatus(code)) {
+                return false;
+            }
+            return idempotent || code == 429 || code == 503;
+        }
+        if (error instanceof ConnectException || error instanceof UnknownHostException
+                || error instanceof NoRouteToHostException) {
+            return true;
+        }
+        if (error instanceof IOException) {
+            if ("Canceled".equals(error.getMessage())) {
+                return false;
+            }
+            // 超时、读取中断等情况下请求可能已被服务端处理，仅幂等请求重试
+            return idempotent;
+        }
+        return false;
+    }
+
+    /**
+     * 判断HTTP状态码是否可以重试
+     */
+    public static boolean isRetryableStatus(int code) {
+        // 认证相关错误和重定向（需重新登录）重试无意义
+        if (code == 401 || code == 403 || code == 301 || code == 302) {
+            return false;
+        }
+        // 432为微博API的非标准错误码，通常表示请求频率过高或签名认证失败
+        return code >= 500 || code == 429 || code == 408 || code == 432;
+    }
+
+    /**
+     * 去相关抖动：下一次延迟在[base, 上次延迟×3]之间随机，不超过上限
+     */
+    private long nextDelay(long baseDelayMs, long prevDelay) {
+        long base = Math.max(10L, baseDelayMs);
+        long upper = Math.max(base + 1, Math.min(maxDelayMs, prevDelay * 3));
+        return Math.min(maxDelayMs, ThreadLocalRandom.current().nextLong(base, upper + 1));
+    }
+
+    private static <T> T callOnce(Callable<T> attempt) throws IOException {
+        try {
+            return attempt.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private RetryBudget budgetFor(String host) {
+        return budgets.computeIfAbsent(host, k -> new RetryBudget());
+    }
+
+    private static String hostOf(String url) {
+        HttpUrl parsed = url != null ? HttpUrl.parse(url) : null;
+        return parsed != null ? parsed.host() : String.valueOf(url);
+    }
+
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        long requests = totalRequests.get();
+        long retries = totalRetries.get();
+        sb.append(String.format("重试引擎统计 - 请求: %d, 重试: %d (放大 %.2fx), 重试成功: %d, 预算拒绝: %d",
+                requests, retries, requests > 0 ? (requests + retries) / (double) requests : 1.0,
+                retrySuccesses.get(), budgetRejections.get()));
+        for (Map.Entry<String, RetryBudget> entry : budgets.entrySet()) {
+            sb.append(String.format("\n  %s - 剩余重试预算: %.1f", entry.getKey(),
+                    entry.getValue().tokens.get() / (double) TOKEN_SCALE));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 按主机的重试令牌桶：每个请求存入固定比例的令牌，每次重试消耗一个令牌
+     */
+    private class RetryBudget {
+        private final AtomicLong tokens = new AtomicLong(budgetCapacity);
+
+        void deposit() {
+            tokens.getAndUpdate(current -> Math.min(budgetCapacity, current + budgetDepositPerRequest));
+        }
+
+        boolean tryConsume() {
+            while (true) {
+                long current = tokens.get();
+                if (current < TOKEN_SCALE) {
+                    return false;
+                }
+                if (tokens.compareAndSet(current, current - TOKEN_SCALE)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
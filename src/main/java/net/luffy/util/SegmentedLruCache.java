@@ -0,0 +1,141 @@
+package net.luffy.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分段LRU缓存（SLRU）
+ * 新条目先进入试用段，再次命中后晋升到保护段；保护段满时最久未用的条目降回试用段，
+ * 淘汰总是从试用段末尾开始。只出现一次的数据（如每轮都不同的轮询响应）不会挤掉反复命中的条目。
+ * 缓存的值在调用方之间共享，必须是不可变对象或只以只读方式使用
+ */
+public class SegmentedLruCache<K, V> {
+
+    private final int maxEntries;
+    private final int protectedMaxEntries;
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder promotions = new LongAdder();
+
+    /**
+     * @param maxEntries 条目总数上限，其中80%给保护段
+     */
+    public SegmentedLruCache(int maxEntries) {
+        this.maxEntries = Math.max(2, maxEntries);
+        this.protectedMaxEntries = Math.max(1, this.maxEntries * 4 / 5);
+    }
+
+    /**
+     * 查找并记录命中/未命中
+     */
+    public synchronized V get(K key) {
+        V value = protectedSegment.get(key);
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        value = probation.remove(key);
+        if (value == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        promote(key, value);
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        probation.put(key, value);
+        evictIfNeeded();
+    }
+
+    public synchronized void remove(K key) {
+        if (probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    public synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        promotions.reset();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * 命中率（百分比），按实际查找次数计算
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total > 0 ? hit * 100.0 / total : 0.0;
+    }
+
+    public String getStats() {
+        int probationSize;
+        int protectedSize;
+        synchronized (this) {
+            probationSize = probation.size();
+            protectedSize = protectedSegment.size();
+        }
+        return String.format("条目: %d / %d (试用 %d, 保护 %d), 命中: %d, 未命中: %d, 命中率: %.1f%%, 晋升: %d, 淘汰: %d",
+                probationSize + protectedSize, maxEntries, probationSize, protectedSize,
+                hits.sum(), misses.sum(), getHitRate(), promotions.sum(), evictions.sum());
+    }
+
+    private void promote(K key, V value) {
+        promotions.increment();
+        protectedSegment.put(key, value);
+        if (protectedSegment.size() > protectedMaxEntries) {
+            // 保护段溢出时最久未用的条目降回试用段，获得再次晋升的机会
+            Iterator<Map.Entry<K, V>> it = protectedSegment.entrySet().iterator();
+            Map.Entry<K, V> eldest = it.next();
+            it.remove();
+            probation.put(eldest.getKey(), eldest.getValue());
+        }
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<K, V>> it = probation.entrySet().iterator();
+        while (size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package net.luffy.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并（single-flight）
+ * 相同key的并发请求共享同一次上游调用及其结果；调用结束后立即移除，之后的请求重新发起，不做结果缓存。
+ * 执行方无论正常返回还是抛出任何Throwable都会完成共享结果并移除key；等待方最多等待waitTimeoutMs
+ */
+public class SingleFlight {
+
+    // 统计的key数量上限，超出后新key只计入总数
+    private static final int MAX_TRACKED_KEYS = 512;
+    // 等待进行中调用结果的默认超时
+    private static final long DEFAULT_WAIT_TIMEOUT_MS = 60_000;
+
+    private final long waitTimeoutMs;
+
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, KeyStats> keyStats = new ConcurrentHashMap<>();
+    private final LongAdder totalCalls = new LongAdder();
+    private final LongAdder totalShared = new LongAdder();
+
+    public SingleFlight() {
+        this(DEFAULT_WAIT_TIMEOUT_MS);
+    }
+
+    /**
+     * @param waitTimeoutMs 等待方等待进行中调用结果的超时（毫秒），超时抛出IOException，不影响进行中的调用
+     */
+    public SingleFlight(long waitTimeoutMs) {
+        this.waitTimeoutMs = Math.max(1, waitTimeoutMs);
+    }
+
+    /**
+     * 生成请求key：方法 + URL + 请求体SHA-256（请求头不参与，调用方需保证同URL请求头等价）
+     */
+    public static String key(String method, String url, String body) {
+        if (body == null || body.isEmpty()) {
+            return method + " " + url;
+        }
+        return method + " " + url + " #" + sha256(body);
+    }
+
+    /**
+     * 同步执行：无进行中调用时由当前线程执行，否则等待进行中调用的结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Callable<T> call) throws IOException {
+        CompletableFuture<T> created = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            recordShared(key);
+            return await(existing);
+        }
+        recordCall(key);
+        try {
+            T result = call.call();
+            created.complete(result);
+            return result;
+        } catch (Throwable t) {
+            // 包括Error：等待方不会因执行方异常退出而永远挂起
+            created.completeExceptionally(t);
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            }
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+            throw new IOException(t.getMessage(), t);
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * 异步执行：返回共享结果的独立视图，单个调用方取消不会影响其他等待者
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String key, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> created = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            recordShared(key);
+            return existing.thenApply(value -> value);
+        }
+        recordCall(key);
+        try {
+            call.get().whenComplete((value, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.completeExceptionally(error);
+                } else {
+                    created.complete(value);
+                }
+            });
+        } catch (Throwable t) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(t);
+        }
+        return created.thenApply(value -> value);
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("等待合并请求结果超时(" + waitTimeoutMs + "ms)", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待合并请求结果被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause != null ? cause.getMessage() : e.getMessage(), cause);
+        }
+    }
+
+    private void recordCall(String key) {
+        totalCalls.increment();
+        KeyStats stats = getKeyStats(key);
+        if (stats != null) {
+            stats.calls.increment();
+        }
+    }
+
+    private void recordShared(String key) {
+        totalShared.increment();
+        KeyStats stats = getKeyStats(key);
+        if (stats != null) {
+            stats.shared.increment();
+        }
+    }
+
+    private KeyStats getKeyStats(String key) {
+        KeyStats stats = keyStats.get(key);
+        if (stats == null && keyStats.size() < MAX_TRACKED_KEYS) {
+            stats = keyStats.computeIfAbsent(key, k -> new KeyStats());
+        }
+        return stats;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 合并命中率（共享结果的请求数 / 总请求数）
+     */
+    public double getSharedRate() {
+        long shared = totalShared.sum();
+        long total = shared + totalCalls.sum();
+        return total > 0 ? (double) shared / total : 0.0;
+    }
+
+    /**
+     * 获取合并统计，按命中次数列出前limit个key
+     */
+    public String getStats(int limit) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("请求合并统计 - 实际调用: %d, 合并命中: %d, 命中率: %.1f%%, 进行中: %d",
+                totalCalls.sum(), totalShared.sum(), getSharedRate() * 100, inFlight.size()));
+        List<Map.Entry<String, KeyStats>> entries = new ArrayList<>(keyStats.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().shared.sum(), a.getValue().shared.sum()));
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            Map.Entry<String, KeyStats> entry = entries.get(i);
+            long shared = entry.getValue().shared.sum();
+            if (shared == 0) {
+                break;
+            }
+            sb.append(String.format("\n  %s - 调用: %d, 命中: %d", entry.getKey(), entry.getValue().calls.sum(), shared));
+        }
+        return sb.toString();
+    }
+
+    public void resetStats() {
+        totalCalls.reset();
+        totalShared.reset();
+        keyStats.clear();
+    }
+
+    private static String sha256(String body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // JVM规范保证提供SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class KeyStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder shared = new LongAdder();
+    }
+}
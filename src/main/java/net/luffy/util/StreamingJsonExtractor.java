@@ -0,0 +1,340 @@
+package net.luffy.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 流式JSON字段提取器
+ * 预编译一组JSON Pointer（如/status、/content/message/0/msgTime），用Jackson流式解析按路径读取标量值：
+ * 与所有路径都无关的子树直接跳过，所有字段找到后立即停止读取，不构建解析树。
+ * 也可以按字段名在任意深度查找第一次出现的值（anyDepth），用于替代按字段名匹配的正则。
+ * 实例不可变，可在多线程间共享
+ */
+public final class StreamingJsonExtractor {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final int MAX_FIELDS = 64;
+
+    private final String[] expressions;
+    // 按路径匹配时每个字段的各级属性名/数组下标；anyDepth时只使用fieldNames
+    private final String[][] segmentNames;
+    private final int[][] segmentIndexes;
+    private final String[] fieldNames;
+    private final long allMask;
+    // lengthMasks[d]：路径长度为d的字段集合
+    private final long[] lengthMasks;
+
+    private StreamingJsonExtractor(String[] expressions, String[][] segmentNames, int[][] segmentIndexes,
+                                   String[] fieldNames) {
+        if (expressions.length == 0 || expressions.length > MAX_FIELDS) {
+            throw new IllegalArgumentException("字段数量必须在1到" + MAX_FIELDS + "之间");
+        }
+        this.expressions = expressions;
+        this.segmentNames = segmentNames;
+        this.segmentIndexes = segmentIndexes;
+        this.fieldNames = fieldNames;
+        this.allMask = expressions.length == 64 ? -1L : (1L << expressions.length) - 1;
+        int maxDepth = 0;
+        if (segmentNames != null) {
+            for (String[] names : segmentNames) {
+                maxDepth = Math.max(maxDepth, names.length);
+            }
+        }
+        this.lengthMasks = new long[maxDepth + 1];
+        if (segmentNames != null) {
+            for (int i = 0; i < segmentNames.length; i++) {
+                lengthMasks[segmentNames[i].length] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * 按JSON Pointer编译，结果下标与参数顺序一致
+     */
+    public static StreamingJsonExtractor compile(String... pointers) {
+        String[][] names = new String[pointers.length][];
+        int[][] indexes = new int[pointers.length][];
+        for (int i = 0; i < pointers.length; i++) {
+            JsonPointer pointer = JsonPointer.compile(pointers[i]);
+            int length = 0;
+            for (JsonPointer p = pointer; !p.matches(); p = p.tail()) {
+                length++;
+            }
+            names[i] = new String[length];
+            indexes[i] = new int[length];
+            int d = 0;
+            for (JsonPointer p = pointer; !p.matches(); p = p.tail(), d++) {
+                names[i][d] = p.getMatchingProperty();
+                indexes[i][d] = p.getMatchingIndex();
+            }
+        }
+        return new StreamingJsonExtractor(pointers.clone(), names, indexes, null);
+    }
+
+    /**
+     * 按字段名编译：在任意深度查找各字段第一次出现的标量值
+     */
+    public static StreamingJsonExtractor anyDepth(String... fieldNames) {
+        return new StreamingJsonExtractor(fieldNames.clone(), null, null, fieldNames.clone());
+    }
+
+    /**
+     * 提取字段；输入不是合法JSON时已读到的字段照常返回，其余为未找到
+     */
+    public Result extract(String json) {
+        State state = new State(expressions.length, allMask);
+        if (json == null || json.isEmpty()) {
+            return new Result(this, state);
+        }
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token != null) {
+                if (fieldNames != null) {
+                    scanAnyDepth(parser, token, state);
+                } else {
+                    readValue(parser, token, allMask, 0, state);
+                }
+            }
+        } catch (IOException e) {
+            state.malformed = true;
+        }
+        return new Result(this, state);
+    }
+
+    /**
+     * 按路径读取一个值；返回false表示所有字段都已找到，调用方应停止读取
+     */
+    private boolean readValue(JsonParser parser, JsonToken token, long mask, int depth, State state) throws IOException {
+        mask &= state.pending;
+        long exact = depth < lengthMasks.length ? mask & lengthMasks[depth] : 0L;
+        if (exact != 0) {
+            state.record(exact, scalar(parser, token));
+        }
+        long deeper = mask & ~exact & state.pending;
+        if (token == JsonToken.START_OBJECT) {
+            if (deeper == 0) {
+                parser.skipChildren();
+                return state.pending != 0;
+            }
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                long child = 0;
+                for (long bits = deeper; bits != 0; bits &= bits - 1) {
+                    int i = Long.numberOfTrailingZeros(bits);
+                    if (name.equals(segmentNames[i][depth])) {
+                        child |= 1L << i;
+                    }
+                }
+                token = parser.nextToken();
+                if (child == 0) {
+                    parser.skipChildren();
+                } else if (!readValue(parser, token, child, depth + 1, state)) {
+                    return false;
+                }
+                deeper &= state.pending;
+            }
+        } else if (token == JsonToken.START_ARRAY) {
+            if (deeper == 0) {
+                parser.skipChildren();
+                return state.pending != 0;
+            }
+            int index = 0;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                long child = 0;
+                for (long bits = deeper; bits != 0; bits &= bits - 1) {
+                    int i = Long.numberOfTrailingZeros(bits);
+                    if (segmentIndexes[i][depth] == index) {
+                        child |= 1L << i;
+                    }
+                }
+                if (child == 0) {
+                    parser.skipChildren();
+                } else if (!readValue(parser, token, child, depth + 1, state)) {
+                    return false;
+                }
+                deeper &= state.pending;
+                index++;
+            }
+        }
+        return state.pending != 0;
+    }
+
+    /**
+     * 按字段名在任意深度查找，字段值为对象/数组时继续向内查找
+     */
+    private void scanAnyDepth(JsonParser parser, JsonToken token, State state) throws IOException {
+        for (; token != null && state.pending != 0; token = parser.nextToken()) {
+            if (token != JsonToken.FIELD_NAME) {
+                continue;
+            }
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == null || value.isStructStart()) {
+                continue;
+            }
+            for (long bits = state.pending; bits != 0; bits &= bits - 1) {
+                int i = Long.numberOfTrailingZeros(bits);
+                if (name.equals(fieldNames[i])) {
+                    state.record(1L << i, scalar(parser, value));
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取标量值：字符串、长整数（超出范围时为文本）、浮点数、布尔值；null和对象/数组记为null
+     */
+    private static Object scalar(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                        ? parser.getText() : (Object) parser.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 检查任意深度是否存在字段值等于expected的字符串/数字/布尔字段，找到即停止读取
+     */
+    public static boolean containsFieldValue(String json, String fieldName, String expected) {
+        if (json == null || fieldName == null || expected == null) {
+            return false;
+        }
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                if (token == JsonToken.FIELD_NAME && fieldName.equals(parser.currentName())) {
+                    JsonToken value = parser.nextToken();
+                    if (value != null && value.isScalarValue() && value != JsonToken.VALUE_NULL
+                            && expected.equals(parser.getText())) {
+                        return true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // 非法JSON按不包含处理
+        }
+        return false;
+    }
+
+    private static final class State {
+        private final Object[] values;
+        private long pending;
+        private long found;
+        private boolean malformed;
+
+        private State(int size, long allMask) {
+            this.values = new Object[size];
+            this.pending = allMask;
+        }
+
+        private void record(long fields, Object value) {
+            for (long bits = fields & pending; bits != 0; bits &= bits - 1) {
+                values[Long.numberOfTrailingZeros(bits)] = value;
+            }
+            found |= fields;
+            pending &= ~fields;
+        }
+    }
+
+    /**
+     * 提取结果，按编译时的字段顺序以下标访问
+     */
+    public static final class Result {
+        private final StreamingJsonExtractor extractor;
+        private final Object[] values;
+        private final long found;
+        private final boolean malformed;
+
+        private Result(StreamingJsonExtractor extractor, State state) {
+            this.extractor = extractor;
+            this.values = state.values;
+            this.found = state.found;
+            this.malformed = state.malformed;
+        }
+
+        /**
+         * 字段是否出现（值可以是null）
+         */
+        public boolean isFound(int index) {
+            return (found & (1L << index)) != 0;
+        }
+
+        /**
+         * 输入是否在读完所需字段前出现语法错误
+         */
+        public boolean isMalformed() {
+            return malformed;
+        }
+
+        public Object get(int index) {
+            return values[index];
+        }
+
+        public String getStr(int index) {
+            Object value = values[index];
+            return value != null ? value.toString() : null;
+        }
+
+        public Integer getInt(int index) {
+            Long value = getLong(index);
+            return value != null ? Integer.valueOf(value.intValue()) : null;
+        }
+
+        public Long getLong(int index) {
+            Object value = values[index];
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            }
+            if (value instanceof String) {
+                try {
+                    return Long.valueOf(((String) value).trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        public Boolean getBool(int index) {
+            Object value = values[index];
+            if (value instanceof Boolean) {
+                return (Boolean) value;
+            }
+            if (value instanceof String) {
+                return Boolean.valueOf((String) value);
+            }
+            return value instanceof Number ? ((Number) value).longValue() != 0 : null;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("{");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(extractor.expressions[i]).append('=').append(isFound(i) ? values[i] : "<未找到>");
+            }
+            return sb.append('}').toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (fieldNames != null ? "anyDepth" : "pointers") + Arrays.toString(expressions);
+    }
+}
@@ -0,0 +1,106 @@
+package net.luffy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 监控轮次引擎
+ * 每轮监控（口袋48、微店订单等）作为一个TickScope运行：同名轮次不重叠，上一轮未结束时跳过本轮；
+ * 超过时限的轮次整体取消，不再留下脱离管理的future
+ */
+public class TickEngine {
+
+    private static volatile TickEngine instance;
+
+    private final UnifiedLogger logger = UnifiedLogger.getInstance();
+    private final Map<String, TickScope> activeTicks = new ConcurrentHashMap<>();
+    private final Map<String, TickStats> tickStats = new ConcurrentHashMap<>();
+
+    private TickEngine() {
+    }
+
+    public static TickEngine getInstance() {
+        if (instance == null) {
+            synchronized (TickEngine.class) {
+                if (instance == null) {
+                    instance = new TickEngine();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 开始一轮监控
+     * @param name 轮次名称，同名轮次不重叠
+     * @param timeoutMs 本轮时限，超时后取消整轮
+     * @return 本轮作用域；上一轮仍在运行时返回null，调用方应跳过本轮
+     */
+    public TickScope begin(String name, long timeoutMs) {
+        TickStats stats = tickStats.computeIfAbsent(name, k -> new TickStats());
+        TickScope previous = activeTicks.get(name);
+        if (previous != null && !previous.isDone()) {
+            stats.skipped.increment();
+            logger.debug("TickEngine", String.format("[%s] 上一轮已运行 %dms 仍未结束，跳过本轮", name, previous.getElapsed()));
+            return null;
+        }
+
+        TickScope scope = new TickScope(name);
+        activeTicks.put(name, scope);
+        stats.started.increment();
+        ScheduledFuture<?> deadline = UnifiedSchedulerManager.getInstance().getScheduledExecutor().schedule(() -> {
+            if (!scope.isDone()) {
+                stats.overruns.increment();
+                scope.cancel("超过时限" + timeoutMs + "ms");
+                logger.warn("TickEngine", String.format("[%s] 本轮超过时限 %dms，取消未完成的子任务", name, timeoutMs));
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+
+        scope.getCompletion().whenComplete((v, e) -> {
+            deadline.cancel(false);
+            long elapsed = scope.getElapsed();
+            stats.completed.increment();
+            stats.totalDurationMs.add(elapsed);
+            stats.maxDurationMs.accumulateAndGet(elapsed, Math::max);
+            stats.lastDurationMs = elapsed;
+        });
+        return scope;
+    }
+
+    /**
+     * 获取各轮次的运行、跳过、超时取消次数及耗时
+     */
+    public String getStats() {
+        StringBuilder sb = new StringBuilder("监控轮次统计:");
+        List<String> names = new ArrayList<>(tickStats.keySet());
+        names.sort(null);
+        for (String name : names) {
+            TickStats stats = tickStats.get(name);
+            long completed = stats.completed.sum();
+            sb.append(String.format("\n  %s - 开始: %d, 完成: %d, 重叠跳过: %d, 超时取消: %d, 平均耗时: %dms, 最大耗时: %dms, 最近耗时: %dms",
+                    name, stats.started.sum(), completed, stats.skipped.sum(), stats.overruns.sum(),
+                    completed > 0 ? stats.totalDurationMs.sum() / completed : 0, stats.maxDurationMs.get(),
+                    stats.lastDurationMs));
+        }
+        if (names.isEmpty()) {
+            sb.append(" 暂无运行记录");
+        }
+        return sb.toString();
+    }
+
+    private static class TickStats {
+        private final LongAdder started = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder overruns = new LongAdder();
+        private final LongAdder totalDurationMs = new LongAdder();
+        private final AtomicLong maxDurationMs = new AtomicLong(0);
+        private volatile long lastDurationMs;
+    }
+}
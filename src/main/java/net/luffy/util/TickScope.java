@@ -0,0 +1,179 @@
+package net.luffy.util;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一轮监控任务的结构化作用域
+ * 本轮的所有子任务（每个群/房间/用户）通过fork启动，子任务内等待的异步请求通过await挂到作用域上；
+ * 作用域被取消时统一取消所有未开始的子任务和挂起的异步请求（异步请求的取消会传递到OkHttp Call），
+ * 运行中的阻塞子任务不被中断，而是在isCurrentCancelled检查点自行退出，避免消息发送到一半被打断
+ */
+public class TickScope {
+
+    private static final ThreadLocal<TickScope> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final long startTime = System.currentTimeMillis();
+    private final Set<CompletableFuture<?>> children = ConcurrentHashMap.newKeySet();
+    // 初始为1，代表尚未seal；seal后归零且无子任务时作用域完成
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile String cancelReason;
+
+    TickScope(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getElapsed() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * 当前线程所属的作用域，不在子任务中时为null
+     */
+    public static TickScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 当前线程所属的作用域是否已被取消（子任务在阶段之间检查，尽早退出）
+     */
+    public static boolean isCurrentCancelled() {
+        TickScope scope = CURRENT.get();
+        return scope != null && scope.isCancelled();
+    }
+
+    /**
+     * 等待异步结果：在子任务中调用时将future挂到所属作用域，作用域取消时future随之取消
+     * 用于替代子任务中直接调用的get()/join()
+     */
+    public static <T> T await(CompletableFuture<T> future) throws ExecutionException, InterruptedException {
+        TickScope scope = CURRENT.get();
+        if (scope != null) {
+            scope.attach(future);
+        }
+        return future.get();
+    }
+
+    /**
+     * 在指定上游的并发限制下启动子任务
+     */
+    public <T> CompletableFuture<T> fork(String upstream, Callable<T> task) {
+        if (isCancelled()) {
+            CompletableFuture<T> cancelled = new CompletableFuture<>();
+            cancelled.cancel(false);
+            return cancelled;
+        }
+        pending.incrementAndGet();
+        // 子任务开始执行或在开始前被取消，二者只有一个能认领该子任务并负责计数
+        AtomicBoolean claimed = new AtomicBoolean(false);
+        CompletableFuture<T> child = BlockingTaskExecutor.getInstance().submit(upstream, () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new CancellationException("监控轮次已取消: " + name);
+            }
+            TickScope previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                if (isCancelled()) {
+                    throw new CancellationException("监控轮次已取消: " + name);
+                }
+                return task.call();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+                childDone();
+            }
+        });
+        children.add(child);
+        child.whenComplete((value, error) -> {
+            children.remove(child);
+            if (error != null && !(error instanceof CancellationException)
+                    && !(error.getCause() instanceof CancellationException)) {
+                UnifiedLogger.getInstance().error("TickScope", "监控子任务执行失败 [" + name + "]: " + error.getMessage());
+            }
+            if (claimed.compareAndSet(false, true)) {
+                childDone();
+            }
+        });
+        return child;
+    }
+
+    public CompletableFuture<Void> fork(String upstream, Runnable task) {
+        return fork(upstream, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * 将已启动的异步请求挂到作用域上，作用域取消时一并取消
+     */
+    public <T> CompletableFuture<T> attach(CompletableFuture<T> future) {
+        if (isCancelled()) {
+            future.cancel(true);
+            return future;
+        }
+        children.add(future);
+        future.whenComplete((value, error) -> children.remove(future));
+        return future;
+    }
+
+    /**
+     * 本轮子任务已全部启动，之后所有子任务结束时作用域完成
+     */
+    public void seal() {
+        childDone();
+    }
+
+    /**
+     * 取消本轮：未开始的子任务不再执行，挂起的异步请求被取消
+     */
+    public void cancel(String reason) {
+        if (cancelReason != null) {
+            return;
+        }
+        cancelReason = reason;
+        for (CompletableFuture<?> child : children) {
+            child.cancel(true);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelReason != null;
+    }
+
+    public String getCancelReason() {
+        return cancelReason;
+    }
+
+    /**
+     * 所有子任务都已实际结束（取消后仍在运行的阻塞子任务退出前不算结束）
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    private void childDone() {
+        if (pending.decrementAndGet() == 0) {
+            completion.complete(null);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package net.luffy.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 定长long时间戳环形缓冲区
+ * 追加为O(1)，不复制数组也不装箱；保留最近capacity个时间戳并提供窗口内的间隔统计。
+ * 写入按实例串行，读取不加锁：读取前后比较写入序号，期间被覆盖时重读
+ */
+public final class TimestampRingBuffer {
+
+    private final int capacity;
+    private final AtomicLongArray slots;
+    // 已追加的总数，写入槽位后再发布
+    private volatile long count;
+
+    public TimestampRingBuffer(int capacity) {
+        this.capacity = Math.max(2, capacity);
+        this.slots = new AtomicLongArray(this.capacity);
+    }
+
+    public synchronized void append(long timestamp) {
+        long next = count;
+        slots.set((int) (next % capacity), timestamp);
+        count = next + 1;
+    }
+
+    public int size() {
+        return (int) Math.min(count, capacity);
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * 最近一个时间戳
+     * @param defaultValue 缓冲区为空时的返回值
+     */
+    public long latest(long defaultValue) {
+        while (true) {
+            long before = count;
+            if (before == 0) {
+                return defaultValue;
+            }
+            long value = slots.get((int) ((before - 1) % capacity));
+            if (count - before < capacity) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * 按追加顺序（从旧到新）复制当前保留的时间戳
+     */
+    public long[] toArray() {
+        while (true) {
+            long end = count;
+            int n = (int) Math.min(capacity, end);
+            long[] result = new long[n];
+            for (int i = 0; i < n; i++) {
+                result[i] = slots.get((int) ((end - n + i) % capacity));
+            }
+            if (count - end <= capacity - n) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * 统计最近window个时间戳之间相邻间隔（取绝对值）超过threshold的次数
+     */
+    public int countGapsAbove(int window, long threshold) {
+        while (true) {
+            long end = count;
+            int n = (int) Math.min(Math.min(window, capacity), end);
+            int gaps = 0;
+            for (long i = end - n + 1; i < end; i++) {
+                long gap = Math.abs(slots.get((int) (i % capacity)) - slots.get((int) ((i - 1) % capacity)));
+                if (gap > threshold) {
+                    gaps++;
+                }
+            }
+            if (count - end <= capacity - n) {
+                return gaps;
+            }
+        }
+    }
+
+    /**
+     * 整个窗口内相邻时间戳的间隔统计
+     */
+    public GapStats gapStats() {
+        while (true) {
+            long end = count;
+            int n = (int) Math.min(capacity, end);
+            long max = 0;
+            long sum = 0;
+            for (long i = end - n + 1; i < end; i++) {
+                long gap = Math.abs(slots.get((int) (i % capacity)) - slots.get((int) ((i - 1) % capacity)));
+                max = Math.max(max, gap);
+                sum += gap;
+            }
+            if (count - end <= capacity - n) {
+                int gaps = Math.max(0, n - 1);
+                return new GapStats(gaps, max, gaps > 0 ? sum / gaps : 0);
+            }
+        }
+    }
+
+    /**
+     * 间隔统计结果（毫秒）
+     */
+    public static final class GapStats {
+        private final int gapCount;
+        private final long maxGap;
+        private final long averageGap;
+
+        private GapStats(int gapCount, long maxGap, long averageGap) {
+            this.gapCount = gapCount;
+            this.maxGap = maxGap;
+            this.averageGap = averageGap;
+        }
+
+        public int getGapCount() {
+            return gapCount;
+        }
+
+        public long getMaxGap() {
+            return maxGap;
+        }
+
+        public long getAverageGap() {
+            return averageGap;
+        }
+    }
+}
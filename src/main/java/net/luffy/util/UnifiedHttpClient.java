@@ -9,14 +9,23 @@ import net.luffy.util.UnifiedSchedulerManager;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 /**
  * 统一HTTP客户端
@@ -27,9 +36,23 @@ public class UnifiedHttpClient {
     
     private static final Logger logger = LoggerFactory.getLogger(UnifiedHttpClient.class);
     private static volatile UnifiedHttpClient instance;
+    // 客户端提供的协议，按优先级排列
+    static final List<Protocol> SUPPORTED_PROTOCOLS = Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1);
     private final OkHttpClient client;
+    private final Map<TimeoutProfile, OkHttpClient> profileClients;
     private final Executor asyncExecutor;
     
+    /**
+     * 超时配置档
+     * 各档位客户端在初始化时基于主客户端构建一次并缓存，与主客户端共享连接池、调度器和拦截器链
+     */
+    public enum TimeoutProfile {
+        DEFAULT,   // 通用请求
+        POCKET48,  // 口袋48 API，快速失败
+        WEIBO,     // 微博 API
+        MEDIA      // 图片/音视频等资源下载
+    }
+    
     /**
      * HTTP响应封装类
      */
@@ -63,13 +86,35 @@ public class UnifiedHttpClient {
     private final AtomicLong failedRequests = new AtomicLong(0);
     private final AtomicLong totalResponseTime = new AtomicLong(0);
     
+    // 连接复用/握手指标
+    private final HttpConnectionMetrics connectionMetrics = new HttpConnectionMetrics();
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final RetryEngine retryEngine = RetryEngine.getInstance();
+    
+    // DNS解析缓存，未启用时为null（使用系统解析）
+    private final CachingDns cachingDns = createCachingDns();
+    
+    // 按主机的自适应并发限制，未启用时为null
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter = createConcurrencyLimiter();
+    
+    // 已在入队前取得许可的异步调用，由ConcurrencyLimitInterceptor接管并移除
+    private final Map<Call, String> preAcquiredCalls = new java.util.concurrent.ConcurrentHashMap<>();
+    
+    // 条件请求响应缓存，未启用时为null
+    private final ConditionalResponseCache responseCache = createResponseCache();
+    
+    // 热点主机连接预热任务ID
+    private volatile String prewarmTaskId;
+    
     // 异步重试调度器 - 使用统一调度器
     private final ScheduledExecutorService retryScheduler = UnifiedSchedulerManager.getInstance().getScheduledExecutor();
     
     private UnifiedHttpClient() {
         this.client = createOptimizedClient();
+        this.profileClients = createProfileClients(client);
         // 使用统一线程池管理
         this.asyncExecutor = AdaptiveThreadPoolManager.getInstance().getExecutor();
+        startConnectionPrewarm();
     }
     
     /**
@@ -119,28 +164,130 @@ public class UnifiedHttpClient {
     }
     
     /**
-     * 创建带超时验证的临时客户端
+     * 获取超时配置档对应的默认超时
+     */
+    private static TimeoutConfig getProfileTimeoutConfig(TimeoutProfile profile) {
+        MonitorConfig config = MonitorConfig.getInstance();
+        switch (profile) {
+            case POCKET48:
+                return new TimeoutConfig(config.getPocket48ConnectTimeout(), config.getPocket48ReadTimeout(), config.getPocket48ReadTimeout());
+            case WEIBO:
+                return new TimeoutConfig(config.getWeiboConnectTimeout(), config.getWeiboReadTimeout(), config.getWeiboReadTimeout());
+            case MEDIA:
+                return new TimeoutConfig(config.getMediaConnectTimeout(), config.getMediaReadTimeout(), config.getMediaReadTimeout());
+            case DEFAULT:
+            default:
+                return new TimeoutConfig(config.getConnectTimeout(), config.getReadTimeout(), config.getReadTimeout());
+        }
+    }
+    
+    /**
+     * 构建并缓存各超时配置档的客户端（仅在初始化时执行一次）
+     * newBuilder()派生的客户端复用主客户端的ConnectionPool和Dispatcher
+     */
+    static Map<TimeoutProfile, OkHttpClient> createProfileClients(OkHttpClient base) {
+        Map<TimeoutProfile, OkHttpClient> clients = new EnumMap<>(TimeoutProfile.class);
+        for (TimeoutProfile profile : TimeoutProfile.values()) {
+            TimeoutConfig timeoutConfig = getProfileTimeoutConfig(profile);
+            clients.put(profile, base.newBuilder()
+                    .connectTimeout(timeoutConfig.getConnectTimeout(), TimeUnit.MILLISECONDS)
+                    .readTimeout(timeoutConfig.getReadTimeout(), TimeUnit.MILLISECONDS)
+                    .writeTimeout(timeoutConfig.getWriteTimeout(), TimeUnit.MILLISECONDS)
+                    .build());
+        }
+        return clients;
+    }
+    
+    /**
+     * 获取超时配置档对应的缓存客户端
      */
-    private OkHttpClient createClientWithTimeout(int connectTimeoutMs, int readTimeoutMs, int writeTimeoutMs) {
+    public OkHttpClient getProfileClient(TimeoutProfile profile) {
+        return profileClients.get(profile != null ? profile : TimeoutProfile.DEFAULT);
+    }
+    
+    /**
+     * 创建带超时覆盖的调用
+     * 超时值与配置档一致时直接使用缓存客户端；否则通过请求标签由TimeoutOverrideInterceptor
+     * 在本次调用的拦截器链上调整超时，不再为每个请求构建新的OkHttpClient
+     * @param callTimeoutMs 整个调用（含读取响应体）的截止时间，0表示不限制
+     */
+    private Call newTimedCall(TimeoutProfile profile, Request request, int connectTimeoutMs, int readTimeoutMs,
+                              int writeTimeoutMs, long callTimeoutMs) {
+        OkHttpClient profileClient = getProfileClient(profile);
         TimeoutConfig timeoutConfig = new TimeoutConfig(connectTimeoutMs, readTimeoutMs, writeTimeoutMs);
-        return client.newBuilder()
-                .connectTimeout(timeoutConfig.getConnectTimeout(), TimeUnit.MILLISECONDS)
-                .readTimeout(timeoutConfig.getReadTimeout(), TimeUnit.MILLISECONDS)
-                .writeTimeout(timeoutConfig.getWriteTimeout(), TimeUnit.MILLISECONDS)
-                .build();
+        if (timeoutConfig.getConnectTimeout() != profileClient.connectTimeoutMillis()
+                || timeoutConfig.getReadTimeout() != profileClient.readTimeoutMillis()
+                || timeoutConfig.getWriteTimeout() != profileClient.writeTimeoutMillis()) {
+            request = request.newBuilder().tag(TimeoutConfig.class, timeoutConfig).build();
+        }
+        Call call = profileClient.newCall(request);
+        if (callTimeoutMs > 0) {
+            call.timeout().timeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        return call;
     }
     
     /**
      * 创建优化的调度器
+     * 启用自适应并发限制时，调度器的限制仅作为上限，实际每主机并发由ConcurrencyLimitInterceptor控制；
+     * 异步调用由enqueueLimited在入队前取得许可，调度线程不会排队等待许可
      */
     private Dispatcher createOptimizedDispatcher() {
-        Dispatcher dispatcher = new Dispatcher();
-        // 大幅增加最大并发请求数以提高HTTP连接池性能
-        dispatcher.setMaxRequests(256);  // 从128增加到256，总的最大并发请求数
-        dispatcher.setMaxRequestsPerHost(64);  // 从32增加到64，每个主机的最大并发请求数
+        // 与OkHttp默认调度器相同的无界缓存线程池，只替换线程类型
+        ExecutorService executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), DispatcherThread::new);
+        Dispatcher dispatcher = new Dispatcher(executor);
+        if (concurrencyLimiter != null) {
+            dispatcher.setMaxRequestsPerHost(concurrencyLimiter.getMaxLimit());
+            dispatcher.setMaxRequests(Math.max(256, concurrencyLimiter.getMaxLimit() * 4));
+        } else {
+            dispatcher.setMaxRequests(256);  // 总的最大并发请求数
+            dispatcher.setMaxRequestsPerHost(64);  // 每个主机的最大并发请求数
+        }
         return dispatcher;
     }
     
+    /**
+     * 根据配置创建DNS解析缓存
+     */
+    private static CachingDns createCachingDns() {
+        MonitorConfig config = MonitorConfig.getInstance();
+        if (!config.isHttpDnsCacheEnabled()) {
+            return null;
+        }
+        return new CachingDns(Dns.SYSTEM, AdaptiveThreadPoolManager.getInstance().getExecutor(),
+                config.getHttpDnsCacheTtl(), config.getHttpDnsMaxStale());
+    }
+    
+    /**
+     * 根据配置创建条件请求响应缓存
+     */
+    private static ConditionalResponseCache createResponseCache() {
+        MonitorConfig config = MonitorConfig.getInstance();
+        if (!config.isHttpResponseCacheEnabled()) {
+            return null;
+        }
+        return new ConditionalResponseCache(config.getHttpResponseCacheMaxEntries());
+    }
+    
+    /**
+     * 根据配置创建自适应并发限制器
+     */
+    private static AdaptiveConcurrencyLimiter createConcurrencyLimiter() {
+        MonitorConfig config = MonitorConfig.getInstance();
+        if (!config.isHttpLimiterEnabled()) {
+            return null;
+        }
+        return new AdaptiveConcurrencyLimiter(
+                config.getHttpLimiterInitialLimit(),
+                config.getHttpLimiterMinLimit(),
+                config.getHttpLimiterMaxLimit(),
+                config.getHttpLimiterRttTolerance(),
+                config.getHttpLimiterBackoffRatio(),
+                config.getHttpLimiterQueueSize(),
+                config.getHttpLimiterQueueTimeout());
+    }
+    
     /**
      * 创建优化的OkHttp客户端
      */
@@ -152,13 +299,85 @@ public class UnifiedHttpClient {
                 .writeTimeout(config.getReadTimeout(), TimeUnit.MILLISECONDS)    // 写入超时使用读取超时时间
                 .connectionPool(new ConnectionPool(400, 3, TimeUnit.MINUTES))  // 从200增加到400个连接，从5分钟减少到3分钟空闲时间
                 .dispatcher(createOptimizedDispatcher())  // 使用优化的调度器
+                .dns(cachingDns != null ? cachingDns : Dns.SYSTEM) // 缓存DNS解析结果，过期后先用旧结果再后台刷新
+                .protocols(SUPPORTED_PROTOCOLS) // 服务端支持时通过ALPN协商HTTP/2多路复用
+                .eventListenerFactory(connectionMetrics)  // 连接复用与TLS握手统计
                 .retryOnConnectionFailure(true)      // 启用连接失败重试机制
-                .addInterceptor(new RetryInterceptor(config.getMaxRetries())) // 使用配置的重试次数
+                .addInterceptor(new TimeoutOverrideInterceptor()) // 按请求标签覆盖超时
+                .addInterceptor(new ConcurrencyLimitInterceptor()) // 按主机自适应并发限制
                 .addInterceptor(new LoggingInterceptor())
                 .addInterceptor(new PerformanceInterceptor())
                 .build();
     }
     
+    /**
+     * 启动热点主机连接预热
+     * 定期向配置的热点主机发送轻量HEAD请求，仅在主机空闲超过预热间隔时执行，
+     * 使连接池中始终保留可复用的连接，避免空闲后首个请求承担TCP/TLS握手开销
+     */
+    private void startConnectionPrewarm() {
+        MonitorConfig config = MonitorConfig.getInstance();
+        List<String> hosts = config.getHttpPrewarmHosts();
+        if (!config.isHttpPrewarmEnabled() || hosts.isEmpty()) {
+            return;
+        }
+        long interval = Math.max(10000L, config.getHttpPrewarmInterval());
+        prewarmNow();
+        prewarmTaskId = UnifiedSchedulerManager.getInstance().scheduleTask(
+                UnifiedSchedulerManager.TaskType.MONITOR, () -> prewarmIdleHosts(hosts, interval), interval, interval);
+    }
+    
+    /**
+     * 立即预热所有配置的热点主机
+     */
+    public void prewarmNow() {
+        for (String baseUrl : MonitorConfig.getInstance().getHttpPrewarmHosts()) {
+            prewarm(baseUrl);
+        }
+    }
+    
+    private void prewarmIdleHosts(List<String> hosts, long interval) {
+        long now = System.currentTimeMillis();
+        for (String baseUrl : hosts) {
+            HttpUrl url = HttpUrl.parse(baseUrl);
+            if (url != null && now - connectionMetrics.getLastUsedTime(url.host()) >= interval) {
+                prewarm(baseUrl);
+            }
+        }
+    }
+    
+    private void prewarm(String baseUrl) {
+        HttpUrl url = HttpUrl.parse(baseUrl);
+        if (url == null) {
+            logger.warn("[HTTP-PREWARM] 无效的预热地址: {}", baseUrl);
+            return;
+        }
+        Request request = new Request.Builder()
+                .url(url)
+                .head()
+                .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
+                .tag(PrewarmTag.class, PrewarmTag.INSTANCE)
+                .build();
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                logger.debug("[HTTP-PREWARM] 预热失败: {} - {}", url.host(), e.getMessage());
+            }
+            
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+            }
+        });
+    }
+    
+    /**
+     * 预热请求标记，性能统计中不计入业务请求
+     */
+    private static final class PrewarmTag {
+        private static final PrewarmTag INSTANCE = new PrewarmTag();
+    }
+    
     /**
      * 同步GET请求
      */
@@ -218,6 +437,13 @@ public class UnifiedHttpClient {
      * GET请求返回HttpResponse（支持自定义请求头）
      */
     public HttpResponse get(String url, java.util.Map<String, String> headers) throws IOException {
+        return get(TimeoutProfile.DEFAULT, url, headers);
+    }
+    
+    /**
+     * 使用指定超时配置档的GET请求，返回HttpResponse（支持自定义请求头）
+     */
+    public HttpResponse get(TimeoutProfile profile, String url, java.util.Map<String, String> headers) throws IOException {
         Request.Builder builder = new Request.Builder().url(url);
         
         // 添加默认请求头
@@ -235,7 +461,7 @@ public class UnifiedHttpClient {
         
         Request request = builder.build();
         
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = getProfileClient(profile).newCall(request).execute()) {
             // 转换响应头
             java.util.Map<String, String> responseHeaders = new java.util.HashMap<>();
             for (String name : response.headers().names()) {
@@ -317,9 +543,15 @@ public class UnifiedHttpClient {
      */
     public String postWithTimeout(String url, String body, java.util.Map<String, String> headers, 
                                 int connectTimeout, int readTimeout) throws IOException {
-        // 使用统一的超时配置验证
-        OkHttpClient tempClient = createClientWithTimeout(connectTimeout, readTimeout, readTimeout);
-        
+        return postWithTimeout(TimeoutProfile.DEFAULT, url, body, headers, connectTimeout, readTimeout);
+    }
+    
+    /**
+     * 带超时配置档和动态超时的POST请求 - 支持快速失败机制
+     */
+    public String postWithTimeout(TimeoutProfile profile, String url, String body, java.util.Map<String, String> headers, 
+                                int connectTimeout, int readTimeout) throws IOException {
+
         // 根据Content-Type决定MediaType
         String contentType = "application/json; charset=utf-8";
         if (headers != null && headers.containsKey("Content-Type")) {
@@ -344,7 +576,8 @@ public class UnifiedHttpClient {
         
         Request request = builder.build();
         
-        try (Response response = tempClient.newCall(request).execute()) {
+        try (Response response = newTimedCall(profile, request, connectTimeout, readTimeout, readTimeout,
+                (long) connectTimeout + readTimeout).execute()) {
             if (!response.isSuccessful()) {
                 throw new IOException("HTTP请求失败: " + response.code() + " " + response.message());
             }
@@ -354,95 +587,47 @@ public class UnifiedHttpClient {
     }
     
     /**
-     * 异步GET请求
+     * 异步GET请求（GET为幂等请求，失败时由统一重试引擎重试）
      * @param url 请求URL
      * @return CompletableFuture<String> 异步响应结果
      */
     public CompletableFuture<String> getAsync(String url) {
-        return getAsyncWithRetry(url, 0);
+        return retryEngine.executeAsync(url, true, () -> enqueueForString(client.newCall(buildJsonGetRequest(url, null))));
     }
     
     /**
-     * 带重试的异步GET请求
-     * @param url 请求URL
-     * @param retryCount 当前重试次数
-     * @return CompletableFuture<String> 异步响应结果
+     * 异步GET请求（支持自定义请求头）
      */
-    private CompletableFuture<String> getAsyncWithRetry(String url, int retryCount) {
-        CompletableFuture<String> future = new CompletableFuture<>();
-        
-        Request request = new Request.Builder()
-                .url(url)
-                .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
-                .addHeader("Accept", "application/json, text/plain, */*")
-                .build();
-        
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                handleAsyncRetry(future, () -> getAsyncWithRetry(url, retryCount + 1), 
-                               retryCount, 0, e);
-            }
-            
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                try {
-                    if (!response.isSuccessful()) {
-                        handleAsyncRetry(future, () -> getAsyncWithRetry(url, retryCount + 1), 
-                                       retryCount, response.code(), 
-                                       new IOException("HTTP请求失败: " + response.code()));
-                        return;
-                    }
-                    ResponseBody body = response.body();
-                    String result = body != null ? body.string() : "";
-                    future.complete(result);
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                } finally {
-                    response.close();
-                }
-            }
-        });
-        
-        return future;
+    public CompletableFuture<String> getAsync(String url, java.util.Map<String, String> headers) {
+        return enqueueForString(client.newCall(buildJsonGetRequest(url, headers)));
     }
     
     /**
-     * 异步GET请求（支持自定义请求头）
+     * 异步执行调用并读取响应体字符串，非2xx响应以HttpStatusException结束；
+     * 返回的future被取消时同步取消底层调用
      */
-    public CompletableFuture<String> getAsync(String url, java.util.Map<String, String> headers) {
+    private CompletableFuture<String> enqueueForString(Call call) {
         CompletableFuture<String> future = new CompletableFuture<>();
-        
-        Request.Builder builder = new Request.Builder()
-                .url(url)
-                .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
-                .addHeader("Accept", "application/json, text/plain, */*");
-        
-        // 添加自定义请求头
-        if (headers != null) {
-            for (java.util.Map.Entry<String, String> header : headers.entrySet()) {
-                builder.addHeader(header.getKey(), header.getValue());
+        future.whenComplete((r, t) -> {
+            if (future.isCancelled()) {
+                call.cancel();
             }
-        }
-        
-        Request request = builder.build();
-        
-        client.newCall(request).enqueue(new Callback() {
+        });
+        enqueueLimited(call, new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
                 future.completeExceptionally(e);
             }
             
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
+            public void onResponse(Call call, Response response) {
                 try {
                     if (!response.isSuccessful()) {
-                        future.completeExceptionally(new IOException("HTTP请求失败: " + response.code()));
+                        future.completeExceptionally(new HttpStatusException(response.code(), response.message()));
                         return;
                     }
                     ResponseBody body = response.body();
-                    String result = body != null ? body.string() : "";
-                    future.complete(result);
+                    future.complete(body != null ? body.string() : "");
                 } catch (Exception e) {
                     future.completeExceptionally(e);
                 } finally {
@@ -450,84 +635,42 @@ public class UnifiedHttpClient {
                 }
             }
         });
-        
         return future;
     }
     
     /**
-     * 处理异步重试逻辑（增强版）
-     * @param future 要完成的CompletableFuture
-     * @param retrySupplier 重试操作的供应商
-     * @param retryCount 当前重试次数
-     * @param responseCode HTTP响应码（0表示网络异常）
-     * @param lastException 最后的异常
+     * 提交异步调用，启用并发限制时先异步取得主机许可再交给调度器
+     * 没有空闲许可时调用在限制器中排队，不占用调度线程；排队被拒绝时以LimitExceededException回调onFailure。
+     * 许可取得后调用在发出前失败（如已被取消）时归还许可
      */
-    private <T> void handleAsyncRetry(CompletableFuture<T> future, 
-                                     Supplier<CompletableFuture<T>> retrySupplier,
-                                     int retryCount, int responseCode, Exception lastException) {
-        final int maxRetries = 3; // 最大重试次数
-        final long totalTimeoutMs = 60000; // 总超时时间60秒（与Pocket48Sender保持一致）
-        
-        // 检查是否应该重试
-        if (retryCount >= maxRetries || 
-            (responseCode > 0 && !RetryInterceptor.isRetryable(responseCode))) {
-            // 包装异常信息，提供更详细的错误上下文
-            String errorMessage = String.format("HTTP请求失败，已重试%d次: %s", retryCount, lastException.getMessage());
-            Exception wrappedException = new IOException(errorMessage, lastException);
-            future.completeExceptionally(wrappedException);
+    private void enqueueLimited(Call call, Callback callback) {
+        if (concurrencyLimiter == null) {
+            call.enqueue(callback);
             return;
         }
-        
-        // 计算延迟时间
-        long delayMs = RetryInterceptor.calculateRetryDelay(retryCount, responseCode);
-        
-        // 计算累积延迟时间，确保不超过总超时时间
-        long cumulativeDelay = 0;
-        for (int i = 0; i < retryCount; i++) {
-            cumulativeDelay += RetryInterceptor.calculateRetryDelay(i, responseCode);
-        }
-        
-        // 如果累积延迟加上当前延迟会超过总超时时间，则调整当前延迟
-        if (cumulativeDelay + delayMs > totalTimeoutMs - 5000) { // 预留5秒给实际请求执行
-            long remainingTime = totalTimeoutMs - cumulativeDelay - 5000;
-            if (remainingTime <= 0) {
-                // 没有足够时间进行重试，直接失败
-                String errorMessage = String.format("HTTP请求重试超时，累积延迟已达%dms，超过总超时%dms", 
-                    cumulativeDelay, totalTimeoutMs);
-                Exception timeoutException = new IOException(errorMessage, lastException);
-                future.completeExceptionally(timeoutException);
-                return;
-            }
-            delayMs = Math.min(delayMs, remainingTime);
-            logger.warn("[HTTP-RETRY-TIMEOUT] 调整重试延迟从{}ms到{}ms，避免超过总超时时间", 
-                RetryInterceptor.calculateRetryDelay(retryCount, responseCode), delayMs);
-        }
-        
-        // 记录重试日志
-        if (System.getProperty("http.debug", "false").equals("true")) {
-            logger.debug("[HTTP-ASYNC-RETRY] 第{}次重试 (延迟: {}ms, 响应码: {}, 错误: {})", 
-                retryCount + 1, delayMs, responseCode, lastException.getMessage());
+        String host = call.request().url().host();
+        concurrencyLimiter.acquireAsync(host, () -> {
+            preAcquiredCalls.put(call, host);
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call c, IOException e) {
+                    releaseUnusedPermit(c);
+                    callback.onFailure(c, e);
+                }
+                
+                @Override
+                public void onResponse(Call c, Response response) throws IOException {
+                    callback.onResponse(c, response);
+                }
+            });
+        }, e -> callback.onFailure(call, e));
+    }
+    
+    private void releaseUnusedPermit(Call call) {
+        String host = preAcquiredCalls.remove(call);
+        if (host != null) {
+            concurrencyLimiter.releaseUnused(host);
         }
-        
-        // 异步延迟后重试
-        retryScheduler.schedule(() -> {
-            try {
-                CompletableFuture<T> retryFuture = retrySupplier.get();
-                retryFuture.whenComplete((result, throwable) -> {
-                    if (throwable != null) {
-                        future.completeExceptionally(throwable);
-                    } else {
-                        if (retryCount > 0) {
-                            logger.info("[HTTP-ASYNC-RETRY] 异步请求重试成功，总重试次数: {}", retryCount + 1);
-                        }
-                        future.complete(result);
-                    }
-                });
-            } catch (Exception e) {
-                logger.warn("[HTTP-ASYNC-RETRY] 异步重试过程中发生异常: {}", e.getMessage());
-                future.completeExceptionally(e);
-            }
-        }, delayMs, TimeUnit.MILLISECONDS);
     }
     
     /**
@@ -605,66 +748,34 @@ public class UnifiedHttpClient {
     
     /**
      * 异步POST请求
+     * POST按非幂等处理，仅在请求确定未被服务端处理时（连接失败、429、503）由统一重试引擎重试
      */
     public CompletableFuture<String> postAsync(String url, String jsonBody) {
-        return postAsyncWithRetry(url, jsonBody, 0);
+        return postAsync(url, jsonBody, null);
     }
     
     /**
-     * 带重试的异步POST请求
+     * 异步POST请求（支持自定义请求头）
      */
-    private CompletableFuture<String> postAsyncWithRetry(String url, String jsonBody, int retryCount) {
-        CompletableFuture<String> future = new CompletableFuture<>();
-        
-        RequestBody body = RequestBody.create(jsonBody, MediaType.get("application/json; charset=utf-8"));
-        Request request = new Request.Builder()
-                .url(url)
-                .post(body)
-                .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
-                .addHeader("Content-Type", "application/json")
-                .build();
-        
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                handleAsyncRetry(future, () -> postAsyncWithRetry(url, jsonBody, retryCount + 1), 
-                               retryCount, 0, e);
-            }
-            
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                try {
-                    if (!response.isSuccessful()) {
-                        handleAsyncRetry(future, () -> postAsyncWithRetry(url, jsonBody, retryCount + 1), 
-                                       retryCount, response.code(), 
-                                       new IOException("HTTP请求失败: " + response.code()));
-                        return;
-                    }
-                    ResponseBody responseBody = response.body();
-                    String result = responseBody != null ? responseBody.string() : "";
-                    future.complete(result);
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                } finally {
-                    response.close();
-                }
-            }
-        });
-        
-        return future;
+    public CompletableFuture<String> postAsync(String url, String body, java.util.Map<String, String> headers) {
+        return retryEngine.executeAsync(url, false,
+                () -> enqueueForString(client.newCall(buildJsonPostRequest(url, body, headers))));
     }
     
     /**
-     * 异步POST请求（支持自定义请求头）
+     * 带动态超时配置的异步POST请求 - 支持快速失败机制
      */
-    public CompletableFuture<String> postAsync(String url, String body, java.util.Map<String, String> headers) {
-        return postAsyncWithRetryAndHeaders(url, body, headers, 0);
+    public CompletableFuture<String> postWithTimeoutAsync(String url, String body, java.util.Map<String, String> headers, 
+                                                         int connectTimeout, int readTimeout) {
+        return postWithTimeoutAsync(TimeoutProfile.DEFAULT, url, body, headers, connectTimeout, readTimeout);
     }
     
     /**
-     * 带重试的异步POST请求（支持自定义请求头）
+     * 带超时配置档和动态超时的异步POST请求 - 支持快速失败机制
      */
-    private CompletableFuture<String> postAsyncWithRetryAndHeaders(String url, String body, java.util.Map<String, String> headers, int retryCount) {
+    public CompletableFuture<String> postWithTimeoutAsync(TimeoutProfile profile, String url, String body,
+                                                         java.util.Map<String, String> headers,
+                                                         int connectTimeout, int readTimeout) {
         CompletableFuture<String> future = new CompletableFuture<>();
         
         // 根据Content-Type决定MediaType
@@ -691,27 +802,29 @@ public class UnifiedHttpClient {
         
         Request request = builder.build();
         
-        client.newCall(request).enqueue(new Callback() {
+        Call call = newTimedCall(profile, request, connectTimeout, readTimeout, readTimeout,
+                (long) connectTimeout + readTimeout);
+        // 调用方取消future时（如对冲请求落败）同步取消底层调用，释放连接
+        future.whenComplete((r, t) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        enqueueLimited(call, new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
-                handleAsyncRetry(future, () -> postAsyncWithRetryAndHeaders(url, body, headers, retryCount + 1), 
-                               retryCount, 0, e);
+                future.completeExceptionally(e);
             }
             
             @Override
             public void onResponse(Call call, Response response) throws IOException {
                 try {
                     if (!response.isSuccessful()) {
-                        handleAsyncRetry(future, () -> postAsyncWithRetryAndHeaders(url, body, headers, retryCount + 1), 
-                                       retryCount, response.code(), 
-                                       new IOException("HTTP请求失败: " + response.code()));
+                        future.completeExceptionally(new HttpStatusException(response.code(), response.message()));
                         return;
                     }
                     ResponseBody responseBody = response.body();
                     String result = responseBody != null ? responseBody.string() : "";
-                    if (retryCount > 0) {
-                        logger.info("[HTTP-ASYNC-RETRY] 异步POST请求重试成功，总重试次数: {}", retryCount);
-                    }
                     future.complete(result);
                 } catch (Exception e) {
                     future.completeExceptionally(e);
@@ -725,59 +838,205 @@ public class UnifiedHttpClient {
     }
     
     /**
-     * 带动态超时配置的异步POST请求 - 支持快速失败机制
+     * 合并并发的相同GET请求：同一URL进行中时共享其响应，不发起新的调用
+     * 请求头不参与合并key，仅用于请求头与URL一一对应的场景
      */
-    public CompletableFuture<String> postWithTimeoutAsync(String url, String body, java.util.Map<String, String> headers, 
-                                                         int connectTimeout, int readTimeout) {
-        CompletableFuture<String> future = new CompletableFuture<>();
-        
-        // 创建临时客户端，使用自定义超时配置
-        OkHttpClient tempClient = client.newBuilder()
-                .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
-                .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
-                .writeTimeout(readTimeout, TimeUnit.MILLISECONDS)
-                .build();
-        
-        // 根据Content-Type决定MediaType
-        String contentType = "application/json; charset=utf-8";
-        if (headers != null && headers.containsKey("Content-Type")) {
-            contentType = headers.get("Content-Type");
+    public HttpResponse getShared(TimeoutProfile profile, String url, java.util.Map<String, String> headers) throws IOException {
+        if (!MonitorConfig.getInstance().isHttpSingleFlightEnabled()) {
+            return get(profile, url, headers);
         }
-        
-        RequestBody requestBody = RequestBody.create(body, MediaType.get(contentType));
-        Request.Builder builder = new Request.Builder()
-                .url(url)
-                .post(requestBody);
-        
-        // 添加默认请求头
-        builder.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
-               .addHeader("Accept", "application/json, text/plain, */*");
-        
-        // 添加自定义请求头
+        return singleFlight.execute(SingleFlight.key("GET", url, null), () -> get(profile, url, headers));
+    }
+    
+    /**
+     * 条件GET请求：携带上次响应的ETag/Last-Modified重新验证，304或响应体哈希未变时直接返回上次的解析结果，
+     * 内容变化时才调用parser解析并更新缓存；同一URL的并发请求合并为一次调用
+     * @param endpoint 接口名，用于区分缓存及统计
+     * @param parser 响应体解析函数，返回null时不缓存
+     * @throws HttpStatusException 非2xx且非304响应
+     */
+    public <T> ConditionalResponseCache.Result<T> getConditional(TimeoutProfile profile, String endpoint, String url,
+                                                                 java.util.Map<String, String> headers,
+                                                                 Function<String, T> parser) throws IOException {
+        if (!MonitorConfig.getInstance().isHttpSingleFlightEnabled()) {
+            return fetchConditional(profile, endpoint, url, headers, parser);
+        }
+        // 与getShared的key区分，并按接口名区分：同一URL的不同接口使用不同的解析函数，不能共享结果
+        return singleFlight.execute(SingleFlight.key("CGET " + endpoint, url, null),
+                () -> fetchConditional(profile, endpoint, url, headers, parser));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> ConditionalResponseCache.Result<T> fetchConditional(TimeoutProfile profile, String endpoint, String url,
+                                                                    java.util.Map<String, String> headers,
+                                                                    Function<String, T> parser) throws IOException {
+        String cacheKey = ConditionalResponseCache.key(endpoint, url);
+        ConditionalResponseCache.Entry cached = responseCache != null ? responseCache.get(cacheKey) : null;
+        
+        Request.Builder builder = new Request.Builder().url(url)
+                .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
+                .addHeader("Accept", "application/json, text/plain, */*")
+                .addHeader("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8")
+                .addHeader("Connection", "keep-alive");
         if (headers != null) {
+            // 自定义请求头覆盖默认值
             for (java.util.Map.Entry<String, String> header : headers.entrySet()) {
-                builder.addHeader(header.getKey(), header.getValue());
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+        if (cached != null) {
+            if (cached.getEtag() != null) {
+                builder.header("If-None-Match", cached.getEtag());
+            }
+            if (cached.getLastModified() != null) {
+                builder.header("If-Modified-Since", cached.getLastModified());
             }
         }
         
-        Request request = builder.build();
-        
-        tempClient.newCall(request).enqueue(new Callback() {
+        try (Response response = getProfileClient(profile).newCall(builder.build()).execute()) {
+            if (response.code() == 304 && cached != null) {
+                responseCache.recordNotModified(endpoint);
+                return new ConditionalResponseCache.Result<>((T) cached.getValue(), false, cached.getBodyHash());
+            }
+            if (!response.isSuccessful()) {
+                throw new HttpStatusException(response.code(), response.message());
+            }
+            
+            ResponseBody responseBody = response.body();
+            byte[] bytes = responseBody != null ? responseBody.bytes() : new byte[0];
+            if (responseCache == null) {
+                return new ConditionalResponseCache.Result<>(parser.apply(decode(responseBody, bytes)), true, null);
+            }
+            
+            String bodyHash = ConditionalResponseCache.hash(bytes);
+            String etag = response.header("ETag");
+            String lastModified = response.header("Last-Modified");
+            if (cached != null && bodyHash.equals(cached.getBodyHash())) {
+                // 上游不支持条件请求但内容未变：跳过解析，更新验证信息
+                responseCache.put(cacheKey, new ConditionalResponseCache.Entry(etag, lastModified, bodyHash, cached.getValue()));
+                responseCache.recordUnchanged(endpoint);
+                return new ConditionalResponseCache.Result<>((T) cached.getValue(), false, bodyHash);
+            }
+            
+            T value = parser.apply(decode(responseBody, bytes));
+            if (value != null) {
+                responseCache.put(cacheKey, new ConditionalResponseCache.Entry(etag, lastModified, bodyHash, value));
+            } else {
+                responseCache.remove(cacheKey);
+            }
+            if (cached != null) {
+                responseCache.recordChanged(endpoint);
+            } else {
+                responseCache.recordMiss(endpoint);
+            }
+            return new ConditionalResponseCache.Result<>(value, true, bodyHash);
+        }
+    }
+    
+    private static String decode(ResponseBody responseBody, byte[] bytes) {
+        MediaType contentType = responseBody != null ? responseBody.contentType() : null;
+        Charset charset = contentType != null ? contentType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+        return new String(bytes, charset);
+    }
+    
+    /**
+     * 合并并发的相同POST请求（按URL和请求体哈希）
+     */
+    public String postShared(String url, String body, java.util.Map<String, String> headers) throws IOException {
+        if (!MonitorConfig.getInstance().isHttpSingleFlightEnabled()) {
+            return post(url, body, headers);
+        }
+        return singleFlight.execute(SingleFlight.key("POST", url, body), () -> post(url, body, headers));
+    }
+    
+    /**
+     * 合并并发的相同异步POST请求（按URL和请求体哈希）
+     */
+    public CompletableFuture<String> postSharedAsync(String url, String body, java.util.Map<String, String> headers) {
+        if (!MonitorConfig.getInstance().isHttpSingleFlightEnabled()) {
+            return postAsync(url, body, headers);
+        }
+        return singleFlight.executeAsync(SingleFlight.key("POST", url, body), () -> postAsync(url, body, headers));
+    }
+    
+    /**
+     * GET请求并将JSON响应直接解码为指定类型
+     * 从响应字节流解码，不生成中间String，适合微博容器、抖音作品列表等大响应
+     * @param type 目标类型，需要树结构时可传入JsonNode.class
+     * @throws HttpStatusException 非2xx响应，调用方可按状态码给出诊断
+     */
+    public <T> T getJson(String url, Class<T> type) throws IOException {
+        return getJson(TimeoutProfile.DEFAULT, url, null, type);
+    }
+    
+    public <T> T getJson(String url, java.util.Map<String, String> headers, Class<T> type) throws IOException {
+        return getJson(TimeoutProfile.DEFAULT, url, headers, type);
+    }
+    
+    public <T> T getJson(TimeoutProfile profile, String url, java.util.Map<String, String> headers,
+                         Class<T> type) throws IOException {
+        try (Response response = getProfileClient(profile).newCall(buildJsonGetRequest(url, headers)).execute()) {
+            return readJson(response, type);
+        }
+    }
+    
+    /**
+     * POST请求并将JSON响应直接解码为指定类型
+     * @throws HttpStatusException 非2xx响应
+     */
+    public <T> T postJson(String url, String body, java.util.Map<String, String> headers, Class<T> type) throws IOException {
+        return postJson(TimeoutProfile.DEFAULT, url, body, headers, type);
+    }
+    
+    public <T> T postJson(TimeoutProfile profile, String url, String body, java.util.Map<String, String> headers,
+                          Class<T> type) throws IOException {
+        try (Response response = getProfileClient(profile).newCall(buildJsonPostRequest(url, body, headers)).execute()) {
+            return readJson(response, type);
+        }
+    }
+    
+    /**
+     * 异步GET请求，JSON响应在OkHttp回调线程中直接从字节流解码
+     */
+    public <T> CompletableFuture<T> getJsonAsync(String url, java.util.Map<String, String> headers, Class<T> type) {
+        return getJsonAsync(TimeoutProfile.DEFAULT, url, headers, type);
+    }
+    
+    public <T> CompletableFuture<T> getJsonAsync(TimeoutProfile profile, String url,
+                                                 java.util.Map<String, String> headers, Class<T> type) {
+        return enqueueJson(getProfileClient(profile).newCall(buildJsonGetRequest(url, headers)), type);
+    }
+    
+    /**
+     * 异步POST请求，JSON响应在OkHttp回调线程中直接从字节流解码
+     */
+    public <T> CompletableFuture<T> postJsonAsync(String url, String body, java.util.Map<String, String> headers,
+                                                  Class<T> type) {
+        return postJsonAsync(TimeoutProfile.DEFAULT, url, body, headers, type);
+    }
+    
+    public <T> CompletableFuture<T> postJsonAsync(TimeoutProfile profile, String url, String body,
+                                                  java.util.Map<String, String> headers, Class<T> type) {
+        return enqueueJson(getProfileClient(profile).newCall(buildJsonPostRequest(url, body, headers)), type);
+    }
+    
+    private <T> CompletableFuture<T> enqueueJson(Call call, Class<T> type) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((r, t) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        enqueueLimited(call, new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
                 future.completeExceptionally(e);
             }
             
             @Override
-            public void onResponse(Call call, Response response) throws IOException {
+            public void onResponse(Call call, Response response) {
                 try {
-                    if (!response.isSuccessful()) {
-                        future.completeExceptionally(new IOException("HTTP请求失败: " + response.code()));
-                        return;
-                    }
-                    ResponseBody responseBody = response.body();
-                    String result = responseBody != null ? responseBody.string() : "";
-                    future.complete(result);
+                    future.complete(readJson(response, type));
                 } catch (Exception e) {
                     future.completeExceptionally(e);
                 } finally {
@@ -785,10 +1044,57 @@ public class UnifiedHttpClient {
                 }
             }
         });
-        
         return future;
     }
     
+    /**
+     * 从响应体字节流解码JSON（Jackson自动识别UTF-8/16/32编码）
+     * 非2xx响应在解码前以HttpStatusException结束，不读取响应体
+     */
+    private static <T> T readJson(Response response, Class<T> type) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new HttpStatusException(response.code(), response.message());
+        }
+        ResponseBody responseBody = response.body();
+        if (responseBody == null) {
+            throw new IOException("HTTP响应体为空");
+        }
+        try (InputStream in = responseBody.byteStream()) {
+            return UnifiedJsonParser.getInstance().getObjectMapper().readValue(in, type);
+        }
+    }
+    
+    private static Request buildJsonGetRequest(String url, java.util.Map<String, String> headers) {
+        Request.Builder builder = new Request.Builder()
+                .url(url)
+                .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
+                .addHeader("Accept", "application/json, text/plain, */*");
+        addHeaders(builder, headers);
+        return builder.build();
+    }
+    
+    private static Request buildJsonPostRequest(String url, String body, java.util.Map<String, String> headers) {
+        String contentType = "application/json; charset=utf-8";
+        if (headers != null && headers.containsKey("Content-Type")) {
+            contentType = headers.get("Content-Type");
+        }
+        Request.Builder builder = new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(body, MediaType.get(contentType)))
+                .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36")
+                .addHeader("Accept", "application/json, text/plain, */*");
+        addHeaders(builder, headers);
+        return builder.build();
+    }
+    
+    private static void addHeaders(Request.Builder builder, java.util.Map<String, String> headers) {
+        if (headers != null) {
+            for (java.util.Map.Entry<String, String> header : headers.entrySet()) {
+                builder.addHeader(header.getKey(), header.getValue());
+            }
+        }
+    }
+    
     /**
      * 获取输入流（用于下载文件等）
      * 注意：此方法为同步方法，可能阻塞线程，建议使用getInputStreamAsync
@@ -798,88 +1104,32 @@ public class UnifiedHttpClient {
     }
     
     /**
-     * 获取输入流（带超时控制和重试机制）
+     * 获取输入流（带超时控制，失败时由统一重试引擎重试）
      */
     public InputStream getInputStreamWithTimeout(String url, java.util.Map<String, String> headers, 
                                                int connectTimeoutMs, int readTimeoutMs) throws IOException {
-        final int maxRetries = 3; // 最大重试次数
-        IOException lastException = null;
-        
-        for (int attempt = 0; attempt <= maxRetries; attempt++) {
-            try {
-                // 使用统一的超时配置验证
-                OkHttpClient tempClient = createClientWithTimeout(connectTimeoutMs, readTimeoutMs, readTimeoutMs);
-                
-                Request.Builder builder = new Request.Builder()
-                        .url(url)
-                        .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36");
-                
-                // 添加自定义请求头
-                if (headers != null) {
-                    for (java.util.Map.Entry<String, String> header : headers.entrySet()) {
-                        builder.addHeader(header.getKey(), header.getValue());
-                    }
-                }
-                
-                Request request = builder.build();
-                Response response = tempClient.newCall(request).execute();
-                
-                if (!response.isSuccessful()) {
-                    int responseCode = response.code();
-                    String errorMessage = "HTTP请求失败: " + responseCode + " " + response.message();
-                    response.close();
-                    
-                    // 检查是否为可重试的错误
-                    if (attempt < maxRetries && RetryInterceptor.isRetryable(responseCode)) {
-                        lastException = new IOException(errorMessage + " (尝试 " + (attempt + 1) + "/" + (maxRetries + 1) + ")");
-                        
-                        // 计算重试延迟
-                        long retryDelay = RetryInterceptor.calculateRetryDelay(attempt, responseCode);
-                        
-                        logger.warn("[HTTP-SYNC-RETRY] 图片下载响应异常，准备重试 {}/{}, 响应码: {}, URL: {}", 
-                            attempt + 1, maxRetries + 1, responseCode, url);
-                        
-                        // 移除延迟，直接重试
-                        continue; // 继续重试
-                    } else {
-                        // 不可重试的错误或已达到最大重试次数
-                        throw new IOException(errorMessage);
-                    }
-                }
-                
-                ResponseBody responseBody = response.body();
-                if (responseBody == null) {
-                    response.close();
-                    throw new IOException("响应体为空");
-                }
-                
-                // 成功获取输入流
-                if (attempt > 0) {
-                    logger.info("[HTTP-SYNC-RETRY] 图片下载重试成功，总重试次数: {}, URL: {}", attempt, url);
-                }
-                
-                return responseBody.byteStream();
-                
-            } catch (IOException e) {
-                lastException = e;
-                
-                // 对于网络异常，也进行重试
-                if (attempt < maxRetries) {
-                    // 计算重试延迟（网络异常使用响应码0）
-                    long retryDelay = RetryInterceptor.calculateRetryDelay(attempt, 0);
-                    
-                    logger.warn("[HTTP-SYNC-RETRY] 图片下载网络异常，准备重试 {}/{}, 异常: {}, URL: {}", 
-                        attempt + 1, maxRetries + 1, e.getMessage(), url);
-                    
-                    // 移除延迟，直接重试
-                    continue; // 继续重试
-                }
+        return retryEngine.execute(url, true, () -> {
+            Request.Builder builder = new Request.Builder()
+                    .url(url)
+                    .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36");
+            addHeaders(builder, headers);
+            
+            // 资源下载使用MEDIA配置档，响应体由调用方流式读取，不设置整体调用截止时间
+            Response response = newTimedCall(TimeoutProfile.MEDIA, builder.build(),
+                    connectTimeoutMs, readTimeoutMs, readTimeoutMs, 0).execute();
+            if (!response.isSuccessful()) {
+                int responseCode = response.code();
+                String message = response.message();
+                response.close();
+                throw new HttpStatusException(responseCode, message);
             }
-        }
-        
-        // 所有重试都失败了
-        throw new IOException("图片下载失败，已重试 " + maxRetries + " 次: " + 
-            (lastException != null ? lastException.getMessage() : "未知错误"), lastException);
+            ResponseBody responseBody = response.body();
+            if (responseBody == null) {
+                response.close();
+                throw new IOException("响应体为空");
+            }
+            return responseBody.byteStream();
+        });
     }
     
     /**
@@ -896,9 +1146,6 @@ public class UnifiedHttpClient {
                                                             int connectTimeoutMs, int readTimeoutMs) {
         CompletableFuture<InputStream> future = new CompletableFuture<>();
         
-        // 使用统一的超时配置验证
-        OkHttpClient tempClient = createClientWithTimeout(connectTimeoutMs, readTimeoutMs, readTimeoutMs);
-        
         Request.Builder builder = new Request.Builder()
                 .url(url)
                 .addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36");
@@ -912,7 +1159,8 @@ public class UnifiedHttpClient {
         
         Request request = builder.build();
         
-        tempClient.newCall(request).enqueue(new Callback() {
+        Call call = newTimedCall(TimeoutProfile.MEDIA, request, connectTimeoutMs, readTimeoutMs, readTimeoutMs, 0);
+        enqueueLimited(call, new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
                 handleAsyncError(future, e, "异步InputStream请求");
@@ -979,10 +1227,54 @@ public class UnifiedHttpClient {
                 total, successful, failed, successRate, avgResponseTime);
     }
     
+    /**
+     * 获取连接复用与握手指标
+     */
+    public HttpConnectionMetrics getConnectionMetrics() {
+        return connectionMetrics;
+    }
+    
+    /**
+     * 获取连接统计信息（新建/复用连接数、TLS握手次数、协议分布）
+     */
+    public String getConnectionStats() {
+        return connectionMetrics.getStats() + String.format(", 连接池: 总计 %d / 空闲 %d",
+                client.connectionPool().connectionCount(), client.connectionPool().idleConnectionCount());
+    }
+    
+    /**
+     * 获取各接口的响应缓存命中、重新验证及内容变化比例
+     */
+    public String getResponseCacheStats() {
+        return responseCache != null ? responseCache.getStats() : "响应缓存: 未启用";
+    }
+    
+    /**
+     * 获取DNS缓存命中率及解析耗时统计
+     */
+    public String getDnsStats() {
+        return cachingDns != null ? cachingDns.getStats() : "DNS缓存: 未启用";
+    }
+    
+    /**
+     * 获取各主机当前的自适应并发限额及排队/拒绝统计
+     */
+    public String getConcurrencyLimitStats() {
+        return concurrencyLimiter != null ? concurrencyLimiter.getStats() : "HTTP自适应并发限制: 未启用";
+    }
+    
+    /**
+     * 获取请求合并统计信息（按命中次数列出前10个请求）
+     */
+    public String getSingleFlightStats() {
+        return singleFlight.getStats(10);
+    }
+    
     /**
      * 重置性能统计数据
      */
     public void resetStats() {
+        singleFlight.resetStats();
         totalRequests.set(0);
         successfulRequests.set(0);
         failedRequests.set(0);
@@ -995,6 +1287,9 @@ public class UnifiedHttpClient {
     private class PerformanceInterceptor implements Interceptor {
         @Override
         public Response intercept(Chain chain) throws IOException {
+            if (chain.request().tag(PrewarmTag.class) != null) {
+                return chain.proceed(chain.request());
+            }
             long startTime = System.currentTimeMillis();
             long currentTotal = totalRequests.incrementAndGet();
             
@@ -1054,97 +1349,119 @@ public class UnifiedHttpClient {
     }
     
     /**
-     * 重试拦截器
-     * 实现全局HTTP请求重试机制，支持指数退避策略
-     * 注意：此拦截器仅处理第一次请求，重试逻辑移至异步方法中实现
+     * OkHttp调度器的线程（执行enqueue提交的异步调用）
      */
-    private static class RetryInterceptor implements Interceptor {
-        private final int maxRetries;
-        
-        public RetryInterceptor(int maxRetries) {
-            this.maxRetries = maxRetries;
+    private static final class DispatcherThread extends Thread {
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        private DispatcherThread(Runnable runnable) {
+            super(runnable, "UnifiedHttp-Dispatcher-" + COUNTER.incrementAndGet());
+            setDaemon(true);
         }
-        
+    }
+    
+    /**
+     * 自适应并发限制拦截器
+     * 每次实际发出的请求（含重试引擎发起的每次尝试）都占用一个主机许可，以收到响应头的耗时作为RTT样本，
+     * 许可在响应体关闭时归还，读取响应体期间仍计入在途。
+     * 同步调用在调用线程上排队等待许可；异步调用由enqueueLimited在入队前取得许可，此处直接接管
+     */
+    private class ConcurrencyLimitInterceptor implements Interceptor {
         @Override
         public Response intercept(Chain chain) throws IOException {
             Request request = chain.request();
-            
-            try {
-                // 执行请求，不在拦截器中进行重试以避免阻塞
-                Response response = chain.proceed(request);
-                
-                // 记录重试相关信息到请求头中，供异步重试使用
-                if (System.getProperty("http.debug", "false").equals("true")) {
-                    logger.debug("[HTTP-REQUEST] {} {} - {}", 
-                        request.method(), request.url(), response.code());
+            if (concurrencyLimiter == null || request.tag(PrewarmTag.class) != null) {
+                return chain.proceed(request);
+            }
+            String host = request.url().host();
+            if (preAcquiredCalls.remove(chain.call()) == null) {
+                if (Thread.currentThread() instanceof DispatcherThread) {
+                    // 未经enqueueLimited提交的异步调用不在调度线程上等待
+                    concurrencyLimiter.tryAcquire(host);
+                } else {
+                    concurrencyLimiter.acquire(host);
                 }
-                
-                return response;
+            }
+            long start = System.currentTimeMillis();
+            Response response;
+            try {
+                response = chain.proceed(request);
             } catch (IOException e) {
-                if (System.getProperty("http.debug", "false").equals("true")) {
-                    logger.debug("[HTTP-REQUEST] {} {} - 异常: {}", 
-                        request.method(), request.url(), e.getMessage());
-                }
+                // 超时和连接失败视为过载信号；主动取消（如对冲落败）不影响限额
+                boolean dropped = e instanceof java.io.InterruptedIOException || e instanceof java.net.ConnectException;
+                concurrencyLimiter.release(host, System.currentTimeMillis() - start, dropped);
+                throw e;
+            } catch (RuntimeException | Error e) {
+                concurrencyLimiter.release(host, System.currentTimeMillis() - start, false);
                 throw e;
             }
-        }
-        
-        /**
-         * 判断HTTP状态码是否可以重试
-         * @param code HTTP状态码
-         * @return 是否可重试
-         */
-        public static boolean isRetryable(int code) {
-            // 认证相关错误不应该重试，因为重试不会解决Cookie失效问题
-            if (code == 401 || code == 403) {
-                return false;
-            }
-            
-            // 重定向错误通常表示需要重新登录，不应该重试
-            if (code == 301 || code == 302) {
-                return false;
+            long rttMs = System.currentTimeMillis() - start;
+            boolean dropped = response.code() == 429 || response.code() >= 500;
+            Runnable release = () -> concurrencyLimiter.release(host, rttMs, dropped);
+            ResponseBody body = response.body();
+            if (body == null) {
+                release.run();
+                return response;
             }
-            
-            // 5xx服务器错误和部分4xx客户端错误可以重试
-            // 特别处理HTTP 432错误（微博API的非标准错误码，通常表示请求签名认证失败）
-            return code >= 500 || code == 429 || code == 408 || code == 432;
+            return response.newBuilder().body(new PermitReleasingBody(body, release)).build();
         }
-        
-        /**
-         * 计算重试延迟时间（指数退避策略）
-         * @param retryCount 当前重试次数
-         * @param responseCode HTTP响应码
-         * @return 延迟毫秒数
-         */
-        public static long calculateRetryDelay(int retryCount, int responseCode) {
-            // 使用默认配置（延迟配置已移除）
-            long baseDelayMs = 1000L; // 默认基础延迟1秒
-            
-            // 对于HTTP 503错误（服务不可用），使用较短的重试间隔
-            if (responseCode == 503) {
-                // 对503错误使用较短的基础延迟（1秒）和较小的指数因子（1.5）
-                long delay = Math.min((long)(1000 * Math.pow(1.5, retryCount)), 5000); // 最大5秒
-                return delay;
-            }
-            
-            // 对于HTTP 432错误（微博API认证失败），使用更长的延迟
-            if (responseCode == 432) {
-                // 对432错误使用更长的基础延迟（2秒）和更大的指数因子（1.8）
-                long delay = Math.min((long)(2000 * Math.pow(1.8, retryCount)), 5000); // 最大5秒
-                return delay;
-            }
-            
-            // 其他5xx服务器错误使用中等延迟
-            if (responseCode >= 500 && responseCode < 600) {
-                // 对其他5xx错误使用中等延迟（1.5秒基础）
-                long delay = Math.min((long)(1500 * Math.pow(1.6, retryCount)), 5000); // 最大5秒
-                return delay;
+    }
+    
+    /**
+     * 关闭时归还并发许可的响应体（只归还一次）
+     */
+    private static final class PermitReleasingBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final java.util.concurrent.atomic.AtomicBoolean released = new java.util.concurrent.atomic.AtomicBoolean();
+        private final okio.BufferedSource source;
+
+        private PermitReleasingBody(ResponseBody delegate, Runnable release) {
+            this.delegate = delegate;
+            this.source = okio.Okio.buffer(new okio.ForwardingSource(delegate.source()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            release.run();
+                        }
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public okio.BufferedSource source() {
+            return source;
+        }
+    }
+    
+    /**
+     * 超时覆盖拦截器
+     * 读取请求上的TimeoutConfig标签，仅对本次调用调整连接/读取/写入超时
+     */
+    private static class TimeoutOverrideInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            TimeoutConfig override = chain.request().tag(TimeoutConfig.class);
+            if (override == null) {
+                return chain.proceed(chain.request());
             }
-            
-            // 其他错误使用标准指数退避策略：baseDelay * (backoffMultiplier^retryCount)，最大延迟由配置决定
-            double backoffMultiplier = 2.0; // 默认退避倍数
-            long maxDelay = Math.min(30000L, 5000); // 强制限制最大延迟为5秒
-            return Math.min((long)(baseDelayMs * Math.pow(backoffMultiplier, retryCount)), maxDelay);
+            return chain.withConnectTimeout(override.getConnectTimeout(), TimeUnit.MILLISECONDS)
+                    .withReadTimeout(override.getReadTimeout(), TimeUnit.MILLISECONDS)
+                    .withWriteTimeout(override.getWriteTimeout(), TimeUnit.MILLISECONDS)
+                    .proceed(chain.request());
         }
     }
     
@@ -1174,6 +1491,10 @@ public class UnifiedHttpClient {
      * 关闭客户端资源 - 统一线程池管理版
      */
     public void shutdown() {
+        if (prewarmTaskId != null) {
+            UnifiedSchedulerManager.getInstance().cancelTask(prewarmTaskId);
+            prewarmTaskId = null;
+        }
         if (client != null) {
             client.dispatcher().executorService().shutdown();
             client.connectionPool().evictAll();
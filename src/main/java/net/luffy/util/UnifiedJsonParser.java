@@ -9,32 +9,33 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 统一JSON解析器
  * 整合Jackson和Hutool，提供高性能JSON解析功能
  * 兼容现有的JSONUtil接口，支持缓存和性能监控
+ * 缓存以完整JSON文本为键保存Jackson解析树（分段LRU，容量有上限），解析树只读共享：
+ * parseObj/parseArray每次返回新转换的JSONObject/JSONArray，调用方修改结果不会影响缓存
  */
 public class UnifiedJsonParser {
     
     private static volatile UnifiedJsonParser instance;
     private final ObjectMapper objectMapper;
-    private final ConcurrentHashMap<String, Object> parseCache;
-    private final int maxCacheSize;
+    private final SegmentedLruCache<String, JsonNode> treeCache;
+    private final int maxCacheChars;
     
     // 性能统计
     private final AtomicLong totalParseCount = new AtomicLong(0);
-    private final AtomicLong cacheHitCount = new AtomicLong(0);
     private final AtomicLong jacksonParseCount = new AtomicLong(0);
     private final AtomicLong hutoolParseCount = new AtomicLong(0);
     private final AtomicLong totalParseTime = new AtomicLong(0);
     
     private UnifiedJsonParser() {
         this.objectMapper = createOptimizedObjectMapper();
-        this.maxCacheSize = 1000;
-        this.parseCache = new ConcurrentHashMap<>(maxCacheSize);
+        MonitorConfig config = MonitorConfig.getInstance();
+        this.treeCache = new SegmentedLruCache<>(config.getJsonParseCacheMaxEntries());
+        this.maxCacheChars = config.getJsonParseCacheMaxChars();
     }
     
     /**
@@ -76,40 +77,16 @@ public class UnifiedJsonParser {
         totalParseCount.incrementAndGet();
         
         try {
-    
-            String cacheKey = "obj_" + jsonStr.hashCode();
-            Object cached = parseCache.get(cacheKey);
-            if (cached instanceof JSONObject) {
-                cacheHitCount.incrementAndGet();
-                return (JSONObject) cached;
-            }
-            
-            JSONObject result;
-            
-    
             try {
-                JsonNode jsonNode = objectMapper.readTree(jsonStr);
+                JsonNode jsonNode = cachedTree(jsonStr);
                 if (jsonNode.isObject()) {
-                    result = convertJsonNodeToJSONObject(jsonNode);
-                    jacksonParseCount.incrementAndGet();
-                } else {
-            
-                    result = JSONUtil.parseObj(jsonStr);
-                    hutoolParseCount.incrementAndGet();
+                    return convertJsonNodeToJSONObject(jsonNode);
                 }
             } catch (Exception e) {
-        
-                result = JSONUtil.parseObj(jsonStr);
-                hutoolParseCount.incrementAndGet();
+                // Jackson无法解析时回退到Hutool
             }
-            
-    
-            if (parseCache.size() < maxCacheSize) {
-                parseCache.put(cacheKey, result);
-            }
-            
-            return result;
-            
+            hutoolParseCount.incrementAndGet();
+            return JSONUtil.parseObj(jsonStr);
         } finally {
             long parseTime = System.nanoTime() - startTime;
             totalParseTime.addAndGet(parseTime);
@@ -129,46 +106,103 @@ public class UnifiedJsonParser {
         totalParseCount.incrementAndGet();
         
         try {
-    
-            String cacheKey = "arr_" + jsonStr.hashCode();
-            Object cached = parseCache.get(cacheKey);
-            if (cached instanceof JSONArray) {
-                cacheHitCount.incrementAndGet();
-                return (JSONArray) cached;
-            }
-            
-            JSONArray result;
-            
-    
             try {
-                JsonNode jsonNode = objectMapper.readTree(jsonStr);
+                JsonNode jsonNode = cachedTree(jsonStr);
                 if (jsonNode.isArray()) {
-                    result = convertJsonNodeToJSONArray(jsonNode);
-                    jacksonParseCount.incrementAndGet();
-                } else {
-            
-                    result = JSONUtil.parseArray(jsonStr);
-                    hutoolParseCount.incrementAndGet();
+                    return convertJsonNodeToJSONArray(jsonNode);
                 }
             } catch (Exception e) {
-        
-                result = JSONUtil.parseArray(jsonStr);
-                hutoolParseCount.incrementAndGet();
+                // Jackson无法解析时回退到Hutool
             }
-            
-    
-            if (parseCache.size() < maxCacheSize) {
-                parseCache.put(cacheKey, result);
-            }
-            
-            return result;
-            
+            hutoolParseCount.incrementAndGet();
+            return JSONUtil.parseArray(jsonStr);
         } finally {
             long parseTime = System.nanoTime() - startTime;
             totalParseTime.addAndGet(parseTime);
         }
     }
     
+    /**
+     * 从缓存获取解析树，未命中时用Jackson解析；超过长度上限的JSON不缓存
+     * 返回的树可能被多个调用方共享，只能读取
+     */
+    private JsonNode cachedTree(String jsonStr) throws JsonProcessingException {
+        boolean cacheable = jsonStr.length() <= maxCacheChars;
+        if (cacheable) {
+            JsonNode cached = treeCache.get(jsonStr);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        JsonNode jsonNode = objectMapper.readTree(jsonStr);
+        jacksonParseCount.incrementAndGet();
+        if (cacheable && jsonNode != null && jsonNode.isContainerNode()) {
+            treeCache.put(jsonStr, jsonNode);
+        }
+        return jsonNode;
+    }
+    
+    /**
+     * 解析JSON字符串为只读视图，不转换为JSONObject
+     * 只需读取字段的场景使用，嵌套字段通过视图访问，不会再次序列化和解析；
+     * 缓存的解析树只通过只读视图对外提供
+     */
+    public JsonView parseView(String jsonStr) {
+        if (jsonStr == null || jsonStr.trim().isEmpty()) {
+            return JsonView.EMPTY;
+        }
+        long startTime = System.nanoTime();
+        totalParseCount.incrementAndGet();
+        try {
+            return JsonView.of(cachedTree(jsonStr));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON解析失败: " + e.getOriginalMessage(), e);
+        } finally {
+            totalParseTime.addAndGet(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * 将JSON字符串绑定为类型化对象（口袋48消息列表等高频响应）
+     */
+    public <T> T readValue(String jsonStr, Class<T> type) {
+        long startTime = System.nanoTime();
+        totalParseCount.incrementAndGet();
+        try {
+            T value = objectMapper.readValue(jsonStr, type);
+            jacksonParseCount.incrementAndGet();
+            return value;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON解析失败: " + e.getOriginalMessage(), e);
+        } finally {
+            totalParseTime.addAndGet(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * 将已解析的值转为JSONObject：本身是JSONObject时直接返回，
+     * 避免getObj(...).toString()后再parseObj的重复序列化和解析
+     */
+    public JSONObject asJSONObject(Object value) {
+        if (value instanceof JSONObject) {
+            return (JSONObject) value;
+        }
+        if (value instanceof JsonView) {
+            return ((JsonView) value).toJSONObject();
+        }
+        if (value instanceof JsonNode) {
+            return toJSONObject((JsonNode) value);
+        }
+        return parseObj(value == null ? null : value.toString());
+    }
+
+    /**
+     * 将Jackson对象节点转换为JSONObject
+     */
+    public JSONObject toJSONObject(JsonNode jsonNode) {
+        return convertJsonNodeToJSONObject(jsonNode);
+    }
+    
     /**
      * 将对象转换为JSON字符串
      */
@@ -249,14 +283,21 @@ public class UnifiedJsonParser {
      * 清空缓存
      */
     public void clearCache() {
-        parseCache.clear();
+        treeCache.clear();
     }
     
     /**
      * 获取缓存大小
      */
     public int getCacheSize() {
-        return parseCache.size();
+        return treeCache.size();
+    }
+    
+    /**
+     * 获取解析缓存的条目、命中率和淘汰统计
+     */
+    public String getCacheStats() {
+        return "JSON解析缓存 - " + treeCache.getStats();
     }
     
     /**
@@ -264,17 +305,17 @@ public class UnifiedJsonParser {
      */
     public String getPerformanceStats() {
         long totalParse = totalParseCount.get();
-        long cacheHit = cacheHitCount.get();
+        long cacheHit = treeCache.getHits();
         long jacksonParse = jacksonParseCount.get();
         long hutoolParse = hutoolParseCount.get();
         long avgParseTime = totalParse > 0 ? totalParseTime.get() / totalParse / 1000000 : 0;
         
-        double cacheHitRate = totalParse > 0 ? (double) cacheHit / totalParse * 100 : 0;
+        double cacheHitRate = treeCache.getHitRate();
         double jacksonRate = totalParse > 0 ? (double) jacksonParse / totalParse * 100 : 0;
         
         return String.format(
             "JSON解析性能统计 - 总解析次数: %d, 缓存命中: %d (%.1f%%), Jackson解析: %d (%.1f%%), Hutool解析: %d, 平均解析时间: %dms, 缓存大小: %d",
-            totalParse, cacheHit, cacheHitRate, jacksonParse, jacksonRate, hutoolParse, avgParseTime, parseCache.size()
+            totalParse, cacheHit, cacheHitRate, jacksonParse, jacksonRate, hutoolParse, avgParseTime, treeCache.size()
         );
     }
     
@@ -283,7 +324,7 @@ public class UnifiedJsonParser {
      */
     public void resetStats() {
         totalParseCount.set(0);
-        cacheHitCount.set(0);
+        treeCache.resetStats();
         jacksonParseCount.set(0);
         hutoolParseCount.set(0);
         totalParseTime.set(0);
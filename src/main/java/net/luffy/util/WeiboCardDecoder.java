@@ -0,0 +1,402 @@
+package net.luffy.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import net.luffy.model.WeiboData;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 微博容器卡片流式解码器
+ * 第一遍流式扫描只读取卡片类型、mblog.id和置顶标识，其余内容直接跳过，不构建任何对象；
+ * 只有存在比检查点更新的微博时才进行第二遍，且只为这些卡片构建WeiboCard。
+ * 没有新微博的轮询只做一次扫描，几乎不分配对象
+ */
+public final class WeiboCardDecoder {
+
+    private static final int CARD_TYPE_WEIBO = 9;
+    private static final int SHOW_TYPE_GROUP = 1;
+
+    private WeiboCardDecoder() {
+    }
+
+    /**
+     * 解码用户微博容器：只保留card_type为9的非置顶卡片
+     * @param body 容器接口响应体
+     * @param checkpoint 已处理的最新微博ID，为null时全部视为新微博
+     */
+    public static Batch decodeUserCards(String body, Long checkpoint) {
+        return decode(body, checkpoint, false);
+    }
+
+    /**
+     * 解码超话容器：只保留show_type为1的卡片组中card_type为9的非置顶卡片
+     */
+    public static Batch decodeSuperTopicCards(String body, Long checkpoint) {
+        return decode(body, checkpoint, true);
+    }
+
+    /**
+     * 只扫描最新微博ID，不构建卡片（用于初始化检查点）
+     */
+    public static Batch scanNewestId(String body, boolean superTopic) {
+        Scan scan = scan(body, superTopic);
+        return new Batch(scan.ok, scan.newestId(), Collections.emptyList(), null, scan.size);
+    }
+
+    private static Batch decode(String body, Long checkpoint, boolean superTopic) {
+        Scan scan = scan(body, superTopic);
+        Long newestId = scan.newestId();
+        long threshold = checkpoint != null ? checkpoint : Long.MIN_VALUE;
+        if (!scan.ok || newestId == null || newestId <= threshold) {
+            return new Batch(scan.ok, newestId, Collections.emptyList(), null, scan.size);
+        }
+        try {
+            return materialize(body, scan, threshold, superTopic);
+        } catch (IOException e) {
+            // 第一遍已完整读取过卡片数组，此处失败说明响应体不完整
+            return new Batch(false, null, Collections.emptyList(), null, scan.size);
+        }
+    }
+
+    /**
+     * 第一遍：只记录每张候选卡片的位置、ID和是否置顶
+     */
+    private static Scan scan(String body, boolean superTopic) {
+        Scan scan = new Scan();
+        if (body == null || body.isEmpty()) {
+            return scan;
+        }
+        try (JsonParser parser = UnifiedJsonParser.getInstance().getObjectMapper().getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return scan;
+            }
+            boolean ok = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("ok".equals(field)) {
+                    ok = intValue(parser, token) == 1;
+                } else if ("data".equals(field) && token == JsonToken.START_OBJECT) {
+                    scanData(parser, scan, superTopic);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            scan.ok = ok;
+        } catch (IOException e) {
+            scan.ok = false;
+        }
+        return scan;
+    }
+
+    private static void scanData(JsonParser parser, Scan scan, boolean superTopic) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("cards".equals(field) && token == JsonToken.START_ARRAY) {
+                int cardIndex = 0;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    if (token == JsonToken.START_OBJECT) {
+                        scanCard(parser, scan, superTopic, cardIndex, -1);
+                    } else {
+                        parser.skipChildren();
+                    }
+                    cardIndex++;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 扫描一张卡片；字段顺序不固定，卡片结束时才能判断是否保留
+     * @param groupIndex 在卡片组中的下标，顶层卡片为-1
+     */
+    private static void scanCard(JsonParser parser, Scan scan, boolean superTopic, int cardIndex, int groupIndex)
+            throws IOException {
+        int cardType = 0;
+        int showType = 0;
+        long id = -1;
+        boolean pinned = false;
+        int groupStart = scan.size;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("card_type".equals(field)) {
+                cardType = intValue(parser, token);
+            } else if ("show_type".equals(field)) {
+                showType = intValue(parser, token);
+            } else if ("mblog".equals(field) && token == JsonToken.START_OBJECT) {
+                long[] mblog = scanMBlog(parser);
+                id = mblog[0];
+                pinned = mblog[1] != 0;
+            } else if ("card_group".equals(field) && superTopic && groupIndex < 0 && token == JsonToken.START_ARRAY) {
+                int index = 0;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    if (token == JsonToken.START_OBJECT) {
+                        scanCard(parser, scan, true, cardIndex, index);
+                    } else {
+                        parser.skipChildren();
+                    }
+                    index++;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (superTopic && groupIndex < 0) {
+            // 顶层卡片本身不参与超话过滤，只有show_type为1的卡片组中的卡片保留
+            if (showType != SHOW_TYPE_GROUP) {
+                scan.size = groupStart;
+            }
+            return;
+        }
+        if (cardType == CARD_TYPE_WEIBO && id > 0 && !pinned) {
+            scan.add(cardIndex, groupIndex, id);
+        }
+    }
+
+    /**
+     * 读取mblog的id和置顶标识，跳过其余字段
+     * @return [id（无法解析时为-1）, 是否置顶（1/0）]
+     */
+    private static long[] scanMBlog(JsonParser parser) throws IOException {
+        long id = -1;
+        long pinned = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("id".equals(field)) {
+                id = longValue(parser, token);
+            } else if ("isTop".equals(field) || "pinned".equals(field) || "top".equals(field)) {
+                if (isTruthy(parser, token)) {
+                    pinned = 1;
+                }
+            } else if ("mblogtype".equals(field)) {
+                if (token == JsonToken.VALUE_STRING && "置顶".equals(parser.getText())) {
+                    pinned = 1;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new long[]{id, pinned};
+    }
+
+    /**
+     * 第二遍：只为比检查点更新的卡片读取子树并构建WeiboCard
+     */
+    private static Batch materialize(String body, Scan scan, long threshold, boolean superTopic) throws IOException {
+        List<WeiboData.WeiboCard> cards = new ArrayList<>();
+        String pageNick = null;
+        try (JsonParser parser = UnifiedJsonParser.getInstance().getObjectMapper().createParser(body)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (!"data".equals(field) || token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String dataField = parser.currentName();
+                    token = parser.nextToken();
+                    if ("pageInfo".equals(dataField) && token == JsonToken.START_OBJECT) {
+                        pageNick = JsonView.of(parser.readValueAsTree()).getStr("nick", "");
+                    } else if ("cards".equals(dataField) && token == JsonToken.START_ARRAY) {
+                        int cardIndex = 0;
+                        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                            if (scan.hasNewCard(cardIndex, threshold)) {
+                                JsonNode card = parser.readValueAsTree();
+                                collect(card, cardIndex, scan, threshold, cards);
+                            } else {
+                                parser.skipChildren();
+                            }
+                            cardIndex++;
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+        cards.sort((a, b) -> Long.compare(b._id, a._id));
+        return new Batch(true, scan.newestId(), cards, superTopic ? (pageNick != null ? pageNick : "") : null, scan.size);
+    }
+
+    private static void collect(JsonNode card, int cardIndex, Scan scan, long threshold,
+                                List<WeiboData.WeiboCard> out) {
+        for (int i = 0; i < scan.size; i++) {
+            if (scan.cardIndexes[i] != cardIndex || scan.ids[i] <= threshold) {
+                continue;
+            }
+            int groupIndex = scan.groupIndexes[i];
+            JsonNode node = groupIndex < 0 ? card : card.path("card_group").path(groupIndex);
+            JsonView view = JsonView.of(node);
+            WeiboData.WeiboCard weiboCard = new WeiboData.WeiboCard();
+            weiboCard.cardType = CARD_TYPE_WEIBO;
+            weiboCard.scheme = view.getStr("scheme");
+            weiboCard.mblog = WeiboUtils.parseMBlog(view.getObj("mblog"));
+            weiboCard._id = scan.ids[i];
+            out.add(weiboCard);
+        }
+    }
+
+    private static int intValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            long value = parseLong(parser);
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (int) value : 0;
+        }
+        parser.skipChildren();
+        return 0;
+    }
+
+    private static long longValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            return parseLong(parser);
+        }
+        parser.skipChildren();
+        return -1;
+    }
+
+    /**
+     * 直接从解析器的字符缓冲区解析字符串形式的数字ID，不创建String
+     */
+    private static long parseLong(JsonParser parser) throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length == 0 || length > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isTruthy(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_TRUE:
+                return true;
+            case VALUE_NUMBER_INT:
+                return parser.getIntValue() == 1;
+            case VALUE_STRING:
+                String text = parser.getText();
+                return "true".equalsIgnoreCase(text) || "1".equals(text);
+            default:
+                parser.skipChildren();
+                return false;
+        }
+    }
+
+    /**
+     * 第一遍扫描结果：候选卡片的（顶层下标, 卡片组下标, ID）
+     */
+    private static final class Scan {
+        private boolean ok;
+        private int size;
+        private int[] cardIndexes = new int[16];
+        private int[] groupIndexes = new int[16];
+        private long[] ids = new long[16];
+
+        private void add(int cardIndex, int groupIndex, long id) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                cardIndexes = java.util.Arrays.copyOf(cardIndexes, capacity);
+                groupIndexes = java.util.Arrays.copyOf(groupIndexes, capacity);
+                ids = java.util.Arrays.copyOf(ids, capacity);
+            }
+            cardIndexes[size] = cardIndex;
+            groupIndexes[size] = groupIndex;
+            ids[size] = id;
+            size++;
+        }
+
+        private Long newestId() {
+            long newest = -1;
+            for (int i = 0; i < size; i++) {
+                newest = Math.max(newest, ids[i]);
+            }
+            return newest > 0 ? newest : null;
+        }
+
+        private boolean hasNewCard(int cardIndex, long threshold) {
+            for (int i = 0; i < size; i++) {
+                if (cardIndexes[i] == cardIndex && ids[i] > threshold) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 解码结果
+     */
+    public static final class Batch {
+        private final boolean ok;
+        private final Long newestId;
+        private final List<WeiboData.WeiboCard> newCards;
+        private final String pageNick;
+        private final int candidateCount;
+
+        private Batch(boolean ok, Long newestId, List<WeiboData.WeiboCard> newCards, String pageNick,
+                      int candidateCount) {
+            this.ok = ok;
+            this.newestId = newestId;
+            this.newCards = newCards;
+            this.pageNick = pageNick;
+            this.candidateCount = candidateCount;
+        }
+
+        /**
+         * 响应的ok字段是否为1
+         */
+        public boolean isOk() {
+            return ok;
+        }
+
+        /**
+         * 所有非置顶微博卡片中最大的ID，没有微博卡片时为null
+         */
+        public Long getNewestId() {
+            return newestId;
+        }
+
+        /**
+         * 比检查点更新的卡片，按ID降序
+         */
+        public List<WeiboData.WeiboCard> getNewCards() {
+            return newCards;
+        }
+
+        /**
+         * 超话名称，仅在超话解码且有新微博时读取
+         */
+        public String getPageNick() {
+            return pageNick;
+        }
+
+        public int getCandidateCount() {
+            return candidateCount;
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package net.luffy.util;
 
-import cn.hutool.json.JSONArray;
-import cn.hutool.json.JSONObject;
 import net.luffy.model.WeiboData;
 import net.luffy.service.WeiboApiService;
 
@@ -14,66 +12,6 @@ import java.util.stream.Collectors;
  */
 public class WeiboUtils {
     
-    private static final UnifiedJsonParser jsonParser = UnifiedJsonParser.getInstance();
-    
-    /**
-     * 过滤微博卡片
-     * 只保留cardType为9的卡片，并按ID降序排序
-     * @param cards 原始卡片列表
-     * @return 过滤后的卡片列表
-     */
-    public static List<WeiboData.WeiboCard> filterCards(JSONArray cards) {
-        List<WeiboData.WeiboCard> filteredCards = new ArrayList<>();
-        
-        if (cards == null || cards.isEmpty()) {
-            return filteredCards;
-        }
-        
-        for (Object cardObj : cards) {
-            JSONObject card = jsonParser.parseObj(cardObj.toString());
-            int cardType = card.getInt("card_type", 0);
-            
-            // 只保留cardType为9的卡片
-            if (cardType == 9) {
-                WeiboData.WeiboCard weiboCard = new WeiboData.WeiboCard();
-                weiboCard.cardType = cardType;
-                weiboCard.scheme = card.getStr("scheme");
-                
-                // 解析mblog
-                if (card.containsKey("mblog")) {
-                    JSONObject mblogJson = card.getJSONObject("mblog");
-                    weiboCard.mblog = parseMBlog(mblogJson);
-                    
-                    // 设置排序用的ID
-                    if (weiboCard.mblog != null && weiboCard.mblog.id != null) {
-                        try {
-                            weiboCard._id = Long.parseLong(weiboCard.mblog.id);
-                        } catch (NumberFormatException e) {
-                            weiboCard._id = 0L;
-                        }
-                    }
-                    
-                    // 排除置顶微博
-                    if (weiboCard.mblog != null && Boolean.TRUE.equals(weiboCard.mblog.isTop)) {
-                        continue; // 跳过置顶微博
-                    }
-                }
-                
-                filteredCards.add(weiboCard);
-            }
-        }
-        
-        // 按ID降序排序
-        filteredCards.sort((a, b) -> {
-            if (a._id == null && b._id == null) return 0;
-            if (a._id == null) return 1;
-            if (b._id == null) return -1;
-            return Long.compare(b._id, a._id);
-        });
-        
-        return filteredCards;
-    }
-    
     /**
      * 过滤新微博卡片
      * 提取新微博数据用于发送
@@ -122,93 +60,48 @@ public class WeiboUtils {
     }
     
     /**
-     * 过滤超话微博卡片
-     * @param cards 原始卡片列表
-     * @return 过滤后的卡片列表
-     */
-    public static List<WeiboData.WeiboCard> filterSuperTopicCards(JSONArray cards) {
-        List<WeiboData.WeiboCard> filteredCards = new ArrayList<>();
-        
-        if (cards == null || cards.isEmpty()) {
-            return filteredCards;
-        }
-        
-        for (Object cardObj : cards) {
-            JSONObject card = jsonParser.parseObj(cardObj.toString());
-            int showType = card.getInt("show_type", 0);
-            
-            // 处理超话卡片
-            if (showType == 1 && card.containsKey("card_group")) {
-                JSONArray cardGroup = card.getJSONArray("card_group");
-                List<WeiboData.WeiboCard> groupCards = filterCards(cardGroup);
-                filteredCards.addAll(groupCards);
-            }
-        }
-        
-        // 按ID降序排序
-        filteredCards.sort((a, b) -> {
-            if (a._id == null && b._id == null) return 0;
-            if (a._id == null) return 1;
-            if (b._id == null) return -1;
-            return Long.compare(b._id, a._id);
-        });
-        
-        return filteredCards;
-    }
-    
-    /**
-     * 解析微博内容
-     * @param mblogJson 微博JSON对象
+     * 解析微博内容（供WeiboCardDecoder只为新卡片构建对象时使用）
+     * @param mblogView 微博JSON视图
      * @return 微博内容对象
      */
-    private static WeiboData.WeiboMBlog parseMBlog(JSONObject mblogJson) {
-        if (mblogJson == null) {
+    static WeiboData.WeiboMBlog parseMBlog(JsonView mblogView) {
+        if (mblogView == null) {
             return null;
         }
-        
+
         WeiboData.WeiboMBlog mblog = new WeiboData.WeiboMBlog();
-        mblog.id = mblogJson.getStr("id");
-        mblog.text = mblogJson.getStr("text");
-        mblog.createdAt = mblogJson.getStr("created_at");
-        
-        // 解析置顶标识，微博API中可能使用不同的字段名
-        mblog.isTop = mblogJson.getBool("isTop", false) || 
-                     mblogJson.getBool("pinned", false) || 
-                     mblogJson.getBool("top", false) ||
-                     mblogJson.getInt("isTop", 0) == 1 ||
-                     mblogJson.getInt("pinned", 0) == 1 ||
-                     mblogJson.getInt("top", 0) == 1 ||
-                     "置顶".equals(mblogJson.getStr("mblogtype"));
-        
-        // 解析用户信息
-        if (mblogJson.containsKey("user")) {
-            JSONObject userJson = mblogJson.getJSONObject("user");
+        mblog.id = mblogView.getStr("id");
+        mblog.text = mblogView.getStr("text");
+        mblog.createdAt = mblogView.getStr("created_at");
+        mblog.isTop = mblogView.getBool("isTop", false) ||
+                     mblogView.getBool("pinned", false) ||
+                     mblogView.getBool("top", false) ||
+                     "置顶".equals(mblogView.getStr("mblogtype"));
+
+        JsonView userView = mblogView.getObj("user");
+        if (userView != null) {
             mblog.user = new WeiboData.WeiboUser();
-            mblog.user.screenName = userJson.getStr("screen_name");
-            mblog.user.id = userJson.getStr("id");
+            mblog.user.screenName = userView.getStr("screen_name");
+            mblog.user.id = userView.getStr("id");
         }
-        
-        // 解析图片信息
-        if (mblogJson.containsKey("pics")) {
-            JSONArray picsJson = mblogJson.getJSONArray("pics");
+
+        if (mblogView.containsKey("pics")) {
             mblog.pics = new ArrayList<>();
-            for (Object picObj : picsJson) {
-                JSONObject pic = jsonParser.parseObj(picObj.toString());
+            for (JsonView pic : mblogView.getArray("pics")) {
                 WeiboData.WeiboImage image = new WeiboData.WeiboImage();
                 image.url = pic.getStr("url");
                 mblog.pics.add(image);
             }
         }
-        
-        // 解析转发微博
-        if (mblogJson.containsKey("retweeted_status")) {
-            JSONObject retweetedJson = mblogJson.getJSONObject("retweeted_status");
-            mblog.retweetedStatus = parseMBlog(retweetedJson);
+
+        JsonView retweetedView = mblogView.getObj("retweeted_status");
+        if (retweetedView != null) {
+            mblog.retweetedStatus = parseMBlog(retweetedView);
         }
-        
+
         return mblog;
     }
-    
+
     /**
      * 构建微博消息文本
      * 基于qqtools项目的消息格式
@@ -0,0 +1,133 @@
+package net.luffy.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 延迟批量写入的properties文件
+ * 修改只在内存中标记为脏，由调用方按间隔或在关闭时调用flush批量落盘；
+ * 落盘时把脏条目合并到上次写入的内容上，先写临时文件并同步到磁盘，再原子重命名替换原文件，
+ * 写入中途崩溃时原文件保持完整。文件格式仍是普通properties，每个键一行
+ */
+public class WriteBehindPropertiesFile {
+
+    // 待删除的键在脏表中的占位值
+    private static final String REMOVED = new String("\u0000removed");
+
+    private final UnifiedLogger logger = UnifiedLogger.getInstance();
+    private final File file;
+    private final String comment;
+    // 最近一次成功写入（或加载）的文件内容
+    private final Map<String, String> persisted = new HashMap<>();
+    private final Map<String, String> dirty = new ConcurrentHashMap<>();
+
+    public WriteBehindPropertiesFile(File file, String comment) {
+        this.file = file;
+        this.comment = comment;
+    }
+
+    /**
+     * 读取文件内容，文件不存在时返回空表
+     */
+    public synchronized Map<String, String> load() throws IOException {
+        persisted.clear();
+        if (file.exists()) {
+            Properties props = new Properties();
+            try (InputStreamReader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                props.load(reader);
+            }
+            for (String key : props.stringPropertyNames()) {
+                persisted.put(key, props.getProperty(key));
+            }
+        }
+        return new HashMap<>(persisted);
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * 记录键值，下次flush时写入
+     */
+    public void put(String key, String value) {
+        dirty.put(key, value);
+    }
+
+    /**
+     * 删除键，下次flush时生效
+     */
+    public void remove(String key) {
+        dirty.put(key, REMOVED);
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * 将脏条目批量写入文件
+     * @return 没有脏条目或写入成功返回true；写入失败时脏条目保留到下次重试
+     */
+    public synchronized boolean flush() {
+        if (dirty.isEmpty()) {
+            return true;
+        }
+        Map<String, String> batch = new HashMap<>(dirty);
+        Map<String, String> merged = new HashMap<>(persisted);
+        for (Map.Entry<String, String> entry : batch.entrySet()) {
+            if (entry.getValue() == REMOVED) {
+                merged.remove(entry.getKey());
+            } else {
+                merged.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        try {
+            writeAtomically(merged);
+        } catch (IOException e) {
+            logger.error("WriteBehindPropertiesFile", "写入文件失败: " + file.getName() + ", " + e.getMessage());
+            return false;
+        }
+
+        persisted.clear();
+        persisted.putAll(merged);
+        // 写入期间又被修改的条目保持为脏
+        for (Map.Entry<String, String> entry : batch.entrySet()) {
+            dirty.remove(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    private void writeAtomically(Map<String, String> content) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("无法创建目录: " + parent);
+        }
+        Properties props = new Properties();
+        props.putAll(content);
+
+        File temp = new File(parent, file.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temp)) {
+            props.store(new OutputStreamWriter(fos, StandardCharsets.UTF_8), comment);
+            fos.getFD().sync();
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
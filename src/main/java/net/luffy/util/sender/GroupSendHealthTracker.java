@@ -0,0 +1,251 @@
+package net.luffy.util.sender;
+
+import net.luffy.model.EndTime;
+import net.luffy.util.MonitorConfig;
+import net.luffy.util.UnifiedLogger;
+import net.mamoe.mirai.Bot;
+import net.mamoe.mirai.contact.BotIsBeingMutedException;
+import net.mamoe.mirai.contact.Group;
+import net.mamoe.mirai.contact.MessageTooLargeException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 群发送健康状态跟踪器（按 机器人+群 维度的熔断器）
+ * 连续发送失败达到阈值后熔断该群，按指数递增的间隔放行探测；
+ * 熔断期间调度器跳过该群的上游拉取和媒体准备，避免浪费带宽和上传额度
+ */
+public class GroupSendHealthTracker {
+
+    public enum State {
+        CLOSED,     // 正常发送
+        OPEN,       // 已熔断，等待下一次探测
+        HALF_OPEN   // 探测中，下一次发送结果决定恢复或继续熔断
+    }
+
+    private static volatile GroupSendHealthTracker instance;
+
+    private final Map<String, GroupHealth> healthMap = new ConcurrentHashMap<>();
+    private final UnifiedLogger logger = UnifiedLogger.getInstance();
+
+    private final int failureThreshold;
+    private final long probeBaseInterval;
+    private final long probeMaxInterval;
+    private final long backlogWindow;
+
+    private GroupSendHealthTracker() {
+        MonitorConfig config = MonitorConfig.getInstance();
+        this.failureThreshold = Math.max(1, config.getSendCircuitFailureThreshold());
+        this.probeBaseInterval = Math.max(1000L, config.getSendCircuitProbeBaseInterval());
+        this.probeMaxInterval = Math.max(probeBaseInterval, config.getSendCircuitProbeMaxInterval());
+        this.backlogWindow = Math.max(0L, config.getSendCircuitBacklogWindow());
+    }
+
+    public static GroupSendHealthTracker getInstance() {
+        if (instance == null) {
+            synchronized (GroupSendHealthTracker.class) {
+                if (instance == null) {
+                    instance = new GroupSendHealthTracker();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 判断本轮是否应为该群拉取数据并发送
+     * 熔断中且未到探测时间时返回false；到达探测时间时放行一次探测
+     * @param bot 机器人实例，为null时（如仅自动发货）总是放行
+     * @param groupId 群号
+     */
+    public boolean allowSend(Bot bot, long groupId) {
+        if (bot == null) {
+            return true;
+        }
+        GroupHealth health = healthMap.get(key(bot.getId(), groupId));
+        if (health == null) {
+            return true;
+        }
+        synchronized (health) {
+            long now = System.currentTimeMillis();
+            switch (health.state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (now < health.nextProbeTime) {
+                        health.skippedTicks++;
+                        return false;
+                    }
+                    health.state = State.HALF_OPEN;
+                    health.probeStartTime = now;
+                    logger.info("GroupSendHealth", "群 " + groupId + " 熔断到期，放行一次探测");
+                    return true;
+                case HALF_OPEN:
+                default:
+                    // 探测轮次可能没有任何消息可发，超过基础间隔后允许再次探测
+                    if (now - health.probeStartTime >= probeBaseInterval) {
+                        health.probeStartTime = now;
+                        return true;
+                    }
+                    health.skippedTicks++;
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * 熔断期间推进各房间的消息起点，恢复后最多补发最近backlogWindow内的消息，
+     * 避免长时间熔断积压的消息在恢复时集中刷屏
+     * @param roomEndTime 该群各房间已拉取到的消息时间，为null或未配置窗口时不处理
+     */
+    public void capBacklog(Map<Long, Long> roomEndTime) {
+        if (roomEndTime == null || backlogWindow <= 0) {
+            return;
+        }
+        long floor = System.currentTimeMillis() - backlogWindow;
+        roomEndTime.replaceAll((roomId, endTime) -> Math.max(endTime, floor));
+    }
+
+    /**
+     * 熔断期间推进单个拉取起点（如微店订单），恢复后最多补发最近backlogWindow内的内容
+     * @param endTime 该群已拉取到的时间，为null或未配置窗口时不处理
+     */
+    public void capBacklog(EndTime endTime) {
+        if (endTime == null || backlogWindow <= 0) {
+            return;
+        }
+        endTime.time = Math.max(endTime.time, System.currentTimeMillis() - backlogWindow);
+    }
+
+    /**
+     * 记录一次发送成功，熔断/探测中的群恢复正常
+     */
+    public void recordSuccess(Group group) {
+        if (group == null) {
+            return;
+        }
+        GroupHealth health = healthMap.get(key(group.getBot().getId(), group.getId()));
+        if (health == null) {
+            return;
+        }
+        synchronized (health) {
+            if (health.state != State.CLOSED) {
+                logger.info("GroupSendHealth", "群 " + group.getId() + " 发送恢复正常，解除熔断（期间跳过 "
+                        + health.skippedTicks + " 轮）");
+            }
+            health.state = State.CLOSED;
+            health.consecutiveFailures = 0;
+            health.openCount = 0;
+            health.skippedTicks = 0;
+        }
+    }
+
+    /**
+     * 记录一次发送失败（已包含发送方自身的重试）
+     * 消息过大属于内容问题，不计入群健康状态；机器人被禁言时直接熔断至禁言结束
+     */
+    public void recordFailure(Group group, Throwable cause) {
+        if (group == null || hasCause(cause, MessageTooLargeException.class)) {
+            return;
+        }
+        GroupHealth health = healthMap.computeIfAbsent(key(group.getBot().getId(), group.getId()), k -> new GroupHealth());
+        synchronized (health) {
+            long now = System.currentTimeMillis();
+            health.consecutiveFailures++;
+            health.totalFailures++;
+            health.lastError = cause != null ? cause.getClass().getSimpleName() + ": " + cause.getMessage() : "unknown";
+
+            boolean muted = hasCause(cause, BotIsBeingMutedException.class);
+            if (health.state == State.CLOSED && !muted && health.consecutiveFailures < failureThreshold) {
+                return;
+            }
+
+            long interval = Math.min(probeMaxInterval, probeBaseInterval << Math.min(health.openCount, 20));
+            if (muted) {
+                long muteRemaining = group.getBotMuteRemaining() * 1000L;
+                interval = Math.max(interval, muteRemaining);
+            }
+            health.openCount++;
+            health.state = State.OPEN;
+            health.nextProbeTime = now + interval;
+            logger.warn("GroupSendHealth", String.format("群 %d 连续发送失败 %d 次，熔断 %d 秒后探测，原因: %s",
+                    group.getId(), health.consecutiveFailures, interval / 1000, health.lastError));
+        }
+    }
+
+    public State getState(Bot bot, long groupId) {
+        if (bot == null) {
+            return State.CLOSED;
+        }
+        GroupHealth health = healthMap.get(key(bot.getId(), groupId));
+        if (health == null) {
+            return State.CLOSED;
+        }
+        synchronized (health) {
+            return health.state;
+        }
+    }
+
+    /**
+     * 获取熔断状态报告（仅列出非正常状态的群）
+     */
+    public String getHealthReport() {
+        StringBuilder report = new StringBuilder("群发送健康状态:\n");
+        int unhealthy = 0;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, GroupHealth> entry : healthMap.entrySet()) {
+            GroupHealth health = entry.getValue();
+            synchronized (health) {
+                if (health.state == State.CLOSED) {
+                    continue;
+                }
+                unhealthy++;
+                report.append(String.format("  %s - %s, 连续失败: %d, 距下次探测: %ds, 已跳过: %d轮, 最近错误: %s\n",
+                        entry.getKey(), health.state, health.consecutiveFailures,
+                        Math.max(0, (health.nextProbeTime - now) / 1000), health.skippedTicks, health.lastError));
+            }
+        }
+        if (unhealthy == 0) {
+            report.append("  所有群发送正常\n");
+        }
+        return report.toString();
+    }
+
+    /**
+     * 手动重置某个群的状态（如重新加入群或解除禁言后）
+     */
+    public void reset(Bot bot, long groupId) {
+        if (bot != null) {
+            healthMap.remove(key(bot.getId(), groupId));
+        }
+    }
+
+    /**
+     * 发送路径中异常常被RuntimeException/CompletionException包装，沿cause链查找
+     */
+    private static boolean hasCause(Throwable throwable, Class<? extends Throwable> type) {
+        for (int depth = 0; throwable != null && depth < 8; depth++) {
+            if (type.isInstance(throwable)) {
+                return true;
+            }
+            throwable = throwable.getCause();
+        }
+        return false;
+    }
+
+    private static String key(long botId, long groupId) {
+        return botId + ":" + groupId;
+    }
+
+    private static class GroupHealth {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long totalFailures;
+        private int openCount;
+        private long nextProbeTime;
+        private long probeStartTime;
+        private long skippedTicks;
+        private String lastError;
+    }
+}
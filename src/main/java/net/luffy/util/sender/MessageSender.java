@@ -3,6 +3,7 @@ package net.luffy.util.sender;
 import net.luffy.Newboy;
 import net.mamoe.mirai.Bot;
 import net.mamoe.mirai.contact.Group;
+import net.mamoe.mirai.contact.MessageTooLargeException;
 import net.mamoe.mirai.message.data.Image;
 import net.mamoe.mirai.message.data.Message;
 import net.mamoe.mirai.message.data.MessageChain;
@@ -25,6 +26,15 @@ import net.luffy.util.sender.MessageRateLimiter;
  */
 public class MessageSender {
     
+    /**
+     * 单个群的发送结果
+     */
+    public enum SendResult {
+        SENT,     // 已发送
+        SKIPPED,  // 无需重试：群已不存在、群处于熔断中或内容本身无法发送
+        FAILED    // 发送失败，可稍后重试
+    }
+    
     private final MessageRateLimiter rateLimiter;
     
     private final Bot bot;
@@ -226,69 +236,84 @@ public class MessageSender {
      * @param messageText 消息文本
      * @param imageUrl 图片URL（可选）
      * @param atAll 是否@全体成员
+     * @return 发送结果；发送结果同时计入群发送健康状态，熔断中的群直接跳过
      */
-    public void sendGroupMessageWithImage(String groupId, String messageText, String imageUrl, boolean atAll) {
+    public SendResult sendGroupMessageWithImage(String groupId, String messageText, String imageUrl, boolean atAll) {
+        Group group = null;
         try {
+            Bot bot = Newboy.getBot();
+            if (bot == null) {
+                return SendResult.FAILED;
+            }
+            long groupIdLong = Long.parseLong(groupId);
+            group = bot.getGroup(groupIdLong);
+            if (group == null || !GroupSendHealthTracker.getInstance().allowSend(bot, groupIdLong)) {
+                return SendResult.SKIPPED;
+            }
+            
             // 应用速率限制
             rateLimiter.acquire();
             
-            Bot bot = Newboy.getBot();
-            if (bot != null) {
-                long groupIdLong = Long.parseLong(groupId);
-                Group group = bot.getGroup(groupIdLong);
-                if (group != null) {
-                    MessageChainBuilder builder = new MessageChainBuilder();
-                    
-                    // 添加文本消息
-                    if (messageText != null && !messageText.isEmpty()) {
-                        builder.append(messageText);
-                    }
-                    
-                    // 如果有图片，添加图片到消息链的最后
-                    if (imageUrl != null && !imageUrl.isEmpty()) {
-                        try {
-                            URL url = new URL(imageUrl);
-                            URLConnection connection = url.openConnection();
-                            // 设置移动端User-Agent和必要的请求头
-                            connection.setRequestProperty("User-Agent", "Mozilla/5.0 (iPhone; CPU iPhone OS 14_0 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Mobile/15E148 Weibo (iPhone10,1__weibo__10.10.0__iphone__os14.0)");
-                            connection.setRequestProperty("Referer", "https://m.weibo.cn/");
-                            connection.setRequestProperty("Accept", "image/webp,image/apng,image/*,*/*;q=0.8");
-                            connection.setRequestProperty("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8");
-                            connection.setRequestProperty("Cache-Control", "no-cache");
-                            connection.setRequestProperty("Pragma", "no-cache");
-                            
-                            try (InputStream inputStream = connection.getInputStream();
-                                 ExternalResource resource = ExternalResource.create(inputStream)) {
-                                Image image = group.uploadImage(resource);
-                                builder.append(image);
-                            }
-                        } catch (Exception imageException) {
-                            UnifiedLogger.getInstance().warn("MessageSender", 
-                                "处理图片失败，仅发送文本: " + imageException.getMessage());
-                        }
-                    }
-                    
-                    // 发送组合消息
-                    MessageChain messageChain = builder.build();
+            MessageChainBuilder builder = new MessageChainBuilder();
+            
+            // 添加文本消息
+            if (messageText != null && !messageText.isEmpty()) {
+                builder.append(messageText);
+            }
+            
+            // 如果有图片，添加图片到消息链的最后
+            if (imageUrl != null && !imageUrl.isEmpty()) {
+                try {
+                    URL url = new URL(imageUrl);
+                    URLConnection connection = url.openConnection();
+                    // 设置移动端User-Agent和必要的请求头
+                    connection.setRequestProperty("User-Agent", "Mozilla/5.0 (iPhone; CPU iPhone OS 14_0 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Mobile/15E148 Weibo (iPhone10,1__weibo__10.10.0__iphone__os14.0)");
+                    connection.setRequestProperty("Referer", "https://m.weibo.cn/");
+                    connection.setRequestProperty("Accept", "image/webp,image/apng,image/*,*/*;q=0.8");
+                    connection.setRequestProperty("Accept-Language", "zh-CN,zh;q=0.9,en;q=0.8");
+                    connection.setRequestProperty("Cache-Control", "no-cache");
+                    connection.setRequestProperty("Pragma", "no-cache");
                     
-                    // 如果需要@全体成员，使用toNotification包装消息
-                    if (atAll) {
-                        // 创建一个Sender实例来使用toNotification方法
-                        Sender sender = new Sender(bot, groupIdLong);
-                        Message finalMessage = sender.toNotification(messageChain);
-                        group.sendMessage(finalMessage);
-                    } else {
-                        group.sendMessage(messageChain);
+                    try (InputStream inputStream = connection.getInputStream();
+                         ExternalResource resource = ExternalResource.create(inputStream)) {
+                        Image image = group.uploadImage(resource);
+                        builder.append(image);
                     }
+                } catch (Exception imageException) {
+                    UnifiedLogger.getInstance().warn("MessageSender", 
+                        "处理图片失败，仅发送文本: " + imageException.getMessage());
                 }
             }
+            
+            // 发送组合消息
+            MessageChain messageChain = builder.build();
+            
+            // 如果需要@全体成员，使用toNotification包装消息
+            if (atAll) {
+                // 创建一个Sender实例来使用toNotification方法
+                Sender sender = new Sender(bot, groupIdLong);
+                Message finalMessage = sender.toNotification(messageChain);
+                group.sendMessage(finalMessage);
+            } else {
+                group.sendMessage(messageChain);
+            }
+            GroupSendHealthTracker.getInstance().recordSuccess(group);
+            return SendResult.SENT;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             UnifiedLogger.getInstance().error("MessageSender", 
                 "消息发送被中断: " + e.getMessage(), e);
+            return SendResult.FAILED;
+        } catch (NumberFormatException | MessageTooLargeException e) {
+            // 群号无效或消息过大，重试也不会成功
+            UnifiedLogger.getInstance().error("MessageSender", 
+                "发送群组消息（文本+图片）失败且不再重试: " + e.getMessage(), e);
+            return SendResult.SKIPPED;
         } catch (Exception e) {
             UnifiedLogger.getInstance().error("MessageSender", 
                 "发送群组消息（文本+图片）失败: " + e.getMessage(), e);
+            GroupSendHealthTracker.getInstance().recordFailure(group, e);
+            return SendResult.FAILED;
         }
     }
     
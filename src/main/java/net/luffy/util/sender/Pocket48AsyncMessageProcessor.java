@@ -6,6 +6,7 @@ import net.luffy.model.Pocket48SenderMessage;
 import net.luffy.util.AdaptiveThreadPoolManager;
 import net.luffy.util.CpuLoadBalancer;
 import net.luffy.util.EventBusManager;
+import net.luffy.util.MessageIntegrityChecker;
 import net.luffy.util.MonitorConfig;
 
 import net.luffy.Newboy;
@@ -445,7 +446,12 @@ public class Pocket48AsyncMessageProcessor {
                 chain = chain.thenCompose(v -> sendMessageWithRetryAsync(unjointMessages[index], group, 3));
             }
             
-            return chain;
+            // 全部发送成功后才写入去重日志
+            return chain.thenRun(() -> {
+                if (senderMessage.getSource() != null) {
+                    MessageIntegrityChecker.recordSent(senderMessage.getSourceRoomId(), senderMessage.getSource());
+                }
+            });
         } catch (Exception e) {
             CompletableFuture<Void> future = new CompletableFuture<>();
             future.completeExceptionally(e);
@@ -491,6 +497,7 @@ public class Pocket48AsyncMessageProcessor {
         
         try {
             group.sendMessage(message);
+            GroupSendHealthTracker.getInstance().recordSuccess(group);
             future.complete(null); // 发送成功
             return future;
         } catch (Exception e) {
@@ -506,6 +513,7 @@ public class Pocket48AsyncMessageProcessor {
                 // 记录最终失败信息
                 System.err.println(String.format("[错误] 消息发送最终失败，尝试次数: %d/%d, 错误: %s", 
                     attempt, maxRetries, e.getMessage()));
+                GroupSendHealthTracker.getInstance().recordFailure(group, e);
                 future.completeExceptionally(e);
                 return future;
             }
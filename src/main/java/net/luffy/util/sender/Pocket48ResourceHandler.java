@@ -1,6 +1,9 @@
 package net.luffy.util.sender;
 
 import net.luffy.handler.AsyncWebHandlerBase;
+import net.luffy.util.HttpStatusException;
+import net.luffy.util.MonitorConfig;
+import net.luffy.util.RetryEngine;
 import net.luffy.util.UnifiedHttpClient;
 import net.luffy.util.UnifiedLogger;
 import net.luffy.util.Pocket48MetricsCollector;
@@ -516,6 +519,7 @@ public class Pocket48ResourceHandler extends AsyncWebHandlerBase {
       
       /**
        * 下载资源到临时文件（带重试机制）
+       * 由统一重试引擎按主机预算退避重试，内部获取输入流时不再单独重试
        * 
        * @param url 资源URL
        * @param fileExtension 文件扩展名
@@ -523,26 +527,15 @@ public class Pocket48ResourceHandler extends AsyncWebHandlerBase {
        * @return 本地临时文件，如果下载失败返回null
        */
       public File downloadToTempFileWithRetry(String url, String fileExtension, int maxRetries) {
-          int retries = 0;
-          while (retries <= maxRetries) {
-              try {
-                  return downloadToTempFileInternal(url, fileExtension);
-              } catch (IOException e) {
-                  retries++;
-                  if (retries > maxRetries) {
-                      logger.error("Pocket48ResourceHandler", "下载失败，已达到最大重试次数: " + url, e);
-                      metricsCollector.recordError("download_max_retries_reached");
-                      return null;
-                  }
-                  
-                  // 优化下载重试延迟 - 移除延迟，立即重试
-                  logger.warn("Pocket48ResourceHandler", "下载失败，立即重试(" + retries + "/" + maxRetries + "): " + url);
-                  
-                  // 移除延迟，直接重试
-              }
+          try {
+              return RetryEngine.getInstance().execute(url, true, maxRetries + 1,
+                      MonitorConfig.getInstance().getRetryBaseDelay(),
+                      () -> downloadToTempFileInternal(url, fileExtension));
+          } catch (IOException e) {
+              logger.error("Pocket48ResourceHandler", "下载失败，已达到最大重试次数或重试预算耗尽: " + url, e);
+              metricsCollector.recordError("download_max_retries_reached");
+              return null;
           }
-          
-          return null;
       }
      
      /**
@@ -589,6 +582,10 @@ public class Pocket48ResourceHandler extends AsyncWebHandlerBase {
                     throw new IOException("下载的文件为空或不存在: " + url);
                 }
             }
+        } catch (HttpStatusException e) {
+            // 保留状态码，供重试引擎判断是否可重试
+            logger.severe("下载资源失败: " + url + ", 错误: " + e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.severe("下载资源失败: " + url + ", 错误: " + e.getMessage());
             throw new IOException("下载资源失败: " + e.getMessage(), e);
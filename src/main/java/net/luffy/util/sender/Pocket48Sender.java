@@ -10,6 +10,7 @@ import net.luffy.util.MessageIntegrityChecker;
 import net.luffy.util.UnifiedLogger;
 import net.luffy.util.Pocket48MetricsCollector;
 import net.luffy.util.StringMatchUtils;
+import net.luffy.util.TickScope;
 
 import net.luffy.model.*;
 import net.mamoe.mirai.Bot;
@@ -33,15 +34,13 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Executors;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class Pocket48Sender extends Sender {
 
     //endTime是一个关于roomID的HashMap
     private final HashMap<Long, Long> endTime;
     private final HashMap<Long, List<Long>> voiceStatus;
-    private final HashMap<Long, Pocket48SenderCache> cache;
+    private final Map<Long, Pocket48SenderCache> cache;
     private final Pocket48UnifiedResourceManager unifiedResourceManager;
     private final Pocket48AsyncMessageProcessor asyncProcessor;
     private final MessageRateLimiter rateLimiter;
@@ -54,7 +53,7 @@ public class Pocket48Sender extends Sender {
     private final UnifiedLogger logger = UnifiedLogger.getInstance();
     private final Pocket48MetricsCollector metricsCollector = Pocket48MetricsCollector.getInstance();
 
-    public Pocket48Sender(Bot bot, long group, HashMap<Long, Long> endTime, HashMap<Long, List<Long>> voiceStatus, HashMap<Long, Pocket48SenderCache> cache) {
+    public Pocket48Sender(Bot bot, long group, HashMap<Long, Long> endTime, HashMap<Long, List<Long>> voiceStatus, Map<Long, Pocket48SenderCache> cache) {
         super(bot, group);
         this.endTime = endTime;
         this.voiceStatus = voiceStatus;
@@ -80,6 +79,10 @@ public class Pocket48Sender extends Sender {
 
             //房间消息获取 - 改进的重试机制（优化：减少重试延迟）
             for (long roomID : subscribe.getRoomIDs()) {
+                // 本轮已超时取消：不再拉取剩余房间，已拉取的消息照常发送（其endTime已推进）
+                if (TickScope.isCurrentCancelled()) {
+                    break;
+                }
                 Pocket48SenderCache currentCache = cache.get(roomID);
                 
                 // 检查缓存是否存在或过期
@@ -115,11 +118,11 @@ public class Pocket48Sender extends Sender {
                         System.err.println(String.format("[完整性警告] 房间 %d: %s", 
                             roomID, integrityResult.toString()));
                         
-                        // 如果有重复消息，过滤掉它们
+                        // 如果有重复消息，过滤掉它们（只检查不记录，记录在发送前的pharseMessage中进行）
                         if (integrityResult.getDuplicateCount() > 0) {
                             List<Pocket48Message> filteredMessages = new ArrayList<>();
                             for (Pocket48Message msg : a) {
-                                if (!MessageIntegrityChecker.isDuplicateMessage(roomID, msg)) {
+                                if (!MessageIntegrityChecker.isMessageDuplicateInCache(roomID, msg)) {
                                     filteredMessages.add(msg);
                                 }
                             }
@@ -296,6 +299,15 @@ public class Pocket48Sender extends Sender {
             metricsCollector.recordError("integrity_check_failed");
         }
         
+        Pocket48SenderMessage result = pharseMessageContent(message, group, single_subscribe);
+        if (result != null && message.getRoom() != null) {
+            // 发送成功后才写入去重日志
+            result.setSource(message.getRoom().getRoomId(), message);
+        }
+        return result;
+    }
+    
+    private Pocket48SenderMessage pharseMessageContent(Pocket48Message message, Group group, boolean single_subscribe) throws IOException {
         Pocket48Handler pocket = Newboy.INSTANCE.getHandlerPocket48();
         String nickName = message.getNickName() != null ? message.getNickName() : "未知用户";
         String n = sanitizeUserName(nickName); // 脱敏处理
@@ -936,38 +948,90 @@ public class Pocket48Sender extends Sender {
             return new PlainText("[消息内容为空]");
         }
         
-        // 快速检查是否包含表情符号，避免不必要的正则处理
-        if (!body.contains("[") || !body.contains("]")) {
+        // 快速检查是否包含表情符号，避免不必要的扫描
+        if (body.indexOf('[') < 0 || body.indexOf(']') < 0) {
             return new PlainText(body);
         }
         
-        String[] a = body.split("\\[.*?\\]", -1);//其余部分，-1使其产生空字符串
-        if (a.length < 2)
+        // 单趟扫描：遇到 [xxx] 时查表，命中则输出Face，否则原样保留为文本
+        MessageChainBuilder builder = new MessageChainBuilder();
+        int length = body.length();
+        int textStart = 0;
+        int i = 0;
+        while (i < length) {
+            if (body.charAt(i) != '[') {
+                i++;
+                continue;
+            }
+            int close = findFaceTokenEnd(body, i);
+            if (close < 0) {
+                // 到换行或结尾都没有']'，中间的'['同样无法闭合，直接跳过这一段
+                i = -close;
+                continue;
+            }
+            if (i > textStart) {
+                builder.add(new PlainText(body.substring(textStart, i)));
+            }
+            builder.add(pharsePocketFace(body.substring(i, close + 1)));
+            textStart = close + 1;
+            i = textStart;
+        }
+        if (textStart == 0) {
             return new PlainText(body);
-
-        Message out = new PlainText(a[0]);
-        int count = 1;//从第1个表情后a[1]开始
-        Matcher b = Pattern.compile("\\[.*?\\]").matcher(body);
-        while (b.find()) {
-            out = out.plus(pharsePocketFace(b.group()));
-            out = out.plus(a[count]);
-            count++;
         }
+        if (textStart < length) {
+            builder.add(new PlainText(body.substring(textStart)));
+        }
+        return builder.build();
+    }
 
-        return out;
+    /**
+     * 查找从open位置开始的表情标记的结束']'位置
+     * 与原正则 \[.*?\] 语义一致：不跨行，取最近的']'
+     * @return ']'的下标；不存在时返回负的续扫位置（换行符之后或字符串末尾）
+     */
+    private static int findFaceTokenEnd(String body, int open) {
+        int j = open + 1;
+        for (; j < body.length(); j++) {
+            char c = body.charAt(j);
+            if (c == ']') {
+                return j;
+            }
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return -(j + 1);
+            }
+        }
+        return -j;
     }
 
     public Message pharsePocketFace(String face) {
         if (face.equals("[亲亲]"))
             face = "[左亲亲]";
 
-        for (int i = 0; i < Face.names.length; i++) {
-            if (Face.names[i].equals(face))
-                return new Face(i);
-        }
+        Integer id = FaceIndex.NAME_TO_ID.get(face);
+        if (id != null)
+            return new Face(id);
         return new PlainText(face);
     }
 
+    /**
+     * 表情名称到表情ID的索引，首次使用时根据Face.names构建一次
+     * 名称重复时保留最小的ID，与原线性查找结果一致
+     */
+    private static final class FaceIndex {
+        private static final Map<String, Integer> NAME_TO_ID = build();
+
+        private static Map<String, Integer> build() {
+            Map<String, Integer> index = new HashMap<>(Face.names.length * 2);
+            for (int i = 0; i < Face.names.length; i++) {
+                if (Face.names[i] != null) {
+                    index.putIfAbsent(Face.names[i], i);
+                }
+            }
+            return index;
+        }
+    }
+
     /**
      * 解析口袋表情名称
      * @param message 口袋48消息对象
@@ -1421,31 +1485,19 @@ public class Pocket48Sender extends Sender {
         // 使用固定重试次数，移除DelayConfig依赖
         int maxRetries = 3; // 默认重试3次
         
-        // 并行发送消息部分（如果有多个部分）
-        if (unjointMessages.length == 1) {
-            // 单部分消息：直接发送
-            sendMessageWithRetryAsync(unjointMessages[0], group, maxRetries);
-        } else {
-            // 多部分消息：串行发送保证顺序，但减少延迟
-            CompletableFuture<Void> sendChain = CompletableFuture.completedFuture(null);
-            
-            for (int i = 0; i < unjointMessages.length; i++) {
-                final Message message = unjointMessages[i];
-                final boolean isLast = i == unjointMessages.length - 1;
-                
-                sendChain = sendChain.thenCompose(v -> {
-                    return sendMessageWithRetryAsync(message, group, maxRetries)
-                        .thenCompose(result -> {
-                            // 消息部分间最小延迟（仅在非最后一部分时）- 优化版本
-                            if (!isLast) {
-                                // 移除延迟计算，立即执行下一部分
-                                return CompletableFuture.completedFuture(null);
-                            }
-                            return CompletableFuture.completedFuture(null);
-                        });
-                });
-            }
+        // 多部分消息：串行发送保证顺序，任一部分失败即视为整条未送达
+        CompletableFuture<Boolean> sendChain = CompletableFuture.completedFuture(true);
+        for (Message message : unjointMessages) {
+            sendChain = sendChain.thenCompose(allSent -> sendMessageWithRetryAsync(message, group, maxRetries)
+                    .thenApply(sent -> allSent && sent));
         }
+        
+        // 全部发送成功后才写入去重日志，失败的消息重启后仍可补发
+        sendChain.thenAccept(sent -> {
+            if (sent && senderMessage.getSource() != null) {
+                MessageIntegrityChecker.recordSent(senderMessage.getSourceRoomId(), senderMessage.getSource());
+            }
+        });
     }
     
     /**
@@ -1453,13 +1505,14 @@ public class Pocket48Sender extends Sender {
      * @param message 要发送的消息
      * @param group 目标群组
      * @param maxRetries 最大重试次数
+     * @return 发送成功为true，重试后仍失败为false
      */
-    private CompletableFuture<Void> sendMessageWithRetryAsync(Message message, Group group, int maxRetries) {
+    private CompletableFuture<Boolean> sendMessageWithRetryAsync(Message message, Group group, int maxRetries) {
         return sendMessageWithRetryAsync(message, group, maxRetries, 1);
     }
     
-    private CompletableFuture<Void> sendMessageWithRetryAsync(Message message, Group group, int maxRetries, int attempt) {
-        return CompletableFuture.runAsync(() -> {
+    private CompletableFuture<Boolean> sendMessageWithRetryAsync(Message message, Group group, int maxRetries, int attempt) {
+        return CompletableFuture.supplyAsync(() -> {
             try {
                 // 应用速率限制
                 rateLimiter.acquire();
@@ -1469,6 +1522,7 @@ public class Pocket48Sender extends Sender {
                 // 直接发送消息，移除GroupRateLimiter速率限制
                 
                 group.sendMessage(message);
+                GroupSendHealthTracker.getInstance().recordSuccess(group);
                 
                 // 记录发送成功度量
                 long sendTime = System.currentTimeMillis() - startTime;
@@ -1479,6 +1533,7 @@ public class Pocket48Sender extends Sender {
                 }
                 
                 logger.debug("Pocket48Sender", "消息发送成功，耗时: " + (System.currentTimeMillis() - startTime) + "ms");
+                return true;
                 
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -1498,7 +1553,8 @@ public class Pocket48Sender extends Sender {
             
             if (attempt >= maxRetries || !isRetryableError) {
                 logger.error("Pocket48Sender", "发送消息失败（已重试" + attempt + "次）: " + errorMsg);
-                return CompletableFuture.completedFuture(null);
+                GroupSendHealthTracker.getInstance().recordFailure(group, e);
+                return CompletableFuture.completedFuture(false);
             }
             
             // 移除重试延迟，实现快速重试
@@ -1534,7 +1590,7 @@ public class Pocket48Sender extends Sender {
         sendMessageWithRetryAsync(message, group, maxRetries)
             .exceptionally(throwable -> {
                 System.err.println("[警告] 异步重试发送失败: " + throwable.getMessage());
-                return null;
+                return false;
             });
     }
 
@@ -104,8 +104,9 @@ public class WeidianItemSender extends SyncSender {
             if (combinedMessage != null) {
                 try {
                     group.sendMessage(combinedMessage);
+                    GroupSendHealthTracker.getInstance().recordSuccess(group);
                 } catch (Exception e) {
-                    // 静默处理异常
+                    GroupSendHealthTracker.getInstance().recordFailure(group, e);
                 }
             }
         }
@@ -10,13 +10,14 @@ import net.mamoe.mirai.message.data.Message;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class WeidianOrderSender extends SyncSender {
     private final EndTime endTime;
     private final WeidianSenderHandler handler;
-    private final HashMap<WeidianCookie, WeidianOrder[]> cache;
+    private final Map<WeidianCookie, WeidianOrder[]> cache;
 
-    public WeidianOrderSender(Bot bot, long group, EndTime endTime, WeidianSenderHandler handler, HashMap<WeidianCookie, WeidianOrder[]> cache) {
+    public WeidianOrderSender(Bot bot, long group, EndTime endTime, WeidianSenderHandler handler, Map<WeidianCookie, WeidianOrder[]> cache) {
         super(bot, group);
         this.endTime = endTime;
         this.handler = handler;
@@ -117,8 +118,9 @@ public class WeidianOrderSender extends SyncSender {
         if (t != null) {
             try {
                 group.sendMessage(t);
+                GroupSendHealthTracker.getInstance().recordSuccess(group);
             } catch (Exception e) {
-                // 静默处理异常
+                GroupSendHealthTracker.getInstance().recordFailure(group, e);
             }
         }
     }
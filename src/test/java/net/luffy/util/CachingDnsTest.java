@@ -0,0 +1,182 @@
+package net.luffy.util;
+
+import okhttp3.Dns;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * DNS解析缓存：TTL、临近过期刷新、过期后返回旧结果及刷新失败时保留旧结果
+ * 后台刷新任务放入队列，由测试手动执行
+ */
+class CachingDnsTest {
+
+    private static final String HOST = "pocketapi.48.cn";
+    // 构造参数允许的最小TTL，提前刷新窗口为其1/5
+    private static final long TTL_MS = 1000L;
+
+    private final FakeDns delegate = new FakeDns();
+    private final Queue<Runnable> refreshTasks = new ArrayDeque<>();
+
+    @Test
+    void cachesWithinTtl() throws Exception {
+        CachingDns dns = new CachingDns(delegate, refreshTasks::add, TTL_MS, 0);
+        delegate.answer(address(1));
+
+        assertEquals(address(1), dns.lookup(HOST));
+        assertEquals(address(1), dns.lookup(HOST));
+
+        assertEquals(1, delegate.calls.get());
+        assertEquals(0, refreshTasks.size());
+    }
+
+    @Test
+    void resolvesAgainOnRequestThreadAfterTtlWithoutStaleWindow() throws Exception {
+        CachingDns dns = new CachingDns(delegate, refreshTasks::add, TTL_MS, 0);
+        delegate.answer(address(1));
+        dns.lookup(HOST);
+
+        Thread.sleep(TTL_MS + 100);
+        delegate.answer(address(2));
+
+        assertEquals(address(2), dns.lookup(HOST));
+        assertEquals(2, delegate.calls.get());
+        assertEquals(0, refreshTasks.size());
+    }
+
+    @Test
+    void refreshesInBackgroundShortlyBeforeExpiry() throws Exception {
+        CachingDns dns = new CachingDns(delegate, refreshTasks::add, TTL_MS, 60000);
+        delegate.answer(address(1));
+        dns.lookup(HOST);
+
+        Thread.sleep(TTL_MS - 100);
+        delegate.answer(address(2));
+
+        assertEquals(address(1), dns.lookup(HOST));
+        assertEquals(1, refreshTasks.size());
+        runRefreshes();
+        assertEquals(address(2), dns.lookup(HOST));
+        assertEquals(2, delegate.calls.get());
+    }
+
+    @Test
+    void servesStaleAfterExpiryWhileRefreshing() throws Exception {
+        CachingDns dns = new CachingDns(delegate, refreshTasks::add, TTL_MS, 60000);
+        delegate.answer(address(1));
+        dns.lookup(HOST);
+
+        Thread.sleep(TTL_MS + 100);
+        delegate.answer(address(2));
+
+        assertEquals(address(1), dns.lookup(HOST));
+        // 刷新进行中的重复访问不再排队刷新
+        assertEquals(address(1), dns.lookup(HOST));
+        assertEquals(1, refreshTasks.size());
+        assertEquals(1, delegate.calls.get());
+
+        runRefreshes();
+        assertEquals(address(2), dns.lookup(HOST));
+    }
+
+    @Test
+    void keepsStaleAddressesWhenRefreshFails() throws Exception {
+        CachingDns dns = new CachingDns(delegate, refreshTasks::add, TTL_MS, 60000);
+        delegate.answer(address(1));
+        dns.lookup(HOST);
+
+        Thread.sleep(TTL_MS + 100);
+        delegate.fail();
+
+        assertEquals(address(1), dns.lookup(HOST));
+        runRefreshes();
+        assertEquals(address(1), dns.lookup(HOST));
+
+        // 失败的刷新结束后，下一次访问会再次尝试刷新
+        assertEquals(1, refreshTasks.size());
+        delegate.answer(address(2));
+        runRefreshes();
+        assertEquals(address(2), dns.lookup(HOST));
+    }
+
+    @Test
+    void resolvesAgainAfterStaleWindow() throws Exception {
+        CachingDns dns = new CachingDns(delegate, refreshTasks::add, TTL_MS, 100);
+        delegate.answer(address(1));
+        dns.lookup(HOST);
+
+        Thread.sleep(TTL_MS + 300);
+        delegate.fail();
+
+        assertThrows(UnknownHostException.class, () -> dns.lookup(HOST));
+        assertEquals(0, refreshTasks.size());
+    }
+
+    @Test
+    void firstLookupFailurePropagates() {
+        CachingDns dns = new CachingDns(delegate, refreshTasks::add, TTL_MS, 60000);
+        delegate.fail();
+
+        assertThrows(UnknownHostException.class, () -> dns.lookup(HOST));
+        assertEquals(0, dns.getCacheSize());
+    }
+
+    @Test
+    void invalidateForcesFreshLookup() throws Exception {
+        CachingDns dns = new CachingDns(delegate, refreshTasks::add, TTL_MS, 60000);
+        delegate.answer(address(1));
+        dns.lookup(HOST);
+
+        dns.invalidate(HOST);
+        delegate.answer(address(2));
+
+        assertEquals(address(2), dns.lookup(HOST));
+        assertEquals(2, delegate.calls.get());
+    }
+
+    private void runRefreshes() {
+        Runnable task;
+        while ((task = refreshTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static List<InetAddress> address(int last) throws UnknownHostException {
+        return Collections.singletonList(InetAddress.getByAddress(HOST, new byte[]{10, 0, 0, (byte) last}));
+    }
+
+    /**
+     * 可编程的解析器：返回预设地址或抛出UnknownHostException，并记录调用次数
+     */
+    private static final class FakeDns implements Dns {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile List<InetAddress> addresses;
+
+        void answer(List<InetAddress> addresses) {
+            this.addresses = addresses;
+        }
+
+        void fail() {
+            this.addresses = null;
+        }
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            calls.incrementAndGet();
+            List<InetAddress> result = addresses;
+            if (result == null) {
+                throw new UnknownHostException(hostname);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package net.luffy.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 去重日志：重启后重放、末尾记录损坏或截断、压缩保留每个key的最新记录，以及续接时间的上下限
+ */
+class DedupJournalTest {
+
+    // 构造参数允许的最小段记录数
+    private static final int SEGMENT_RECORDS = 1024;
+    private static final long RETENTION_MS = TimeUnit.HOURS.toMillis(1);
+    private static final String ROOM = "12345";
+
+    @TempDir
+    File directory;
+
+    private final List<DedupJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (DedupJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void replaysRecordsAfterReopen() {
+        long now = System.currentTimeMillis();
+        DedupJournal journal = open();
+        journal.record(DedupJournal.Source.POCKET48, ROOM, 1L, now - 2000);
+        journal.record(DedupJournal.Source.POCKET48, ROOM, 2L, now - 1000);
+        journal.record(DedupJournal.Source.DOUYIN, "user", DedupJournal.hash("aweme"), now);
+        journal.close();
+
+        DedupJournal reopened = open();
+        assertTrue(reopened.contains(DedupJournal.Source.POCKET48, ROOM, 1L));
+        assertTrue(reopened.contains(DedupJournal.Source.POCKET48, ROOM, 2L));
+        assertTrue(reopened.contains(DedupJournal.Source.DOUYIN, "user", DedupJournal.hash("aweme")));
+        // 相同key在不同来源下互不影响
+        assertFalse(reopened.contains(DedupJournal.Source.WEIBO, ROOM, 1L));
+        assertFalse(reopened.record(DedupJournal.Source.POCKET48, ROOM, 2L, now));
+
+        DedupJournal.Checkpoint checkpoint = reopened.latest(DedupJournal.Source.POCKET48, ROOM);
+        assertNotNull(checkpoint);
+        assertEquals(2L, checkpoint.getFingerprint());
+        assertEquals(now - 1000, checkpoint.getTime());
+    }
+
+    @Test
+    void stopsReplayAtTornLastRecordAndOverwritesIt() throws IOException {
+        long now = System.currentTimeMillis();
+        DedupJournal journal = open();
+        for (long fingerprint = 1; fingerprint <= 3; fingerprint++) {
+            journal.record(DedupJournal.Source.POCKET48, ROOM, fingerprint, now + fingerprint);
+        }
+        journal.close();
+
+        // 第三条记录写到一半崩溃：校验和未写入
+        try (RandomAccessFile file = new RandomAccessFile(segment(1), "rw")) {
+            file.seek(3L * DedupJournal.RECORD_SIZE - 4);
+            file.writeInt(0);
+        }
+
+        DedupJournal reopened = open();
+        assertTrue(reopened.contains(DedupJournal.Source.POCKET48, ROOM, 1L));
+        assertTrue(reopened.contains(DedupJournal.Source.POCKET48, ROOM, 2L));
+        assertFalse(reopened.contains(DedupJournal.Source.POCKET48, ROOM, 3L));
+        assertEquals(2L, reopened.latest(DedupJournal.Source.POCKET48, ROOM).getFingerprint());
+
+        // 新记录从损坏的位置继续写入，再次重启后可见
+        reopened.record(DedupJournal.Source.POCKET48, ROOM, 4L, now + 4);
+        reopened.close();
+        DedupJournal again = open();
+        assertTrue(again.contains(DedupJournal.Source.POCKET48, ROOM, 4L));
+        assertFalse(again.contains(DedupJournal.Source.POCKET48, ROOM, 3L));
+    }
+
+    @Test
+    void stopsReplayAtCorruptLastRecord() throws IOException {
+        long now = System.currentTimeMillis();
+        DedupJournal journal = open();
+        for (long fingerprint = 1; fingerprint <= 3; fingerprint++) {
+            journal.record(DedupJournal.Source.WEIBO, ROOM, fingerprint, now + fingerprint);
+        }
+        journal.close();
+
+        // 篡改第三条记录的时间字段，校验和不再匹配
+        try (RandomAccessFile file = new RandomAccessFile(segment(1), "rw")) {
+            file.seek(2L * DedupJournal.RECORD_SIZE + 16);
+            file.writeLong(now - 1);
+        }
+
+        DedupJournal reopened = open();
+        assertTrue(reopened.contains(DedupJournal.Source.WEIBO, ROOM, 2L));
+        assertFalse(reopened.contains(DedupJournal.Source.WEIBO, ROOM, 3L));
+        assertEquals(now + 2, reopened.latest(DedupJournal.Source.WEIBO, ROOM).getTime());
+    }
+
+    @Test
+    void replaysTruncatedSegmentAndContinuesInNewSegment() throws IOException {
+        long now = System.currentTimeMillis();
+        DedupJournal journal = open();
+        for (long fingerprint = 1; fingerprint <= 3; fingerprint++) {
+            journal.record(DedupJournal.Source.POCKET48, ROOM, fingerprint, now + fingerprint);
+        }
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(segment(1), "rw")) {
+            file.setLength(2L * DedupJournal.RECORD_SIZE + 10);
+        }
+
+        DedupJournal reopened = open();
+        assertTrue(reopened.contains(DedupJournal.Source.POCKET48, ROOM, 2L));
+        assertFalse(reopened.contains(DedupJournal.Source.POCKET48, ROOM, 3L));
+
+        reopened.record(DedupJournal.Source.POCKET48, ROOM, 5L, now + 5);
+        reopened.close();
+        assertTrue(segment(2).exists());
+
+        DedupJournal again = open();
+        assertTrue(again.contains(DedupJournal.Source.POCKET48, ROOM, 2L));
+        assertTrue(again.contains(DedupJournal.Source.POCKET48, ROOM, 5L));
+        assertEquals(5L, again.latest(DedupJournal.Source.POCKET48, ROOM).getFingerprint());
+    }
+
+    @Test
+    void compactionKeepsLatestRecordOfEachKey() throws Exception {
+        long now = System.currentTimeMillis();
+        long expired = now - 2 * RETENTION_MS;
+        DedupJournal journal = open();
+        journal.record(DedupJournal.Source.POCKET48, "a", 1L, expired);
+        journal.record(DedupJournal.Source.POCKET48, "a", 2L, expired + 1);
+        journal.record(DedupJournal.Source.POCKET48, "a", 3L, expired + 2);
+        journal.record(DedupJournal.Source.WEIBO, "b", 7L, expired);
+        // 写满两段后封存段数超过上限，触发后台压缩
+        for (long fingerprint = 0; fingerprint < 2L * SEGMENT_RECORDS + 8; fingerprint++) {
+            journal.record(DedupJournal.Source.DOUYIN, "c", fingerprint, now);
+        }
+        waitForCompaction(journal);
+        journal.close();
+
+        DedupJournal reopened = open();
+        assertFalse(reopened.contains(DedupJournal.Source.POCKET48, "a", 1L));
+        assertFalse(reopened.contains(DedupJournal.Source.POCKET48, "a", 2L));
+        assertTrue(reopened.contains(DedupJournal.Source.POCKET48, "a", 3L));
+        assertEquals(3L, reopened.latest(DedupJournal.Source.POCKET48, "a").getFingerprint());
+        assertTrue(reopened.contains(DedupJournal.Source.WEIBO, "b", 7L));
+        assertEquals(expired, reopened.latest(DedupJournal.Source.WEIBO, "b").getTime());
+        for (long fingerprint = 0; fingerprint < 2L * SEGMENT_RECORDS + 8; fingerprint++) {
+            assertTrue(reopened.contains(DedupJournal.Source.DOUYIN, "c", fingerprint));
+        }
+        assertFalse(segment(2).exists());
+    }
+
+    @Test
+    void resumeTimeIsBoundedByCatchupWindowAndNow() {
+        DedupJournal journal = new DedupJournal(null, SEGMENT_RECORDS, 2, RETENTION_MS);
+        long now = System.currentTimeMillis();
+        long catchup = TimeUnit.MINUTES.toMillis(30);
+
+        assertNull(journal.latest(DedupJournal.Source.POCKET48, ROOM));
+        assertEquals(now, journal.resumeTime(DedupJournal.Source.POCKET48, ROOM, now, catchup));
+
+        journal.record(DedupJournal.Source.POCKET48, ROOM, 1L, now - TimeUnit.MINUTES.toMillis(5));
+        assertEquals(now - TimeUnit.MINUTES.toMillis(5), journal.resumeTime(DedupJournal.Source.POCKET48, ROOM, now, catchup));
+
+        // 停机时间超过回溯窗口时最多回溯catchup
+        journal.record(DedupJournal.Source.POCKET48, "old", 1L, now - TimeUnit.HOURS.toMillis(2));
+        assertEquals(now - catchup, journal.resumeTime(DedupJournal.Source.POCKET48, "old", now, catchup));
+
+        // 时钟回拨导致记录时间晚于当前时间时不超过now
+        journal.record(DedupJournal.Source.POCKET48, "future", 1L, now + 60000);
+        assertEquals(now, journal.resumeTime(DedupJournal.Source.POCKET48, "future", now, catchup));
+    }
+
+    private DedupJournal open() {
+        DedupJournal journal = new DedupJournal(directory, SEGMENT_RECORDS, 2, RETENTION_MS);
+        opened.add(journal);
+        return journal;
+    }
+
+    private File segment(long sequence) {
+        return new File(directory, String.format("segment-%08d.dj", sequence));
+    }
+
+    private static void waitForCompaction(DedupJournal journal) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (journal.getCompactionCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1L, journal.getCompactionCount());
+    }
+}
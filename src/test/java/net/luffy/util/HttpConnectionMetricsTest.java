@@ -0,0 +1,111 @@
+package net.luffy.util;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地TLS服务端上的HTTP/2协商与连接复用指标
+ */
+class HttpConnectionMetricsTest {
+
+    private MockWebServer server;
+    private HttpConnectionMetrics metrics;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String localhost = InetAddress.getByName("localhost").getCanonicalHostName();
+        HeldCertificate certificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName(localhost)
+                .build();
+        HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(certificate)
+                .build();
+        HandshakeCertificates clientCertificates = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(certificate.certificate())
+                .build();
+
+        server = new MockWebServer();
+        server.useHttps(serverCertificates.sslSocketFactory(), false);
+
+        metrics = new HttpConnectionMetrics();
+        client = new OkHttpClient.Builder()
+                .protocols(UnifiedHttpClient.SUPPORTED_PROTOCOLS)
+                .eventListenerFactory(metrics)
+                .sslSocketFactory(clientCertificates.sslSocketFactory(), clientCertificates.trustManager())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    @Test
+    void negotiatesHttp2AndReusesConnection() throws Exception {
+        server.start();
+        server.enqueue(new MockResponse().setBody("a"));
+        server.enqueue(new MockResponse().setBody("b"));
+
+        assertEquals(Protocol.HTTP_2, execute());
+        assertEquals(Protocol.HTTP_2, execute());
+
+        assertEquals(1, metrics.getNewConnectionCount());
+        assertEquals(1, metrics.getReusedConnectionCount());
+        assertEquals(1, metrics.getTlsHandshakeCount());
+        assertEquals(0.5, metrics.getConnectionReuseRate(), 1e-9);
+        assertTrue(metrics.getStats().contains("h2=2"));
+        assertTrue(metrics.getLastUsedTime(server.url("/").host()) > 0);
+    }
+
+    @Test
+    void fallsBackToHttp11WhenServerOffersOnlyHttp11() throws Exception {
+        server.setProtocols(Collections.singletonList(Protocol.HTTP_1_1));
+        server.start();
+        server.enqueue(new MockResponse().setBody("a"));
+
+        assertEquals(Protocol.HTTP_1_1, execute());
+        assertEquals(1, metrics.getTlsHandshakeCount());
+        assertTrue(metrics.getStats().contains("http/1.1=1"));
+    }
+
+    @Test
+    void resetClearsCounters() throws Exception {
+        server.start();
+        server.enqueue(new MockResponse().setBody("a"));
+        execute();
+
+        metrics.reset();
+
+        assertEquals(0, metrics.getNewConnectionCount());
+        assertEquals(0, metrics.getTlsHandshakeCount());
+        assertEquals(0.0, metrics.getConnectionReuseRate(), 1e-9);
+    }
+
+    private Protocol execute() throws IOException {
+        Request request = new Request.Builder().url(server.url("/")).build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(200, response.code());
+            response.body().string();
+            return response.protocol();
+        }
+    }
+}
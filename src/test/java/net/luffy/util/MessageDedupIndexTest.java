@@ -0,0 +1,100 @@
+package net.luffy.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 消息去重索引：两代表交替时始终保留最近至少capacity条指纹，更早的整代丢弃
+ */
+class MessageDedupIndexTest {
+
+    private static final int CAPACITY = 32;
+
+    @Test
+    void keepsAtLeastCapacityMostRecentFingerprintsAcrossSwaps() {
+        MessageDedupIndex index = new MessageDedupIndex(CAPACITY);
+
+        for (int added = 1; added <= CAPACITY * 5; added++) {
+            assertTrue(index.add(fingerprint(added)));
+            int expectedRecent = Math.min(added, CAPACITY);
+            for (int i = added - expectedRecent + 1; i <= added; i++) {
+                assertTrue(index.contains(fingerprint(i)), "第" + added + "条写入后丢失了第" + i + "条");
+            }
+            assertTrue(index.size() >= expectedRecent);
+            assertTrue(index.size() <= 2 * CAPACITY);
+        }
+    }
+
+    @Test
+    void dropsOldestGenerationAfterSecondSwap() {
+        MessageDedupIndex index = new MessageDedupIndex(CAPACITY);
+        for (int i = 1; i <= CAPACITY; i++) {
+            index.add(fingerprint(i));
+        }
+        // 第一次交替后第一代仍可查到
+        assertTrue(index.contains(fingerprint(1)));
+        assertEquals(CAPACITY, index.size());
+
+        for (int i = CAPACITY + 1; i <= 2 * CAPACITY; i++) {
+            index.add(fingerprint(i));
+        }
+        for (int i = 1; i <= CAPACITY; i++) {
+            assertFalse(index.contains(fingerprint(i)));
+        }
+        for (int i = CAPACITY + 1; i <= 2 * CAPACITY; i++) {
+            assertTrue(index.contains(fingerprint(i)));
+        }
+    }
+
+    @Test
+    void duplicateInPreviousGenerationIsNotAddedAgain() {
+        MessageDedupIndex index = new MessageDedupIndex(CAPACITY);
+        for (int i = 1; i <= CAPACITY; i++) {
+            index.add(fingerprint(i));
+        }
+        int sizeAfterSwap = index.size();
+
+        assertFalse(index.add(fingerprint(1)));
+        assertEquals(sizeAfterSwap, index.size());
+
+        assertTrue(index.add(fingerprint(CAPACITY + 1)));
+        assertFalse(index.add(fingerprint(CAPACITY + 1)));
+    }
+
+    @Test
+    void zeroFingerprintIsStored() {
+        MessageDedupIndex index = new MessageDedupIndex(CAPACITY);
+
+        assertFalse(index.contains(0L));
+        assertTrue(index.add(0L));
+        assertTrue(index.contains(0L));
+        assertFalse(index.add(0L));
+    }
+
+    @Test
+    void capacityHasLowerBound() {
+        MessageDedupIndex index = new MessageDedupIndex(1);
+        for (int i = 1; i <= 16; i++) {
+            index.add(fingerprint(i));
+        }
+
+        // 最小容量为16：写满16条才交替，16条都可查到
+        for (int i = 1; i <= 16; i++) {
+            assertTrue(index.contains(fingerprint(i)));
+        }
+        assertEquals(16, index.size());
+    }
+
+    /**
+     * 与消息ID指纹一样充分混合的64位值
+     */
+    private static long fingerprint(long value) {
+        long z = value * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
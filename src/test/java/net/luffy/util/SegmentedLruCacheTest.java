@@ -0,0 +1,102 @@
+package net.luffy.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 分段LRU缓存：试用段晋升、保护段溢出降级，以及淘汰总是从试用段开始
+ */
+class SegmentedLruCacheTest {
+
+    // 总数5，保护段上限4
+    private static final int MAX_ENTRIES = 5;
+
+    private final SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(MAX_ENTRIES);
+
+    @Test
+    void evictsEldestProbationEntryWhenFull() {
+        for (int i = 1; i <= MAX_ENTRIES + 1; i++) {
+            cache.put("k" + i, "v" + i);
+        }
+
+        assertEquals(MAX_ENTRIES, cache.size());
+        assertEquals(1L, cache.getEvictions());
+        assertNull(cache.get("k1"));
+        assertEquals("v6", cache.get("k6"));
+    }
+
+    @Test
+    void promotedEntrySurvivesScanOfOneTimeKeys() {
+        cache.put("hot", "v");
+        assertEquals("v", cache.get("hot"));
+
+        // 只出现一次的条目只在试用段内互相淘汰
+        for (int i = 0; i < 100; i++) {
+            cache.put("scan" + i, "s" + i);
+        }
+
+        assertEquals("v", cache.get("hot"));
+        assertEquals(MAX_ENTRIES, cache.size());
+        assertEquals(96L, cache.getEvictions());
+    }
+
+    @Test
+    void protectedOverflowDemotesEldestToProbation() {
+        for (int i = 1; i <= MAX_ENTRIES; i++) {
+            cache.put("k" + i, "v" + i);
+            cache.get("k" + i);
+        }
+        // 第5次晋升超出保护段上限，最久未用的k1降回试用段，此时未淘汰任何条目
+        assertEquals(MAX_ENTRIES, cache.size());
+        assertEquals(0L, cache.getEvictions());
+
+        // 新条目挤出试用段中最旧的k1，保护段不受影响
+        cache.put("new", "n");
+        assertEquals(1L, cache.getEvictions());
+        assertNull(cache.get("k1"));
+        for (int i = 2; i <= MAX_ENTRIES; i++) {
+            assertEquals("v" + i, cache.get("k" + i));
+        }
+    }
+
+    @Test
+    void demotedEntryCanBePromotedAgain() {
+        for (int i = 1; i <= MAX_ENTRIES; i++) {
+            cache.put("k" + i, "v" + i);
+            cache.get("k" + i);
+        }
+
+        // k1在试用段中再次命中后重新晋升，保护段中最久未用的k2被降级
+        assertEquals("v1", cache.get("k1"));
+        cache.put("new", "n");
+        assertNull(cache.get("k2"));
+        assertEquals("v1", cache.get("k1"));
+    }
+
+    @Test
+    void putOnProtectedKeyReplacesValueInPlace() {
+        cache.put("k", "old");
+        cache.get("k");
+        cache.put("k", "new");
+
+        assertEquals(1, cache.size());
+        assertEquals("new", cache.get("k"));
+    }
+
+    @Test
+    void countsHitsMissesAndRemoval() {
+        cache.put("a", "1");
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+        cache.remove("a");
+        cache.get("a");
+
+        assertEquals(2L, cache.getHits());
+        assertEquals(2L, cache.getMisses());
+        assertEquals(50.0, cache.getHitRate(), 1e-9);
+        assertEquals(0, cache.size());
+    }
+}
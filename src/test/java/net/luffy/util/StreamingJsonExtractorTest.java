@@ -0,0 +1,112 @@
+package net.luffy.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式JSON字段提取：按路径和数组下标读取、找到所有字段后提前停止、转义引号及非法输入
+ */
+class StreamingJsonExtractorTest {
+
+    private static final String MESSAGE_LIST = "{\"status\":200,\"message\":\"success\","
+            + "\"content\":{\"message\":[{\"msgTime\":1700000000001,\"msgType\":\"TEXT\"},"
+            + "{\"msgTime\":1700000000002,\"msgType\":\"IMAGE\"}]},\"success\":true}";
+
+    @Test
+    void extractsValuesByPointerAndArrayIndex() {
+        StreamingJsonExtractor extractor = StreamingJsonExtractor.compile(
+                "/status", "/content/message/1/msgTime", "/content/message/0/msgType", "/success", "/missing");
+
+        StreamingJsonExtractor.Result result = extractor.extract(MESSAGE_LIST);
+
+        assertEquals(200, result.getInt(0));
+        assertEquals(1700000000002L, result.getLong(1));
+        assertEquals("TEXT", result.getStr(2));
+        assertEquals(Boolean.TRUE, result.getBool(3));
+        assertFalse(result.isFound(4));
+        assertNull(result.get(4));
+        assertFalse(result.isMalformed());
+    }
+
+    @Test
+    void stopsReadingOnceAllFieldsAreFound() {
+        StreamingJsonExtractor extractor = StreamingJsonExtractor.compile("/status", "/message");
+
+        // 所需字段之后的内容不完整，提前停止时不会读到语法错误
+        StreamingJsonExtractor.Result result = extractor.extract("{\"status\":200,\"message\":\"ok\",\"content\":{\"message\":[{");
+
+        assertEquals(200, result.getInt(0));
+        assertEquals("ok", result.getStr(1));
+        assertFalse(result.isMalformed());
+    }
+
+    @Test
+    void skipsUnrelatedSubtreesWithSameFieldNames() {
+        StreamingJsonExtractor extractor = StreamingJsonExtractor.compile("/content/status");
+
+        StreamingJsonExtractor.Result result = extractor.extract(
+                "{\"other\":{\"content\":{\"status\":1}},\"content\":{\"status\":2}}");
+
+        assertEquals(2L, result.getLong(0));
+    }
+
+    @Test
+    void handlesEscapedQuotesInStrings() {
+        String json = "{\"text\":\"say \\\"hi\\\" {\\\"status\\\":1}\",\"status\":2}";
+
+        StreamingJsonExtractor.Result result = StreamingJsonExtractor.compile("/text", "/status").extract(json);
+        assertEquals("say \"hi\" {\"status\":1}", result.getStr(0));
+        assertEquals(2L, result.getLong(1));
+
+        // 字符串内容中形似字段的文本不参与匹配
+        assertEquals(2L, StreamingJsonExtractor.anyDepth("status").extract(json).getLong(0));
+        assertFalse(StreamingJsonExtractor.containsFieldValue(json, "status", "1"));
+        assertTrue(StreamingJsonExtractor.containsFieldValue(json, "status", "2"));
+    }
+
+    @Test
+    void anyDepthReturnsFirstScalarOccurrence() {
+        StreamingJsonExtractor extractor = StreamingJsonExtractor.anyDepth("id", "name", "absent");
+
+        StreamingJsonExtractor.Result result = extractor.extract(
+                "{\"id\":{\"nested\":true},\"user\":{\"id\":\"42\",\"name\":null},\"id2\":1,\"tail\":{\"id\":\"43\"}}");
+
+        // 对象值不计入，继续向内找到第一个标量
+        assertEquals("42", result.getStr(0));
+        assertTrue(result.isFound(1));
+        assertNull(result.get(1));
+        assertFalse(result.isFound(2));
+    }
+
+    @Test
+    void keepsIntegersOutsideLongRangeAsText() {
+        StreamingJsonExtractor.Result result = StreamingJsonExtractor.compile("/big")
+                .extract("{\"big\":123456789012345678901234567890}");
+
+        assertEquals("123456789012345678901234567890", result.getStr(0));
+        assertNull(result.getLong(0));
+    }
+
+    @Test
+    void reportsMalformedInputAndKeepsFieldsReadSoFar() {
+        StreamingJsonExtractor extractor = StreamingJsonExtractor.compile("/status", "/content/x");
+
+        StreamingJsonExtractor.Result truncated = extractor.extract("{\"status\":500,\"content\":{\"y\":");
+        assertTrue(truncated.isMalformed());
+        assertEquals(500, truncated.getInt(0));
+        assertFalse(truncated.isFound(1));
+
+        StreamingJsonExtractor.Result html = extractor.extract("<html>502 Bad Gateway</html>");
+        assertTrue(html.isMalformed());
+        assertFalse(html.isFound(0));
+
+        StreamingJsonExtractor.Result empty = extractor.extract("");
+        assertFalse(empty.isMalformed());
+        assertFalse(empty.isFound(0));
+        assertFalse(StreamingJsonExtractor.containsFieldValue("{\"status\":", "status", "1"));
+    }
+}
@@ -0,0 +1,98 @@
+package net.luffy.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 时间戳环形缓冲区：写满后覆盖最旧的时间戳，间隔统计只覆盖当前保留的窗口
+ */
+class TimestampRingBufferTest {
+
+    @Test
+    void emptyBufferUsesDefaults() {
+        TimestampRingBuffer buffer = new TimestampRingBuffer(4);
+
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.size());
+        assertEquals(-1L, buffer.latest(-1L));
+        assertEquals(0, buffer.toArray().length);
+        assertEquals(0, buffer.gapStats().getGapCount());
+        assertEquals(0L, buffer.gapStats().getAverageGap());
+        assertEquals(0, buffer.countGapsAbove(4, 0));
+    }
+
+    @Test
+    void keepsMostRecentTimestampsAfterWraparound() {
+        TimestampRingBuffer buffer = new TimestampRingBuffer(4);
+        for (long t = 1; t <= 10; t++) {
+            buffer.append(t * 100);
+        }
+
+        assertFalse(buffer.isEmpty());
+        assertEquals(4, buffer.size());
+        assertEquals(1000L, buffer.latest(-1L));
+        assertArrayEquals(new long[]{700, 800, 900, 1000}, buffer.toArray());
+    }
+
+    @Test
+    void gapStatsCoverOnlyRetainedWindow() {
+        TimestampRingBuffer buffer = new TimestampRingBuffer(4);
+        // 被覆盖的前两个时间戳之间有一个很大的间隔，不应计入
+        buffer.append(0);
+        buffer.append(1_000_000);
+        buffer.append(1_000_100);
+        buffer.append(1_000_300);
+        buffer.append(1_000_600);
+        buffer.append(1_001_000);
+
+        TimestampRingBuffer.GapStats stats = buffer.gapStats();
+        assertEquals(3, stats.getGapCount());
+        assertEquals(400L, stats.getMaxGap());
+        // (200 + 300 + 400) / 3
+        assertEquals(300L, stats.getAverageGap());
+    }
+
+    @Test
+    void gapsAreAbsoluteForOutOfOrderTimestamps() {
+        TimestampRingBuffer buffer = new TimestampRingBuffer(8);
+        buffer.append(1000);
+        buffer.append(400);
+        buffer.append(1200);
+
+        TimestampRingBuffer.GapStats stats = buffer.gapStats();
+        assertEquals(2, stats.getGapCount());
+        assertEquals(800L, stats.getMaxGap());
+        assertEquals(700L, stats.getAverageGap());
+    }
+
+    @Test
+    void countsGapsAboveThresholdWithinWindow() {
+        TimestampRingBuffer buffer = new TimestampRingBuffer(5);
+        long[] times = {0, 50, 500, 550, 2000, 2010, 2020};
+        for (long time : times) {
+            buffer.append(time);
+        }
+        // 保留500, 550, 2000, 2010, 2020
+        assertEquals(1, buffer.countGapsAbove(5, 100));
+        // 最近3个：2000, 2010, 2020
+        assertEquals(0, buffer.countGapsAbove(3, 100));
+        assertEquals(2, buffer.countGapsAbove(3, 5));
+        // 窗口大于容量时按容量计算
+        assertEquals(1, buffer.countGapsAbove(100, 100));
+    }
+
+    @Test
+    void capacityHasLowerBound() {
+        TimestampRingBuffer buffer = new TimestampRingBuffer(0);
+        buffer.append(1);
+        buffer.append(2);
+        buffer.append(3);
+
+        assertArrayEquals(new long[]{2, 3}, buffer.toArray());
+        assertEquals(1, buffer.gapStats().getGapCount());
+    }
+}
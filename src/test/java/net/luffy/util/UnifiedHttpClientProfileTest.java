@@ -0,0 +1,98 @@
+package net.luffy.util;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 超时配置档客户端：各档位只构建一次，并与主客户端共享连接池、调度器和拦截器链
+ */
+class UnifiedHttpClientProfileTest {
+
+    private MockWebServer server;
+    private OkHttpClient base;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        base = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(4, 1, TimeUnit.MINUTES))
+                .dispatcher(new Dispatcher())
+                .addInterceptor(chain -> chain.proceed(chain.request()))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+        base.dispatcher().executorService().shutdown();
+        base.connectionPool().evictAll();
+    }
+
+    @Test
+    void everyProfileSharesPoolDispatcherAndInterceptors() {
+        Map<UnifiedHttpClient.TimeoutProfile, OkHttpClient> clients = UnifiedHttpClient.createProfileClients(base);
+
+        assertEquals(UnifiedHttpClient.TimeoutProfile.values().length, clients.size());
+        for (OkHttpClient client : clients.values()) {
+            assertSame(base.connectionPool(), client.connectionPool());
+            assertSame(base.dispatcher(), client.dispatcher());
+            assertEquals(base.interceptors(), client.interceptors());
+        }
+    }
+
+    @Test
+    void profileTimeoutsFollowConfig() {
+        MonitorConfig config = MonitorConfig.getInstance();
+        Map<UnifiedHttpClient.TimeoutProfile, OkHttpClient> clients = UnifiedHttpClient.createProfileClients(base);
+
+        OkHttpClient pocket48 = clients.get(UnifiedHttpClient.TimeoutProfile.POCKET48);
+        assertEquals(Math.max(500, Math.min(config.getPocket48ConnectTimeout(), 30000)), pocket48.connectTimeoutMillis());
+        assertEquals(Math.max(2000, Math.min(config.getPocket48ReadTimeout(), 120000)), pocket48.readTimeoutMillis());
+
+        OkHttpClient weibo = clients.get(UnifiedHttpClient.TimeoutProfile.WEIBO);
+        assertEquals(Math.max(500, Math.min(config.getWeiboConnectTimeout(), 30000)), weibo.connectTimeoutMillis());
+        assertEquals(Math.max(2000, Math.min(config.getWeiboReadTimeout(), 120000)), weibo.readTimeoutMillis());
+    }
+
+    @Test
+    void requestsThroughDifferentProfilesReuseOneConnection() throws Exception {
+        Map<UnifiedHttpClient.TimeoutProfile, OkHttpClient> clients = UnifiedHttpClient.createProfileClients(base);
+        server.enqueue(new MockResponse().setBody("a"));
+        server.enqueue(new MockResponse().setBody("b"));
+        server.enqueue(new MockResponse().setBody("c"));
+
+        execute(clients.get(UnifiedHttpClient.TimeoutProfile.POCKET48));
+        execute(clients.get(UnifiedHttpClient.TimeoutProfile.WEIBO));
+        execute(clients.get(UnifiedHttpClient.TimeoutProfile.MEDIA));
+
+        // 同一连接上的请求序号递增，新连接从0开始
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+        assertEquals(2, server.takeRequest().getSequenceNumber());
+        assertEquals(1, base.connectionPool().connectionCount());
+    }
+
+    private void execute(OkHttpClient client) throws IOException {
+        Request request = new Request.Builder().url(server.url("/")).build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(200, response.code());
+            response.body().string();
+        }
+    }
+}